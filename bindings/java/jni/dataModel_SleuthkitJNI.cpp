@@ -23,6 +23,7 @@
 #include <string>
 #include <algorithm>
 #include <sstream>
+#include <new>
 
 using std::string;
 using std::vector;
@@ -1530,6 +1531,29 @@ copyBufToByteArray(JNIEnv * env, jbyteArray jbuf, const char *buf, ssize_t len)
     return len;
 }
 
+/** get the region of a direct java.nio buffer that native code can read into.
+ * @param env JNI env
+ * @param jbuf direct buffer to read into
+ * @param buf_offset offset in the buffer to start writing at
+ * @param len number of bytes that will be written
+ * @returns pointer into the buffer or NULL if there is an error (exception is set)
+ */
+static char *
+getDirectBufferRegion(JNIEnv * env, jobject jbuf, jint buf_offset, jlong len)
+{
+    char *base = (char *) env->GetDirectBufferAddress(jbuf);
+    if (base == NULL) {
+        setThrowTskCoreError(env, "Read buffer is not a direct buffer");
+        return NULL;
+    }
+    jlong capacity = env->GetDirectBufferCapacity(jbuf);
+    if (buf_offset < 0 || len < 0 || (jlong) buf_offset + len > capacity) {
+        setThrowTskCoreError(env, "Read length exceeds the capacity of the direct buffer");
+        return NULL;
+    }
+    return base + buf_offset;
+}
+
 /*
  * Read bytes from the given image
  * @return number of bytes read from the image, -1 on error
@@ -1787,6 +1811,340 @@ Java_org_sleuthkit_datamodel_SleuthkitJNI_readFsNat(JNIEnv * env,
 }
 
 
+/*
+ * Read bytes from the given image straight into a direct buffer
+ * @return number of bytes read from the image, -1 on error
+ * @param env pointer to java environment this was called from
+ * @param obj the java object this was called from
+ * @param a_img_info the pointer to the image object
+ * @param jbuf direct buffer to read to
+ * @param buf_offset offset in the buffer to start writing at
+ * @param offset the offset in bytes to start at
+ * @param len number of bytes to read
+ */
+JNIEXPORT jint JNICALL
+Java_org_sleuthkit_datamodel_SleuthkitJNI_readImgDirectNat(JNIEnv * env,
+    jclass obj, jlong a_img_info, jobject jbuf, jint buf_offset, jlong offset, jlong len)
+{
+    TSK_IMG_INFO *img_info = castImgInfo(env, a_img_info);
+    if (img_info == 0) {
+        //exception already set
+        return -1;
+    }
+
+    char *buf = getDirectBufferRegion(env, jbuf, buf_offset, len);
+    if (buf == NULL) {
+        //exception already set
+        return -1;
+    }
+
+    ssize_t bytesread =
+        tsk_img_read(img_info, (TSK_OFF_T) offset, buf, (size_t) len);
+    if (bytesread == -1) {
+        setThrowTskCoreError(env, tsk_error_get());
+        return -1;
+    }
+    return (jint)bytesread;
+}
+
+
+/** read a list of image ranges back to back into one buffer.
+ * @param env JNI env
+ * @param img_info image to read from
+ * @param buf buffer to read into, large enough for the sum of the lengths
+ * @param offs byte offsets of the ranges in the image
+ * @param lens lengths of the ranges in bytes
+ * @param count number of ranges
+ * @returns number of bytes read, which stops at the first short read, or -1 on error (exception is set)
+ */
+static ssize_t
+readImgRanges(JNIEnv * env, TSK_IMG_INFO * img_info, char *buf,
+    const jlong * offs, const jlong * lens, jsize count)
+{
+    ssize_t total = 0;
+    for (jsize i = 0; i < count; i++) {
+        if (lens[i] == 0) {
+            continue;
+        }
+        ssize_t bytesread =
+            tsk_img_read(img_info, (TSK_OFF_T) offs[i], buf + total,
+            (size_t) lens[i]);
+        if (bytesread == -1) {
+            setThrowTskCoreError(env, tsk_error_get());
+            return -1;
+        }
+        total += bytesread;
+        if (bytesread < lens[i]) {
+            break;
+        }
+    }
+    return total;
+}
+
+/** get the elements of the range arrays passed to the scatter/gather reads and sum up their lengths.
+ * @param env JNI env
+ * @param offsets byte offsets of the ranges in the image
+ * @param lengths lengths of the ranges in bytes
+ * @param offs set to the elements of offsets, to be released with JNI_ABORT
+ * @param lens set to the elements of lengths, to be released with JNI_ABORT
+ * @param count set to the number of ranges
+ * @returns the sum of the lengths or -1 on error (exception is set and no elements are held)
+ */
+static jlong
+getImgRanges(JNIEnv * env, jlongArray offsets, jlongArray lengths,
+    jlong ** offs, jlong ** lens, jsize * count)
+{
+    *count = env->GetArrayLength(offsets);
+    if (env->GetArrayLength(lengths) != *count) {
+        setThrowTskCoreError(env, "Range offsets and lengths differ in size");
+        return -1;
+    }
+    *offs = env->GetLongArrayElements(offsets, NULL);
+    if (*offs == NULL) {
+        return -1;
+    }
+    *lens = env->GetLongArrayElements(lengths, NULL);
+    if (*lens == NULL) {
+        env->ReleaseLongArrayElements(offsets, *offs, JNI_ABORT);
+        return -1;
+    }
+
+    jlong total = 0;
+    for (jsize i = 0; i < *count; i++) {
+        if ((*offs)[i] < 0 || (*lens)[i] < 0 || (*lens)[i] > INT32_MAX - total) {
+            env->ReleaseLongArrayElements(offsets, *offs, JNI_ABORT);
+            env->ReleaseLongArrayElements(lengths, *lens, JNI_ABORT);
+            setThrowTskCoreError(env, "Invalid image range");
+            return -1;
+        }
+        total += (*lens)[i];
+    }
+    return total;
+}
+
+/*
+ * Read a list of ranges of the given image back to back into an array
+ * @return number of bytes read from the image, -1 on error
+ * @param env pointer to java environment this was called from
+ * @param obj the java object this was called from
+ * @param a_img_info the pointer to the image object
+ * @param jbuf buffer to read to
+ * @param buf_offset offset in the buffer to start writing at
+ * @param offsets the offsets in bytes of the ranges in the image
+ * @param lengths the lengths in bytes of the ranges
+ */
+JNIEXPORT jint JNICALL
+Java_org_sleuthkit_datamodel_SleuthkitJNI_readImgRangesNat(JNIEnv * env,
+    jclass obj, jlong a_img_info, jbyteArray jbuf, jint buf_offset,
+    jlongArray offsets, jlongArray lengths)
+{
+    TSK_IMG_INFO *img_info = castImgInfo(env, a_img_info);
+    if (img_info == 0) {
+        //exception already set
+        return -1;
+    }
+
+    jlong *offs;
+    jlong *lens;
+    jsize count;
+    jlong len = getImgRanges(env, offsets, lengths, &offs, &lens, &count);
+    if (len == -1) {
+        //exception already set
+        return -1;
+    }
+    if (buf_offset < 0 || (jlong) buf_offset + len > env->GetArrayLength(jbuf)) {
+        env->ReleaseLongArrayElements(offsets, offs, JNI_ABORT);
+        env->ReleaseLongArrayElements(lengths, lens, JNI_ABORT);
+        setThrowTskCoreError(env, "Read length exceeds the size of the buffer");
+        return -1;
+    }
+
+    //use fixed size stack-allocated buffer if possible
+    char fixed_buf [FIXED_BUF_SIZE];
+
+    char * buf = fixed_buf;
+    bool dynBuf = false;
+    if (len > FIXED_BUF_SIZE) {
+        dynBuf = true;
+        buf = (char *) tsk_malloc((size_t) len);
+        if (buf == NULL) {
+            env->ReleaseLongArrayElements(offsets, offs, JNI_ABORT);
+            env->ReleaseLongArrayElements(lengths, lens, JNI_ABORT);
+            setThrowTskCoreError(env);
+            return -1;
+        }
+    }
+
+    ssize_t bytesread = readImgRanges(env, img_info, buf, offs, lens, count);
+    env->ReleaseLongArrayElements(offsets, offs, JNI_ABORT);
+    env->ReleaseLongArrayElements(lengths, lens, JNI_ABORT);
+    if (bytesread > 0) {
+        env->SetByteArrayRegion(jbuf, buf_offset, (jsize) bytesread, (jbyte *) buf);
+    }
+    if (dynBuf) {
+        free(buf);
+    }
+    return (jint)bytesread;
+}
+
+/*
+ * Read a list of ranges of the given image back to back into a direct buffer
+ * @return number of bytes read from the image, -1 on error
+ * @param env pointer to java environment this was called from
+ * @param obj the java object this was called from
+ * @param a_img_info the pointer to the image object
+ * @param jbuf direct buffer to read to
+ * @param buf_offset offset in the buffer to start writing at
+ * @param offsets the offsets in bytes of the ranges in the image
+ * @param lengths the lengths in bytes of the ranges
+ */
+JNIEXPORT jint JNICALL
+Java_org_sleuthkit_datamodel_SleuthkitJNI_readImgRangesDirectNat(JNIEnv * env,
+    jclass obj, jlong a_img_info, jobject jbuf, jint buf_offset,
+    jlongArray offsets, jlongArray lengths)
+{
+    TSK_IMG_INFO *img_info = castImgInfo(env, a_img_info);
+    if (img_info == 0) {
+        //exception already set
+        return -1;
+    }
+
+    jlong *offs;
+    jlong *lens;
+    jsize count;
+    jlong len = getImgRanges(env, offsets, lengths, &offs, &lens, &count);
+    if (len == -1) {
+        //exception already set
+        return -1;
+    }
+
+    char *buf = getDirectBufferRegion(env, jbuf, buf_offset, len);
+    if (buf == NULL) {
+        env->ReleaseLongArrayElements(offsets, offs, JNI_ABORT);
+        env->ReleaseLongArrayElements(lengths, lens, JNI_ABORT);
+        //exception already set
+        return -1;
+    }
+
+    ssize_t bytesread = readImgRanges(env, img_info, buf, offs, lens, count);
+    env->ReleaseLongArrayElements(offsets, offs, JNI_ABORT);
+    env->ReleaseLongArrayElements(lengths, lens, JNI_ABORT);
+    return (jint)bytesread;
+}
+
+
+/*
+ * Read bytes from the given volume system straight into a direct buffer
+ * @return number of bytes read from the volume system, -1 on error
+ * @param env pointer to java environment this was called from
+ * @param obj the java object this was called from
+ * @param a_vs_info the pointer to the volume system object
+ * @param jbuf direct buffer to read to
+ * @param buf_offset offset in the buffer to start writing at
+ * @param offset the offset in bytes to start at
+ * @param len number of bytes to read
+ */
+JNIEXPORT jint JNICALL
+Java_org_sleuthkit_datamodel_SleuthkitJNI_readVsDirectNat(JNIEnv * env,
+    jclass obj, jlong a_vs_info, jobject jbuf, jint buf_offset, jlong offset, jlong len)
+{
+    TSK_VS_INFO *vs_info = castVsInfo(env, a_vs_info);
+    if (vs_info == 0) {
+        //exception already set
+        return -1;
+    }
+
+    char *buf = getDirectBufferRegion(env, jbuf, buf_offset, len);
+    if (buf == NULL) {
+        //exception already set
+        return -1;
+    }
+
+    ssize_t bytesread = tsk_vs_read_block(vs_info, (TSK_DADDR_T) offset, buf,
+        (size_t) len);
+    if (bytesread == -1) {
+        setThrowTskCoreError(env, tsk_error_get());
+        return -1;
+    }
+    return (jint)bytesread;
+}
+
+
+/*
+ * Read bytes from the given volume straight into a direct buffer
+ * @return number of bytes read from the volume or -1 on error
+ * @param env pointer to java environment this was called from
+ * @param obj the java object this was called from
+ * @param a_vol_info the pointer to the volume object
+ * @param jbuf direct buffer to read to
+ * @param buf_offset offset in the buffer to start writing at
+ * @param offset the offset in bytes to start at
+ * @param len number of bytes to read
+ */
+JNIEXPORT jint JNICALL
+Java_org_sleuthkit_datamodel_SleuthkitJNI_readVolDirectNat(JNIEnv * env,
+    jclass obj, jlong a_vol_info, jobject jbuf, jint buf_offset, jlong offset, jlong len)
+{
+    TSK_VS_PART_INFO *vol_part_info = castVsPartInfo(env, a_vol_info);
+    if (vol_part_info == 0) {
+        //exception already set
+        return -1;
+    }
+
+    char *buf = getDirectBufferRegion(env, jbuf, buf_offset, len);
+    if (buf == NULL) {
+        //exception already set
+        return -1;
+    }
+
+    ssize_t bytesread =
+        tsk_vs_part_read(vol_part_info, (TSK_OFF_T) offset, buf,
+        (size_t) len);
+    if (bytesread == -1) {
+        setThrowTskCoreError(env, tsk_error_get());
+        return -1;
+    }
+    return (jint)bytesread;
+}
+
+
+/*
+ * Read bytes from the given file system straight into a direct buffer
+ * @return number of bytes read from the file system, -1 on error
+ * @param env pointer to java environment this was called from
+ * @param obj the java object this was called from
+ * @param a_fs_info the pointer to the file system object
+ * @param jbuf direct buffer to read to
+ * @param buf_offset offset in the buffer to start writing at
+ * @param offset the offset in bytes to start at
+ * @param len number of bytes to read
+ */
+JNIEXPORT jint JNICALL
+Java_org_sleuthkit_datamodel_SleuthkitJNI_readFsDirectNat(JNIEnv * env,
+    jclass obj, jlong a_fs_info, jobject jbuf, jint buf_offset, jlong offset, jlong len)
+{
+    TSK_FS_INFO *fs_info = castFsInfo(env, a_fs_info);
+    if (fs_info == 0) {
+        //exception already set
+        return -1;
+    }
+
+    char *buf = getDirectBufferRegion(env, jbuf, buf_offset, len);
+    if (buf == NULL) {
+        //exception already set
+        return -1;
+    }
+
+    ssize_t bytesread =
+        tsk_fs_read(fs_info, (TSK_OFF_T) offset, buf, (size_t) len);
+    if (bytesread == -1) {
+        setThrowTskCoreError(env, tsk_error_get());
+        return -1;
+    }
+    return (jint)bytesread;
+}
+
+
 /**
  * Flag used by readFileNat to specify if the offset is relative to the start of the file
  * or the start of the slack space 
@@ -1871,6 +2229,54 @@ Java_org_sleuthkit_datamodel_SleuthkitJNI_readFileNat(JNIEnv * env,
 }
 
 
+/*
+ * Read bytes from the given file straight into a direct buffer
+ * @return number of bytes read, or -1 on error
+ * @param env pointer to java environment this was called from
+ * @param obj the java object this was called from
+ * @param a_file_handle the pointer to the TSK_JNI_FILEHANDLE object
+ * @param jbuf direct buffer to read to
+ * @param buf_offset offset in the buffer to start writing at
+ * @param offset the offset in bytes to start at
+ * @param offset_type whether the offset is from the start of the file or the slack space
+ * @param len number of bytes to read
+ */
+JNIEXPORT jint JNICALL
+Java_org_sleuthkit_datamodel_SleuthkitJNI_readFileDirectNat(JNIEnv * env,
+    jclass obj, jlong a_file_handle, jobject jbuf, jint buf_offset, jlong offset, jint offset_type, jlong len)
+{
+    const TSK_JNI_FILEHANDLE *file_handle = castJniFileHandle(env, a_file_handle);
+    if (file_handle == 0) {
+        //exception already set
+        return -1;
+    }
+
+    char *buf = getDirectBufferRegion(env, jbuf, buf_offset, len);
+    if (buf == NULL) {
+        //exception already set
+        return -1;
+    }
+
+    TSK_FS_ATTR * tsk_fs_attr = file_handle->fs_attr;
+
+    TSK_FS_FILE_READ_FLAG_ENUM readFlag = TSK_FS_FILE_READ_FLAG_NONE;
+    TSK_OFF_T readOffset = (TSK_OFF_T) offset;
+    if(offset_type == TSK_FS_FILE_READ_OFFSET_TYPE_START_OF_SLACK){
+        readFlag = TSK_FS_FILE_READ_FLAG_SLACK;
+        readOffset += tsk_fs_attr->nrd.initsize;
+    }
+
+    //read attribute
+    ssize_t bytesread = tsk_fs_attr_read(tsk_fs_attr,  readOffset, buf, (size_t) len,
+        readFlag);
+    if (bytesread == -1) {
+        setThrowTskCoreError(env, tsk_error_get());
+        return -1;
+    }
+    return (jint)bytesread;
+}
+
+
 /**
  * Runs istat on a given file and saves the output to a temp file.
  *
@@ -1913,6 +2319,363 @@ JNIEXPORT jint JNICALL Java_org_sleuthkit_datamodel_SleuthkitJNI_saveFileMetaDat
     return 0;
 }
 
+/*
+ * Configurable per-image block cache. It sits between the fixed-size cache
+ * in TSK_IMG_INFO and the format-specific read function: TSK only calls the
+ * read function on a miss in its own cache, so that is where this cache
+ * intercepts reads. Sequential misses can be extended to read several blocks
+ * ahead in a single call to the underlying image.
+ *
+ * The state of a cache is guarded by the cache_lock of the image it belongs
+ * to, which tsk_img_read() already holds when it calls the read function.
+ */
+typedef struct {
+    ssize_t(*orig_read) (TSK_IMG_INFO * img, TSK_OFF_T off, char *buf, size_t len);
+    void (*orig_close) (TSK_IMG_INFO *);
+    size_t block_size;
+    size_t num_blocks;
+    size_t read_ahead_blocks;
+    vector<char> data;          // num_blocks * block_size bytes
+    vector<TSK_OFF_T> block_off;        // -1 for unused entries
+    vector<size_t> block_len;
+    vector<char> block_ref;     // set when an entry is used, for the clock
+    vector<char> fill_buf;      // (read_ahead_blocks + 1) * block_size bytes
+    map<TSK_OFF_T, size_t> index;       // block offset to entry
+    size_t clock_hand;          // next entry the clock considers for eviction
+    TSK_OFF_T next_seq_off;     // first block after the last fill
+    uint64_t hits;
+    uint64_t misses;
+    uint64_t read_ahead;
+    uint64_t device_reads;
+    uint64_t bypassed;
+} TSK_JNI_IMG_CACHE;
+
+/*
+ * Registry of the configured caches. The lock only guards the map, it is
+ * always taken after the cache_lock of an image.
+ */
+static struct ImgCacheRegistry {
+    tsk_lock_t lock;
+    map<TSK_IMG_INFO *, TSK_JNI_IMG_CACHE *> caches;
+    ImgCacheRegistry() {
+        tsk_init_lock(&lock);
+    }
+    ~ImgCacheRegistry() {
+        tsk_deinit_lock(&lock);
+    }
+} imgCacheRegistry;
+
+static TSK_JNI_IMG_CACHE *
+getImgCache(TSK_IMG_INFO * img_info)
+{
+    TSK_JNI_IMG_CACHE *cache = NULL;
+    tsk_take_lock(&imgCacheRegistry.lock);
+    map<TSK_IMG_INFO *, TSK_JNI_IMG_CACHE *>::iterator it =
+        imgCacheRegistry.caches.find(img_info);
+    if (it != imgCacheRegistry.caches.end()) {
+        cache = it->second;
+    }
+    tsk_release_lock(&imgCacheRegistry.lock);
+    return cache;
+}
+
+static void
+setImgCache(TSK_IMG_INFO * img_info, TSK_JNI_IMG_CACHE * cache)
+{
+    tsk_take_lock(&imgCacheRegistry.lock);
+    if (cache == NULL) {
+        imgCacheRegistry.caches.erase(img_info);
+    }
+    else {
+        imgCacheRegistry.caches[img_info] = cache;
+    }
+    tsk_release_lock(&imgCacheRegistry.lock);
+}
+
+/*
+ * Pick the entry to fill next with the clock algorithm: the hand takes the
+ * first unused entry, or the first entry that has not been used since the
+ * hand last passed it, clearing the used flag of the entries it passes.
+ * This approximates least recently used in constant amortized time.
+ * @param keep an entry that must not be taken, or -1
+ * @return the entry to fill
+ */
+static size_t
+takeImgCacheEntry(TSK_JNI_IMG_CACHE * cache, ssize_t keep)
+{
+    while (true) {
+        size_t entry = cache->clock_hand;
+        cache->clock_hand = (cache->clock_hand + 1) % cache->num_blocks;
+        if ((ssize_t) entry == keep) {
+            continue;
+        }
+        if (cache->block_off[entry] == -1 || !cache->block_ref[entry]) {
+            return entry;
+        }
+        cache->block_ref[entry] = 0;
+    }
+}
+
+/*
+ * Read the block at the given offset, and the read-ahead window after it if
+ * the access is sequential, into the cache.
+ * @return the entry holding the block at block_off, or -1 on error
+ */
+static ssize_t
+fillImgCache(TSK_JNI_IMG_CACHE * cache, TSK_IMG_INFO * img_info,
+    TSK_OFF_T block_off)
+{
+    size_t count = 1;
+    if (block_off == cache->next_seq_off) {
+        count += cache->read_ahead_blocks;
+    }
+    TSK_OFF_T remaining = img_info->size - block_off;
+    if ((TSK_OFF_T) (count * cache->block_size) > remaining) {
+        count = (size_t) ((remaining + cache->block_size - 1) / cache->block_size);
+    }
+
+    ssize_t nbytes = cache->orig_read(img_info, block_off,
+        &cache->fill_buf[0], count * cache->block_size);
+    cache->device_reads++;
+    if (nbytes <= 0) {
+        return -1;
+    }
+
+    ssize_t first = -1;
+    for (size_t i = 0; i < count; i++) {
+        size_t start = i * cache->block_size;
+        if ((ssize_t) start >= nbytes) {
+            break;
+        }
+        TSK_OFF_T off = block_off + (TSK_OFF_T) start;
+        if (i > 0 && cache->index.count(off)) {
+            continue;
+        }
+
+        // never evict the requested block to make room for read-ahead
+        size_t victim = takeImgCacheEntry(cache, first);
+        if (cache->block_off[victim] != -1) {
+            cache->index.erase(cache->block_off[victim]);
+        }
+
+        size_t len = cache->block_size;
+        if ((ssize_t) (start + len) > nbytes) {
+            len = (size_t) nbytes - start;
+        }
+        memcpy(&cache->data[victim * cache->block_size],
+            &cache->fill_buf[start], len);
+        cache->block_off[victim] = off;
+        cache->block_len[victim] = len;
+        cache->block_ref[victim] = (i == 0);
+        cache->index[off] = victim;
+        if (i == 0) {
+            first = (ssize_t) victim;
+        }
+        else {
+            cache->read_ahead++;
+        }
+    }
+    cache->next_seq_off = block_off + (TSK_OFF_T) (count * cache->block_size);
+    return first;
+}
+
+/*
+ * Read function installed on images that have a cache configured.
+ */
+static ssize_t
+cachedImgRead(TSK_IMG_INFO * img_info, TSK_OFF_T off, char *buf, size_t len)
+{
+    TSK_JNI_IMG_CACHE *cache = getImgCache(img_info);
+    if (cache == NULL) {
+        tsk_error_reset();
+        tsk_error_set_errno(TSK_ERR_IMG_READ);
+        tsk_error_set_errstr("cachedImgRead: no cache for image");
+        return -1;
+    }
+
+    // reads that would flush most of the cache go straight to the image
+    if (len > cache->block_size * cache->num_blocks / 2) {
+        cache->bypassed++;
+        return cache->orig_read(img_info, off, buf, len);
+    }
+
+    size_t copied = 0;
+    while (copied < len) {
+        TSK_OFF_T cur = off + (TSK_OFF_T) copied;
+        if (cur >= img_info->size) {
+            break;
+        }
+        TSK_OFF_T block_off = cur - (cur % cache->block_size);
+
+        ssize_t entry;
+        map<TSK_OFF_T, size_t>::iterator it = cache->index.find(block_off);
+        if (it != cache->index.end()) {
+            entry = (ssize_t) it->second;
+            cache->block_ref[entry] = 1;
+            cache->hits++;
+        }
+        else {
+            cache->misses++;
+            entry = fillImgCache(cache, img_info, block_off);
+            if (entry == -1) {
+                return copied > 0 ? (ssize_t) copied : -1;
+            }
+        }
+
+        size_t in_block = (size_t) (cur - block_off);
+        if (in_block >= cache->block_len[entry]) {
+            // short block at the end of the image
+            break;
+        }
+        size_t n = cache->block_len[entry] - in_block;
+        if (n > len - copied) {
+            n = len - copied;
+        }
+        memcpy(buf + copied, &cache->data[entry * cache->block_size + in_block], n);
+        copied += n;
+    }
+    return (ssize_t) copied;
+}
+
+/*
+ * Close function installed on images that have a cache configured.
+ */
+static void
+cachedImgClose(TSK_IMG_INFO * img_info)
+{
+    TSK_JNI_IMG_CACHE *cache = getImgCache(img_info);
+    if (cache == NULL) {
+        return;
+    }
+    setImgCache(img_info, NULL);
+    void (*orig_close) (TSK_IMG_INFO *) = cache->orig_close;
+    img_info->read = cache->orig_read;
+    img_info->close = orig_close;
+    delete cache;
+    orig_close(img_info);
+}
+
+/*
+ * Configure the block cache of an image, replacing any previous cache.
+ * @param env pointer to java environment this was called from
+ * @param obj the java object this was called from
+ * @param a_img_info the pointer to the image object
+ * @param block_size size of a cache block in bytes, a multiple of the sector size
+ * @param num_blocks number of blocks in the cache, 0 to remove the cache
+ * @param read_ahead_blocks number of blocks to read after a sequential miss
+ */
+JNIEXPORT void JNICALL
+Java_org_sleuthkit_datamodel_SleuthkitJNI_setImgCacheNat(JNIEnv * env,
+    jclass obj, jlong a_img_info, jint block_size, jint num_blocks,
+    jint read_ahead_blocks)
+{
+    TSK_IMG_INFO *img_info = castImgInfo(env, a_img_info);
+    if (img_info == 0) {
+        //exception already set
+        return;
+    }
+    if (num_blocks < 0 || read_ahead_blocks < 0
+        || (num_blocks > 0 && read_ahead_blocks >= num_blocks)) {
+        setThrowTskCoreError(env,
+            "setImgCacheNat: read-ahead must be smaller than the number of cache blocks");
+        return;
+    }
+    if (num_blocks > 0 && (block_size <= 0
+            || (img_info->sector_size > 0
+                && block_size % img_info->sector_size != 0))) {
+        setThrowTskCoreError(env,
+            "setImgCacheNat: block size must be a multiple of the sector size");
+        return;
+    }
+
+    TSK_JNI_IMG_CACHE *cache = NULL;
+    if (num_blocks > 0) {
+        try {
+            cache = new TSK_JNI_IMG_CACHE();
+            cache->block_size = (size_t) block_size;
+            cache->num_blocks = (size_t) num_blocks;
+            cache->read_ahead_blocks = (size_t) read_ahead_blocks;
+            cache->data.resize(cache->block_size * cache->num_blocks);
+            cache->block_off.assign(cache->num_blocks, -1);
+            cache->block_len.assign(cache->num_blocks, 0);
+            cache->block_ref.assign(cache->num_blocks, 0);
+            cache->fill_buf.resize(cache->block_size * (cache->read_ahead_blocks + 1));
+        }
+        catch (const std::bad_alloc &) {
+            delete cache;
+            setThrowTskCoreError(env,
+                "setImgCacheNat: not enough memory for the image cache");
+            return;
+        }
+        cache->clock_hand = 0;
+        cache->next_seq_off = -1;
+        cache->hits = 0;
+        cache->misses = 0;
+        cache->read_ahead = 0;
+        cache->device_reads = 0;
+        cache->bypassed = 0;
+    }
+
+    tsk_take_lock(&(img_info->cache_lock));
+    TSK_JNI_IMG_CACHE *old = getImgCache(img_info);
+    if (old != NULL) {
+        setImgCache(img_info, NULL);
+        img_info->read = old->orig_read;
+        img_info->close = old->orig_close;
+        delete old;
+    }
+    if (cache != NULL) {
+        cache->orig_read = img_info->read;
+        cache->orig_close = img_info->close;
+        setImgCache(img_info, cache);
+        img_info->read = cachedImgRead;
+        img_info->close = cachedImgClose;
+    }
+    tsk_release_lock(&(img_info->cache_lock));
+}
+
+/*
+ * Get the configuration and counters of the block cache of an image.
+ * @return block size, number of blocks, read-ahead blocks, hits, misses,
+ * blocks read ahead, reads of the underlying image and bypassed reads, or
+ * all zeros if the image has no cache
+ * @param env pointer to java environment this was called from
+ * @param obj the java object this was called from
+ * @param a_img_info the pointer to the image object
+ */
+JNIEXPORT jlongArray JNICALL
+Java_org_sleuthkit_datamodel_SleuthkitJNI_getImgCacheStatsNat(JNIEnv * env,
+    jclass obj, jlong a_img_info)
+{
+    TSK_IMG_INFO *img_info = castImgInfo(env, a_img_info);
+    if (img_info == 0) {
+        //exception already set
+        return NULL;
+    }
+
+    jlong stats[8] = { 0, 0, 0, 0, 0, 0, 0, 0 };
+    tsk_take_lock(&(img_info->cache_lock));
+    TSK_JNI_IMG_CACHE *cache = getImgCache(img_info);
+    if (cache != NULL) {
+        stats[0] = (jlong) cache->block_size;
+        stats[1] = (jlong) cache->num_blocks;
+        stats[2] = (jlong) cache->read_ahead_blocks;
+        stats[3] = (jlong) cache->hits;
+        stats[4] = (jlong) cache->misses;
+        stats[5] = (jlong) cache->read_ahead;
+        stats[6] = (jlong) cache->device_reads;
+        stats[7] = (jlong) cache->bypassed;
+    }
+    tsk_release_lock(&(img_info->cache_lock));
+
+    jlongArray result = env->NewLongArray(8);
+    if (result == NULL) {
+        return NULL;
+    }
+    env->SetLongArrayRegion(result, 0, 8, stats);
+    return result;
+}
+
 /*
  * Close the given image
  * @param env pointer to java environment this was called from
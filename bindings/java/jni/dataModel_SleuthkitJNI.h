@@ -7,6 +7,8 @@
 #ifdef __cplusplus
 extern "C" {
 #endif
+#undef org_sleuthkit_datamodel_SleuthkitJNI_DEFAULT_MAX_OPEN_FILE_HANDLES
+#define org_sleuthkit_datamodel_SleuthkitJNI_DEFAULT_MAX_OPEN_FILE_HANDLES 10000L
 /*
  * Class:     org_sleuthkit_datamodel_SleuthkitJNI
  * Method:    getVersionNat
@@ -343,6 +345,62 @@ JNIEXPORT jint JNICALL Java_org_sleuthkit_datamodel_SleuthkitJNI_readFsNat
 JNIEXPORT jint JNICALL Java_org_sleuthkit_datamodel_SleuthkitJNI_readFileNat
   (JNIEnv *, jclass, jlong, jbyteArray, jlong, jint, jlong);
 
+/*
+ * Class:     org_sleuthkit_datamodel_SleuthkitJNI
+ * Method:    readImgDirectNat
+ * Signature: (JLjava/nio/ByteBuffer;IJJ)I
+ */
+JNIEXPORT jint JNICALL Java_org_sleuthkit_datamodel_SleuthkitJNI_readImgDirectNat
+  (JNIEnv *, jclass, jlong, jobject, jint, jlong, jlong);
+
+/*
+ * Class:     org_sleuthkit_datamodel_SleuthkitJNI
+ * Method:    readImgRangesNat
+ * Signature: (J[BI[J[J)I
+ */
+JNIEXPORT jint JNICALL Java_org_sleuthkit_datamodel_SleuthkitJNI_readImgRangesNat
+  (JNIEnv *, jclass, jlong, jbyteArray, jint, jlongArray, jlongArray);
+
+/*
+ * Class:     org_sleuthkit_datamodel_SleuthkitJNI
+ * Method:    readImgRangesDirectNat
+ * Signature: (JLjava/nio/ByteBuffer;I[J[J)I
+ */
+JNIEXPORT jint JNICALL Java_org_sleuthkit_datamodel_SleuthkitJNI_readImgRangesDirectNat
+  (JNIEnv *, jclass, jlong, jobject, jint, jlongArray, jlongArray);
+
+/*
+ * Class:     org_sleuthkit_datamodel_SleuthkitJNI
+ * Method:    readVsDirectNat
+ * Signature: (JLjava/nio/ByteBuffer;IJJ)I
+ */
+JNIEXPORT jint JNICALL Java_org_sleuthkit_datamodel_SleuthkitJNI_readVsDirectNat
+  (JNIEnv *, jclass, jlong, jobject, jint, jlong, jlong);
+
+/*
+ * Class:     org_sleuthkit_datamodel_SleuthkitJNI
+ * Method:    readVolDirectNat
+ * Signature: (JLjava/nio/ByteBuffer;IJJ)I
+ */
+JNIEXPORT jint JNICALL Java_org_sleuthkit_datamodel_SleuthkitJNI_readVolDirectNat
+  (JNIEnv *, jclass, jlong, jobject, jint, jlong, jlong);
+
+/*
+ * Class:     org_sleuthkit_datamodel_SleuthkitJNI
+ * Method:    readFsDirectNat
+ * Signature: (JLjava/nio/ByteBuffer;IJJ)I
+ */
+JNIEXPORT jint JNICALL Java_org_sleuthkit_datamodel_SleuthkitJNI_readFsDirectNat
+  (JNIEnv *, jclass, jlong, jobject, jint, jlong, jlong);
+
+/*
+ * Class:     org_sleuthkit_datamodel_SleuthkitJNI
+ * Method:    readFileDirectNat
+ * Signature: (JLjava/nio/ByteBuffer;IJIJ)I
+ */
+JNIEXPORT jint JNICALL Java_org_sleuthkit_datamodel_SleuthkitJNI_readFileDirectNat
+  (JNIEnv *, jclass, jlong, jobject, jint, jlong, jint, jlong);
+
 /*
  * Class:     org_sleuthkit_datamodel_SleuthkitJNI
  * Method:    saveFileMetaDataTextNat
@@ -351,6 +409,22 @@ JNIEXPORT jint JNICALL Java_org_sleuthkit_datamodel_SleuthkitJNI_readFileNat
 JNIEXPORT jint JNICALL Java_org_sleuthkit_datamodel_SleuthkitJNI_saveFileMetaDataTextNat
   (JNIEnv *, jclass, jlong, jstring);
 
+/*
+ * Class:     org_sleuthkit_datamodel_SleuthkitJNI
+ * Method:    setImgCacheNat
+ * Signature: (JIII)V
+ */
+JNIEXPORT void JNICALL Java_org_sleuthkit_datamodel_SleuthkitJNI_setImgCacheNat
+  (JNIEnv *, jclass, jlong, jint, jint, jint);
+
+/*
+ * Class:     org_sleuthkit_datamodel_SleuthkitJNI
+ * Method:    getImgCacheStatsNat
+ * Signature: (J)[J
+ */
+JNIEXPORT jlongArray JNICALL Java_org_sleuthkit_datamodel_SleuthkitJNI_getImgCacheStatsNat
+  (JNIEnv *, jclass, jlong);
+
 /*
  * Class:     org_sleuthkit_datamodel_SleuthkitJNI
  * Method:    closeImgNat
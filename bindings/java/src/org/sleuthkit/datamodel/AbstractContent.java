@@ -18,6 +18,7 @@
  */
 package org.sleuthkit.datamodel;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
@@ -63,6 +64,32 @@ public String getName() {
 		return this.name;
 	}
 
+	/**
+	 * Reads data that this content object is associated with into a buffer.
+	 * Bytes are written starting at the position of the buffer, up to its
+	 * limit, and the position is advanced by the number of bytes read.
+	 *
+	 * This base implementation reads through a temporary array using
+	 * read(byte[], long, long). Content backed by a native handle overrides it
+	 * so that direct buffers are filled by TSK without the extra copies.
+	 *
+	 * @param buf    the buffer to read into
+	 * @param offset byte offset in the content to start reading from
+	 *
+	 * @return num of bytes read, or -1 on error
+	 *
+	 * @throws TskCoreException if critical error occurred during read in the
+	 *                          tsk core
+	 */
+	public int read(ByteBuffer buf, long offset) throws TskCoreException {
+		byte[] data = new byte[buf.remaining()];
+		int bytesRead = read(data, offset, data.length);
+		if (bytesRead > 0) {
+			buf.put(data, 0, bytesRead);
+		}
+		return bytesRead;
+	}
+
 	/*
 	 * This base implementation simply walks the hierarchy appending its own
 	 * name to the result of calling its parent's getUniquePath() method (with
@@ -125,7 +152,7 @@ public synchronized Content getParent() throws TskCoreException {
 		return parent;
 	}
 
-	void setParent(Content parent) {
+	synchronized void setParent(Content parent) {
 		this.parent = parent;
 	}
 
@@ -21,6 +21,7 @@
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.text.MessageFormat;
@@ -787,6 +788,39 @@ protected int readInt(byte[] buf, long offset, long len) throws TskCoreException
 		return 0;
 	}
 
+	@Override
+	public final int read(ByteBuffer buf, long offset) throws TskCoreException {
+		//template method
+		//local files and heap buffers go through read(byte[]), direct buffers
+		//are handed to readInt() supplied by derived class
+		if (localPathSet || !buf.isDirect()) {
+			return super.read(buf, offset);
+		} else {
+			return readInt(buf, offset);
+		}
+	}
+
+	/**
+	 * Internal custom read (non-local) method into a direct buffer that child
+	 * classes backed by a native file handle can implement. The default
+	 * implementation reads through readInt(byte[], long, long).
+	 *
+	 * @param buf    direct buffer to read into, starting at its position
+	 * @param offset start reading position in the file
+	 *
+	 * @return number of bytes read
+	 *
+	 * @throws TskCoreException exception thrown when file could not be read
+	 */
+	protected int readInt(ByteBuffer buf, long offset) throws TskCoreException {
+		byte[] data = new byte[buf.remaining()];
+		int bytesRead = readInt(data, offset, data.length);
+		if (bytesRead > 0) {
+			buf.put(data, 0, bytesRead);
+		}
+		return bytesRead;
+	}
+
 	/**
 	 * Local file path read support
 	 *
@@ -1105,6 +1139,7 @@ public void save() throws TskCoreException {
 		try {
 			statement = connection.createStatement();
 			connection.executeUpdate(statement, queryStr);
+			getSleuthkitCase().invalidateCachedContent(this.getId());
 
 			md5HashDirty = false;
 			mimeTypeDirty = false;
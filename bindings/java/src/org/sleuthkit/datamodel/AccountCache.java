@@ -0,0 +1,190 @@
+/*
+ * Sleuth Kit Data Model
+ *
+ * Copyright 2018 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.datamodel;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A size-bounded, least recently used cache of the accounts of a case, keyed
+ * by account type id and normalized account id. The cache hands out one
+ * shared Account object per account, and one shared AccountDeviceInstance
+ * object per account and device, so the same account id string is kept only
+ * once however many messages, calls and contacts refer to it. Accounts are
+ * never changed or deleted, so entries only leave the cache to stay within
+ * its size.
+ */
+final class AccountCache {
+
+	private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+	private int maxEntries;
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	/**
+	 * Constructs a cache.
+	 *
+	 * @param maxEntries The maximum number of accounts, zero or less to
+	 *                   disable the cache.
+	 */
+	AccountCache(int maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * Gets a cached account.
+	 *
+	 * @param accountTypeId The account type id.
+	 * @param accountId     The normalized account id.
+	 *
+	 * @return The account, or null if it is not cached.
+	 */
+	synchronized Account get(int accountTypeId, String accountId) {
+		Entry entry = entries.get(new Key(accountTypeId, accountId));
+		if (entry == null) {
+			misses++;
+			return null;
+		}
+		hits++;
+		return entry.account;
+	}
+
+	/**
+	 * Gets the shared object for an account read from the case database,
+	 * adding the account to the cache if it is not cached.
+	 *
+	 * @param accountTypeId The account type id.
+	 * @param accountType   The account type.
+	 * @param id            The account_id of the account.
+	 * @param accountId     The normalized account id.
+	 *
+	 * @return The shared account object.
+	 *
+	 * @throws TskCoreException If the account object cannot be created.
+	 */
+	synchronized Account intern(int accountTypeId, Account.Type accountType, long id, String accountId) throws TskCoreException {
+		return getEntry(accountTypeId, accountType, id, accountId).account;
+	}
+
+	/**
+	 * Gets the shared object for an account on a device, adding the account
+	 * to the cache if it is not cached.
+	 *
+	 * @param accountTypeId The account type id.
+	 * @param accountType   The account type.
+	 * @param id            The account_id of the account.
+	 * @param accountId     The normalized account id.
+	 * @param deviceId      The device id.
+	 *
+	 * @return The shared account device instance object.
+	 *
+	 * @throws TskCoreException If the account object cannot be created.
+	 */
+	synchronized AccountDeviceInstance internDeviceInstance(int accountTypeId, Account.Type accountType, long id, String accountId, String deviceId) throws TskCoreException {
+		Entry entry = getEntry(accountTypeId, accountType, id, accountId);
+		AccountDeviceInstance instance = entry.deviceInstances.get(deviceId);
+		if (instance == null) {
+			instance = new AccountDeviceInstance(entry.account, deviceId);
+			entry.deviceInstances.put(deviceId, instance);
+		}
+		return instance;
+	}
+
+	private Entry getEntry(int accountTypeId, Account.Type accountType, long id, String accountId) throws TskCoreException {
+		Key key = new Key(accountTypeId, accountId);
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			entry = new Entry(new Account(id, accountType, accountId));
+			if (maxEntries > 0) {
+				entries.put(key, entry);
+				trim();
+			}
+		}
+		return entry;
+	}
+
+	/**
+	 * Sets the maximum number of accounts, evicting accounts if the cache
+	 * holds more.
+	 *
+	 * @param maxEntries The maximum number of accounts, zero or less to
+	 *                   disable the cache.
+	 */
+	synchronized void setMaxEntries(int maxEntries) {
+		this.maxEntries = maxEntries;
+		trim();
+	}
+
+	/**
+	 * Gets the counters of the cache.
+	 *
+	 * @return A snapshot of the counters.
+	 */
+	synchronized SleuthkitCase.ObjectCacheStats getStats() {
+		return new SleuthkitCase.ObjectCacheStats(entries.size(), maxEntries, hits, misses, evictions, 0);
+	}
+
+	private void trim() {
+		Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+		while (entries.size() > Math.max(maxEntries, 0) && it.hasNext()) {
+			it.next();
+			it.remove();
+			evictions++;
+		}
+	}
+
+	private static final class Key {
+
+		private final int accountTypeId;
+		private final String accountId;
+
+		Key(int accountTypeId, String accountId) {
+			this.accountTypeId = accountTypeId;
+			this.accountId = accountId;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * accountTypeId + accountId.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return accountTypeId == other.accountTypeId && accountId.equals(other.accountId);
+		}
+	}
+
+	private static final class Entry {
+
+		private final Account account;
+		// Usually one device per account, so a small map.
+		private final Map<String, AccountDeviceInstance> deviceInstances = new HashMap<String, AccountDeviceInstance>(2);
+
+		Entry(Account account) {
+			this.account = account;
+		}
+	}
+}
@@ -0,0 +1,168 @@
+/*
+ * Sleuth Kit Data Model
+ *
+ * Copyright 2018 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.datamodel;
+
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import org.sleuthkit.datamodel.BlackboardAttribute.TSK_BLACKBOARD_ATTRIBUTE_VALUE_TYPE;
+
+/**
+ * Computes the fingerprints stored in the blackboard_artifact_fingerprints
+ * table. The fingerprint of an artifact is the hash of its type plus the sum
+ * of the hashes of the types and values of its attributes. Sources and
+ * contexts are left out. Since the sum does not depend on the order of the
+ * attributes, adding attributes to an artifact only adds their hashes to its
+ * fingerprint.
+ *
+ * Fingerprints are stored in case databases, so the hash functions must
+ * never change. Different artifacts can have the same fingerprint, so an
+ * artifact found by its fingerprint must still have its attributes
+ * compared.
+ */
+final class ArtifactFingerprint {
+
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	private ArtifactFingerprint() {
+	}
+
+	/**
+	 * Computes the fingerprint of an artifact.
+	 *
+	 * @param artifactTypeId The artifact type id.
+	 * @param attributes     The attributes of the artifact.
+	 *
+	 * @return The fingerprint.
+	 */
+	static long of(int artifactTypeId, Collection<BlackboardAttribute> attributes) {
+		long fingerprint = ofArtifactType(artifactTypeId);
+		for (BlackboardAttribute attribute : attributes) {
+			fingerprint += ofAttribute(attribute);
+		}
+		return fingerprint;
+	}
+
+	/**
+	 * Computes the fingerprint of an artifact with no attributes.
+	 *
+	 * @param artifactTypeId The artifact type id.
+	 *
+	 * @return The fingerprint.
+	 */
+	static long ofArtifactType(int artifactTypeId) {
+		return mix(addInt(FNV_OFFSET_BASIS, artifactTypeId));
+	}
+
+	/**
+	 * Computes the amount an attribute adds to the fingerprint of its
+	 * artifact.
+	 *
+	 * @param attribute The attribute.
+	 *
+	 * @return The hash of the attribute.
+	 */
+	static long ofAttribute(BlackboardAttribute attribute) {
+		BlackboardAttribute.Type type = attribute.getAttributeType();
+		return ofAttribute(type.getTypeID(), type.getValueType(), attribute.getValueInt(), attribute.getValueLong(),
+				attribute.getValueDouble(), attribute.getValueString(), attribute.getValueBytes());
+	}
+
+	/**
+	 * Computes the amount an attribute adds to the fingerprint of its
+	 * artifact from the columns of its row. Only the value that matches the
+	 * value type is used, and a null value is treated as empty, as it is by
+	 * BlackboardAttribute.
+	 *
+	 * @param attributeTypeId The attribute type id.
+	 * @param valueType       The value type of the attribute type.
+	 * @param valueInt        The value, if the value type is INTEGER.
+	 * @param valueLong       The value, if the value type is LONG or
+	 *                        DATETIME.
+	 * @param valueDouble     The value, if the value type is DOUBLE.
+	 * @param valueText       The value, if the value type is STRING.
+	 * @param valueBytes      The value, if the value type is BYTE.
+	 *
+	 * @return The hash of the attribute.
+	 */
+	static long ofAttribute(int attributeTypeId, TSK_BLACKBOARD_ATTRIBUTE_VALUE_TYPE valueType,
+			int valueInt, long valueLong, double valueDouble, String valueText, byte[] valueBytes) {
+		long hash = addInt(FNV_OFFSET_BASIS, attributeTypeId);
+		switch (valueType) {
+			case INTEGER:
+				hash = addInt(hash, valueInt);
+				break;
+			case LONG:
+			case DATETIME:
+				hash = addLong(hash, valueLong);
+				break;
+			case DOUBLE:
+				hash = addLong(hash, Double.doubleToLongBits(valueDouble));
+				break;
+			case BYTE:
+				hash = addBytes(hash, valueBytes == null ? new byte[0] : valueBytes);
+				break;
+			case STRING:
+			default:
+				hash = addBytes(hash, (valueText == null ? "" : valueText).getBytes(StandardCharsets.UTF_8));
+				break;
+		}
+		return mix(hash);
+	}
+
+	private static long addByte(long hash, int value) {
+		return (hash ^ (value & 0xFF)) * FNV_PRIME;
+	}
+
+	private static long addInt(long hash, int value) {
+		for (int shift = 0; shift < Integer.SIZE; shift += 8) {
+			hash = addByte(hash, value >>> shift);
+		}
+		return hash;
+	}
+
+	private static long addLong(long hash, long value) {
+		for (int shift = 0; shift < Long.SIZE; shift += 8) {
+			hash = addByte(hash, (int) (value >>> shift));
+		}
+		return hash;
+	}
+
+	private static long addBytes(long hash, byte[] value) {
+		hash = addInt(hash, value.length);
+		for (byte b : value) {
+			hash = addByte(hash, b);
+		}
+		return hash;
+	}
+
+	/**
+	 * Spreads the bits of an FNV-1a hash so that sums of hashes do not
+	 * collide more often than the hashes themselves.
+	 */
+	private static long mix(long hash) {
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * Sleuth Kit Data Model
+ *
+ * Copyright 2018 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.datamodel;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out the artifact ids of a single-user case, which SQLite does not
+ * generate because they start at the most negative long. Each thread
+ * reserves a block of ids with one atomic operation and takes ids from it
+ * without synchronization; bulk inserts reserve the ids they need directly.
+ *
+ * Only the ids of rows that were inserted are ever stored, so the
+ * allocator resumes after a crash or a reopen from the largest artifact id
+ * in the case database. Ids reserved but not used are skipped.
+ */
+final class ArtifactIdAllocator {
+
+	static final int BLOCK_SIZE = 64;
+
+	// The last id reserved by any thread.
+	private final AtomicLong highWaterMark;
+	// The next id and the end of the block of each thread.
+	private final ThreadLocal<long[]> blocks = new ThreadLocal<long[]>() {
+		@Override
+		protected long[] initialValue() {
+			return new long[]{0, 0};
+		}
+	};
+
+	/**
+	 * Constructs an allocator.
+	 *
+	 * @param lastUsedId The largest artifact id in the case database, the ids
+	 *                   handed out start after it.
+	 */
+	ArtifactIdAllocator(long lastUsedId) {
+		highWaterMark = new AtomicLong(lastUsedId);
+	}
+
+	/**
+	 * Gets an artifact id from the block of the calling thread, reserving a
+	 * new block when it is used up.
+	 *
+	 * @return An artifact id that has not been handed out before.
+	 */
+	long next() {
+		long[] block = blocks.get();
+		if (block[0] == block[1]) {
+			block[0] = highWaterMark.getAndAdd(BLOCK_SIZE) + 1;
+			block[1] = block[0] + BLOCK_SIZE;
+		}
+		return block[0]++;
+	}
+
+	/**
+	 * Reserves consecutive artifact ids for a bulk insert.
+	 *
+	 * @param count The number of ids.
+	 *
+	 * @return Artifact ids that have not been handed out before.
+	 */
+	long[] next(int count) {
+		long first = highWaterMark.getAndAdd(count) + 1;
+		long[] ids = new long[count];
+		for (int i = 0; i < count; i++) {
+			ids[i] = first + i;
+		}
+		return ids;
+	}
+}
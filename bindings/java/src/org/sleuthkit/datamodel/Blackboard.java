@@ -24,6 +24,7 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -45,6 +46,50 @@ public final class Blackboard {
 		this.caseDb = casedb;
 	}
 
+	/**
+	 * Creates a set of artifacts and their attributes in a single case
+	 * database transaction. This is much faster than creating the artifacts
+	 * one at a time when posting large numbers of artifacts, e.g. search hits.
+	 *
+	 * @param newArtifacts The artifacts to create.
+	 *
+	 * @return The created artifacts, in the same order as the requests.
+	 *
+	 * @throws TskCoreException If there is a problem creating the artifacts,
+	 *                          in which case none of them are created.
+	 */
+	public List<BlackboardArtifact> newBlackboardArtifacts(List<NewArtifact> newArtifacts) throws TskCoreException {
+		return caseDb.newBlackboardArtifacts(newArtifacts);
+	}
+
+	/**
+	 * Reads the attributes of a collection of artifacts in bulk and caches
+	 * them in the artifacts, so that listing many artifacts with their
+	 * attributes does not take one query per artifact.
+	 *
+	 * @param artifacts The artifacts.
+	 *
+	 * @throws TskCoreException If there is a problem reading the attributes.
+	 */
+	public void loadAttributes(Collection<BlackboardArtifact> artifacts) throws TskCoreException {
+		caseDb.loadBlackboardAttributes(artifacts);
+	}
+
+	/**
+	 * Reads the attributes of a collection of artifacts in bulk, optionally
+	 * keeping them in a compact store of primitive columns that takes much
+	 * less memory than attribute objects. See
+	 * SleuthkitCase.loadBlackboardAttributes(Collection, boolean).
+	 *
+	 * @param artifacts The artifacts.
+	 * @param compact   True to keep the attributes in compact form.
+	 *
+	 * @throws TskCoreException If there is a problem reading the attributes.
+	 */
+	public void loadAttributes(Collection<BlackboardArtifact> artifacts, boolean compact) throws TskCoreException {
+		caseDb.loadBlackboardAttributes(artifacts, compact);
+	}
+
 	/**
 	 * Gets the list of all artifact types in use for the given data source.
 	 * Gets both standard and custom types.
@@ -167,7 +212,9 @@ private long getArtifactsCountHelper(int artifactTypeID, String whereClause) thr
 
 	/**
 	 * Determine if an artifact of a given type exists for given content with a
-	 * specific list of attributes.
+	 * specific list of attributes. The artifact must have exactly the given
+	 * attributes, and is found by its fingerprint with a single indexed
+	 * lookup. Attribute sources and contexts are not compared.
 	 *
 	 * @param content        The content whose artifacts need to be looked at.
 	 * @param artifactType   The type of artifact to look for.
@@ -180,36 +227,71 @@ private long getArtifactsCountHelper(int artifactTypeID, String whereClause) thr
 	 */
 	public boolean artifactExists(Content content, BlackboardArtifact.ARTIFACT_TYPE artifactType,
 			Collection<BlackboardAttribute> attributesList) throws TskCoreException {
+		return findArtifact(content, artifactType.getTypeID(), attributesList) != null;
+	}
 
-		ArrayList<BlackboardArtifact> artifactsList;
-
-		/*
-		 * Get the content's artifacts.
-		 */
-		artifactsList = content.getArtifacts(artifactType);
-		if (artifactsList.isEmpty()) {
-			return false;
+	/**
+	 * Gets the artifact of a given type for given content with a specific
+	 * list of attributes, creating it with those attributes if there is none.
+	 * See artifactExists(). For a single-user case the lookup and the
+	 * creation are atomic.
+	 *
+	 * @param content      The content the artifact is about.
+	 * @param artifactType The type of the artifact.
+	 * @param attributes   The attributes of the artifact.
+	 *
+	 * @return The existing artifact, or the new one.
+	 *
+	 * @throws TskCoreException If there is a problem getting or creating the
+	 *                          artifact.
+	 */
+	public BlackboardArtifact getOrCreateArtifact(Content content, BlackboardArtifact.Type artifactType,
+			Collection<BlackboardAttribute> attributes) throws TskCoreException {
+		caseDb.acquireSingleUserCaseWriteLock();
+		try {
+			BlackboardArtifact artifact = findArtifact(content, artifactType.getTypeID(), attributes);
+			if (artifact != null) {
+				return artifact;
+			}
+			return caseDb.newBlackboardArtifacts(Collections.singletonList(new NewArtifact(content, artifactType, attributes))).get(0);
+		} finally {
+			caseDb.releaseSingleUserCaseWriteLock();
 		}
+	}
 
-		/*
-		 * Get each artifact's attributes and analyze them for matches.
-		 */
-		for (BlackboardArtifact artifact : artifactsList) {
-			if (attributesMatch(artifact.getAttributes(), attributesList)) {
-				/*
-				 * The exact artifact exists, so we don't need to look any
-				 * further.
-				 */
-				return true;
+	/**
+	 * Finds an artifact of a given type with exactly the given attributes by
+	 * its fingerprint. Since every artifact written by this version of the
+	 * library has a fingerprint, a miss is only checked against the
+	 * artifacts of the content without one, which are usually none.
+	 *
+	 * @param content        The content the artifact is about.
+	 * @param artifactTypeId The artifact type id.
+	 * @param attributes     The attributes.
+	 *
+	 * @return The artifact, or null if there is none.
+	 *
+	 * @throws TskCoreException If there is a problem getting artifacts or
+	 *                          attributes.
+	 */
+	private BlackboardArtifact findArtifact(Content content, int artifactTypeId, Collection<BlackboardAttribute> attributes) throws TskCoreException {
+		long fingerprint = ArtifactFingerprint.of(artifactTypeId, attributes);
+		for (BlackboardArtifact artifact : caseDb.getBlackboardArtifactsByFingerprint(content.getId(), fingerprint)) {
+			/*
+			 * Different artifacts can have the same fingerprint, so the
+			 * attributes still have to be compared.
+			 */
+			if (artifact.getArtifactTypeID() == artifactTypeId && attributesMatch(artifact.getAttributes(), attributes)) {
+				return artifact;
 			}
 		}
-
-		/*
-		 * None of the artifacts have the exact set of attribute type/value
-		 * combinations. The provided content does not have the artifact being
-		 * sought.
-		 */
-		return false;
+		for (BlackboardArtifact artifact : caseDb.getBlackboardArtifactsWithoutFingerprint(content.getId(), artifactTypeId)) {
+			List<BlackboardAttribute> artifactAttributes = artifact.getAttributes();
+			if (attributesMatch(artifactAttributes, attributes) && attributesMatch(attributes, artifactAttributes)) {
+				return artifact;
+			}
+		}
+		return null;
 	}
 
 	/**
@@ -290,4 +372,60 @@ else if (fileAttributeValue.equals(expectedAttributeValue)) {
 		 */
 		return true;
 	}
+
+	/**
+	 * An artifact to be created by newBlackboardArtifacts().
+	 */
+	public static final class NewArtifact {
+
+		private final long sourceObjId;
+		private final BlackboardArtifact.Type artifactType;
+		private final Collection<BlackboardAttribute> attributes;
+
+		/**
+		 * Describes an artifact to create.
+		 *
+		 * @param sourceObjId  The object id of the content the artifact is
+		 *                     about.
+		 * @param artifactType The type of the artifact.
+		 * @param attributes   The attributes of the artifact.
+		 */
+		public NewArtifact(long sourceObjId, BlackboardArtifact.Type artifactType, Collection<BlackboardAttribute> attributes) {
+			this.sourceObjId = sourceObjId;
+			this.artifactType = artifactType;
+			this.attributes = attributes;
+		}
+
+		/**
+		 * Describes an artifact to create.
+		 *
+		 * @param source       The content the artifact is about.
+		 * @param artifactType The type of the artifact.
+		 * @param attributes   The attributes of the artifact.
+		 */
+		public NewArtifact(Content source, BlackboardArtifact.Type artifactType, Collection<BlackboardAttribute> attributes) {
+			this(source.getId(), artifactType, attributes);
+		}
+
+		/**
+		 * @return The object id of the content the artifact is about.
+		 */
+		public long getSourceObjId() {
+			return sourceObjId;
+		}
+
+		/**
+		 * @return The type of the artifact.
+		 */
+		public BlackboardArtifact.Type getArtifactType() {
+			return artifactType;
+		}
+
+		/**
+		 * @return The attributes of the artifact.
+		 */
+		public Collection<BlackboardAttribute> getAttributes() {
+			return attributes;
+		}
+	}
 }
@@ -57,6 +57,12 @@ public class BlackboardArtifact implements Content {
 	private final SleuthkitCase sleuthkitCase;
 	private final List<BlackboardAttribute> attrsCache = new ArrayList<BlackboardAttribute>();
 	private boolean loadedCacheFromDb = false;
+	// The attributes of an artifact loaded with a page of artifacts in
+	// compact form are rows [compactStart, compactEnd) of a shared store,
+	// moved to attrsCache only when the artifact gets new attributes.
+	private CompactAttributes compactAttrs = null;
+	private int compactStart;
+	private int compactEnd;
 	private Content parent;
 	private String uniquePath;
 
@@ -313,6 +319,7 @@ public void addAttribute(BlackboardAttribute attribute) throws TskCoreException
 		attribute.setArtifactId(artifactId);
 		attribute.setCaseDatabase(getSleuthkitCase());
 		getSleuthkitCase().addBlackboardAttribute(attribute, this.artifactTypeId);
+		expandCompactAttributes();
 		attrsCache.add(attribute);
 	}
 
@@ -331,6 +338,8 @@ public List<BlackboardAttribute> getAttributes() throws TskCoreException {
 			attrsCache.clear();
 			attrsCache.addAll(attributes);
 			loadedCacheFromDb = true;
+		} else if (compactAttrs != null) {
+			attributes = new ArrayList<BlackboardAttribute>(compactAttrs.get(compactStart, compactEnd));
 		} else {
 			attributes = new ArrayList<BlackboardAttribute>(attrsCache);
 		}
@@ -379,6 +388,70 @@ public void addAttributes(Collection<BlackboardAttribute> attributes) throws Tsk
 			attribute.setCaseDatabase(getSleuthkitCase());
 		}
 		getSleuthkitCase().addBlackboardAttributes(attributes, artifactTypeId);
+		expandCompactAttributes();
+		attrsCache.addAll(attributes);
+	}
+
+	/**
+	 * Indicates whether the attributes of this artifact have been read from
+	 * the case database.
+	 *
+	 * @return True if getAttributes() does not need to query the case
+	 *         database.
+	 */
+	boolean isAttributesCacheLoaded() {
+		return loadedCacheFromDb;
+	}
+
+	/**
+	 * Replaces the attributes cached by this artifact with attributes read
+	 * from the case database for it and a batch of other artifacts.
+	 *
+	 * @param attributes All of the attributes of this artifact.
+	 */
+	void setAttributesCache(List<BlackboardAttribute> attributes) {
+		compactAttrs = null;
+		attrsCache.clear();
+		attrsCache.addAll(attributes);
+		loadedCacheFromDb = true;
+	}
+
+	/**
+	 * Sets the attributes of this artifact to a range of the attributes read
+	 * from the case database for a page of artifacts. Attribute objects are
+	 * created from the store each time they are asked for.
+	 *
+	 * @param attributes The attributes of the page of artifacts.
+	 * @param start      The index of the first attribute of this artifact.
+	 * @param end        The index after the last attribute of this artifact.
+	 */
+	void setCompactAttributes(CompactAttributes attributes, int start, int end) {
+		attrsCache.clear();
+		compactAttrs = attributes;
+		compactStart = start;
+		compactEnd = end;
+		loadedCacheFromDb = true;
+	}
+
+	/**
+	 * Moves the attributes of this artifact out of the shared compact store,
+	 * if they are in one, so that new attributes can be added to them.
+	 */
+	private void expandCompactAttributes() {
+		if (compactAttrs != null) {
+			attrsCache.addAll(0, compactAttrs.get(compactStart, compactEnd));
+			compactAttrs = null;
+		}
+	}
+
+	/**
+	 * Adds attributes that have already been written to the case database to
+	 * the attributes cached by this artifact.
+	 *
+	 * @param attributes The attributes.
+	 */
+	void addAttributesToCache(Collection<BlackboardAttribute> attributes) {
+		expandCompactAttributes();
 		attrsCache.addAll(attributes);
 	}
 
@@ -417,6 +490,10 @@ public synchronized Content getParent() throws TskCoreException {
 		return parent;
 	}
 
+	synchronized void setParent(Content parent) {
+		this.parent = parent;
+	}
+
 	/**
 	 * Get all artifacts associated with this content
 	 *
@@ -1364,8 +1441,9 @@ public List<BlackboardAttribute> getAttributes(final BlackboardAttribute.ATTRIBU
 			attrsCache.addAll(attrs);
 			loadedCacheFromDb = true;
 		}
+		List<BlackboardAttribute> cachedAttrs = compactAttrs != null ? compactAttrs.get(compactStart, compactEnd) : attrsCache;
 		ArrayList<BlackboardAttribute> filteredAttributes = new ArrayList<BlackboardAttribute>();
-		for (BlackboardAttribute attr : attrsCache) {
+		for (BlackboardAttribute attr : cachedAttrs) {
 			if (attr.getAttributeType().getTypeID() == attributeType.getTypeID()) {
 				filteredAttributes.add(attr);
 			}
@@ -34,6 +34,7 @@ public class CaseDbConnectionInfo {
 	private String userName;
 	private String password;
 	private DbType dbType;
+	private ConnectionPoolSettings poolSettings = ConnectionPoolSettings.DEFAULT;
 
 	/**
 	 * The intent of this class is to hold any information needed to connect to
@@ -99,4 +100,22 @@ public void setUserName(String user) {
 	public void setPassword(String pass) {
 		this.password = pass;
 	}
+
+	/**
+	 * Gets the sizing of the pool of connections to the database server.
+	 *
+	 * @return The pool sizing.
+	 */
+	public ConnectionPoolSettings getConnectionPoolSettings() {
+		return this.poolSettings;
+	}
+
+	/**
+	 * Sets the sizing of the pool of connections to the database server.
+	 *
+	 * @param poolSettings The pool sizing.
+	 */
+	public void setConnectionPoolSettings(ConnectionPoolSettings poolSettings) {
+		this.poolSettings = poolSettings;
+	}
 }
@@ -19,6 +19,7 @@
 package org.sleuthkit.datamodel;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -91,6 +92,28 @@ static abstract class SubFilter {
 		 * @return SQL String for the filter.
 		 */
 		abstract String getSQL(CommunicationsManager commsManager);
+
+		/**
+		 * Get the values the filter binds to the placeholders of its SQL
+		 * template.
+		 *
+		 * @param commsManager Communications manager.
+		 *
+		 * @return The values, none if the filter lets everything through.
+		 */
+		abstract List<Object> getSQLParameters(CommunicationsManager commsManager);
+
+		/**
+		 * Get the SQL template for the filter, which depends only on the
+		 * number of values bound to it and not on the values themselves.
+		 *
+		 * @param parameterCount The number of values, which may be more than
+		 *                       getSQLParameters() returned if the list of
+		 *                       values has been padded.
+		 *
+		 * @return SQL String with a placeholder for each value.
+		 */
+		abstract String getSQLTemplate(int parameterCount);
 	}
 
 	/**
@@ -110,6 +133,15 @@ public RelationshipTypeFilter(Collection<Relationship.Type> relationshipTypes) {
 			this.relationshipTypes = new HashSet<Relationship.Type>(relationshipTypes);
 		}
 
+		/**
+		 * Gets the relationship types the filter lets through.
+		 *
+		 * @return The relationship types, none meaning all of them.
+		 */
+		Set<Relationship.Type> getRelationshipTypes() {
+			return Collections.unmodifiableSet(relationshipTypes);
+		}
+
 		@Override
 		public String getDescription() {
 			return "Filters relationships by relationship type.";
@@ -135,6 +167,20 @@ public String getSQL(CommunicationsManager commsManager) {
 			return " relationships.relationship_type IN ( "
 					+ StringUtils.buildCSVString(relationShipTypeIds) + " )";
 		}
+
+		@Override
+		List<Object> getSQLParameters(CommunicationsManager commsManager) {
+			List<Object> relationShipTypeIds = new ArrayList<Object>();
+			for (Relationship.Type relType : relationshipTypes) {
+				relationShipTypeIds.add(relType.getTypeID());
+			}
+			return relationShipTypeIds;
+		}
+
+		@Override
+		String getSQLTemplate(int parameterCount) {
+			return " relationships.relationship_type IN ( " + PreparedQuery.placeholders(parameterCount) + " )";
+		}
 	}
 
 	/**
@@ -162,6 +208,25 @@ public DateRangeFilter(long startDate, long endDate) {
 			}
 		}
 
+		/**
+		 * Gets the start of the date range.
+		 *
+		 * @return The start date in epoch, 0 if not specified.
+		 */
+		long getStartDate() {
+			return startDate;
+		}
+
+		/**
+		 * Gets the end of the date range, which is the day after the end date
+		 * the filter was constructed with and is not in the range.
+		 *
+		 * @return The end date in epoch, 0 if not specified.
+		 */
+		long getEndDate() {
+			return endDate;
+		}
+
 		@Override
 		public String getDescription() {
 			return "Filters communications by date range.";
@@ -191,6 +256,25 @@ public String getSQL(CommunicationsManager commsManager) {
 			}
 			return sql;
 		}
+
+		/**
+		 * Binds the start and end dates. A date that is not specified is bound
+		 * as the smallest or largest date, so that all date ranges share one
+		 * template.
+		 */
+		@Override
+		List<Object> getSQLParameters(CommunicationsManager commsManager) {
+			if ((0 == startDate) && (0 == endDate)) {
+				return Collections.emptyList();
+			}
+			return Arrays.<Object>asList(startDate > 0 ? startDate : Long.MIN_VALUE, endDate > 0 ? endDate : Long.MAX_VALUE);
+		}
+
+		@Override
+		String getSQLTemplate(int parameterCount) {
+			return " relationships.date_time IS NULL"
+					+ " OR ( relationships.date_time >= ? AND relationships.date_time < ? )";
+		}
 	}
 
 	/**
@@ -211,6 +295,15 @@ public AccountTypeFilter(Collection<Account.Type> accountTypes) {
 			this.accountTypes = new HashSet<Account.Type>(accountTypes);
 		}
 
+		/**
+		 * Gets the account types the filter lets through.
+		 *
+		 * @return The account types, none meaning all of them.
+		 */
+		Set<Account.Type> getAccountTypes() {
+			return Collections.unmodifiableSet(accountTypes);
+		}
+
 		@Override
 		public String getDescription() {
 			return "Filters accounts and relationships by account type.";
@@ -236,6 +329,20 @@ public String getSQL(CommunicationsManager commsManager) {
 			String account_type_ids_list = StringUtils.buildCSVString(type_ids);
 			return " account_types.account_type_id IN ( " + account_type_ids_list + " )";
 		}
+
+		@Override
+		List<Object> getSQLParameters(CommunicationsManager commsManager) {
+			List<Object> type_ids = new ArrayList<Object>();
+			for (Account.Type accountType : accountTypes) {
+				type_ids.add(commsManager.getAccountTypeId(accountType));
+			}
+			return type_ids;
+		}
+
+		@Override
+		String getSQLTemplate(int parameterCount) {
+			return " account_types.account_type_id IN ( " + PreparedQuery.placeholders(parameterCount) + " )";
+		}
 	}
 
 	/**
@@ -256,6 +363,15 @@ public DeviceFilter(Collection<String> deviceIds) {
 			this.deviceIds = new HashSet<String>(deviceIds);
 		}
 
+		/**
+		 * Gets the device ids the filter lets through.
+		 *
+		 * @return The device ids, none meaning all of them.
+		 */
+		Set<String> getDeviceIds() {
+			return Collections.unmodifiableSet(deviceIds);
+		}
+
 		@Override
 		public String getDescription() {
 			return "Filters accounts and relationships by device id.";
@@ -288,5 +404,23 @@ public String getSQL(CommunicationsManager commsManager) {
 			}
 			return sql;
 		}
+
+		@Override
+		List<Object> getSQLParameters(CommunicationsManager commsManager) {
+			List<Object> ds_ids = new ArrayList<Object>();
+			for (String deviceId : deviceIds) {
+				try {
+					ds_ids.addAll(commsManager.getSleuthkitCase().getDataSourceObjIds(deviceId));
+				} catch (TskCoreException ex) {
+					Logger.getLogger(DeviceFilter.class.getName()).log(Level.WARNING, "failed to get datasource object ids for deviceId", ex);
+				}
+			}
+			return ds_ids;
+		}
+
+		@Override
+		String getSQLTemplate(int parameterCount) {
+			return " relationships.data_source_obj_id IN ( " + PreparedQuery.placeholders(parameterCount) + " )";
+		}
 	}
 }
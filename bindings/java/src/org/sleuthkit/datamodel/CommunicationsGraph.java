@@ -0,0 +1,763 @@
+/*
+ * Sleuth Kit Data Model
+ *
+ * Copyright 2018 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.datamodel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An in-memory copy of the account relationships table, for answering the
+ * communications queries without going to the database. The accounts are the
+ * nodes of the graph and the relationships its edges. The edges are kept as
+ * primitive columns, one element per relationship, and the edges of each
+ * account are found through an index in compressed sparse row form: the
+ * edges of node n are adjacentEdges[offsets[n]] to
+ * adjacentEdges[offsets[n + 1] - 1].
+ *
+ * Edges added after the index was built are kept in a list for each of their
+ * nodes until there are enough of them to make rebuilding the index worth it.
+ * A relationship that is added twice is kept twice; the queries only return
+ * distinct results, so this does not change their answers.
+ *
+ * Any number of threads may query the graph while no thread is adding to it.
+ */
+final class CommunicationsGraph {
+
+	private static final int INITIAL_CAPACITY = 16;
+	// The index is rebuilt when the edges added since it was built are more
+	// than this many, or than a quarter of the edges in the index.
+	private static final int MIN_PENDING_EDGES = 4096;
+
+	/**
+	 * Decides whether an edge passes a filter.
+	 */
+	interface EdgeFilter {
+
+		/**
+		 * @param dateTime         The date of the relationship as epoch
+		 *                         seconds, zero if it has none.
+		 * @param relationshipType The relationship type id.
+		 * @param dataSource       The index of the data source of the
+		 *                         relationship.
+		 *
+		 * @return True if the edge passes the filter.
+		 */
+		boolean accept(long dateTime, int relationshipType, int dataSource);
+	}
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	// One element per node.
+	private int nodeCount = 0;
+	private long[] accountIds = new long[INITIAL_CAPACITY];
+	private int[] accountTypeIds = new int[INITIAL_CAPACITY];
+	private String[] accountUniqueIds = new String[INITIAL_CAPACITY];
+	private final LongIntMap nodesByAccountId = new LongIntMap();
+
+	// One element per data source, and per device.
+	private int dataSourceCount = 0;
+	private long[] dataSourceObjIds = new long[INITIAL_CAPACITY];
+	private int[] dataSourceDevices = new int[INITIAL_CAPACITY];
+	private final LongIntMap dataSourcesByObjId = new LongIntMap();
+	private final List<String> deviceIds = new ArrayList<String>();
+	private final Map<String, Integer> devicesById = new HashMap<String, Integer>();
+
+	// One element per edge.
+	private int edgeCount = 0;
+	private int[] edgeNodes1 = new int[INITIAL_CAPACITY];
+	private int[] edgeNodes2 = new int[INITIAL_CAPACITY];
+	private long[] edgeSourceIds = new long[INITIAL_CAPACITY];
+	private long[] edgeDates = new long[INITIAL_CAPACITY];
+	private int[] edgeTypes = new int[INITIAL_CAPACITY];
+	private int[] edgeDataSources = new int[INITIAL_CAPACITY];
+
+	// The index of the first indexedEdgeCount edges, for the first
+	// indexedNodeCount nodes. The edges added before the index is first
+	// built are not found until it is.
+	private boolean indexBuilt = false;
+	private int indexedNodeCount = 0;
+	private int indexedEdgeCount = 0;
+	private int[] offsets = new int[]{0};
+	private int[] adjacentEdges = new int[0];
+
+	// The edges added since the index was built, by node.
+	private final Map<Integer, IntList> pendingEdges = new HashMap<Integer, IntList>();
+	private int pendingEdgeCount = 0;
+
+	/**
+	 * Adds an account, if it is not in the graph yet.
+	 *
+	 * @param accountId       The account id.
+	 * @param accountTypeId   The account type id.
+	 * @param accountUniqueId The normalized account id.
+	 */
+	void addAccount(long accountId, int accountTypeId, String accountUniqueId) {
+		lock.writeLock().lock();
+		try {
+			if (nodesByAccountId.get(accountId) >= 0) {
+				return;
+			}
+			if (nodeCount == accountIds.length) {
+				int capacity = grow(nodeCount);
+				accountIds = Arrays.copyOf(accountIds, capacity);
+				accountTypeIds = Arrays.copyOf(accountTypeIds, capacity);
+				accountUniqueIds = Arrays.copyOf(accountUniqueIds, capacity);
+			}
+			accountIds[nodeCount] = accountId;
+			accountTypeIds[nodeCount] = accountTypeId;
+			accountUniqueIds[nodeCount] = accountUniqueId;
+			nodesByAccountId.put(accountId, nodeCount);
+			nodeCount++;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Adds a data source, if it is not in the graph yet.
+	 *
+	 * @param objId    The object id of the data source.
+	 * @param deviceId The device id of the data source.
+	 */
+	void addDataSource(long objId, String deviceId) {
+		lock.writeLock().lock();
+		try {
+			if (dataSourcesByObjId.get(objId) >= 0) {
+				return;
+			}
+			Integer device = devicesById.get(deviceId);
+			if (null == device) {
+				device = deviceIds.size();
+				deviceIds.add(deviceId);
+				devicesById.put(deviceId, device);
+			}
+			if (dataSourceCount == dataSourceObjIds.length) {
+				int capacity = grow(dataSourceCount);
+				dataSourceObjIds = Arrays.copyOf(dataSourceObjIds, capacity);
+				dataSourceDevices = Arrays.copyOf(dataSourceDevices, capacity);
+			}
+			dataSourceObjIds[dataSourceCount] = objId;
+			dataSourceDevices[dataSourceCount] = device;
+			dataSourcesByObjId.put(objId, dataSourceCount);
+			dataSourceCount++;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Indicates whether a data source is in the graph.
+	 *
+	 * @param objId The object id of the data source.
+	 *
+	 * @return True if the data source is in the graph.
+	 */
+	boolean hasDataSource(long objId) {
+		lock.readLock().lock();
+		try {
+			return dataSourcesByObjId.get(objId) >= 0;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Adds a relationship. Its accounts and data source must have been added
+	 * first. When loading a graph, all the relationships should be added
+	 * before the index is first built.
+	 *
+	 * @param account1Id       The id of the first account.
+	 * @param account2Id       The id of the second account.
+	 * @param sourceId         The id of the artifact the relationship is
+	 *                         derived from.
+	 * @param dateTime         The date of the relationship as epoch seconds,
+	 *                         zero or less if it has none.
+	 * @param relationshipType The relationship type id.
+	 * @param dataSourceObjId  The object id of the data source.
+	 *
+	 * @return False if the relationship was not added because an account or
+	 *         the data source is not in the graph. The queries of the case
+	 *         database leave such relationships out as well.
+	 */
+	boolean addRelationship(long account1Id, long account2Id, long sourceId, long dateTime, int relationshipType, long dataSourceObjId) {
+		lock.writeLock().lock();
+		try {
+			int node1 = nodesByAccountId.get(account1Id);
+			int node2 = nodesByAccountId.get(account2Id);
+			int dataSource = dataSourcesByObjId.get(dataSourceObjId);
+			if (node1 < 0 || node2 < 0 || dataSource < 0) {
+				return false;
+			}
+			if (edgeCount == edgeNodes1.length) {
+				int capacity = grow(edgeCount);
+				edgeNodes1 = Arrays.copyOf(edgeNodes1, capacity);
+				edgeNodes2 = Arrays.copyOf(edgeNodes2, capacity);
+				edgeSourceIds = Arrays.copyOf(edgeSourceIds, capacity);
+				edgeDates = Arrays.copyOf(edgeDates, capacity);
+				edgeTypes = Arrays.copyOf(edgeTypes, capacity);
+				edgeDataSources = Arrays.copyOf(edgeDataSources, capacity);
+			}
+			edgeNodes1[edgeCount] = node1;
+			edgeNodes2[edgeCount] = node2;
+			edgeSourceIds[edgeCount] = sourceId;
+			edgeDates[edgeCount] = Math.max(0, dateTime);
+			edgeTypes[edgeCount] = relationshipType;
+			edgeDataSources[edgeCount] = dataSource;
+			edgeCount++;
+			if (indexBuilt) {
+				addPendingEdge(node1, edgeCount - 1);
+				if (node2 != node1) {
+					addPendingEdge(node2, edgeCount - 1);
+				}
+				pendingEdgeCount++;
+				if (pendingEdgeCount > Math.max(MIN_PENDING_EDGES, indexedEdgeCount / 4)) {
+					buildIndex();
+				}
+			}
+			return true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private void addPendingEdge(int node, int edge) {
+		IntList edges = pendingEdges.get(node);
+		if (null == edges) {
+			edges = new IntList();
+			pendingEdges.put(node, edges);
+		}
+		edges.add(edge);
+	}
+
+	/**
+	 * Builds the index of all the edges. Called once the graph has been
+	 * loaded, and when enough edges have been added since the index was last
+	 * built.
+	 */
+	void buildIndex() {
+		lock.writeLock().lock();
+		try {
+			int[] newOffsets = new int[nodeCount + 1];
+			for (int edge = 0; edge < edgeCount; edge++) {
+				newOffsets[edgeNodes1[edge] + 1]++;
+				if (edgeNodes2[edge] != edgeNodes1[edge]) {
+					newOffsets[edgeNodes2[edge] + 1]++;
+				}
+			}
+			for (int node = 0; node < nodeCount; node++) {
+				newOffsets[node + 1] += newOffsets[node];
+			}
+			int[] next = Arrays.copyOf(newOffsets, nodeCount);
+			int[] newAdjacentEdges = new int[newOffsets[nodeCount]];
+			for (int edge = 0; edge < edgeCount; edge++) {
+				newAdjacentEdges[next[edgeNodes1[edge]]++] = edge;
+				if (edgeNodes2[edge] != edgeNodes1[edge]) {
+					newAdjacentEdges[next[edgeNodes2[edge]]++] = edge;
+				}
+			}
+			offsets = newOffsets;
+			adjacentEdges = newAdjacentEdges;
+			indexBuilt = true;
+			indexedNodeCount = nodeCount;
+			indexedEdgeCount = edgeCount;
+			pendingEdges.clear();
+			pendingEdgeCount = 0;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private static int grow(int count) {
+		return Math.max(INITIAL_CAPACITY, count + (count >> 1));
+	}
+
+	/**
+	 * Gets the number of relationships in the graph.
+	 *
+	 * @return The number of relationships.
+	 */
+	int getRelationshipCount() {
+		lock.readLock().lock();
+		try {
+			return edgeCount;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Gets the data sources of some devices.
+	 *
+	 * @param devices The device ids.
+	 *
+	 * @return The indexes of the data sources.
+	 */
+	BitSet getDataSources(Collection<String> devices) {
+		lock.readLock().lock();
+		try {
+			BitSet dataSources = new BitSet();
+			for (int dataSource = 0; dataSource < dataSourceCount; dataSource++) {
+				if (devices.contains(deviceIds.get(dataSourceDevices[dataSource]))) {
+					dataSources.set(dataSource);
+				}
+			}
+			return dataSources;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Gets the accounts that have at least one relationship that passes a
+	 * filter, once for each device they have such relationships on.
+	 *
+	 * @param filter         The filter the relationships must pass, null for
+	 *                       none.
+	 * @param accountTypeIds The types the accounts must have, null for any.
+	 *
+	 * @return The accounts and devices, in order of account.
+	 */
+	List<AccountDevice> getAccountDevices(EdgeFilter filter, BitSet accountTypeIds) {
+		lock.readLock().lock();
+		try {
+			List<AccountDevice> accountDevices = new ArrayList<AccountDevice>();
+			if (deviceIds.size() <= Long.SIZE) {
+				// Scan the edge columns in order, which is much faster than
+				// following the index, keeping the devices of each node in
+				// the bits of a long.
+				long[] nodeDevices = new long[nodeCount];
+				for (int edge = 0; edge < edgeCount; edge++) {
+					if (accept(filter, edge)) {
+						long device = 1L << dataSourceDevices[edgeDataSources[edge]];
+						nodeDevices[edgeNodes1[edge]] |= device;
+						nodeDevices[edgeNodes2[edge]] |= device;
+					}
+				}
+				for (int node = 0; node < nodeCount; node++) {
+					if (nodeDevices[node] != 0 && (null == accountTypeIds || accountTypeIds.get(this.accountTypeIds[node]))) {
+						for (long devices = nodeDevices[node]; devices != 0; devices &= devices - 1) {
+							accountDevices.add(newAccountDevice(node, Long.numberOfTrailingZeros(devices)));
+						}
+					}
+				}
+				return accountDevices;
+			}
+
+			BitSet devices = new BitSet();
+			IntList edges = new IntList();
+			for (int node = 0; node < nodeCount; node++) {
+				if (null != accountTypeIds && !accountTypeIds.get(this.accountTypeIds[node])) {
+					continue;
+				}
+				devices.clear();
+				for (int i = 0, count = getEdges(node, edges); i < count; i++) {
+					int edge = edges.get(i);
+					if (accept(filter, edge)) {
+						devices.set(dataSourceDevices[edgeDataSources[edge]]);
+					}
+				}
+				for (int device = devices.nextSetBit(0); device >= 0; device = devices.nextSetBit(device + 1)) {
+					accountDevices.add(newAccountDevice(node, device));
+				}
+			}
+			return accountDevices;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Gets the accounts that have a relationship with an account, once for
+	 * each device they have such relationships on.
+	 *
+	 * @param accountId      The id of the account.
+	 * @param dataSources    The indexes of the data sources the relationships
+	 *                       must be from.
+	 * @param filter         The filter the relationships must pass, null for
+	 *                       none.
+	 * @param accountTypeIds The types the related accounts must have, null for
+	 *                       any.
+	 *
+	 * @return The related accounts and devices.
+	 */
+	List<AccountDevice> getRelatedAccountDevices(long accountId, BitSet dataSources, EdgeFilter filter, BitSet accountTypeIds) {
+		lock.readLock().lock();
+		try {
+			List<AccountDevice> accountDevices = new ArrayList<AccountDevice>();
+			int node = nodesByAccountId.get(accountId);
+			if (node < 0) {
+				return accountDevices;
+			}
+			Set<Long> found = new HashSet<Long>();
+			IntList edges = new IntList();
+			for (int i = 0, count = getEdges(node, edges); i < count; i++) {
+				int edge = edges.get(i);
+				int otherNode = edgeNodes1[edge] == node ? edgeNodes2[edge] : edgeNodes1[edge];
+				if (dataSources.get(edgeDataSources[edge]) && accept(filter, edge)
+						&& (null == accountTypeIds || accountTypeIds.get(this.accountTypeIds[otherNode]))) {
+					int device = dataSourceDevices[edgeDataSources[edge]];
+					if (found.add(((long) otherNode << 32) | device)) {
+						accountDevices.add(newAccountDevice(otherNode, device));
+					}
+				}
+			}
+			return accountDevices;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Counts the distinct relationship sources of the relationships between
+	 * each pair of accounts in a set, by device. The relationships from
+	 * account a to account b and from b to a are counted separately.
+	 *
+	 * @param accountIds The ids of the accounts.
+	 * @param devices    The device ids the relationships must be on.
+	 * @param filter     The filter the relationships must pass, null for none.
+	 *
+	 * @return The counts.
+	 */
+	List<RelationshipCount> getRelationshipCounts(Collection<Long> accountIds, Collection<String> devices, EdgeFilter filter) {
+		lock.readLock().lock();
+		try {
+			BitSet nodes = new BitSet();
+			for (Long accountId : accountIds) {
+				int node = nodesByAccountId.get(accountId);
+				if (node >= 0) {
+					nodes.set(node);
+				}
+			}
+			BitSet deviceSet = new BitSet();
+			for (String device : devices) {
+				Integer index = devicesById.get(device);
+				if (null != index) {
+					deviceSet.set(index);
+				}
+			}
+
+			// The distinct sources, by device and ordered pair of nodes.
+			Map<List<Integer>, Set<Long>> sources = new HashMap<List<Integer>, Set<Long>>();
+			IntList edges = new IntList();
+			for (int node = nodes.nextSetBit(0); node >= 0; node = nodes.nextSetBit(node + 1)) {
+				for (int i = 0, count = getEdges(node, edges); i < count; i++) {
+					int edge = edges.get(i);
+					int device = dataSourceDevices[edgeDataSources[edge]];
+					// Each edge is seen from its first node.
+					if (edgeNodes1[edge] == node && nodes.get(edgeNodes2[edge])
+							&& deviceSet.get(device) && accept(filter, edge)) {
+						List<Integer> key = Arrays.asList(device, node, edgeNodes2[edge]);
+						Set<Long> pairSources = sources.get(key);
+						if (null == pairSources) {
+							pairSources = new HashSet<Long>();
+							sources.put(key, pairSources);
+						}
+						pairSources.add(edgeSourceIds[edge]);
+					}
+				}
+			}
+
+			List<RelationshipCount> counts = new ArrayList<RelationshipCount>(sources.size());
+			for (Map.Entry<List<Integer>, Set<Long>> entry : sources.entrySet()) {
+				String device = deviceIds.get(entry.getKey().get(0));
+				counts.add(new RelationshipCount(newAccountDevice(entry.getKey().get(1), device),
+						newAccountDevice(entry.getKey().get(2), device), entry.getValue().size()));
+			}
+			return counts;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Gets the edges of a node, from the index and from the edges added since
+	 * it was built.
+	 *
+	 * @param node  The node.
+	 * @param edges The list to put the edges in, which is cleared first.
+	 *
+	 * @return The number of edges.
+	 */
+	private int getEdges(int node, IntList edges) {
+		edges.clear();
+		if (node < indexedNodeCount) {
+			edges.addAll(adjacentEdges, offsets[node], offsets[node + 1]);
+		}
+		IntList pending = pendingEdges.get(node);
+		if (null != pending) {
+			edges.addAll(pending.values, 0, pending.size);
+		}
+		return edges.size;
+	}
+
+	private boolean accept(EdgeFilter filter, int edge) {
+		return null == filter || filter.accept(edgeDates[edge], edgeTypes[edge], edgeDataSources[edge]);
+	}
+
+	private AccountDevice newAccountDevice(int node, int device) {
+		return newAccountDevice(node, deviceIds.get(device));
+	}
+
+	private AccountDevice newAccountDevice(int node, String deviceId) {
+		return new AccountDevice(accountIds[node], accountTypeIds[node], accountUniqueIds[node], deviceId);
+	}
+
+	/**
+	 * Makes a filter that passes the relationships of some types.
+	 *
+	 * @param relationshipTypes The relationship type ids.
+	 *
+	 * @return The filter.
+	 */
+	static EdgeFilter relationshipTypeFilter(final BitSet relationshipTypes) {
+		return new EdgeFilter() {
+			@Override
+			public boolean accept(long dateTime, int relationshipType, int dataSource) {
+				return relationshipTypes.get(relationshipType);
+			}
+		};
+	}
+
+	/**
+	 * Makes a filter that passes the relationships within a date range, and
+	 * the relationships that have no date.
+	 *
+	 * @param startDate The first date of the range as epoch seconds, zero for
+	 *                  none.
+	 * @param endDate   The date after the range as epoch seconds, zero for
+	 *                  none.
+	 *
+	 * @return The filter.
+	 */
+	static EdgeFilter dateRangeFilter(final long startDate, final long endDate) {
+		return new EdgeFilter() {
+			@Override
+			public boolean accept(long dateTime, int relationshipType, int dataSource) {
+				return dateTime == 0
+						|| ((startDate <= 0 || dateTime >= startDate) && (endDate <= 0 || dateTime < endDate));
+			}
+		};
+	}
+
+	/**
+	 * Makes a filter that passes the relationships from some data sources.
+	 *
+	 * @param dataSources The indexes of the data sources.
+	 *
+	 * @return The filter.
+	 */
+	static EdgeFilter dataSourceFilter(final BitSet dataSources) {
+		return new EdgeFilter() {
+			@Override
+			public boolean accept(long dateTime, int relationshipType, int dataSource) {
+				return dataSources.get(dataSource);
+			}
+		};
+	}
+
+	/**
+	 * Makes a filter that passes the relationships that pass all of some
+	 * filters.
+	 *
+	 * @param filters The filters.
+	 *
+	 * @return The filter, or null if there are no filters.
+	 */
+	static EdgeFilter allOf(List<EdgeFilter> filters) {
+		if (filters.isEmpty()) {
+			return null;
+		}
+		if (filters.size() == 1) {
+			return filters.get(0);
+		}
+		final EdgeFilter[] all = filters.toArray(new EdgeFilter[filters.size()]);
+		return new EdgeFilter() {
+			@Override
+			public boolean accept(long dateTime, int relationshipType, int dataSource) {
+				for (EdgeFilter filter : all) {
+					if (!filter.accept(dateTime, relationshipType, dataSource)) {
+						return false;
+					}
+				}
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * An account on a device, as found by a query.
+	 */
+	static final class AccountDevice {
+
+		private final long accountId;
+		private final int accountTypeId;
+		private final String accountUniqueId;
+		private final String deviceId;
+
+		AccountDevice(long accountId, int accountTypeId, String accountUniqueId, String deviceId) {
+			this.accountId = accountId;
+			this.accountTypeId = accountTypeId;
+			this.accountUniqueId = accountUniqueId;
+			this.deviceId = deviceId;
+		}
+
+		long getAccountId() {
+			return accountId;
+		}
+
+		int getAccountTypeId() {
+			return accountTypeId;
+		}
+
+		String getAccountUniqueId() {
+			return accountUniqueId;
+		}
+
+		String getDeviceId() {
+			return deviceId;
+		}
+	}
+
+	/**
+	 * The number of distinct relationship sources from one account on a
+	 * device to another.
+	 */
+	static final class RelationshipCount {
+
+		private final AccountDevice account1;
+		private final AccountDevice account2;
+		private final long count;
+
+		RelationshipCount(AccountDevice account1, AccountDevice account2, long count) {
+			this.account1 = account1;
+			this.account2 = account2;
+			this.count = count;
+		}
+
+		AccountDevice getAccount1() {
+			return account1;
+		}
+
+		AccountDevice getAccount2() {
+			return account2;
+		}
+
+		long getCount() {
+			return count;
+		}
+	}
+
+	/**
+	 * A growable list of ints.
+	 */
+	private static final class IntList {
+
+		private int[] values = new int[INITIAL_CAPACITY];
+		private int size = 0;
+
+		void add(int value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, grow(size));
+			}
+			values[size++] = value;
+		}
+
+		void addAll(int[] source, int start, int end) {
+			int count = end - start;
+			if (size + count > values.length) {
+				values = Arrays.copyOf(values, Math.max(size + count, grow(size)));
+			}
+			System.arraycopy(source, start, values, size, count);
+			size += count;
+		}
+
+		int get(int index) {
+			return values[index];
+		}
+
+		void clear() {
+			size = 0;
+		}
+	}
+
+	/**
+	 * A map from longs to non-negative ints with open addressing, which takes
+	 * far less memory than a map of boxed values.
+	 */
+	private static final class LongIntMap {
+
+		private long[] keys = new long[INITIAL_CAPACITY];
+		// The value plus one, zero for an empty slot.
+		private int[] values = new int[INITIAL_CAPACITY];
+		private int size = 0;
+
+		/**
+		 * @return The value for the key, or -1 if there is none.
+		 */
+		int get(long key) {
+			int mask = keys.length - 1;
+			for (int slot = hash(key) & mask;; slot = (slot + 1) & mask) {
+				if (values[slot] == 0) {
+					return -1;
+				}
+				if (keys[slot] == key) {
+					return values[slot] - 1;
+				}
+			}
+		}
+
+		void put(long key, int value) {
+			if ((size + 1) * 2 > keys.length) {
+				long[] oldKeys = keys;
+				int[] oldValues = values;
+				keys = new long[oldKeys.length * 2];
+				values = new int[oldKeys.length * 2];
+				size = 0;
+				for (int slot = 0; slot < oldKeys.length; slot++) {
+					if (oldValues[slot] != 0) {
+						put(oldKeys[slot], oldValues[slot] - 1);
+					}
+				}
+			}
+			int mask = keys.length - 1;
+			int slot = hash(key) & mask;
+			while (values[slot] != 0 && keys[slot] != key) {
+				slot = (slot + 1) & mask;
+			}
+			if (values[slot] == 0) {
+				size++;
+			}
+			keys[slot] = key;
+			values[slot] = value + 1;
+		}
+
+		private static int hash(long key) {
+			long hash = key * 0x9E3779B97F4A7C15L;
+			return (int) (hash ^ (hash >>> 32));
+		}
+	}
+}
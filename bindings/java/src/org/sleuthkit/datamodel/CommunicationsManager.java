@@ -18,15 +18,19 @@
  */
 package org.sleuthkit.datamodel;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -46,6 +50,19 @@ public final class CommunicationsManager {
 	private static final Logger LOGGER = Logger.getLogger(CommunicationsManager.class.getName());
 
 	private final SleuthkitCase db;
+	private final AccountCache accountCache = new AccountCache(DEFAULT_ACCOUNT_CACHE_SIZE);
+	// The SQL templates of compiled CommunicationsFilters, by the kinds of
+	// their subfilters and the number of values of each.
+	private final Map<String, String> filterTemplates = Collections.synchronizedMap(new LinkedHashMap<String, String>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+			return size() > MAX_FILTER_TEMPLATES;
+		}
+	});
+	// Null unless the in-memory communications graph is turned on.
+	private volatile CommunicationsGraph communicationsGraph = null;
 
 	private final Map<Account.Type, Integer> accountTypeToTypeIdMap
 			= new ConcurrentHashMap<Account.Type, Integer>();
@@ -62,6 +79,14 @@ public final class CommunicationsManager {
 			));
 	private static final String RELATIONSHIP_ARTIFACT_TYPE_IDS_CSV_STR
 			= StringUtils.buildCSVString(RELATIONSHIP_ARTIFACT_TYPE_IDS);
+	private static final int DEFAULT_ACCOUNT_CACHE_SIZE = 10000;
+	// The number of communications whose accounts and artifacts are resolved together.
+	private static final int COMMUNICATIONS_PER_CHUNK = 500;
+	// Six parameters per row keeps a multi-row insert under the SQLite limit of 999.
+	private static final int RELATIONSHIPS_PER_INSERT = 100;
+	private static final int MAX_FILTER_TEMPLATES = 256;
+	// The number of relationships read at a time when loading the communications graph.
+	private static final int GRAPH_FETCH_SIZE = 10000;
 
 	/**
 	 * Construct a CommunicationsManager for the given SleuthkitCase.
@@ -203,19 +228,25 @@ public org.sleuthkit.datamodel.Account.Type addAccountType(String accountTypeNam
 
 		CaseDbConnection connection = db.getConnection();
 		db.acquireSingleUserCaseWriteLock();
-		Statement s = null;
+		PreparedStatement select = null;
+		PreparedStatement insert = null;
 		ResultSet rs = null;
 		try {
 			connection.beginTransaction();
-			s = connection.createStatement();
-			rs = connection.executeQuery(s, "SELECT * FROM account_types WHERE type_name = '" + accountTypeName + "'"); //NON-NLS
+			select = connection.getPreparedStatement("SELECT * FROM account_types WHERE type_name = ?"); //NON-NLS
+			select.setString(1, accountTypeName);
+			rs = connection.executeQuery(select);
 			if (!rs.next()) {
 				rs.close();
 
-				s.execute("INSERT INTO account_types (type_name, display_name) VALUES ( '" + accountTypeName + "', '" + displayName + "')"); //NON-NLS
+				insert = connection.getPreparedStatement("INSERT INTO account_types (type_name, display_name) VALUES (?, ?)"); //NON-NLS
+				insert.setString(1, accountTypeName);
+				insert.setString(2, displayName);
+				connection.executeUpdate(insert);
 
 				// Read back the typeID
-				rs = connection.executeQuery(s, "SELECT * FROM account_types WHERE type_name = '" + accountTypeName + "'"); //NON-NLS
+				select.setString(1, accountTypeName);
+				rs = connection.executeQuery(select);
 				rs.next();
 
 				int typeID = rs.getInt("account_type_id");
@@ -240,7 +271,8 @@ public org.sleuthkit.datamodel.Account.Type addAccountType(String accountTypeNam
 			throw new TskCoreException("Error adding account type", ex);
 		} finally {
 			closeResultSet(rs);
-			closeStatement(s);
+			closeStatement(select);
+			closeStatement(insert);
 			connection.close();
 			db.releaseSingleUserCaseWriteLock();
 		}
@@ -300,25 +332,31 @@ public AccountFileInstance createAccountFileInstance(org.sleuthkit.datamodel.Acc
 	 */
 	// NOTE: Full name given for Type for doxygen linking
 	public Account getAccount(org.sleuthkit.datamodel.Account.Type accountType, String accountUniqueID) throws TskCoreException {
-		Account account = null;
+		int accountTypeId = getAccountTypeId(accountType);
+		String normalizedAccountID = normalizeAccountID(accountType, accountUniqueID);
+		Account account = accountCache.get(accountTypeId, normalizedAccountID);
+		if (null != account) {
+			return account;
+		}
 		CaseDbConnection connection = db.getConnection();
 		db.acquireSingleUserCaseReadLock();
-		Statement s = null;
+		PreparedStatement statement = null;
 		ResultSet rs = null;
 		try {
-			s = connection.createStatement();
-			rs = connection.executeQuery(s, "SELECT * FROM accounts WHERE account_type_id = " + getAccountTypeId(accountType)
-					+ " AND account_unique_identifier = '" + normalizeAccountID(accountType, accountUniqueID) + "'"); //NON-NLS
+			statement = connection.getPreparedStatement("SELECT * FROM accounts WHERE account_type_id = ? AND account_unique_identifier = ?"); //NON-NLS
+			statement.setInt(1, accountTypeId);
+			statement.setString(2, normalizedAccountID);
+			rs = connection.executeQuery(statement);
 
 			if (rs.next()) {
-				account = new Account(rs.getInt("account_id"), accountType,
+				account = accountCache.intern(accountTypeId, accountType, rs.getInt("account_id"),
 						rs.getString("account_unique_identifier"));
 			}
 		} catch (SQLException ex) {
 			throw new TskCoreException("Error getting account type id", ex);
 		} finally {
 			closeResultSet(rs);
-			closeStatement(s);
+			closeStatement(statement);
 			connection.close();
 			db.releaseSingleUserCaseReadLock();
 		}
@@ -326,6 +364,325 @@ public Account getAccount(org.sleuthkit.datamodel.Account.Type accountType, Stri
 		return account;
 	}
 
+	/**
+	 * Sets the maximum number of accounts kept in memory by getAccount() and
+	 * the queries that return accounts.
+	 *
+	 * @param maxEntries The maximum number of accounts, zero or less to
+	 *                   disable the cache.
+	 */
+	public void setAccountCacheSize(int maxEntries) {
+		accountCache.setMaxEntries(maxEntries);
+	}
+
+	/**
+	 * Gets the counters of the cache of accounts.
+	 *
+	 * @return A snapshot of the counters.
+	 */
+	public SleuthkitCase.ObjectCacheStats getAccountCacheStats() {
+		return accountCache.getStats();
+	}
+
+	/**
+	 * Turns the in-memory communications graph on or off. While it is on,
+	 * getAccountDeviceInstancesWithRelationships(),
+	 * getRelatedAccountDeviceInstances() and getRelationshipCountsPairwise()
+	 * are answered from a copy of the account relationships kept in memory
+	 * instead of by querying the case database, which is much faster for
+	 * large numbers of relationships. The copy takes about 40 bytes per
+	 * relationship.
+	 *
+	 * Turning the graph on loads all the account relationships. The
+	 * relationships added through this communications manager afterwards are
+	 * added to the graph as well, but the ones added by other processes
+	 * sharing a multi-user case are not seen until the graph is turned on
+	 * again. For a single-user case the graph is loaded and put in place
+	 * under the case write lock, so no relationship added meanwhile is
+	 * missed.
+	 *
+	 * @param enabled True to load the graph, or to reload it if it is on;
+	 *                false to release it.
+	 *
+	 * @throws TskCoreException If there is a problem loading the graph.
+	 */
+	public void setCommunicationsGraphEnabled(boolean enabled) throws TskCoreException {
+		db.acquireSingleUserCaseWriteLock();
+		try {
+			communicationsGraph = enabled ? loadCommunicationsGraph() : null;
+		} finally {
+			db.releaseSingleUserCaseWriteLock();
+		}
+	}
+
+	/**
+	 * Indicates whether the in-memory communications graph is on.
+	 *
+	 * @return True if the graph is on.
+	 */
+	public boolean isCommunicationsGraphEnabled() {
+		return null != communicationsGraph;
+	}
+
+	/**
+	 * Loads the accounts, data sources and account relationships of the case
+	 * into a new communications graph.
+	 *
+	 * @return The graph.
+	 *
+	 * @throws TskCoreException If there is a problem querying the case
+	 *                          database.
+	 */
+	private CommunicationsGraph loadCommunicationsGraph() throws TskCoreException {
+		CommunicationsGraph graph = new CommunicationsGraph();
+		CaseDbConnection connection = db.getConnection();
+		db.acquireSingleUserCaseReadLock();
+		Statement s = null;
+		ResultSet rs = null;
+		try {
+			// The PostgreSQL driver only reads the rows in batches when
+			// auto-commit is off.
+			connection.beginTransaction();
+			s = connection.createStatement();
+			s.setFetchSize(GRAPH_FETCH_SIZE);
+			rs = connection.executeQuery(s, "SELECT account_id, account_type_id, account_unique_identifier FROM accounts"); //NON-NLS
+			while (rs.next()) {
+				graph.addAccount(rs.getLong("account_id"), rs.getInt("account_type_id"), rs.getString("account_unique_identifier"));
+			}
+			closeResultSet(rs);
+			rs = connection.executeQuery(s, "SELECT obj_id, device_id FROM data_source_info"); //NON-NLS
+			while (rs.next()) {
+				graph.addDataSource(rs.getLong("obj_id"), rs.getString("device_id"));
+			}
+			closeResultSet(rs);
+			rs = connection.executeQuery(s, "SELECT account1_id, account2_id, relationship_source_obj_id, date_time, relationship_type, data_source_obj_id " //NON-NLS
+					+ "FROM account_relationships"); //NON-NLS
+			while (rs.next()) {
+				graph.addRelationship(rs.getLong("account1_id"), rs.getLong("account2_id"), rs.getLong("relationship_source_obj_id"),
+						rs.getLong("date_time"), rs.getInt("relationship_type"), rs.getLong("data_source_obj_id"));
+			}
+			connection.commitTransaction();
+		} catch (SQLException ex) {
+			connection.rollbackTransaction();
+			throw new TskCoreException("Error loading communications graph", ex);
+		} finally {
+			closeResultSet(rs);
+			closeStatement(s);
+			connection.close();
+			db.releaseSingleUserCaseReadLock();
+		}
+		graph.buildIndex();
+		return graph;
+	}
+
+	/**
+	 * Adds account relationships that have been written to the case database
+	 * to the communications graph.
+	 *
+	 * @param graph      The graph.
+	 * @param accountIds The ids of the accounts of the relationships, by type
+	 *                   and normalized id.
+	 * @param rows       The relationships, as the rows written by
+	 *                   insertRelationships().
+	 *
+	 * @throws TskCoreException If there is a problem looking up the device of
+	 *                          a data source.
+	 */
+	private void addToCommunicationsGraph(CommunicationsGraph graph, Map<Account.Type, Map<String, Long>> accountIds, List<long[]> rows) throws TskCoreException {
+		for (Map.Entry<Account.Type, Map<String, Long>> entry : accountIds.entrySet()) {
+			int accountTypeId = getAccountTypeId(entry.getKey());
+			for (Map.Entry<String, Long> account : entry.getValue().entrySet()) {
+				graph.addAccount(account.getValue(), accountTypeId, account.getKey());
+			}
+		}
+		for (long[] row : rows) {
+			if (!graph.hasDataSource(row[5])) {
+				String deviceId = getDeviceId(row[5]);
+				if (null != deviceId) {
+					graph.addDataSource(row[5], deviceId);
+				}
+			}
+			graph.addRelationship(row[0], row[1], row[2], row[3], (int) row[4], row[5]);
+		}
+	}
+
+	/**
+	 * Gets the device id of a data source.
+	 *
+	 * @param dataSourceObjId The object id of the data source.
+	 *
+	 * @return The device id, or null if there is no such data source.
+	 *
+	 * @throws TskCoreException If there is a problem querying the case
+	 *                          database.
+	 */
+	private String getDeviceId(long dataSourceObjId) throws TskCoreException {
+		CaseDbConnection connection = db.getConnection();
+		db.acquireSingleUserCaseReadLock();
+		PreparedStatement statement = null;
+		ResultSet rs = null;
+		try {
+			statement = connection.getPreparedStatement("SELECT device_id FROM data_source_info WHERE obj_id = ?"); //NON-NLS
+			statement.setLong(1, dataSourceObjId);
+			rs = connection.executeQuery(statement);
+			return rs.next() ? rs.getString("device_id") : null;
+		} catch (SQLException ex) {
+			throw new TskCoreException("Error getting device id of data source " + dataSourceObjId, ex);
+		} finally {
+			closeResultSet(rs);
+			closeStatement(statement);
+			connection.close();
+			db.releaseSingleUserCaseReadLock();
+		}
+	}
+
+	/**
+	 * Translates the filters that apply to relationships into a filter of
+	 * the communications graph. Only the DateRangeFilter, DeviceFilter and
+	 * RelationshipTypeFilter sub-filters are used.
+	 *
+	 * @param graph  The graph.
+	 * @param filter The filters, may be null.
+	 *
+	 * @return The graph filter, or null if no relationships are filtered out.
+	 */
+	private CommunicationsGraph.EdgeFilter getGraphEdgeFilter(CommunicationsGraph graph, CommunicationsFilter filter) {
+		List<CommunicationsGraph.EdgeFilter> edgeFilters = new ArrayList<CommunicationsGraph.EdgeFilter>();
+		if (null != filter) {
+			for (CommunicationsFilter.SubFilter subFilter : filter.getAndFilters()) {
+				if (subFilter instanceof CommunicationsFilter.DateRangeFilter) {
+					CommunicationsFilter.DateRangeFilter dateRangeFilter = (CommunicationsFilter.DateRangeFilter) subFilter;
+					if (dateRangeFilter.getStartDate() > 0 || dateRangeFilter.getEndDate() > 0) {
+						edgeFilters.add(CommunicationsGraph.dateRangeFilter(dateRangeFilter.getStartDate(), dateRangeFilter.getEndDate()));
+					}
+				} else if (subFilter instanceof CommunicationsFilter.DeviceFilter) {
+					Set<String> deviceIds = ((CommunicationsFilter.DeviceFilter) subFilter).getDeviceIds();
+					BitSet dataSources = graph.getDataSources(deviceIds);
+					// As in the SQL, no data sources means no filtering.
+					if (!dataSources.isEmpty()) {
+						edgeFilters.add(CommunicationsGraph.dataSourceFilter(dataSources));
+					}
+				} else if (subFilter instanceof CommunicationsFilter.RelationshipTypeFilter) {
+					Set<Relationship.Type> relationshipTypes = ((CommunicationsFilter.RelationshipTypeFilter) subFilter).getRelationshipTypes();
+					if (!relationshipTypes.isEmpty()) {
+						BitSet typeIds = new BitSet();
+						for (Relationship.Type relationshipType : relationshipTypes) {
+							typeIds.set(relationshipType.getTypeID());
+						}
+						edgeFilters.add(CommunicationsGraph.relationshipTypeFilter(typeIds));
+					}
+				}
+			}
+		}
+		return CommunicationsGraph.allOf(edgeFilters);
+	}
+
+	/**
+	 * Gets the account types that the AccountTypeFilter sub-filters of some
+	 * filters let through.
+	 *
+	 * @param filter The filters, may be null.
+	 *
+	 * @return The account type ids, or null if all types are let through.
+	 */
+	private BitSet getGraphAccountTypeIds(CommunicationsFilter filter) {
+		BitSet accountTypeIds = null;
+		if (null != filter) {
+			for (CommunicationsFilter.SubFilter subFilter : filter.getAndFilters()) {
+				if (subFilter instanceof CommunicationsFilter.AccountTypeFilter) {
+					Set<Account.Type> accountTypes = ((CommunicationsFilter.AccountTypeFilter) subFilter).getAccountTypes();
+					if (!accountTypes.isEmpty()) {
+						BitSet typeIds = new BitSet();
+						for (Account.Type accountType : accountTypes) {
+							typeIds.set(getAccountTypeId(accountType));
+						}
+						if (null == accountTypeIds) {
+							accountTypeIds = typeIds;
+						} else {
+							accountTypeIds.and(typeIds);
+						}
+					}
+				}
+			}
+		}
+		return accountTypeIds;
+	}
+
+	/**
+	 * Gets the shared account device instance object for an account found in
+	 * the communications graph.
+	 *
+	 * @param accountDevice The account and device.
+	 * @param accountTypes  The account types, by id. Types that are looked
+	 *                      up are added to it.
+	 *
+	 * @return The account device instance.
+	 *
+	 * @throws TskCoreException If the account object cannot be created.
+	 */
+	private AccountDeviceInstance getAccountDeviceInstance(CommunicationsGraph.AccountDevice accountDevice, Map<Integer, Account.Type> accountTypes) throws TskCoreException {
+		Account.Type accountType = accountTypes.get(accountDevice.getAccountTypeId());
+		if (null == accountType) {
+			accountType = getAccountTypeById(accountDevice.getAccountTypeId());
+			accountTypes.put(accountDevice.getAccountTypeId(), accountType);
+		}
+		return accountCache.internDeviceInstance(accountDevice.getAccountTypeId(), accountType,
+				accountDevice.getAccountId(), accountDevice.getAccountUniqueId(), accountDevice.getDeviceId());
+	}
+
+	/**
+	 * Gets the account types known to this communications manager by id.
+	 *
+	 * @return The account types.
+	 */
+	private Map<Integer, Account.Type> getAccountTypesById() {
+		Map<Integer, Account.Type> accountTypes = new HashMap<Integer, Account.Type>();
+		for (Map.Entry<Account.Type, Integer> entry : accountTypeToTypeIdMap.entrySet()) {
+			accountTypes.put(entry.getValue(), entry.getKey());
+		}
+		return accountTypes;
+	}
+
+	/**
+	 * Gets an account type that is not known to this communications manager
+	 * yet, such as a type added by another process sharing a multi-user
+	 * case, by its id.
+	 *
+	 * @param accountTypeId The account type id.
+	 *
+	 * @return The account type.
+	 *
+	 * @throws TskCoreException If there is no such account type, or a problem
+	 *                          querying the case database.
+	 */
+	private Account.Type getAccountTypeById(int accountTypeId) throws TskCoreException {
+		String typeName = null;
+		CaseDbConnection connection = db.getConnection();
+		db.acquireSingleUserCaseReadLock();
+		PreparedStatement statement = null;
+		ResultSet rs = null;
+		try {
+			statement = connection.getPreparedStatement("SELECT type_name FROM account_types WHERE account_type_id = ?"); //NON-NLS
+			statement.setInt(1, accountTypeId);
+			rs = connection.executeQuery(statement);
+			if (rs.next()) {
+				typeName = rs.getString("type_name");
+			}
+		} catch (SQLException ex) {
+			throw new TskCoreException("Error getting account type " + accountTypeId, ex);
+		} finally {
+			closeResultSet(rs);
+			closeStatement(statement);
+			connection.close();
+			db.releaseSingleUserCaseReadLock();
+		}
+		Account.Type accountType = null != typeName ? getAccountType(typeName) : null;
+		if (null == accountType) {
+			throw new TskCoreException("No account type with id " + accountTypeId);
+		}
+		return accountType;
+	}
+
 	/**
 	 * Add a relationship between the sender and each of the recipient account
 	 * instances. All account instances must be from the same data source.
@@ -362,10 +719,10 @@ public void addRelationships(AccountFileInstance sender, List<AccountFileInstanc
 		 * correctly.
 		 */
 		// Currently we do not save the direction of communication
-		List<Long> accountIDs = new ArrayList<Long>();
+		List<Account> accounts = new ArrayList<Account>();
 
 		if (null != sender) {
-			accountIDs.add(sender.getAccount().getAccountID());
+			accounts.add(sender.getAccount());
 			if (sender.getDataSourceObjectID() != sourceArtifact.getDataSourceObjectID()) {
 				throw new TskDataException("Sender and relationship are from different data sources :"
 						+ "Sender source ID" + sender.getDataSourceObjectID() + " != relationship source ID" + sourceArtifact.getDataSourceObjectID());
@@ -373,17 +730,17 @@ public void addRelationships(AccountFileInstance sender, List<AccountFileInstanc
 		}
 
 		for (AccountFileInstance recipient : recipients) {
-			accountIDs.add(recipient.getAccount().getAccountID());
+			accounts.add(recipient.getAccount());
 			if (recipient.getDataSourceObjectID() != sourceArtifact.getDataSourceObjectID()) {
 				throw new TskDataException("Recipient and relationship are from different data sources :"
 						+ "Recipient source ID" + recipient.getDataSourceObjectID() + " != relationship source ID" + sourceArtifact.getDataSourceObjectID());
 			}
 		}
 
-		for (int i = 0; i < accountIDs.size(); i++) {
-			for (int j = i + 1; j < accountIDs.size(); j++) {
+		for (int i = 0; i < accounts.size(); i++) {
+			for (int j = i + 1; j < accounts.size(); j++) {
 				try {
-					addAccountsRelationship(accountIDs.get(i), accountIDs.get(j),
+					addAccountsRelationship(accounts.get(i), accounts.get(j),
 							sourceArtifact, relationshipType, dateTime);
 				} catch (TskCoreException ex) {
 					// @@@ This should probably not be caught and instead we stop adding
@@ -393,6 +750,342 @@ public void addRelationships(AccountFileInstance sender, List<AccountFileInstanc
 		}
 	}
 
+	/**
+	 * Records a stream of communications in a single transaction, which is
+	 * much faster than calling createAccountFileInstance() and
+	 * addRelationships() for each of them when importing large numbers of
+	 * messages or calls. The accounts and the account file instance
+	 * artifacts are created as needed, each one only once, and the
+	 * relationships are written with multi-row inserts.
+	 *
+	 * The account file instance artifacts are made for the content that the
+	 * source artifact of each communication is about, so all the accounts of
+	 * a communication are from the same data source as its source artifact.
+	 *
+	 * @param communications The communications.
+	 * @param moduleName     The module recording the communications, for
+	 *                       the account file instance artifacts.
+	 *
+	 * @throws TskCoreException If there is a problem writing to the case
+	 *                          database, in which case none of the
+	 *                          communications are recorded.
+	 * @throws TskDataException If the source artifact and relationship type
+	 *                          of a communication are not compatible, in
+	 *                          which case none of the communications are
+	 *                          recorded.
+	 */
+	public void addRelationships(Iterable<NewRelationships> communications, String moduleName) throws TskCoreException, TskDataException {
+		Map<Account.Type, Map<String, Long>> accountIds = new HashMap<Account.Type, Map<String, Long>>();
+		Map<Account.Type, Map<String, Long>> addedAccountIds = new HashMap<Account.Type, Map<String, Long>>();
+		Set<AccountInstanceKey> accountInstances = new HashSet<AccountInstanceKey>();
+		List<Blackboard.NewArtifact> newArtifacts = new ArrayList<Blackboard.NewArtifact>();
+		List<BlackboardArtifact> artifacts = new ArrayList<BlackboardArtifact>();
+		CaseDbConnection connection = db.getConnection();
+		db.acquireSingleUserCaseWriteLock();
+		// Read under the lock, so that a graph being loaded sees the
+		// relationships or they are added to it.
+		CommunicationsGraph graph = communicationsGraph;
+		List<long[]> graphRows = null != graph ? new ArrayList<long[]>() : null;
+		try {
+			connection.beginTransaction();
+			List<NewRelationships> chunk = new ArrayList<NewRelationships>(COMMUNICATIONS_PER_CHUNK);
+			for (NewRelationships communication : communications) {
+				if (communication.getRelationshipType().isCreatableFrom(communication.getSourceArtifact()) == false) {
+					throw new TskDataException("Can not make a " + communication.getRelationshipType().getDisplayName()
+							+ " relationship from a" + communication.getSourceArtifact().getDisplayName());
+				}
+				chunk.add(communication);
+				if (chunk.size() == COMMUNICATIONS_PER_CHUNK) {
+					addRelationships(chunk, moduleName, accountIds, addedAccountIds, accountInstances, newArtifacts, artifacts, graphRows, connection);
+					chunk.clear();
+				}
+			}
+			addRelationships(chunk, moduleName, accountIds, addedAccountIds, accountInstances, newArtifacts, artifacts, graphRows, connection);
+			connection.commitTransaction();
+		} catch (SQLException ex) {
+			connection.rollbackTransaction();
+			throw new TskCoreException("Error adding relationships", ex);
+		} catch (TskCoreException ex) {
+			connection.rollbackTransaction();
+			throw ex;
+		} catch (TskDataException ex) {
+			connection.rollbackTransaction();
+			throw ex;
+		} finally {
+			connection.close();
+			db.releaseSingleUserCaseWriteLock();
+		}
+		db.newBlackboardArtifactsCommitted(newArtifacts, artifacts);
+		for (Map.Entry<Account.Type, Map<String, Long>> entry : addedAccountIds.entrySet()) {
+			int accountTypeId = getAccountTypeId(entry.getKey());
+			for (Map.Entry<String, Long> account : entry.getValue().entrySet()) {
+				accountCache.intern(accountTypeId, entry.getKey(), account.getValue(), account.getKey());
+			}
+		}
+		if (null != graph) {
+			addToCommunicationsGraph(graph, accountIds, graphRows);
+		}
+	}
+
+	/**
+	 * Records a chunk of communications within the transaction of
+	 * addRelationships(Iterable, String).
+	 *
+	 * @param chunk            The communications.
+	 * @param moduleName       The module recording the communications.
+	 * @param accountIds       The ids of the accounts resolved so far, by
+	 *                         type and normalized id.
+	 * @param addedAccountIds  The ids of the accounts added so far, by type
+	 *                         and normalized id, to be cached once the
+	 *                         transaction is committed.
+	 * @param accountInstances The account file instance artifacts known to
+	 *                         exist so far.
+	 * @param newArtifacts     The requests for the artifacts created so far.
+	 * @param artifacts        The artifacts created so far.
+	 * @param graphRows        The relationships written so far, for the
+	 *                         communications graph, or null if it is off.
+	 * @param connection       The connection the transaction is on.
+	 *
+	 * @throws SQLException
+	 * @throws TskCoreException
+	 */
+	private void addRelationships(List<NewRelationships> chunk, String moduleName,
+			Map<Account.Type, Map<String, Long>> accountIds, Map<Account.Type, Map<String, Long>> addedAccountIds,
+			Set<AccountInstanceKey> accountInstances,
+			List<Blackboard.NewArtifact> newArtifacts, List<BlackboardArtifact> artifacts, List<long[]> graphRows,
+			CaseDbConnection connection) throws SQLException, TskCoreException {
+		if (chunk.isEmpty()) {
+			return;
+		}
+
+		// Normalize the account ids of the communications once.
+		List<List<String>> chunkAccountIds = new ArrayList<List<String>>(chunk.size());
+		for (NewRelationships communication : chunk) {
+			Account.Type accountType = communication.getAccountType();
+			List<String> ids = new ArrayList<String>(communication.getRecipientIDs().size() + 1);
+			if (null != communication.getSenderID()) {
+				ids.add(normalizeAccountID(accountType, communication.getSenderID()));
+			}
+			for (String recipientID : communication.getRecipientIDs()) {
+				ids.add(normalizeAccountID(accountType, recipientID));
+			}
+			chunkAccountIds.add(ids);
+		}
+
+		resolveAccounts(chunk, chunkAccountIds, accountIds, addedAccountIds, connection);
+
+		// Create the account file instance artifacts that do not exist yet.
+		List<Blackboard.NewArtifact> chunkNewArtifacts = new ArrayList<Blackboard.NewArtifact>();
+		for (int i = 0; i < chunk.size(); i++) {
+			Account.Type accountType = chunk.get(i).getAccountType();
+			long sourceObjId = chunk.get(i).getSourceArtifact().getObjectID();
+			for (String accountID : chunkAccountIds.get(i)) {
+				AccountInstanceKey key = new AccountInstanceKey(accountType, accountID, sourceObjId);
+				if (accountInstances.add(key) && null == getAccountFileInstanceArtifact(accountType, accountID, sourceObjId, connection)) {
+					Collection<BlackboardAttribute> attributes = new ArrayList<BlackboardAttribute>();
+					attributes.add(new BlackboardAttribute(BlackboardAttribute.ATTRIBUTE_TYPE.TSK_ACCOUNT_TYPE, moduleName, accountType.getTypeName()));
+					attributes.add(new BlackboardAttribute(BlackboardAttribute.ATTRIBUTE_TYPE.TSK_ID, moduleName, accountID));
+					chunkNewArtifacts.add(new Blackboard.NewArtifact(sourceObjId, new BlackboardArtifact.Type(BlackboardArtifact.ARTIFACT_TYPE.TSK_ACCOUNT), attributes));
+				}
+			}
+		}
+		if (!chunkNewArtifacts.isEmpty()) {
+			artifacts.addAll(db.newBlackboardArtifacts(chunkNewArtifacts, connection));
+			newArtifacts.addAll(chunkNewArtifacts);
+		}
+
+		// Write a relationship for each pair of accounts of each communication.
+		List<long[]> rows = new ArrayList<long[]>(RELATIONSHIPS_PER_INSERT);
+		for (int i = 0; i < chunk.size(); i++) {
+			NewRelationships communication = chunk.get(i);
+			Map<String, Long> ids = accountIds.get(communication.getAccountType());
+			List<String> accounts = chunkAccountIds.get(i);
+			for (int j = 0; j < accounts.size(); j++) {
+				for (int k = j + 1; k < accounts.size(); k++) {
+					long[] row = new long[]{ids.get(accounts.get(j)), ids.get(accounts.get(k)),
+						communication.getSourceArtifact().getId(), communication.getDateTime(),
+						communication.getRelationshipType().getTypeID(), communication.getSourceArtifact().getDataSourceObjectID()};
+					rows.add(row);
+					if (null != graphRows) {
+						graphRows.add(row);
+					}
+					if (rows.size() == RELATIONSHIPS_PER_INSERT) {
+						insertRelationships(rows, connection);
+						rows.clear();
+					}
+				}
+			}
+		}
+		if (!rows.isEmpty()) {
+			insertRelationships(rows, connection);
+		}
+	}
+
+	/**
+	 * Looks up the ids of the accounts of a chunk of communications, adding
+	 * the accounts that do not exist yet with one batch.
+	 *
+	 * @param chunk           The communications.
+	 * @param chunkAccountIds The normalized account ids of each communication.
+	 * @param accountIds      The ids of the accounts resolved so far, by type
+	 *                        and normalized id. The accounts of the chunk are
+	 *                        added to it.
+	 * @param addedAccountIds The ids of the accounts added so far, by type and
+	 *                        normalized id. The accounts added for the chunk
+	 *                        are added to it.
+	 * @param connection      The connection the transaction is on.
+	 *
+	 * @throws SQLException
+	 * @throws TskCoreException
+	 */
+	private void resolveAccounts(List<NewRelationships> chunk, List<List<String>> chunkAccountIds,
+			Map<Account.Type, Map<String, Long>> accountIds, Map<Account.Type, Map<String, Long>> addedAccountIds,
+			CaseDbConnection connection) throws SQLException, TskCoreException {
+		Map<Account.Type, Set<String>> missing = new HashMap<Account.Type, Set<String>>();
+		for (int i = 0; i < chunk.size(); i++) {
+			Account.Type accountType = chunk.get(i).getAccountType();
+			Map<String, Long> ids = accountIds.get(accountType);
+			if (null == ids) {
+				ids = new HashMap<String, Long>();
+				accountIds.put(accountType, ids);
+			}
+			for (String accountID : chunkAccountIds.get(i)) {
+				if (!ids.containsKey(accountID)) {
+					Account account = accountCache.get(getAccountTypeId(accountType), accountID);
+					Long id = null != account ? account.getAccountID() : getAccountId(accountType, accountID, connection);
+					if (null != id) {
+						ids.put(accountID, id);
+					} else {
+						Set<String> missingIds = missing.get(accountType);
+						if (null == missingIds) {
+							missingIds = new HashSet<String>();
+							missing.put(accountType, missingIds);
+						}
+						missingIds.add(accountID);
+					}
+				}
+			}
+		}
+		if (missing.isEmpty()) {
+			return;
+		}
+
+		PreparedStatement statement = connection.getPreparedStatement(insertOrIgnore("INTO accounts (account_type_id, account_unique_identifier) VALUES (?, ?)")); //NON-NLS
+		try {
+			for (Map.Entry<Account.Type, Set<String>> entry : missing.entrySet()) {
+				for (String accountID : entry.getValue()) {
+					statement.setInt(1, getAccountTypeId(entry.getKey()));
+					statement.setString(2, accountID);
+					statement.addBatch();
+				}
+			}
+			connection.executeBatch(statement);
+		} finally {
+			closeStatement(statement);
+		}
+		for (Map.Entry<Account.Type, Set<String>> entry : missing.entrySet()) {
+			Map<String, Long> ids = accountIds.get(entry.getKey());
+			Map<String, Long> addedIds = addedAccountIds.get(entry.getKey());
+			if (null == addedIds) {
+				addedIds = new HashMap<String, Long>();
+				addedAccountIds.put(entry.getKey(), addedIds);
+			}
+			for (String accountID : entry.getValue()) {
+				Long id = getAccountId(entry.getKey(), accountID, connection);
+				if (null == id) {
+					throw new TskCoreException("Error adding account " + accountID);
+				}
+				ids.put(accountID, id);
+				addedIds.put(accountID, id);
+			}
+		}
+	}
+
+	/**
+	 * Gets the id of an account.
+	 *
+	 * @param accountType     The account type.
+	 * @param accountUniqueID The normalized account id.
+	 * @param connection      The connection to use.
+	 *
+	 * @return The account id, or null if there is no such account.
+	 *
+	 * @throws SQLException
+	 */
+	private Long getAccountId(Account.Type accountType, String accountUniqueID, CaseDbConnection connection) throws SQLException {
+		PreparedStatement statement = connection.getPreparedStatement("SELECT account_id FROM accounts WHERE account_type_id = ? AND account_unique_identifier = ?"); //NON-NLS
+		ResultSet rs = null;
+		try {
+			statement.setInt(1, getAccountTypeId(accountType));
+			statement.setString(2, accountUniqueID);
+			rs = connection.executeQuery(statement);
+			return rs.next() ? rs.getLong("account_id") : null;
+		} finally {
+			closeResultSet(rs);
+			closeStatement(statement);
+		}
+	}
+
+	/**
+	 * Writes rows of the account relationships table with one multi-row
+	 * insert, ignoring the rows that already exist.
+	 *
+	 * @param rows       The rows, as account1_id, account2_id,
+	 *                   relationship_source_obj_id, date_time,
+	 *                   relationship_type and data_source_obj_id. A date
+	 *                   that is not positive is written as NULL.
+	 * @param connection The connection the transaction is on.
+	 *
+	 * @throws SQLException
+	 * @throws TskCoreException
+	 */
+	private void insertRelationships(List<long[]> rows, CaseDbConnection connection) throws SQLException, TskCoreException {
+		StringBuilder query = new StringBuilder("INTO account_relationships (account1_id, account2_id, relationship_source_obj_id, date_time, relationship_type, data_source_obj_id) VALUES "); //NON-NLS
+		for (int i = 0; i < rows.size(); i++) {
+			query.append(i == 0 ? "(?, ?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?, ?)");
+		}
+		PreparedStatement statement = connection.getPreparedStatement(insertOrIgnore(query.toString()));
+		try {
+			int parameter = 1;
+			for (long[] row : rows) {
+				statement.setLong(parameter++, row[0]);
+				statement.setLong(parameter++, row[1]);
+				statement.setLong(parameter++, row[2]);
+				if (row[3] > 0) {
+					statement.setLong(parameter++, row[3]);
+				} else {
+					statement.setNull(parameter++, Types.BIGINT);
+				}
+				statement.setInt(parameter++, (int) row[4]);
+				statement.setLong(parameter++, row[5]);
+			}
+			connection.executeUpdate(statement);
+		} finally {
+			closeStatement(statement);
+		}
+	}
+
+	/**
+	 * Makes an insert statement that skips rows that would violate a unique
+	 * constraint.
+	 *
+	 * @param intoClause The statement after "INSERT".
+	 *
+	 * @return The statement.
+	 *
+	 * @throws TskCoreException If the database type is not recognized.
+	 */
+	private String insertOrIgnore(String intoClause) throws TskCoreException {
+		switch (db.getDatabaseType()) {
+			case POSTGRESQL:
+				return "INSERT " + intoClause + " ON CONFLICT DO NOTHING"; //NON-NLS
+			case SQLITE:
+				return "INSERT OR IGNORE " + intoClause; //NON-NLS
+			default:
+				throw new TskCoreException("Unknown DB Type: " + db.getDatabaseType().name());
+		}
+	}
+
 	/**
 	 * Get the Account for the given account type and account ID. Create an a
 	 * new account if one doesn't exist
@@ -408,9 +1101,7 @@ public void addRelationships(AccountFileInstance sender, List<AccountFileInstanc
 	private Account getOrCreateAccount(Account.Type accountType, String accountUniqueID) throws TskCoreException {
 		Account account = getAccount(accountType, accountUniqueID);
 		if (null == account) {
-			String query = " INTO accounts (account_type_id, account_unique_identifier) "
-					+ "VALUES ( " + getAccountTypeId(accountType) + ", '"
-					+ normalizeAccountID(accountType, accountUniqueID) + "'" + ")";
+			String query = " INTO accounts (account_type_id, account_unique_identifier) VALUES (?, ?)";
 			switch (db.getDatabaseType()) {
 				case POSTGRESQL:
 					query = "INSERT " + query + " ON CONFLICT DO NOTHING"; //NON-NLS
@@ -424,13 +1115,13 @@ private Account getOrCreateAccount(Account.Type accountType, String accountUniqu
 
 			CaseDbConnection connection = db.getConnection();
 			db.acquireSingleUserCaseWriteLock();
-			Statement s = null;
-			ResultSet rs = null;
+			PreparedStatement statement = null;
 			try {
 				connection.beginTransaction();
-				s = connection.createStatement();
-
-				s.execute(query);
+				statement = connection.getPreparedStatement(query);
+				statement.setInt(1, getAccountTypeId(accountType));
+				statement.setString(2, normalizeAccountID(accountType, accountUniqueID));
+				connection.executeUpdate(statement);
 
 				connection.commitTransaction();
 				account = getAccount(accountType, accountUniqueID);
@@ -438,8 +1129,7 @@ private Account getOrCreateAccount(Account.Type accountType, String accountUniqu
 				connection.rollbackTransaction();
 				throw new TskCoreException("Error adding an account", ex);
 			} finally {
-				closeResultSet(rs);
-				closeStatement(s);
+				closeStatement(statement);
 				connection.close();
 				db.releaseSingleUserCaseWriteLock();
 			}
@@ -496,14 +1186,39 @@ BlackboardArtifact getOrCreateAccountFileInstanceArtifact(Account.Type accountTy
 	 *                          within TSK core
 	 */
 	private BlackboardArtifact getAccountFileInstanceArtifact(Account.Type accountType, String accountUniqueID, Content sourceFile) throws TskCoreException {
-		BlackboardArtifact accountArtifact = null;
 		CaseDbConnection connection = db.getConnection();
 		db.acquireSingleUserCaseReadLock();
-		Statement s = null;
+		try {
+			return getAccountFileInstanceArtifact(accountType, accountUniqueID, sourceFile.getId(), connection);
+		} catch (SQLException ex) {
+			throw new TskCoreException("Error getting account", ex);
+		} finally {
+			connection.close();
+			db.releaseSingleUserCaseReadLock();
+		}
+	}
+
+	/**
+	 * Get the blackboard artifact for the given account type, account ID, and
+	 * source file, using a given connection.
+	 *
+	 * @param accountType     account type
+	 * @param accountUniqueID Unique account ID (such as email address)
+	 * @param sourceObjId     Object id of the source file
+	 * @param connection      The connection to use
+	 *
+	 * @return blackboard artifact, returns NULL is no matching account found
+	 *
+	 * @throws SQLException
+	 * @throws TskCoreException exception thrown if a critical error occurs
+	 *                          within TSK core
+	 */
+	private BlackboardArtifact getAccountFileInstanceArtifact(Account.Type accountType, String accountUniqueID, long sourceObjId, CaseDbConnection connection) throws SQLException, TskCoreException {
+		BlackboardArtifact accountArtifact = null;
+		PreparedStatement statement = null;
 		ResultSet rs = null;
 
 		try {
-			s = connection.createStatement();
 			String queryStr = "SELECT artifacts.artifact_id AS artifact_id,"
 					+ " artifacts.obj_id AS obj_id,"
 					+ " artifacts.artifact_obj_id AS artifact_obj_id,"
@@ -516,13 +1231,17 @@ private BlackboardArtifact getAccountFileInstanceArtifact(Account.Type accountTy
 					+ " JOIN blackboard_attributes AS attr_account_id"
 					+ "		ON artifacts.artifact_id = attr_account_id.artifact_id"
 					+ "		AND attr_account_id.attribute_type_id = " + BlackboardAttribute.ATTRIBUTE_TYPE.TSK_ID.getTypeID()
-					+ "	    AND attr_account_id.value_text = '" + accountUniqueID + "'"
+					+ "	    AND attr_account_id.value_text = ?"
 					+ " WHERE artifacts.artifact_type_id = " + BlackboardArtifact.ARTIFACT_TYPE.TSK_ACCOUNT.getTypeID()
 					+ " AND attr_account_type.attribute_type_id = " + BlackboardAttribute.ATTRIBUTE_TYPE.TSK_ACCOUNT_TYPE.getTypeID()
-					+ " AND attr_account_type.value_text = '" + accountType.getTypeName() + "'"
-					+ " AND artifacts.obj_id = " + sourceFile.getId(); //NON-NLS
-
-			rs = connection.executeQuery(s, queryStr); //NON-NLS
+					+ " AND attr_account_type.value_text = ?"
+					+ " AND artifacts.obj_id = ?"; //NON-NLS
+
+			statement = connection.getPreparedStatement(queryStr);
+			statement.setString(1, accountUniqueID);
+			statement.setString(2, accountType.getTypeName());
+			statement.setLong(3, sourceObjId);
+			rs = connection.executeQuery(statement);
 			if (rs.next()) {
 				BlackboardArtifact.Type bbartType = db.getArtifactType(rs.getInt("artifact_type_id"));
 
@@ -530,13 +1249,9 @@ private BlackboardArtifact getAccountFileInstanceArtifact(Account.Type accountTy
 						bbartType.getTypeID(), bbartType.getTypeName(), bbartType.getDisplayName(),
 						BlackboardArtifact.ReviewStatus.withID(rs.getInt("review_status_id")));
 			}
-		} catch (SQLException ex) {
-			throw new TskCoreException("Error getting account", ex);
 		} finally {
 			closeResultSet(rs);
-			closeStatement(s);
-			connection.close();
-			db.releaseSingleUserCaseReadLock();
+			closeStatement(statement);
 		}
 
 		return accountArtifact;
@@ -559,12 +1274,13 @@ public org.sleuthkit.datamodel.Account.Type getAccountType(String accountTypeNam
 
 		CaseDbConnection connection = db.getConnection();
 		db.acquireSingleUserCaseReadLock();
-		Statement s = null;
+		PreparedStatement statement = null;
 		ResultSet rs = null;
 
 		try {
-			s = connection.createStatement();
-			rs = connection.executeQuery(s, "SELECT account_type_id, type_name, display_name, value_type FROM account_types WHERE type_name = '" + accountTypeName + "'"); //NON-NLS
+			statement = connection.getPreparedStatement("SELECT account_type_id, type_name, display_name, value_type FROM account_types WHERE type_name = ?"); //NON-NLS
+			statement.setString(1, accountTypeName);
+			rs = connection.executeQuery(statement);
 			Account.Type accountType = null;
 			if (rs.next()) {
 				accountType = new Account.Type(accountTypeName, rs.getString("display_name"));
@@ -576,7 +1292,7 @@ public org.sleuthkit.datamodel.Account.Type getAccountType(String accountTypeNam
 			throw new TskCoreException("Error getting account type id", ex);
 		} finally {
 			closeResultSet(rs);
-			closeStatement(s);
+			closeStatement(statement);
 			connection.close();
 			db.releaseSingleUserCaseReadLock();
 		}
@@ -585,8 +1301,8 @@ public org.sleuthkit.datamodel.Account.Type getAccountType(String accountTypeNam
 	/**
 	 * Add a row in account relationships table.
 	 *
-	 * @param account1_id           account_id for account1
-	 * @param account2_id           account_id for account2
+	 * @param account1              account1
+	 * @param account2              account2
 	 * @param relationshipaArtifact relationship artifact
 	 * @param relationshipType      The type of relationship to be created
 	 * @param dateTime              datetime of communication/relationship as
@@ -595,19 +1311,16 @@ public org.sleuthkit.datamodel.Account.Type getAccountType(String accountTypeNam
 	 * @throws TskCoreException exception thrown if a critical error occurs
 	 *                          within TSK core
 	 */
-	private void addAccountsRelationship(long account1_id, long account2_id, BlackboardArtifact relationshipaArtifact, Relationship.Type relationshipType, long dateTime) throws TskCoreException {
+	private void addAccountsRelationship(Account account1, Account account2, BlackboardArtifact relationshipaArtifact, Relationship.Type relationshipType, long dateTime) throws TskCoreException {
 		CaseDbConnection connection = db.getConnection();
 		db.acquireSingleUserCaseWriteLock();
-		Statement s = null;
-		ResultSet rs = null;
+		CommunicationsGraph graph = communicationsGraph;
+		PreparedStatement statement = null;
 
 		try {
-			String dateTimeValStr = (dateTime > 0) ? Long.toString(dateTime) : "NULL";
-
 			connection.beginTransaction();
-			s = connection.createStatement();
 			String query = "INTO account_relationships (account1_id, account2_id, relationship_source_obj_id, date_time, relationship_type, data_source_obj_id  ) "
-					+ "VALUES ( " + account1_id + ", " + account2_id + ", " + relationshipaArtifact.getId() + ", " + dateTimeValStr + ", " + relationshipType.getTypeID() + ", " + relationshipaArtifact.getDataSourceObjectID() + ")";
+					+ "VALUES (?, ?, ?, ?, ?, ?)";
 			switch (db.getDatabaseType()) {
 				case POSTGRESQL:
 					query = "INSERT " + query + " ON CONFLICT DO NOTHING";
@@ -618,17 +1331,41 @@ private void addAccountsRelationship(long account1_id, long account2_id, Blackbo
 				default:
 					throw new TskCoreException("Unknown DB Type: " + db.getDatabaseType().name());
 			}
-			s.execute(query); //NON-NLS
+			statement = connection.getPreparedStatement(query); //NON-NLS
+			statement.setLong(1, account1.getAccountID());
+			statement.setLong(2, account2.getAccountID());
+			statement.setLong(3, relationshipaArtifact.getId());
+			if (dateTime > 0) {
+				statement.setLong(4, dateTime);
+			} else {
+				statement.setNull(4, Types.BIGINT);
+			}
+			statement.setInt(5, relationshipType.getTypeID());
+			statement.setLong(6, relationshipaArtifact.getDataSourceObjectID());
+			connection.executeUpdate(statement);
 			connection.commitTransaction();
 		} catch (SQLException ex) {
 			connection.rollbackTransaction();
 			throw new TskCoreException("Error adding accounts relationship", ex);
 		} finally {
-			closeResultSet(rs);
-			closeStatement(s);
+			closeStatement(statement);
 			connection.close();
 			db.releaseSingleUserCaseWriteLock();
 		}
+
+		if (null != graph) {
+			Map<Account.Type, Map<String, Long>> accountIds = new HashMap<Account.Type, Map<String, Long>>();
+			for (Account account : Arrays.asList(account1, account2)) {
+				Map<String, Long> ids = accountIds.get(account.getAccountType());
+				if (null == ids) {
+					ids = new HashMap<String, Long>();
+					accountIds.put(account.getAccountType(), ids);
+				}
+				ids.put(account.getTypeSpecificID(), account.getAccountID());
+			}
+			addToCommunicationsGraph(graph, accountIds, Collections.singletonList(new long[]{account1.getAccountID(), account2.getAccountID(),
+				relationshipaArtifact.getId(), dateTime, relationshipType.getTypeID(), relationshipaArtifact.getDataSourceObjectID()}));
+		}
 	}
 
 	/**
@@ -646,74 +1383,89 @@ private void addAccountsRelationship(long account1_id, long account2_id, Blackbo
 	 *                          within TSK core
 	 */
 	public List<AccountDeviceInstance> getAccountDeviceInstancesWithRelationships(CommunicationsFilter filter) throws TskCoreException {
+		CommunicationsGraph graph = communicationsGraph;
+		if (null != graph) {
+			Map<Integer, Account.Type> accountTypes = getAccountTypesById();
+			List<AccountDeviceInstance> accountDeviceInstances = new ArrayList<AccountDeviceInstance>();
+			for (CommunicationsGraph.AccountDevice accountDevice : graph.getAccountDevices(getGraphEdgeFilter(graph, filter), getGraphAccountTypeIds(filter))) {
+				accountDeviceInstances.add(getAccountDeviceInstance(accountDevice, accountTypes));
+			}
+			return accountDeviceInstances;
+		}
+
 		CaseDbConnection connection = db.getConnection();
 		db.acquireSingleUserCaseReadLock();
-		Statement s = null;
+		PreparedStatement statement = null;
 		ResultSet rs = null;
 
 		try {
-			s = connection.createStatement();
-
 			//set up applicable filters 
 			Set<String> applicableInnerQueryFilters = new HashSet<String>(Arrays.asList(
 					CommunicationsFilter.DateRangeFilter.class.getName(),
 					CommunicationsFilter.DeviceFilter.class.getName(),
 					CommunicationsFilter.RelationshipTypeFilter.class.getName()
 			));
-			String innerQueryfilterSQL = getCommunicationsFilterSQL(filter, applicableInnerQueryFilters);
+			PreparedQuery innerQueryfilter = getCommunicationsFilterQuery(filter, applicableInnerQueryFilters);
 
 			String innerQueryTemplate
 					= " SELECT %1$1s as account_id,"
 					+ "		  data_source_obj_id"
 					+ " FROM account_relationships as relationships"
-					+ (innerQueryfilterSQL.isEmpty() ? "" : " WHERE " + innerQueryfilterSQL);
-
-			String innerQuery1 = String.format(innerQueryTemplate, "account1_id");
-			String innerQuery2 = String.format(innerQueryTemplate, "account2_id");
+					+ (innerQueryfilter.isEmpty() ? "" : " WHERE " + innerQueryfilter.getSQL());
 
 			//this query groups by account_id and data_source_obj_id across both innerQueries
-			String combinedInnerQuery
-					= "SELECT count(*) as relationship_count, account_id, data_source_obj_id "
-					+ " FROM ( " + innerQuery1 + " UNION " + innerQuery2 + " ) AS  inner_union"
-					+ " GROUP BY account_id, data_source_obj_id";
+			PreparedQuery combinedInnerQuery = new PreparedQuery()
+					.append("SELECT count(*) as relationship_count, account_id, data_source_obj_id "
+							+ " FROM ( ")
+					.append(String.format(innerQueryTemplate, "account1_id"), innerQueryfilter.getParameters())
+					.append(" UNION ")
+					.append(String.format(innerQueryTemplate, "account2_id"), innerQueryfilter.getParameters())
+					.append(" ) AS  inner_union"
+							+ " GROUP BY account_id, data_source_obj_id");
 
 			// set up applicable filters
 			Set<String> applicableFilters = new HashSet<String>(Arrays.asList(
 					CommunicationsFilter.AccountTypeFilter.class.getName()
 			));
 
-			String filterSQL = getCommunicationsFilterSQL(filter, applicableFilters);
-
-			String queryStr
-					= //account info
-					" accounts.account_id AS account_id,"
-					+ " accounts.account_unique_identifier AS account_unique_identifier,"
-					//account type info
-					+ " account_types.type_name AS type_name,"
-					//Account device instance info
-					+ " relationship_count,"
-					+ " data_source_info.device_id AS device_id"
-					+ " FROM ( " + combinedInnerQuery + " ) AS account_device_instances"
-					+ " JOIN accounts AS accounts"
-					+ "		ON accounts.account_id = account_device_instances.account_id"
-					+ " JOIN account_types AS account_types"
-					+ "		ON accounts.account_type_id = account_types.account_type_id"
-					+ " JOIN data_source_info AS data_source_info"
-					+ "		ON account_device_instances.data_source_obj_id = data_source_info.obj_id"
-					+ (filterSQL.isEmpty() ? "" : " WHERE " + filterSQL);
+			PreparedQuery filterQuery = getCommunicationsFilterQuery(filter, applicableFilters);
 
+			PreparedQuery query = new PreparedQuery();
 			switch (db.getDatabaseType()) {
 				case POSTGRESQL:
-					queryStr = "SELECT DISTINCT ON ( accounts.account_id, data_source_info.device_id) " + queryStr;
+					query.append("SELECT DISTINCT ON ( accounts.account_id, data_source_info.device_id) ");
 					break;
 				case SQLITE:
-					queryStr = "SELECT " + queryStr + " GROUP BY accounts.account_id, data_source_info.device_id";
+					query.append("SELECT ");
 					break;
 				default:
 					throw new TskCoreException("Unknown DB Type: " + db.getDatabaseType().name());
 			}
+			query.append(//account info
+					" accounts.account_id AS account_id,"
+					+ " accounts.account_unique_identifier AS account_unique_identifier,"
+					//account type info
+					+ " account_types.type_name AS type_name,"
+					//Account device instance info
+					+ " relationship_count,"
+					+ " data_source_info.device_id AS device_id"
+					+ " FROM ( ")
+					.append(combinedInnerQuery)
+					.append(" ) AS account_device_instances"
+							+ " JOIN accounts AS accounts"
+							+ "		ON accounts.account_id = account_device_instances.account_id"
+							+ " JOIN account_types AS account_types"
+							+ "		ON accounts.account_type_id = account_types.account_type_id"
+							+ " JOIN data_source_info AS data_source_info"
+							+ "		ON account_device_instances.data_source_obj_id = data_source_info.obj_id")
+					.append(filterQuery.isEmpty() ? "" : " WHERE ")
+					.append(filterQuery);
+			if (db.getDatabaseType() == TskData.DbType.SQLITE) {
+				query.append(" GROUP BY accounts.account_id, data_source_info.device_id");
+			}
 
-			rs = connection.executeQuery(s, queryStr); //NON-NLS
+			statement = query.prepare(connection);
+			rs = connection.executeQuery(statement);
 			ArrayList<AccountDeviceInstance> accountDeviceInstances = new ArrayList<AccountDeviceInstance>();
 			while (rs.next()) {
 				long account_id = rs.getLong("account_id");
@@ -722,8 +1474,8 @@ public List<AccountDeviceInstance> getAccountDeviceInstancesWithRelationships(Co
 				final String account_unique_identifier = rs.getString("account_unique_identifier");
 
 				Account.Type accountType = typeNameToAccountTypeMap.get(type_name);
-				Account account = new Account(account_id, accountType, account_unique_identifier);
-				accountDeviceInstances.add(new AccountDeviceInstance(account, deviceID));
+				accountDeviceInstances.add(accountCache.internDeviceInstance(getAccountTypeId(accountType), accountType,
+						account_id, account_unique_identifier, deviceID));
 			}
 
 			return accountDeviceInstances;
@@ -731,7 +1483,7 @@ public List<AccountDeviceInstance> getAccountDeviceInstancesWithRelationships(Co
 			throw new TskCoreException("Error getting account device instances. " + ex.getMessage(), ex);
 		} finally {
 			closeResultSet(rs);
-			closeStatement(s);
+			closeStatement(statement);
 			connection.close();
 			db.releaseSingleUserCaseReadLock();
 		}
@@ -762,7 +1514,26 @@ public Map<AccountPair, Long> getRelationshipCountsPairwise(Set<AccountDeviceIns
 		Set<String> accountDeviceIDs = new HashSet<String>();
 		for (AccountDeviceInstance adi : accounts) {
 			accountIDs.add(adi.getAccount().getAccountID());
-			accountDeviceIDs.add("'" + adi.getDeviceId() + "'");
+			accountDeviceIDs.add(adi.getDeviceId());
+		}
+
+		CommunicationsGraph graph = communicationsGraph;
+		if (null != graph) {
+			Map<Integer, Account.Type> accountTypes = getAccountTypesById();
+			Map<AccountPair, Long> results = new HashMap<AccountPair, Long>();
+			for (CommunicationsGraph.RelationshipCount relationshipCount : graph.getRelationshipCounts(accountIDs, accountDeviceIDs, getGraphEdgeFilter(graph, filter))) {
+				AccountPair relationshipKey = new AccountPair(getAccountDeviceInstance(relationshipCount.getAccount1(), accountTypes),
+						getAccountDeviceInstance(relationshipCount.getAccount2(), accountTypes));
+				long count = relationshipCount.getCount();
+
+				//merge counts for relationships that have the accounts flipped.
+				Long oldCount = results.get(relationshipKey);
+				if (oldCount != null) {
+					count += oldCount;
+				}
+				results.put(relationshipKey, count);
+			}
+			return results;
 		}
 		//set up applicable filters 
 		Set<String> applicableFilters = new HashSet<String>(Arrays.asList(
@@ -771,12 +1542,10 @@ public Map<AccountPair, Long> getRelationshipCountsPairwise(Set<AccountDeviceIns
 				CommunicationsFilter.RelationshipTypeFilter.class.getName()
 		));
 
-		String accountIDsCSL = StringUtils.buildCSVString(accountIDs);
-		String accountDeviceIDsCSL = StringUtils.buildCSVString(accountDeviceIDs);
-		String filterSQL = getCommunicationsFilterSQL(filter, applicableFilters);
+		PreparedQuery filterQuery = getCommunicationsFilterQuery(filter, applicableFilters);
 
-		final String queryString
-				= " SELECT  count(DISTINCT relationships.relationship_source_obj_id) AS count," //realtionship count
+		final PreparedQuery query = new PreparedQuery()
+				.append(" SELECT  count(DISTINCT relationships.relationship_source_obj_id) AS count," //realtionship count
 				+ "		data_source_info.device_id AS device_id,"
 				//account 1 info
 				+ "		accounts1.account_id AS account1_id,"
@@ -801,39 +1570,46 @@ public Map<AccountPair, Long> getRelationshipCountsPairwise(Set<AccountDeviceIns
 				+ "		ON accounts2.account_id = relationships.account2_id"
 				+ "	JOIN account_types AS account_types2"
 				+ "		ON accounts2.account_type_id = account_types2.account_type_id"
-				+ " WHERE (( relationships.account1_id IN (" + accountIDsCSL + ")) "
-				+ "		AND ( relationships.account2_id IN ( " + accountIDsCSL + " ))"
-				+ "		AND ( data_source_info.device_id IN (" + accountDeviceIDsCSL + "))) "
-				+ (filterSQL.isEmpty() ? "" : " AND " + filterSQL)
-				+ "  GROUP BY data_source_info.device_id, "
-				+ "		accounts1.account_id, "
-				+ "		account_types1.type_name, "
-				+ "		account_types1.display_name, "
-				+ "		accounts2.account_id, "
-				+ "		account_types2.type_name, "
-				+ "		account_types2.display_name";
+				+ " WHERE (( relationships.account1_id IN (")
+				.appendParameterList(accountIDs)
+				.append(")) "
+						+ "		AND ( relationships.account2_id IN ( ")
+				.appendParameterList(accountIDs)
+				.append(" ))"
+						+ "		AND ( data_source_info.device_id IN (")
+				.appendParameterList(accountDeviceIDs)
+				.append("))) ")
+				.append(filterQuery.isEmpty() ? "" : " AND ")
+				.append(filterQuery)
+				.append("  GROUP BY data_source_info.device_id, "
+						+ "		accounts1.account_id, "
+						+ "		account_types1.type_name, "
+						+ "		account_types1.display_name, "
+						+ "		accounts2.account_id, "
+						+ "		account_types2.type_name, "
+						+ "		account_types2.display_name");
 		CaseDbConnection connection = db.getConnection();
 		db.acquireSingleUserCaseReadLock();
-		Statement s = null;
+		PreparedStatement statement = null;
 		ResultSet rs = null;
 
 		Map<AccountPair, Long> results = new HashMap<AccountPair, Long>();
 
 		try {
-			s = connection.createStatement();
-			rs = connection.executeQuery(s, queryString); //NON-NLS
+			statement = query.prepare(connection);
+			rs = connection.executeQuery(statement);
 
 			while (rs.next()) {
 				//make account 1
 				Account.Type type1 = new Account.Type(rs.getString("type_name1"), rs.getString("display_name1"));
-				AccountDeviceInstance adi1 = new AccountDeviceInstance(new Account(rs.getLong("account1_id"), type1,
-						rs.getString("account1_unique_identifier")),
+				AccountDeviceInstance adi1 = accountCache.internDeviceInstance(getAccountTypeId(type1), type1,
+						rs.getLong("account1_id"), rs.getString("account1_unique_identifier"),
 						rs.getString("device_id"));
 
 				//make account 2
 				Account.Type type2 = new Account.Type(rs.getString("type_name2"), rs.getString("display_name2"));
-				AccountDeviceInstance adi2 = new AccountDeviceInstance(new Account(rs.getLong("account2_id"), type2,
-						rs.getString("account2_unique_identifier")),
+				AccountDeviceInstance adi2 = accountCache.internDeviceInstance(getAccountTypeId(type2), type2,
+						rs.getLong("account2_id"), rs.getString("account2_unique_identifier"),
 						rs.getString("device_id"));
 
 				AccountPair relationshipKey = new AccountPair(adi1, adi2);
@@ -851,7 +1627,7 @@ public Map<AccountPair, Long> getRelationshipCountsPairwise(Set<AccountDeviceIns
 			throw new TskCoreException("Error getting relationships between accounts. " + ex.getMessage(), ex);
 		} finally {
 			closeResultSet(rs);
-			closeStatement(s);
+			closeStatement(statement);
 			connection.close();
 			db.releaseSingleUserCaseReadLock();
 		}
@@ -877,40 +1653,44 @@ public long getRelationshipSourcesCount(AccountDeviceInstance accountDeviceInsta
 		long account_id = accountDeviceInstance.getAccount().getAccountID();
 
 		// Get the list of Data source objects IDs correpsonding to this DeviceID.
-		String datasourceObjIdsCSV = StringUtils.buildCSVString(
-				db.getDataSourceObjIds(accountDeviceInstance.getDeviceId()));
+		List<Long> datasourceObjIds = db.getDataSourceObjIds(accountDeviceInstance.getDeviceId());
 
 		// set up applicable filters
 		Set<String> applicableFilters = new HashSet<String>(Arrays.asList(
 				CommunicationsFilter.RelationshipTypeFilter.class.getName(),
 				CommunicationsFilter.DateRangeFilter.class.getName()
 		));
-		String filterSQL = getCommunicationsFilterSQL(filter, applicableFilters);
+		PreparedQuery filterQuery = getCommunicationsFilterQuery(filter, applicableFilters);
 
 		CaseDbConnection connection = db.getConnection();
 		db.acquireSingleUserCaseReadLock();
-		Statement s = null;
+		PreparedStatement statement = null;
 		ResultSet rs = null;
 
 		try {
-			s = connection.createStatement();
-
-			String queryStr
-					= "SELECT count(DISTINCT relationships.relationship_source_obj_id) as count "
-					+ "	FROM account_relationships AS relationships"
-					+ " WHERE relationships.data_source_obj_id IN ( " + datasourceObjIdsCSV + " )"
-					+ " AND ( relationships.account1_id = " + account_id
-					+ "      OR  relationships.account2_id = " + account_id + " )"
-					+ (filterSQL.isEmpty() ? "" : " AND " + filterSQL);
-
-			rs = connection.executeQuery(s, queryStr); //NON-NLS
+			PreparedQuery query = new PreparedQuery()
+					.append("SELECT count(DISTINCT relationships.relationship_source_obj_id) as count "
+							+ "	FROM account_relationships AS relationships"
+							+ " WHERE relationships.data_source_obj_id IN ( ")
+					.appendParameterList(datasourceObjIds)
+					.append(" )"
+							+ " AND ( relationships.account1_id = ")
+					.appendParameter(account_id)
+					.append("      OR  relationships.account2_id = ")
+					.appendParameter(account_id)
+					.append(" )")
+					.append(filterQuery.isEmpty() ? "" : " AND ")
+					.append(filterQuery);
+
+			statement = query.prepare(connection);
+			rs = connection.executeQuery(statement);
 			rs.next();
 			return (rs.getLong("count"));
 		} catch (SQLException ex) {
 			throw new TskCoreException("Error getting relationships count for account device instance. " + ex.getMessage(), ex);
 		} finally {
 			closeResultSet(rs);
-			closeStatement(s);
+			closeStatement(statement);
 			connection.close();
 			db.releaseSingleUserCaseReadLock();
 		}
@@ -950,18 +1730,20 @@ public Set<Content> getRelationshipSources(Set<AccountDeviceInstance> accountDev
 			}
 		}
 
-		List<String> adiSQLClauses = new ArrayList<String>();
+		PreparedQuery adiSQLClause = new PreparedQuery();
 		for (Map.Entry<Long, Set<Long>> entry : accountIdToDatasourceObjIdMap.entrySet()) {
 			final Long accountID = entry.getKey();
-			String datasourceObjIdsCSV = StringUtils.buildCSVString(entry.getValue());
 
-			adiSQLClauses.add(
-					"( ( relationships.data_source_obj_id IN ( " + datasourceObjIdsCSV + " ) )"
-					+ " AND ( relationships.account1_id = " + accountID
-					+ " OR relationships.account2_id = " + accountID + " ) )"
-			);
+			adiSQLClause.append(adiSQLClause.isEmpty() ? "" : " OR ")
+					.append("( ( relationships.data_source_obj_id IN ( ")
+					.appendParameterList(entry.getValue())
+					.append(" ) )"
+							+ " AND ( relationships.account1_id = ")
+					.appendParameter(accountID)
+					.append(" OR relationships.account2_id = ")
+					.appendParameter(accountID)
+					.append(" ) )");
 		}
-		String adiSQLClause = StringUtils.joinAsStrings(adiSQLClauses, " OR ");
 
 		// set up applicable filters
 		Set<String> applicableFilters = new HashSet<String>(Arrays.asList(
@@ -970,17 +1752,16 @@ public Set<Content> getRelationshipSources(Set<AccountDeviceInstance> accountDev
 				CommunicationsFilter.DateRangeFilter.class
 						.getName()
 		));
-		String filterSQL = getCommunicationsFilterSQL(filter, applicableFilters);
+		PreparedQuery filterQuery = getCommunicationsFilterQuery(filter, applicableFilters);
 
 		CaseDbConnection connection = db.getConnection();
 		db.acquireSingleUserCaseReadLock();
-		Statement s = null;
+		PreparedStatement statement = null;
 		ResultSet rs = null;
 
 		try {
-			s = connection.createStatement();
-			String queryStr
-					= "SELECT DISTINCT artifacts.artifact_id AS artifact_id,"
+			PreparedQuery query = new PreparedQuery()
+					.append("SELECT DISTINCT artifacts.artifact_id AS artifact_id,"
 					+ " artifacts.obj_id AS obj_id,"
 					+ " artifacts.artifact_obj_id AS artifact_obj_id,"
 					+ " artifacts.data_source_obj_id AS data_source_obj_id, "
@@ -990,11 +1771,16 @@ public Set<Content> getRelationshipSources(Set<AccountDeviceInstance> accountDev
 					+ " JOIN account_relationships AS relationships"
 					+ "	ON artifacts.artifact_obj_id = relationships.relationship_source_obj_id"
 					// append sql to restrict search to specified account device instances 
-					+ " WHERE (" + adiSQLClause + " )"
-					// plus other filters
-					+ (filterSQL.isEmpty() ? "" : " AND (" + filterSQL + " )");
+					+ " WHERE (")
+					.append(adiSQLClause)
+					.append(" )");
+			// plus other filters
+			if (!filterQuery.isEmpty()) {
+				query.append(" AND (").append(filterQuery).append(" )");
+			}
 
-			rs = connection.executeQuery(s, queryStr); //NON-NLS
+			statement = query.prepare(connection);
+			rs = connection.executeQuery(statement);
 			Set<Content> relationshipSources = new HashSet<Content>();
 			while (rs.next()) {
 				BlackboardArtifact.Type bbartType = db.getArtifactType(rs.getInt("artifact_type_id"));
@@ -1010,7 +1796,7 @@ public Set<Content> getRelationshipSources(Set<AccountDeviceInstance> accountDev
 			throw new TskCoreException("Error getting relationships for account. " + ex.getMessage(), ex);
 		} finally {
 			closeResultSet(rs);
-			closeStatement(s);
+			closeStatement(statement);
 			connection.close();
 			db.releaseSingleUserCaseReadLock();
 		}
@@ -1032,6 +1818,18 @@ public Set<Content> getRelationshipSources(Set<AccountDeviceInstance> accountDev
 	 * @throws TskCoreException if there is a serious error executing he query.
 	 */
 	public List<AccountDeviceInstance> getRelatedAccountDeviceInstances(AccountDeviceInstance accountDeviceInstance, CommunicationsFilter filter) throws TskCoreException {
+		CommunicationsGraph graph = communicationsGraph;
+		if (null != graph) {
+			Map<Integer, Account.Type> accountTypes = getAccountTypesById();
+			List<AccountDeviceInstance> accountDeviceInstances = new ArrayList<AccountDeviceInstance>();
+			for (CommunicationsGraph.AccountDevice accountDevice : graph.getRelatedAccountDevices(accountDeviceInstance.getAccount().getAccountID(),
+					graph.getDataSources(Collections.singleton(accountDeviceInstance.getDeviceId())),
+					getGraphEdgeFilter(graph, filter), getGraphAccountTypeIds(filter))) {
+				accountDeviceInstances.add(getAccountDeviceInstance(accountDevice, accountTypes));
+			}
+			return accountDeviceInstances;
+		}
+
 		final List<Long> dataSourceObjIds
 				= getSleuthkitCase().getDataSourceObjIds(accountDeviceInstance.getDeviceId());
 
@@ -1042,69 +1840,78 @@ public List<AccountDeviceInstance> getRelatedAccountDeviceInstances(AccountDevic
 				CommunicationsFilter.RelationshipTypeFilter.class.getName()
 		));
 
-		String innerQueryfilterSQL = getCommunicationsFilterSQL(filter, applicableInnerQueryFilters);
-
-		String innerQueryTemplate
-				= " SELECT %1$1s as account_id,"
-				+ "		  data_source_obj_id"
-				+ " FROM account_relationships as relationships"
-				+ " WHERE %2$1s = " + accountDeviceInstance.getAccount().getAccountID() + ""
-				+ " AND data_source_obj_id IN (" + StringUtils.buildCSVString(dataSourceObjIds) + ")"
-				+ (innerQueryfilterSQL.isEmpty() ? "" : " AND " + innerQueryfilterSQL);
+		PreparedQuery innerQueryfilter = getCommunicationsFilterQuery(filter, applicableInnerQueryFilters);
 
-		String innerQuery1 = String.format(innerQueryTemplate, "account1_id", "account2_id");
-		String innerQuery2 = String.format(innerQueryTemplate, "account2_id", "account1_id");
+		PreparedQuery innerQueryTemplate = new PreparedQuery()
+				.append(" SELECT %1$1s as account_id,"
+						+ "		  data_source_obj_id"
+						+ " FROM account_relationships as relationships"
+						+ " WHERE %2$1s = ")
+				.appendParameter(accountDeviceInstance.getAccount().getAccountID())
+				.append(" AND data_source_obj_id IN (")
+				.appendParameterList(dataSourceObjIds)
+				.append(")")
+				.append(innerQueryfilter.isEmpty() ? "" : " AND ")
+				.append(innerQueryfilter);
 
 		//this query groups by account_id and data_source_obj_id across both innerQueries
-		String combinedInnerQuery
-				= "SELECT account_id, data_source_obj_id "
-				+ " FROM ( " + innerQuery1 + " UNION " + innerQuery2 + " ) AS  inner_union"
-				+ " GROUP BY account_id, data_source_obj_id";
+		PreparedQuery combinedInnerQuery = new PreparedQuery()
+				.append("SELECT account_id, data_source_obj_id "
+						+ " FROM ( ")
+				.append(String.format(innerQueryTemplate.getSQL(), "account1_id", "account2_id"), innerQueryTemplate.getParameters())
+				.append(" UNION ")
+				.append(String.format(innerQueryTemplate.getSQL(), "account2_id", "account1_id"), innerQueryTemplate.getParameters())
+				.append(" ) AS  inner_union"
+						+ " GROUP BY account_id, data_source_obj_id");
 
 		// set up applicable filters
 		Set<String> applicableFilters = new HashSet<String>(Arrays.asList(
 				CommunicationsFilter.AccountTypeFilter.class.getName()
 		));
 
-		String filterSQL = getCommunicationsFilterSQL(filter, applicableFilters);
-
-		String queryStr
-				= //account info
-				" accounts.account_id AS account_id,"
-				+ " accounts.account_unique_identifier AS account_unique_identifier,"
-				//account type info
-				+ " account_types.type_name AS type_name,"
-				//Account device instance info
-				+ " data_source_info.device_id AS device_id"
-				+ " FROM ( " + combinedInnerQuery + " ) AS account_device_instances"
-				+ " JOIN accounts AS accounts"
-				+ "		ON accounts.account_id = account_device_instances.account_id"
-				+ " JOIN account_types AS account_types"
-				+ "		ON accounts.account_type_id = account_types.account_type_id"
-				+ " JOIN data_source_info AS data_source_info"
-				+ "		ON account_device_instances.data_source_obj_id = data_source_info.obj_id"
-				+ (filterSQL.isEmpty() ? "" : " WHERE " + filterSQL);
+		PreparedQuery filterQuery = getCommunicationsFilterQuery(filter, applicableFilters);
 
+		PreparedQuery query = new PreparedQuery();
 		switch (db.getDatabaseType()) {
 			case POSTGRESQL:
-				queryStr = "SELECT DISTINCT ON ( accounts.account_id, data_source_info.device_id) " + queryStr;
+				query.append("SELECT DISTINCT ON ( accounts.account_id, data_source_info.device_id) ");
 				break;
 			case SQLITE:
-				queryStr = "SELECT " + queryStr + " GROUP BY accounts.account_id, data_source_info.device_id";
+				query.append("SELECT ");
 				break;
 			default:
 				throw new TskCoreException("Unknown DB Type: " + db.getDatabaseType().name());
 		}
+		query.append(//account info
+				" accounts.account_id AS account_id,"
+				+ " accounts.account_unique_identifier AS account_unique_identifier,"
+				//account type info
+				+ " account_types.type_name AS type_name,"
+				//Account device instance info
+				+ " data_source_info.device_id AS device_id"
+				+ " FROM ( ")
+				.append(combinedInnerQuery)
+				.append(" ) AS account_device_instances"
+						+ " JOIN accounts AS accounts"
+						+ "		ON accounts.account_id = account_device_instances.account_id"
+						+ " JOIN account_types AS account_types"
+						+ "		ON accounts.account_type_id = account_types.account_type_id"
+						+ " JOIN data_source_info AS data_source_info"
+						+ "		ON account_device_instances.data_source_obj_id = data_source_info.obj_id")
+				.append(filterQuery.isEmpty() ? "" : " WHERE ")
+				.append(filterQuery);
+		if (db.getDatabaseType() == TskData.DbType.SQLITE) {
+			query.append(" GROUP BY accounts.account_id, data_source_info.device_id");
+		}
 
 		CaseDbConnection connection = db.getConnection();
 		db.acquireSingleUserCaseReadLock();
-		Statement s = null;
+		PreparedStatement statement = null;
 		ResultSet rs = null;
 
 		try {
-			s = connection.createStatement();
-
-			rs = connection.executeQuery(s, queryStr); //NON-NLS
+			statement = query.prepare(connection);
+			rs = connection.executeQuery(statement);
 			ArrayList<AccountDeviceInstance> accountDeviceInstances = new ArrayList<AccountDeviceInstance>();
 			while (rs.next()) {
 				long account_id = rs.getLong("account_id");
@@ -1113,8 +1920,8 @@ public List<AccountDeviceInstance> getRelatedAccountDeviceInstances(AccountDevic
 				final String account_unique_identifier = rs.getString("account_unique_identifier");
 
 				Account.Type accountType = typeNameToAccountTypeMap.get(type_name);
-				Account account = new Account(account_id, accountType, account_unique_identifier);
-				accountDeviceInstances.add(new AccountDeviceInstance(account, deviceID));
+				accountDeviceInstances.add(accountCache.internDeviceInstance(getAccountTypeId(accountType), accountType,
+						account_id, account_unique_identifier, deviceID));
 			}
 
 			return accountDeviceInstances;
@@ -1122,7 +1929,7 @@ public List<AccountDeviceInstance> getRelatedAccountDeviceInstances(AccountDevic
 			throw new TskCoreException("Error getting account device instances. " + ex.getMessage(), ex);
 		} finally {
 			closeResultSet(rs);
-			closeStatement(s);
+			closeStatement(statement);
 			connection.close();
 			db.releaseSingleUserCaseReadLock();
 		}
@@ -1151,8 +1958,9 @@ public List<Content> getRelationshipSources(AccountDeviceInstance account1, Acco
 				CommunicationsFilter.DeviceFilter.class.getName(),
 				CommunicationsFilter.RelationshipTypeFilter.class.getName()
 		));
-		String filterSQL = getCommunicationsFilterSQL(filter, applicableFilters);
-		final String queryString = "SELECT artifacts.artifact_id AS artifact_id,"
+		PreparedQuery filterQuery = getCommunicationsFilterQuery(filter, applicableFilters);
+		final PreparedQuery query = new PreparedQuery()
+				.append("SELECT artifacts.artifact_id AS artifact_id,"
 				+ "		artifacts.obj_id AS obj_id,"
 				+ "		artifacts.artifact_obj_id AS artifact_obj_id,"
 				+ "		artifacts.data_source_obj_id AS data_source_obj_id,"
@@ -1161,18 +1969,24 @@ public List<Content> getRelationshipSources(AccountDeviceInstance account1, Acco
 				+ " FROM blackboard_artifacts AS artifacts"
 				+ "	JOIN account_relationships AS relationships"
 				+ "		ON artifacts.artifact_obj_id = relationships.relationship_source_obj_id"
-				+ " WHERE (( relationships.account1_id = " + account1.getAccount().getAccountID()
-				+ " AND relationships.account2_id  = " + account2.getAccount().getAccountID()
-				+ " ) OR (	  relationships.account2_id = " + account1.getAccount().getAccountID()
-				+ " AND relationships.account1_id =" + account2.getAccount().getAccountID() + " ))"
-				+ (filterSQL.isEmpty() ? "" : " AND " + filterSQL);
+				+ " WHERE (( relationships.account1_id = ")
+				.appendParameter(account1.getAccount().getAccountID())
+				.append(" AND relationships.account2_id  = ")
+				.appendParameter(account2.getAccount().getAccountID())
+				.append(" ) OR (	  relationships.account2_id = ")
+				.appendParameter(account1.getAccount().getAccountID())
+				.append(" AND relationships.account1_id =")
+				.appendParameter(account2.getAccount().getAccountID())
+				.append(" ))")
+				.append(filterQuery.isEmpty() ? "" : " AND ")
+				.append(filterQuery);
 		CaseDbConnection connection = db.getConnection();
 		db.acquireSingleUserCaseReadLock();
-		Statement s = null;
+		PreparedStatement statement = null;
 		ResultSet rs = null;
 		try {
-			s = connection.createStatement();
-			rs = connection.executeQuery(s, queryString); //NON-NLS
+			statement = query.prepare(connection);
+			rs = connection.executeQuery(statement);
 
 			ArrayList<Content> artifacts = new ArrayList<Content>();
 			while (rs.next()) {
@@ -1187,7 +2001,7 @@ public List<Content> getRelationshipSources(AccountDeviceInstance account1, Acco
 			throw new TskCoreException("Error getting relationships between accounts. " + ex.getMessage(), ex);
 		} finally {
 			closeResultSet(rs);
-			closeStatement(s);
+			closeStatement(statement);
 			connection.close();
 			db.releaseSingleUserCaseReadLock();
 		}
@@ -1261,46 +2075,189 @@ private String normalizeEmailAddress(String emailAddress) {
 	}
 
 	/**
-	 * Builds the SQL for the given CommunicationsFilter.
+	 * Compiles the given CommunicationsFilter into a SQL template and the
+	 * values to bind to it.
 	 *
-	 * Gets the SQL for each subfilter and combines using AND.
+	 * Gets the template for each subfilter and combines them using AND. The
+	 * template depends only on the kinds of the subfilters and the number of
+	 * values of each, so the combined template is cached by those, and
+	 * queries that differ only in the values of their filters share a
+	 * prepared statement.
 	 *
-	 * @param commFilter        The CommunicationsFilter to get the SQL for.
+	 * @param commFilter        The CommunicationsFilter to compile.
 	 * @param applicableFilters A Set of names of classes of subfilters that are
 	 *                          applicable. SubFilters not in this list will be
 	 *                          ignored.
 	 *
-	 * @return return SQL suitible for use IN a where clause.
+	 * @return SQL suitible for use IN a where clause, with its values. Empty
+	 *         if no subfilter applies.
 	 */
-	private String getCommunicationsFilterSQL(CommunicationsFilter commFilter, Set<String> applicableFilters) {
+	private PreparedQuery getCommunicationsFilterQuery(CommunicationsFilter commFilter, Set<String> applicableFilters) {
+		PreparedQuery filterQuery = new PreparedQuery();
 		if (null == commFilter || commFilter.getAndFilters().isEmpty()) {
-			return "";
+			return filterQuery;
 		}
 
-		String sqlStr = "";
-		StringBuilder sqlSB = new StringBuilder();
-		boolean first = true;
+		List<CommunicationsFilter.SubFilter> subFilters = new ArrayList<CommunicationsFilter.SubFilter>();
+		List<List<Object>> parameters = new ArrayList<List<Object>>();
+		StringBuilder templateKey = new StringBuilder();
 		for (CommunicationsFilter.SubFilter subFilter : commFilter.getAndFilters()) {
 
 			// If the filter is applicable
 			if (applicableFilters.contains(subFilter.getClass().getName())) {
-				String subfilterSQL = subFilter.getSQL(this);
-				if (!subfilterSQL.isEmpty()) {
-					if (first) {
-						first = false;
-					} else {
-						sqlSB.append(" AND ");
-					}
-					sqlSB.append("( ");
-					sqlSB.append(subfilterSQL);
-					sqlSB.append(" )");
+				List<Object> subFilterParameters = PreparedQuery.pad(subFilter.getSQLParameters(this));
+				if (!subFilterParameters.isEmpty()) {
+					subFilters.add(subFilter);
+					parameters.add(subFilterParameters);
+					templateKey.append(subFilter.getClass().getName()).append(':').append(subFilterParameters.size()).append(';');
 				}
 			}
 		}
+		if (subFilters.isEmpty()) {
+			return filterQuery;
+		}
+
+		String template = filterTemplates.get(templateKey.toString());
+		if (null == template) {
+			StringBuilder sqlSB = new StringBuilder();
+			for (int i = 0; i < subFilters.size(); i++) {
+				if (i > 0) {
+					sqlSB.append(" AND ");
+				}
+				sqlSB.append("( ");
+				sqlSB.append(subFilters.get(i).getSQLTemplate(parameters.get(i).size()));
+				sqlSB.append(" )");
+			}
+			template = "( " + sqlSB.toString() + " )";
+			filterTemplates.put(templateKey.toString(), template);
+		}
+
+		List<Object> values = new ArrayList<Object>();
+		for (List<Object> subFilterParameters : parameters) {
+			values.addAll(subFilterParameters);
+		}
+		return filterQuery.append(template, values);
+	}
+
+	/**
+	 * A communication to be recorded by addRelationships(Iterable, String):
+	 * a sender and recipients of one account type, and the artifact the
+	 * relationships between them are derived from.
+	 */
+	public static final class NewRelationships {
+
+		private final Account.Type accountType;
+		private final String senderID;
+		private final List<String> recipientIDs;
+		private final BlackboardArtifact sourceArtifact;
+		private final Relationship.Type relationshipType;
+		private final long dateTime;
+
+		/**
+		 * Describes a communication.
+		 *
+		 * @param accountType      The account type of the sender and the
+		 *                         recipients.
+		 * @param senderID         The unique account id of the sender, may
+		 *                         be null.
+		 * @param recipientIDs     The unique account ids of the recipients.
+		 * @param sourceArtifact   The artifact the relationships are derived
+		 *                         from.
+		 * @param relationshipType The type of the relationships.
+		 * @param dateTime         The date of the communication, as epoch
+		 *                         seconds, or zero if not known.
+		 */
+		// NOTE: Full name given for Type for doxygen linking
+		public NewRelationships(org.sleuthkit.datamodel.Account.Type accountType, String senderID, List<String> recipientIDs,
+				BlackboardArtifact sourceArtifact, org.sleuthkit.datamodel.Relationship.Type relationshipType, long dateTime) {
+			this.accountType = accountType;
+			this.senderID = senderID;
+			this.recipientIDs = recipientIDs;
+			this.sourceArtifact = sourceArtifact;
+			this.relationshipType = relationshipType;
+			this.dateTime = dateTime;
+		}
+
+		/**
+		 * @return The account type of the sender and the recipients.
+		 */
+		public Account.Type getAccountType() {
+			return accountType;
+		}
+
+		/**
+		 * @return The unique account id of the sender, may be null.
+		 */
+		public String getSenderID() {
+			return senderID;
+		}
+
+		/**
+		 * @return The unique account ids of the recipients.
+		 */
+		public List<String> getRecipientIDs() {
+			return recipientIDs;
+		}
 
-		if (!sqlSB.toString().isEmpty()) {
-			sqlStr = "( " + sqlSB.toString() + " )";
+		/**
+		 * @return The artifact the relationships are derived from.
+		 */
+		public BlackboardArtifact getSourceArtifact() {
+			return sourceArtifact;
+		}
+
+		/**
+		 * @return The type of the relationships.
+		 */
+		public Relationship.Type getRelationshipType() {
+			return relationshipType;
+		}
+
+		/**
+		 * @return The date of the communication, as epoch seconds.
+		 */
+		public long getDateTime() {
+			return dateTime;
+		}
+	}
+
+	/**
+	 * Identifies the account file instance artifact of an account in a
+	 * source file.
+	 */
+	private static final class AccountInstanceKey {
+
+		private final Account.Type accountType;
+		private final String accountID;
+		private final long sourceObjId;
+
+		AccountInstanceKey(Account.Type accountType, String accountID, long sourceObjId) {
+			this.accountType = accountType;
+			this.accountID = accountID;
+			this.sourceObjId = sourceObjId;
+		}
+
+		@Override
+		public int hashCode() {
+			int hash = 7;
+			hash = 31 * hash + accountType.hashCode();
+			hash = 31 * hash + accountID.hashCode();
+			hash = 31 * hash + (int) (sourceObjId ^ (sourceObjId >>> 32));
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (obj == null || getClass() != obj.getClass()) {
+				return false;
+			}
+			final AccountInstanceKey other = (AccountInstanceKey) obj;
+			return sourceObjId == other.sourceObjId
+					&& accountType.equals(other.accountType)
+					&& accountID.equals(other.accountID);
 		}
-		return sqlStr;
 	}
 }
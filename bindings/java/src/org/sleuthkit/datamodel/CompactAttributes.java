@@ -0,0 +1,250 @@
+/*
+ * Sleuth Kit Data Model
+ *
+ * Copyright 2018 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.datamodel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact, append-only store for the attributes of a page of artifacts.
+ * Rather than one BlackboardAttribute object with all five value slots per
+ * attribute, the store keeps one row per attribute with its type, interned
+ * source and context, and the index of its value in a primitive column for
+ * its value type. BlackboardAttribute objects are only created when they are
+ * asked for, and are not kept.
+ *
+ * The store is filled by one thread and may then be read by any number of
+ * threads.
+ */
+final class CompactAttributes {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final SleuthkitCase caseDb;
+	private final Map<String, String> internedStrings = new HashMap<String, String>();
+
+	// One element per attribute.
+	private int size = 0;
+	private long[] artifactIds = new long[INITIAL_CAPACITY];
+	private BlackboardAttribute.Type[] types = new BlackboardAttribute.Type[INITIAL_CAPACITY];
+	private String[] sources = new String[INITIAL_CAPACITY];
+	private String[] contexts = new String[INITIAL_CAPACITY];
+	private int[] valueIndexes = new int[INITIAL_CAPACITY];
+
+	// One column per value type. DATETIME values are kept with the LONG ones.
+	private int intCount = 0;
+	private int[] intValues = new int[0];
+	private int longCount = 0;
+	private long[] longValues = new long[0];
+	private int doubleCount = 0;
+	private double[] doubleValues = new double[0];
+	private int textCount = 0;
+	private String[] textValues = new String[0];
+	private int byteCount = 0;
+	private byte[][] byteValues = new byte[0][];
+
+	/**
+	 * Constructs an empty store.
+	 *
+	 * @param caseDb The case database the attributes belong to.
+	 */
+	CompactAttributes(SleuthkitCase caseDb) {
+		this.caseDb = caseDb;
+	}
+
+	/**
+	 * Adds an attribute. Only the value that matches the value type of the
+	 * attribute type is kept.
+	 *
+	 * @param artifactId  The artifact id of the attribute.
+	 * @param type        The attribute type.
+	 * @param source      The source of the attribute.
+	 * @param context     The context of the attribute.
+	 * @param valueInt    The value, if the value type is INTEGER.
+	 * @param valueLong   The value, if the value type is LONG or DATETIME.
+	 * @param valueDouble The value, if the value type is DOUBLE.
+	 * @param valueText   The value, if the value type is STRING.
+	 * @param valueBytes  The value, if the value type is BYTE.
+	 */
+	void add(long artifactId, BlackboardAttribute.Type type, String source, String context,
+			int valueInt, long valueLong, double valueDouble, String valueText, byte[] valueBytes) {
+		if (size == artifactIds.length) {
+			int capacity = grow(size);
+			artifactIds = Arrays.copyOf(artifactIds, capacity);
+			types = Arrays.copyOf(types, capacity);
+			sources = Arrays.copyOf(sources, capacity);
+			contexts = Arrays.copyOf(contexts, capacity);
+			valueIndexes = Arrays.copyOf(valueIndexes, capacity);
+		}
+		artifactIds[size] = artifactId;
+		types[size] = type;
+		sources[size] = intern(source);
+		contexts[size] = intern(context);
+		switch (type.getValueType()) {
+			case INTEGER:
+				if (intCount == intValues.length) {
+					intValues = Arrays.copyOf(intValues, grow(intCount));
+				}
+				intValues[intCount] = valueInt;
+				valueIndexes[size] = intCount++;
+				break;
+			case LONG:
+			case DATETIME:
+				if (longCount == longValues.length) {
+					longValues = Arrays.copyOf(longValues, grow(longCount));
+				}
+				longValues[longCount] = valueLong;
+				valueIndexes[size] = longCount++;
+				break;
+			case DOUBLE:
+				if (doubleCount == doubleValues.length) {
+					doubleValues = Arrays.copyOf(doubleValues, grow(doubleCount));
+				}
+				doubleValues[doubleCount] = valueDouble;
+				valueIndexes[size] = doubleCount++;
+				break;
+			case BYTE:
+				if (byteCount == byteValues.length) {
+					byteValues = Arrays.copyOf(byteValues, grow(byteCount));
+				}
+				byteValues[byteCount] = valueBytes;
+				valueIndexes[size] = byteCount++;
+				break;
+			case STRING:
+			default:
+				if (textCount == textValues.length) {
+					textValues = Arrays.copyOf(textValues, grow(textCount));
+				}
+				textValues[textCount] = valueText;
+				valueIndexes[size] = textCount++;
+				break;
+		}
+		size++;
+	}
+
+	private static int grow(int count) {
+		return Math.max(INITIAL_CAPACITY, count * 2);
+	}
+
+	private String intern(String value) {
+		if (value == null) {
+			return null;
+		}
+		String interned = internedStrings.get(value);
+		if (interned == null) {
+			internedStrings.put(value, value);
+			interned = value;
+		}
+		return interned;
+	}
+
+	/**
+	 * Releases the spare capacity of the store once it has been filled.
+	 */
+	void trimToSize() {
+		artifactIds = Arrays.copyOf(artifactIds, size);
+		types = Arrays.copyOf(types, size);
+		sources = Arrays.copyOf(sources, size);
+		contexts = Arrays.copyOf(contexts, size);
+		valueIndexes = Arrays.copyOf(valueIndexes, size);
+		intValues = Arrays.copyOf(intValues, intCount);
+		longValues = Arrays.copyOf(longValues, longCount);
+		doubleValues = Arrays.copyOf(doubleValues, doubleCount);
+		textValues = Arrays.copyOf(textValues, textCount);
+		byteValues = Arrays.copyOf(byteValues, byteCount);
+		internedStrings.clear();
+	}
+
+	/**
+	 * Gets the number of attributes in the store.
+	 *
+	 * @return The number of attributes.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the artifact id of an attribute.
+	 *
+	 * @param index The index of the attribute.
+	 *
+	 * @return The artifact id.
+	 */
+	long getArtifactId(int index) {
+		return artifactIds[index];
+	}
+
+	/**
+	 * Creates an attribute object for an attribute in the store.
+	 *
+	 * @param index The index of the attribute.
+	 *
+	 * @return A new attribute object.
+	 */
+	BlackboardAttribute get(int index) {
+		BlackboardAttribute.Type type = types[index];
+		int valueIndex = valueIndexes[index];
+		int valueInt = 0;
+		long valueLong = 0;
+		double valueDouble = 0;
+		String valueText = null;
+		byte[] valueBytes = null;
+		switch (type.getValueType()) {
+			case INTEGER:
+				valueInt = intValues[valueIndex];
+				break;
+			case LONG:
+			case DATETIME:
+				valueLong = longValues[valueIndex];
+				break;
+			case DOUBLE:
+				valueDouble = doubleValues[valueIndex];
+				break;
+			case BYTE:
+				valueBytes = byteValues[valueIndex];
+				break;
+			case STRING:
+			default:
+				valueText = textValues[valueIndex];
+				break;
+		}
+		return new BlackboardAttribute(artifactIds[index], type, sources[index], contexts[index],
+				valueInt, valueLong, valueDouble, valueText, valueBytes, caseDb);
+	}
+
+	/**
+	 * Creates attribute objects for a range of attributes in the store.
+	 *
+	 * @param start The index of the first attribute.
+	 * @param end   The index after the last attribute.
+	 *
+	 * @return A new list of new attribute objects.
+	 */
+	List<BlackboardAttribute> get(int start, int end) {
+		List<BlackboardAttribute> attributes = new ArrayList<BlackboardAttribute>(end - start);
+		for (int i = start; i < end; i++) {
+			attributes.add(get(i));
+		}
+		return attributes;
+	}
+}
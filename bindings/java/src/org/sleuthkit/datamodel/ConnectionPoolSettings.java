@@ -0,0 +1,129 @@
+/*
+ * Sleuth Kit Data Model
+ *
+ * Copyright 2018 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.datamodel;
+
+/**
+ * Sizing of the pool of connections to a case database. A pool can be
+ * allowed to grow past its maximum size, up to a limit, when threads keep
+ * waiting for connections.
+ */
+public final class ConnectionPoolSettings {
+
+	/**
+	 * The sizing used when none is given.
+	 */
+	public static final ConnectionPoolSettings DEFAULT = new ConnectionPoolSettings(5, 20, 2, 1000, 50, 0);
+
+	private final int minPoolSize;
+	private final int maxPoolSize;
+	private final int acquireIncrement;
+	private final int maxStatements;
+	private final int maxStatementsPerConnection;
+	private final int autoscaleMaxPoolSize;
+
+	/**
+	 * Constructs the sizing of a connection pool.
+	 *
+	 * @param minPoolSize                The number of connections the pool
+	 *                                   starts with and keeps.
+	 * @param maxPoolSize                The maximum number of connections.
+	 * @param acquireIncrement           The number of connections opened at a
+	 *                                   time when the pool needs more.
+	 * @param maxStatements              The number of prepared statements
+	 *                                   cached by the pool, zero for none.
+	 * @param maxStatementsPerConnection The number of prepared statements
+	 *                                   cached for each connection, zero for
+	 *                                   no limit other than maxStatements.
+	 * @param autoscaleMaxPoolSize       The size the pool may grow to while
+	 *                                   threads keep waiting for connections,
+	 *                                   zero to never grow the pool. It must
+	 *                                   be zero or at least maxPoolSize.
+	 *
+	 * @throws IllegalArgumentException If the values are out of range.
+	 */
+	public ConnectionPoolSettings(int minPoolSize, int maxPoolSize, int acquireIncrement, int maxStatements, int maxStatementsPerConnection, int autoscaleMaxPoolSize) {
+		if (minPoolSize < 0 || maxPoolSize < 1 || minPoolSize > maxPoolSize) {
+			throw new IllegalArgumentException("Pool sizes must satisfy 0 <= minPoolSize <= maxPoolSize and maxPoolSize >= 1");
+		}
+		if (acquireIncrement < 1) {
+			throw new IllegalArgumentException("Acquire increment must be positive");
+		}
+		if (maxStatements < 0 || maxStatementsPerConnection < 0) {
+			throw new IllegalArgumentException("Statement cache sizes cannot be negative");
+		}
+		if (autoscaleMaxPoolSize != 0 && autoscaleMaxPoolSize < maxPoolSize) {
+			throw new IllegalArgumentException("Autoscale maximum pool size must be zero or at least the maximum pool size");
+		}
+		this.minPoolSize = minPoolSize;
+		this.maxPoolSize = maxPoolSize;
+		this.acquireIncrement = acquireIncrement;
+		this.maxStatements = maxStatements;
+		this.maxStatementsPerConnection = maxStatementsPerConnection;
+		this.autoscaleMaxPoolSize = autoscaleMaxPoolSize;
+	}
+
+	/**
+	 * @return The number of connections the pool starts with and keeps.
+	 */
+	public int getMinPoolSize() {
+		return minPoolSize;
+	}
+
+	/**
+	 * @return The maximum number of connections.
+	 */
+	public int getMaxPoolSize() {
+		return maxPoolSize;
+	}
+
+	/**
+	 * @return The number of connections opened at a time.
+	 */
+	public int getAcquireIncrement() {
+		return acquireIncrement;
+	}
+
+	/**
+	 * @return The number of prepared statements cached by the pool.
+	 */
+	public int getMaxStatements() {
+		return maxStatements;
+	}
+
+	/**
+	 * @return The number of prepared statements cached for each connection.
+	 */
+	public int getMaxStatementsPerConnection() {
+		return maxStatementsPerConnection;
+	}
+
+	/**
+	 * @return The size the pool may grow to, zero if it never grows.
+	 */
+	public int getAutoscaleMaxPoolSize() {
+		return autoscaleMaxPoolSize;
+	}
+
+	/**
+	 * @return True if the pool may grow past its maximum size.
+	 */
+	public boolean isAutoscaleEnabled() {
+		return autoscaleMaxPoolSize > maxPoolSize;
+	}
+}
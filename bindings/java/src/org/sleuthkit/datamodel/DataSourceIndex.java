@@ -0,0 +1,117 @@
+/*
+ * Sleuth Kit Data Model
+ *
+ * Copyright 2018 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.datamodel;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maps object ids to the object ids of their data sources. Object ids are
+ * handed out in increasing order, mostly to one data source at a time, so
+ * the index stores runs of consecutive object ids that belong to the same
+ * data source rather than one entry per object.
+ */
+final class DataSourceIndex {
+
+	/**
+	 * The value returned for an object that is not in the index.
+	 */
+	static final long UNKNOWN = -1;
+
+	private final TreeMap<Long, Run> runs = new TreeMap<Long, Run>();
+
+	/**
+	 * Gets the data source of an object.
+	 *
+	 * @param objectId The object id.
+	 *
+	 * @return The object id of the data source, or UNKNOWN.
+	 */
+	synchronized long get(long objectId) {
+		Map.Entry<Long, Run> entry = runs.floorEntry(objectId);
+		if (entry != null && entry.getValue().end >= objectId) {
+			return entry.getValue().dataSourceId;
+		}
+		return UNKNOWN;
+	}
+
+	/**
+	 * Adds an object, merging it with the runs of the same data source that
+	 * end right before it or start right after it. Objects never move to
+	 * another data source, so an object that is already in the index is left
+	 * as is.
+	 *
+	 * @param objectId     The object id.
+	 * @param dataSourceId The object id of the data source.
+	 */
+	synchronized void put(long objectId, long dataSourceId) {
+		Map.Entry<Long, Run> previous = runs.floorEntry(objectId);
+		if (previous != null && previous.getValue().end >= objectId) {
+			return;
+		}
+		Run next = runs.get(objectId + 1);
+		if (next != null && next.dataSourceId != dataSourceId) {
+			next = null;
+		}
+		if (previous != null && previous.getValue().end == objectId - 1 && previous.getValue().dataSourceId == dataSourceId) {
+			Run run = previous.getValue();
+			run.end = objectId;
+			if (next != null) {
+				run.end = next.end;
+				runs.remove(objectId + 1);
+			}
+		} else if (next != null) {
+			runs.remove(objectId + 1);
+			runs.put(objectId, new Run(next.end, dataSourceId));
+		} else {
+			runs.put(objectId, new Run(objectId, dataSourceId));
+		}
+	}
+
+	/**
+	 * Gets the number of runs of consecutive object ids in the index.
+	 *
+	 * @return The number of runs.
+	 */
+	synchronized int getRunCount() {
+		return runs.size();
+	}
+
+	/**
+	 * Removes all objects from the index.
+	 */
+	synchronized void clear() {
+		runs.clear();
+	}
+
+	/**
+	 * A run of consecutive object ids that belong to one data source. The
+	 * run starts at the key it is stored under.
+	 */
+	private static final class Run {
+
+		private long end;
+		private final long dataSourceId;
+
+		Run(long end, long dataSourceId) {
+			this.end = end;
+			this.dataSourceId = dataSourceId;
+		}
+	}
+}
@@ -18,6 +18,7 @@
  */
 package org.sleuthkit.datamodel;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
@@ -167,21 +168,49 @@ public FileSystem getFileSystem() throws TskCoreException {
 	}
 
 	/**
-	 * Opens a JNI file handle for this file or directory.
+	 * Opens a JNI file handle for this file or directory, or opens it again if
+	 * the handle was evicted from the JNI handle cache.
 	 *
 	 * @throws TskCoreException if there is a problem opening the handle.
 	 */
 	@SuppressWarnings("deprecation")
 	void loadFileHandle() throws TskCoreException {
-		if (fileHandle == 0) {
+		if (fileHandle == 0 || !SleuthkitJNI.isFileHandleOpen(fileHandle)) {
 			synchronized (this) {
 				if (fileHandle == 0) {
 					fileHandle = SleuthkitJNI.openFile(getFileSystem().getFileSystemHandle(), metaAddr, attrType, attrId);
+				} else if (!SleuthkitJNI.isFileHandleOpen(fileHandle)) {
+					fileHandle = SleuthkitJNI.reopenFile(getFileSystem().getFileSystemHandle(), metaAddr, attrType, attrId);
 				}
 			}
 		}
 	}
 
+	/**
+	 * Opens the JNI file handle for this file or directory if needed and pins
+	 * it, so that the JNI handle cache cannot evict it between the check that
+	 * it is open and the end of a read. The handle must be given back with
+	 * SleuthkitJNI.unpinFileHandle().
+	 *
+	 * @return The pinned handle.
+	 *
+	 * @throws TskCoreException if there is a problem opening the handle.
+	 */
+	@SuppressWarnings("deprecation")
+	synchronized SleuthkitJNI.OpenFileHandle pinFileHandle() throws TskCoreException {
+		loadFileHandle();
+		SleuthkitJNI.OpenFileHandle pinnedHandle = SleuthkitJNI.pinFileHandle(fileHandle);
+		if (pinnedHandle == null) {
+			// The handle was evicted after it was checked, open it again.
+			fileHandle = SleuthkitJNI.reopenFile(getFileSystem().getFileSystemHandle(), metaAddr, attrType, attrId);
+			pinnedHandle = SleuthkitJNI.pinFileHandle(fileHandle);
+			if (pinnedHandle == null) {
+				throw new TskCoreException("Could not open file handle for " + getName() + " (id = " + getId() + ")"); //NON-NLS
+			}
+		}
+		return pinnedHandle;
+	}
+
 	/**
 	 * Gets the JNI file handle for this file or directory, zero if the file has
 	 * not been opened by calling loadHandle.
@@ -211,8 +240,37 @@ protected synchronized int readInt(byte[] buf, long offset, long len) throws Tsk
 			//special case for 0-size file
 			return 0;
 		}
-		loadFileHandle();
-		return SleuthkitJNI.readFile(fileHandle, buf, offset, len);
+		SleuthkitJNI.OpenFileHandle pinnedHandle = pinFileHandle();
+		try {
+			return SleuthkitJNI.readFile(pinnedHandle.getFileHandle(), buf, offset, len);
+		} finally {
+			SleuthkitJNI.unpinFileHandle(pinnedHandle);
+		}
+	}
+
+	/**
+	 * Reads bytes from this file or directory straight into a direct buffer.
+	 *
+	 * @param buf    Direct buffer to read into.
+	 * @param offset Start position in the file.
+	 *
+	 * @return Number of bytes read.
+	 *
+	 * @throws TskCoreException if there is a problem reading the file.
+	 */
+	@Override
+	@SuppressWarnings("deprecation")
+	protected synchronized int readInt(ByteBuffer buf, long offset) throws TskCoreException {
+		if (offset == 0 && size == 0) {
+			//special case for 0-size file
+			return 0;
+		}
+		SleuthkitJNI.OpenFileHandle pinnedHandle = pinFileHandle();
+		try {
+			return SleuthkitJNI.readFile(pinnedHandle.getFileHandle(), buf, offset);
+		} finally {
+			SleuthkitJNI.unpinFileHandle(pinnedHandle);
+		}
 	}
 
 	@Override
@@ -291,8 +349,12 @@ public synchronized List<String> getMetaDataText() throws TskCoreException {
 			return metaDataText;
 		}
 
-		loadFileHandle();
-		metaDataText = SleuthkitJNI.getFileMetaDataText(fileHandle);
+		SleuthkitJNI.OpenFileHandle pinnedHandle = pinFileHandle();
+		try {
+			metaDataText = SleuthkitJNI.getFileMetaDataText(pinnedHandle.getFileHandle());
+		} finally {
+			SleuthkitJNI.unpinFileHandle(pinnedHandle);
+		}
 		return metaDataText;
 	}
 
@@ -0,0 +1,181 @@
+/*
+ * Sleuth Kit Data Model
+ *
+ * Copyright 2018 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.datamodel;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+
+/**
+ * A snapshot of the hasChildren map of a single-user case, kept in a file
+ * next to the case database. The file holds a header with the largest object
+ * id the map covers and the size and modification time of the case database
+ * file when the snapshot was saved, followed by the map and its checksum.
+ */
+final class HasChildrenSnapshot {
+
+	private static final int MAGIC = 0x54534b50; // "TSKP"
+	private static final int VERSION = 3;
+	// Magic, version, largest object id, file size and modification time,
+	// map size and checksum.
+	private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 8 + 4 + 8;
+	private static final String TEMP_SUFFIX = ".tmp"; //NON-NLS
+
+	private final long maxObjId;
+	private final long dbFileLength;
+	private final long dbFileModified;
+	private final byte[] bitmap;
+
+	private HasChildrenSnapshot(long maxObjId, long dbFileLength, long dbFileModified, byte[] bitmap) {
+		this.maxObjId = maxObjId;
+		this.dbFileLength = dbFileLength;
+		this.dbFileModified = dbFileModified;
+		this.bitmap = bitmap;
+	}
+
+	/**
+	 * Gets the largest object id covered by the snapshot.
+	 *
+	 * @return The object id.
+	 */
+	long getMaxObjId() {
+		return maxObjId;
+	}
+
+	/**
+	 * Gets the size of the case database file when the snapshot was saved.
+	 *
+	 * @return The size in bytes.
+	 */
+	long getDbFileLength() {
+		return dbFileLength;
+	}
+
+	/**
+	 * Gets the modification time of the case database file when the snapshot
+	 * was saved.
+	 *
+	 * @return The modification time.
+	 */
+	long getDbFileModified() {
+		return dbFileModified;
+	}
+
+	/**
+	 * Adds the object ids of the snapshot to a map.
+	 *
+	 * @param hasChildren The map.
+	 *
+	 * @throws IOException
+	 */
+	void readInto(ObjectIdBitmap hasChildren) throws IOException {
+		hasChildren.read(new DataInputStream(new ByteArrayInputStream(bitmap)));
+	}
+
+	/**
+	 * Reads a snapshot. The size of the map is checked against the size of
+	 * the file before the map is read, and the map against its checksum.
+	 *
+	 * @param snapshotFile The snapshot file.
+	 *
+	 * @return The snapshot.
+	 *
+	 * @throws IOException If the file cannot be read, or is not a snapshot
+	 *                     of this version or is corrupt.
+	 */
+	static HasChildrenSnapshot read(File snapshotFile) throws IOException {
+		long fileLength = snapshotFile.length();
+		DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)));
+		try {
+			if (fileLength < HEADER_SIZE || input.readInt() != MAGIC || input.readInt() != VERSION) {
+				throw new IOException("Unknown format of parent node cache snapshot " + snapshotFile);
+			}
+			long maxObjId = input.readLong();
+			long dbFileLength = input.readLong();
+			long dbFileModified = input.readLong();
+			int bitmapLength = input.readInt();
+			long checksum = input.readLong();
+			if (bitmapLength != fileLength - HEADER_SIZE) {
+				throw new IOException("Corrupt parent node cache snapshot " + snapshotFile);
+			}
+			byte[] bitmap = new byte[bitmapLength];
+			input.readFully(bitmap);
+			CRC32 crc = new CRC32();
+			crc.update(bitmap);
+			if (crc.getValue() != checksum || input.read() != -1) {
+				throw new IOException("Corrupt parent node cache snapshot " + snapshotFile);
+			}
+			return new HasChildrenSnapshot(maxObjId, dbFileLength, dbFileModified, bitmap);
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Saves a snapshot. It is written to a temporary file that then replaces
+	 * the previous snapshot, so a crash cannot leave a partial snapshot
+	 * behind.
+	 *
+	 * @param snapshotFile   The snapshot file.
+	 * @param hasChildren    The map.
+	 * @param maxObjId       The largest object id covered by the map.
+	 * @param dbFileLength   The size of the case database file.
+	 * @param dbFileModified The modification time of the case database file.
+	 *
+	 * @throws IOException
+	 */
+	static void write(File snapshotFile, ObjectIdBitmap hasChildren, long maxObjId, long dbFileLength, long dbFileModified) throws IOException {
+		ByteArrayOutputStream bitmap = new ByteArrayOutputStream();
+		DataOutputStream bitmapOutput = new DataOutputStream(bitmap);
+		hasChildren.write(bitmapOutput);
+		bitmapOutput.flush();
+		CRC32 crc = new CRC32();
+		crc.update(bitmap.toByteArray());
+
+		File tempFile = new File(snapshotFile.getPath() + TEMP_SUFFIX);
+		try {
+			DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+			try {
+				output.writeInt(MAGIC);
+				output.writeInt(VERSION);
+				output.writeLong(maxObjId);
+				output.writeLong(dbFileLength);
+				output.writeLong(dbFileModified);
+				output.writeInt(bitmap.size());
+				output.writeLong(crc.getValue());
+				bitmap.writeTo(output);
+			} finally {
+				output.close();
+			}
+			Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			tempFile.delete();
+		}
+	}
+}
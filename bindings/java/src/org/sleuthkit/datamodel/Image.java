@@ -26,6 +26,7 @@
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.io.File;
+import java.nio.ByteBuffer;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -43,6 +44,7 @@ public class Image extends AbstractContent implements DataSource {
 	private long size;
 	private final String[] paths;
 	private volatile long imageHandle = 0;
+	private volatile ImageCacheSettings cacheSettings = null;
 	private final String deviceId, timezone, md5;
 	private static ResourceBundle bundle = ResourceBundle.getBundle("org.sleuthkit.datamodel.Bundle");
 
@@ -115,11 +117,69 @@ protected Image(SleuthkitCase db, long obj_id, long type, long ssize, String nam
 	public synchronized long getImageHandle() throws TskCoreException {
 		if (imageHandle == 0) {
 			imageHandle = SleuthkitJNI.openImage(paths, (int)ssize);
+			ImageCacheSettings settings = getCacheSettings();
+			if (settings != null) {
+				try {
+					SleuthkitJNI.setImageCacheSettings(imageHandle, settings);
+				} catch (TskCoreException ex) {
+					/*
+					 * The image is open and can be read without the cache, so
+					 * carry on with the default caching of TSK rather than fail
+					 * every read of the image.
+					 */
+					LOGGER.log(Level.WARNING, "Could not configure the block cache of image " + getId() + ", using the default cache", ex); //NON-NLS
+				}
+			}
 		}
 
 		return imageHandle;
 	}
 
+	/**
+	 * Sets the sizing of the native block cache of this image, overriding the
+	 * settings of the case. The cache is reconfigured right away if the image
+	 * is already open.
+	 *
+	 * @param settings the cache sizing, ImageCacheSettings.DISABLED or null to
+	 *                 remove the cache
+	 *
+	 * @throws TskCoreException if the cache could not be configured
+	 */
+	public synchronized void setCacheSettings(ImageCacheSettings settings) throws TskCoreException {
+		if (settings == null) {
+			settings = ImageCacheSettings.DISABLED;
+		}
+		if (imageHandle != 0) {
+			SleuthkitJNI.setImageCacheSettings(imageHandle, settings);
+		}
+		cacheSettings = settings;
+	}
+
+	/**
+	 * Gets the sizing of the native block cache of this image.
+	 *
+	 * @return the settings of this image, or else those of the case, or null
+	 *         if neither has any
+	 */
+	public ImageCacheSettings getCacheSettings() {
+		ImageCacheSettings settings = cacheSettings;
+		if (settings == null) {
+			settings = getSleuthkitCase().getImageCacheSettings();
+		}
+		return settings;
+	}
+
+	/**
+	 * Gets the hit and miss counters of the native block cache of this image.
+	 *
+	 * @return a snapshot of the cache counters
+	 *
+	 * @throws TskCoreException if the image could not be opened
+	 */
+	public SleuthkitJNI.ImageCacheStats getCacheStats() throws TskCoreException {
+		return SleuthkitJNI.getImageCacheStats(getImageHandle());
+	}
+
 	@Override
 	public Content getDataSource() {
 		return this;
@@ -148,6 +208,14 @@ public int read(byte[] buf, long offset, long len) throws TskCoreException {
 		return SleuthkitJNI.readImg(getImageHandle(), buf, offset, len);
 	}
 
+	@Override
+	public int read(ByteBuffer buf, long offset) throws TskCoreException {
+		if (!buf.isDirect()) {
+			return super.read(buf, offset);
+		}
+		return SleuthkitJNI.readImg(getImageHandle(), buf, offset);
+	}
+
 	@Override
 	public long getSize() {
 		if (size == 0) {
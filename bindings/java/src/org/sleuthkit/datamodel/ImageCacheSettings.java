@@ -0,0 +1,97 @@
+/*
+ * Sleuth Kit Data Model
+ *
+ * Copyright 2018 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.datamodel;
+
+/**
+ * Sizing of the native block cache of an image. The cache holds a number of
+ * fixed-size blocks of the image in addition to the small cache that TSK
+ * keeps for every image, and can read several blocks ahead when the image is
+ * read sequentially.
+ */
+public final class ImageCacheSettings {
+
+	/**
+	 * Settings that remove the block cache of an image.
+	 */
+	public static final ImageCacheSettings DISABLED = new ImageCacheSettings(0, 0, 0);
+
+	private final int blockSize;
+	private final int cacheEntries;
+	private final int readAheadBlocks;
+
+	/**
+	 * Constructs the sizing of an image block cache.
+	 *
+	 * @param blockSize       The size of a cache block in bytes. It must be a
+	 *                        multiple of the sector size of the image.
+	 * @param cacheEntries    The number of blocks in the cache, zero to
+	 *                        disable the cache.
+	 * @param readAheadBlocks The number of blocks to read after a block that
+	 *                        continues a sequential read, zero to disable
+	 *                        read-ahead. It must be smaller than the number
+	 *                        of cache entries.
+	 *
+	 * @throws IllegalArgumentException If the values are out of range.
+	 */
+	public ImageCacheSettings(int blockSize, int cacheEntries, int readAheadBlocks) {
+		if (cacheEntries < 0 || readAheadBlocks < 0) {
+			throw new IllegalArgumentException("Cache entries and read-ahead blocks cannot be negative");
+		}
+		if (cacheEntries > 0 && blockSize <= 0) {
+			throw new IllegalArgumentException("Block size must be positive");
+		}
+		if (cacheEntries > 0 && readAheadBlocks >= cacheEntries) {
+			throw new IllegalArgumentException("Read-ahead blocks must be fewer than the cache entries");
+		}
+		if ((long) blockSize * cacheEntries > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Cache size cannot exceed " + Integer.MAX_VALUE + " bytes");
+		}
+		this.blockSize = blockSize;
+		this.cacheEntries = cacheEntries;
+		this.readAheadBlocks = readAheadBlocks;
+	}
+
+	/**
+	 * @return The size of a cache block in bytes.
+	 */
+	public int getBlockSize() {
+		return blockSize;
+	}
+
+	/**
+	 * @return The number of blocks in the cache.
+	 */
+	public int getCacheEntries() {
+		return cacheEntries;
+	}
+
+	/**
+	 * @return The number of blocks read ahead on sequential reads.
+	 */
+	public int getReadAheadBlocks() {
+		return readAheadBlocks;
+	}
+
+	/**
+	 * @return True if these settings enable the cache.
+	 */
+	public boolean isEnabled() {
+		return cacheEntries > 0;
+	}
+}
@@ -18,6 +18,8 @@
  */
 package org.sleuthkit.datamodel;
 
+import java.nio.ByteBuffer;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.sleuthkit.datamodel.TskData.FileKnown;
@@ -43,6 +45,7 @@
 public class LayoutFile extends AbstractFile {
 
 	private long imageHandle = -1;
+	private long[] rangeEnds = null;
 
 	/**
 	 * Constructs a representation of a layout file that has been added to a
@@ -138,9 +141,41 @@ public void close() {
 	 */
 	@Override
 	protected int readInt(byte[] buf, long offset, long len) throws TskCoreException {
-		long offsetInThisLayoutContent = 0; // current offset in this LayoutContent
-		int bytesRead = 0; // Bytes read so far
+		ImageExtents extents = getImageExtents(offset, Math.min(len, buf.length));
+		if (extents.offsets.length == 0) {
+			return 0;
+		}
+		return SleuthkitJNI.readImgRanges(getLayoutImageHandle(), buf, 0, extents.offsets, extents.lengths);
+	}
 
+	/**
+	 * Reads bytes from the layout ranges associated with this file into a
+	 * direct buffer, starting at the position of the buffer.
+	 *
+	 * @param buf    Direct buffer to read into.
+	 * @param offset Start position in the file.
+	 *
+	 * @return Number of bytes read.
+	 *
+	 * @throws TskCoreException if there is a problem reading the file.
+	 */
+	@Override
+	protected int readInt(ByteBuffer buf, long offset) throws TskCoreException {
+		ImageExtents extents = getImageExtents(offset, buf.remaining());
+		if (extents.offsets.length == 0) {
+			return 0;
+		}
+		return SleuthkitJNI.readImgRanges(getLayoutImageHandle(), buf, extents.offsets, extents.lengths);
+	}
+
+	/**
+	 * Gets the handle of the image that holds the layout ranges of this file.
+	 *
+	 * @return The image handle.
+	 *
+	 * @throws TskCoreException if the data source of the file is not an image.
+	 */
+	private long getLayoutImageHandle() throws TskCoreException {
 		if (imageHandle == -1) {
 			Content dataSource = getDataSource();
 			if ((dataSource != null) && (dataSource instanceof Image)) {
@@ -150,51 +185,89 @@ protected int readInt(byte[] buf, long offset, long len) throws TskCoreException
 				throw new TskCoreException("Data Source of LayoutFile is not Image");
 			}
 		}
+		return imageHandle;
+	}
 
-		for (TskFileRange range : getRanges()) {
-			if (bytesRead < len) { // we haven't read enough yet
-				if (offset < offsetInThisLayoutContent + range.getByteLen()) { // if we are in a range object we want to read from
-					long offsetInRange = 0; // how far into the current range object to start reading
-					if (bytesRead == 0) { // we haven't read anything yet so we want to read from the correct offset in this range object
-						offsetInRange = offset - offsetInThisLayoutContent; // start reading from the correct offset
-					}
-					long offsetInImage = range.getByteStart() + offsetInRange; // how far into the image to start reading
-					long lenToRead = Math.min(range.getByteLen() - offsetInRange, len - bytesRead); // how much we can read this time
-					int lenRead = readImgToOffset(imageHandle, buf, bytesRead, offsetInImage, (int) lenToRead);
-					bytesRead += lenRead;
-					if (lenToRead != lenRead) { // If image read failed or was cut short
-						break;
-					}
-				}
-				offsetInThisLayoutContent += range.getByteLen();
-			} else { // we're done reading
-				break;
+	/**
+	 * Maps a section of this file to the image ranges that hold it, so that it
+	 * can be read with a single call into the native library.
+	 *
+	 * @param offset Start position in the file.
+	 * @param len    Number of bytes in the section.
+	 *
+	 * @return The image ranges in file order, clipped to the section.
+	 *
+	 * @throws TskCoreException if the layout ranges could not be loaded.
+	 */
+	private ImageExtents getImageExtents(long offset, long len) throws TskCoreException {
+		List<TskFileRange> layoutRanges = getRanges();
+		long[] ends = getRangeEnds(layoutRanges);
+
+		// Find the first range that ends after the offset
+		int low = 0;
+		int high = ends.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (ends[mid] <= offset) {
+				low = mid + 1;
+			} else {
+				high = mid;
 			}
 		}
-		return bytesRead;
+
+		int count = 0;
+		long remaining = len;
+		for (int i = low; i < ends.length && remaining > 0; i++) {
+			remaining -= Math.min(ends[i] - Math.max(offset, ends[i] - layoutRanges.get(i).getByteLen()), remaining);
+			count++;
+		}
+
+		ImageExtents extents = new ImageExtents(count);
+		remaining = len;
+		for (int i = 0; i < count; i++) {
+			TskFileRange range = layoutRanges.get(low + i);
+			long rangeStart = ends[low + i] - range.getByteLen();
+			long offsetInRange = Math.max(offset - rangeStart, 0);
+			long lenToRead = Math.min(range.getByteLen() - offsetInRange, remaining);
+			extents.offsets[i] = range.getByteStart() + offsetInRange;
+			extents.lengths[i] = lenToRead;
+			remaining -= lenToRead;
+		}
+		return extents;
 	}
 
 	/**
-	 * Reads bytes from an image into a buffer, starting at given position in
-	 * buffer.
+	 * Gets the offsets in this file at which each of the layout ranges ends.
 	 *
-	 * @param imgHandle	    The image to read from.
-	 * @param buf	          The array to read into.
-	 * @param offsetInBuf	  Where to start in the array.
-	 * @param offsetInImage	Where to start in the image.
-	 * @param lenToRead	    How far to read in the image.
+	 * @param layoutRanges The layout ranges of this file.
 	 *
-	 * @return the number of characters read, or -1 if the end of the stream has
-	 *         been reached
-	 *
-	 * @throws TskCoreException exception thrown if critical error occurs within
-	 *                          TSK
+	 * @return The end offsets, in the order of the ranges.
+	 */
+	private synchronized long[] getRangeEnds(List<TskFileRange> layoutRanges) {
+		if (rangeEnds == null || rangeEnds.length != layoutRanges.size()) {
+			long[] ends = new long[layoutRanges.size()];
+			long end = 0;
+			for (int i = 0; i < ends.length; i++) {
+				end += layoutRanges.get(i).getByteLen();
+				ends[i] = end;
+			}
+			rangeEnds = ends;
+		}
+		return rangeEnds;
+	}
+
+	/**
+	 * The image byte ranges backing a section of a layout file.
 	 */
-	private int readImgToOffset(long imgHandle, byte[] buf, int offsetInBuf, long offsetInImage, int lenToRead) throws TskCoreException {
-		byte[] currentBuffer = new byte[lenToRead]; // the buffer for the current range object
-		int lenRead = SleuthkitJNI.readImg(imgHandle, currentBuffer, offsetInImage, lenToRead);
-		System.arraycopy(currentBuffer, 0, buf, offsetInBuf, lenToRead); // copy what we just read into the main buffer
-		return lenRead;
+	private static final class ImageExtents {
+
+		private final long[] offsets;
+		private final long[] lengths;
+
+		private ImageExtents(int count) {
+			offsets = new long[count];
+			lengths = new long[count];
+		}
 	}
 
 	/**
@@ -0,0 +1,307 @@
+/*
+ * Sleuth Kit Data Model
+ *
+ * Copyright 2018 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.datamodel;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A compressed set of object ids for read-mostly use. The ids are split into
+ * chunks of 2^16 ids, as in a roaring bitmap. A chunk holds a sorted array
+ * of its ids while it has few of them and a plain bitmap once it has many.
+ * The chunks of the ids below 2^36 are found by indexing an array, the rest
+ * through a map. Lookups take no locks; additions are serialized.
+ */
+final class ObjectIdBitmap {
+
+	private static final int CHUNK_BITS = 16;
+	private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+	// An array chunk of this many ids takes as much memory as a bitmap chunk.
+	private static final int MAX_ARRAY_CHUNK_SIZE = 4096;
+	private static final int MAX_INDEXED_CHUNKS = 1 << 20;
+
+	// Replaced, not changed, when it has to grow.
+	private volatile Chunk[] indexedChunks = new Chunk[0];
+	private final ConcurrentHashMap<Long, Chunk> chunks = new ConcurrentHashMap<Long, Chunk>();
+	private volatile long cardinality = 0;
+
+	/**
+	 * Indicates whether an object id is in the set.
+	 *
+	 * @param objectId The object id.
+	 *
+	 * @return True if the id is in the set.
+	 */
+	boolean contains(long objectId) {
+		if (objectId < 0) {
+			return false;
+		}
+		Chunk chunk = getChunk(objectId >>> CHUNK_BITS);
+		return chunk != null && chunk.contains((int) (objectId & CHUNK_MASK));
+	}
+
+	/**
+	 * Adds an object id to the set.
+	 *
+	 * @param objectId The object id, ignored if negative.
+	 */
+	synchronized void add(long objectId) {
+		if (objectId < 0) {
+			return;
+		}
+		long key = objectId >>> CHUNK_BITS;
+		int low = (int) (objectId & CHUNK_MASK);
+		Chunk chunk = getChunk(key);
+		if (chunk == null) {
+			putChunk(key, new ArrayChunk(new char[]{(char) low}));
+			cardinality++;
+		} else if (!chunk.contains(low)) {
+			Chunk updated = chunk.add(low);
+			if (updated != chunk) {
+				putChunk(key, updated);
+			}
+			cardinality++;
+		}
+	}
+
+	private Chunk getChunk(long key) {
+		if (key < MAX_INDEXED_CHUNKS) {
+			Chunk[] indexed = indexedChunks;
+			return key < indexed.length ? indexed[(int) key] : null;
+		}
+		return chunks.get(key);
+	}
+
+	/**
+	 * Publishes a chunk. An array element is not a volatile, so the array is
+	 * published again after the change.
+	 */
+	private void putChunk(long key, Chunk chunk) {
+		if (key < MAX_INDEXED_CHUNKS) {
+			Chunk[] indexed = indexedChunks;
+			if (key >= indexed.length) {
+				indexed = Arrays.copyOf(indexed, (int) Math.min(MAX_INDEXED_CHUNKS, Math.max(key + 1, indexed.length * 2L)));
+			}
+			indexed[(int) key] = chunk;
+			indexedChunks = indexed;
+		} else {
+			chunks.put(key, chunk);
+		}
+	}
+
+	/**
+	 * Gets the number of object ids in the set.
+	 *
+	 * @return The number of ids.
+	 */
+	long getCardinality() {
+		return cardinality;
+	}
+
+	/**
+	 * Removes all object ids from the set.
+	 */
+	synchronized void clear() {
+		indexedChunks = new Chunk[0];
+		chunks.clear();
+		cardinality = 0;
+	}
+
+	/**
+	 * Writes the set as its size followed by the varint-encoded gaps between
+	 * its ids in increasing order.
+	 *
+	 * @param output The stream to write to.
+	 *
+	 * @throws IOException
+	 */
+	synchronized void write(DataOutputStream output) throws IOException {
+		List<Long> keys = new ArrayList<Long>();
+		Chunk[] indexed = indexedChunks;
+		for (int i = 0; i < indexed.length; i++) {
+			if (indexed[i] != null) {
+				keys.add((long) i);
+			}
+		}
+		List<Long> mappedKeys = new ArrayList<Long>(chunks.keySet());
+		Collections.sort(mappedKeys);
+		keys.addAll(mappedKeys);
+		output.writeLong(cardinality);
+		long previous = 0;
+		for (Long key : keys) {
+			long base = key << CHUNK_BITS;
+			Chunk chunk = getChunk(key);
+			for (int low = chunk.next(0); low >= 0; low = chunk.next(low + 1)) {
+				writeVarLong(output, base + low - previous);
+				previous = base + low;
+			}
+		}
+	}
+
+	/**
+	 * Adds the ids written by write() to the set.
+	 *
+	 * @param input The stream to read from.
+	 *
+	 * @throws IOException
+	 */
+	void read(DataInputStream input) throws IOException {
+		long count = input.readLong();
+		long objectId = 0;
+		for (long i = 0; i < count; i++) {
+			objectId += readVarLong(input);
+			add(objectId);
+		}
+	}
+
+	private static void writeVarLong(DataOutputStream output, long value) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			output.writeByte((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		output.writeByte((int) value);
+	}
+
+	private static long readVarLong(DataInputStream input) throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = input.readUnsignedByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new EOFException("Malformed varint in object id bitmap");
+	}
+
+	/**
+	 * The ids of one chunk, as offsets from the start of the chunk.
+	 */
+	private interface Chunk {
+
+		boolean contains(int low);
+
+		/**
+		 * Adds an id that is not in the chunk yet.
+		 *
+		 * @return This chunk, or the chunk that replaces it.
+		 */
+		Chunk add(int low);
+
+		/**
+		 * @return The smallest id that is not smaller than the given one, or
+		 *         -1 if there is none.
+		 */
+		int next(int low);
+	}
+
+	/**
+	 * A chunk with few ids, kept in a sorted array that is never changed
+	 * once it is published.
+	 */
+	private static final class ArrayChunk implements Chunk {
+
+		private final char[] values;
+
+		ArrayChunk(char[] values) {
+			this.values = values;
+		}
+
+		@Override
+		public boolean contains(int low) {
+			return Arrays.binarySearch(values, (char) low) >= 0;
+		}
+
+		@Override
+		public Chunk add(int low) {
+			if (values.length >= MAX_ARRAY_CHUNK_SIZE) {
+				BitmapChunk bitmap = new BitmapChunk();
+				for (char value : values) {
+					bitmap.add(value);
+				}
+				bitmap.add(low);
+				return bitmap;
+			}
+			int insertionPoint = -(Arrays.binarySearch(values, (char) low) + 1);
+			char[] updated = new char[values.length + 1];
+			System.arraycopy(values, 0, updated, 0, insertionPoint);
+			updated[insertionPoint] = (char) low;
+			System.arraycopy(values, insertionPoint, updated, insertionPoint + 1, values.length - insertionPoint);
+			return new ArrayChunk(updated);
+		}
+
+		@Override
+		public int next(int low) {
+			if (low > CHUNK_MASK) {
+				return -1;
+			}
+			int index = Arrays.binarySearch(values, (char) low);
+			if (index < 0) {
+				index = -(index + 1);
+			}
+			return index < values.length ? values[index] : -1;
+		}
+	}
+
+	/**
+	 * A chunk with many ids, kept in a bitmap that is changed in place.
+	 */
+	private static final class BitmapChunk implements Chunk {
+
+		private final AtomicLongArray words = new AtomicLongArray((CHUNK_MASK + 1) / Long.SIZE);
+
+		@Override
+		public boolean contains(int low) {
+			return (words.get(low >>> 6) & (1L << low)) != 0;
+		}
+
+		@Override
+		public Chunk add(int low) {
+			int index = low >>> 6;
+			words.set(index, words.get(index) | (1L << low));
+			return this;
+		}
+
+		@Override
+		public int next(int low) {
+			int index = low >>> 6;
+			if (index >= words.length()) {
+				return -1;
+			}
+			long word = words.get(index) & (-1L << low);
+			while (true) {
+				if (word != 0) {
+					return index * Long.SIZE + Long.numberOfTrailingZeros(word);
+				}
+				if (++index == words.length()) {
+					return -1;
+				}
+				word = words.get(index);
+			}
+		}
+	}
+}
@@ -0,0 +1,157 @@
+/*
+ * Sleuth Kit Data Model
+ *
+ * Copyright 2018 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.datamodel;
+
+import java.lang.ref.SoftReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A size-bounded, least recently used cache of objects keyed by object id.
+ * Values are held through soft references, so the garbage collector can
+ * reclaim them under memory pressure before the size bound is reached.
+ *
+ * @param <V> The type of the cached objects.
+ */
+final class ObjectIdCache<V> {
+
+	private final LinkedHashMap<Long, SoftReference<V>> entries = new LinkedHashMap<Long, SoftReference<V>>(16, 0.75f, true);
+	private int maxEntries;
+	private long hits;
+	private long misses;
+	private long evictions;
+	private long invalidations;
+	private long generation;
+
+	/**
+	 * Constructs a cache.
+	 *
+	 * @param maxEntries The maximum number of entries, zero or less to
+	 *                   disable the cache.
+	 */
+	ObjectIdCache(int maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * Gets a cached object.
+	 *
+	 * @param id The object id.
+	 *
+	 * @return The object, or null if it is not cached.
+	 */
+	synchronized V get(long id) {
+		if (maxEntries <= 0) {
+			return null;
+		}
+		SoftReference<V> ref = entries.get(id);
+		V value = (ref != null) ? ref.get() : null;
+		if (value == null) {
+			if (ref != null) {
+				entries.remove(id);
+			}
+			misses++;
+		} else {
+			hits++;
+		}
+		return value;
+	}
+
+	/**
+	 * Gets the number of invalidations so far. A reader takes it before
+	 * reading an object from the case database and passes it to put(), so
+	 * that an object read before a change is not cached after the change
+	 * invalidated it.
+	 *
+	 * @return The generation.
+	 */
+	synchronized long getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * Adds an object to the cache, evicting the least recently used entry if
+	 * the cache is full. The object is not added if any object was
+	 * invalidated since the object was read, since it may be out of date.
+	 *
+	 * @param id         The object id.
+	 * @param value      The object.
+	 * @param generation The generation taken before the object was read.
+	 */
+	synchronized void put(long id, V value, long generation) {
+		if (maxEntries <= 0 || value == null || generation != this.generation) {
+			return;
+		}
+		entries.put(id, new SoftReference<V>(value));
+		trim();
+	}
+
+	/**
+	 * Removes an object from the cache, because it changed in the case
+	 * database.
+	 *
+	 * @param id The object id.
+	 */
+	synchronized void invalidate(long id) {
+		generation++;
+		if (entries.remove(id) != null) {
+			invalidations++;
+		}
+	}
+
+	/**
+	 * Removes all objects from the cache.
+	 */
+	synchronized void clear() {
+		generation++;
+		invalidations += entries.size();
+		entries.clear();
+	}
+
+	/**
+	 * Sets the maximum number of entries, evicting entries if the cache holds
+	 * more.
+	 *
+	 * @param maxEntries The maximum number of entries, zero or less to
+	 *                   disable the cache.
+	 */
+	synchronized void setMaxEntries(int maxEntries) {
+		this.maxEntries = maxEntries;
+		trim();
+	}
+
+	/**
+	 * Gets the counters of the cache.
+	 *
+	 * @return A snapshot of the counters.
+	 */
+	synchronized SleuthkitCase.ObjectCacheStats getStats() {
+		return new SleuthkitCase.ObjectCacheStats(entries.size(), maxEntries, hits, misses, evictions, invalidations);
+	}
+
+	private void trim() {
+		Iterator<Map.Entry<Long, SoftReference<V>>> it = entries.entrySet().iterator();
+		while (entries.size() > Math.max(maxEntries, 0) && it.hasNext()) {
+			it.next();
+			it.remove();
+			evictions++;
+		}
+	}
+}
@@ -0,0 +1,277 @@
+/*
+ * Sleuth Kit Data Model
+ *
+ * Copyright 2018 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.datamodel;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.sleuthkit.datamodel.SleuthkitCase.CaseDbConnection;
+
+/**
+ * SQL with ? placeholders and the values to bind to them, built up a piece at
+ * a time. Queries that differ only in their values have the same SQL, so they
+ * share a prepared statement in the statement cache of the connection pool.
+ *
+ * Lists of values, as in "IN ( ... )", are padded to a power of two by
+ * repeating their last value, so that lists of similar length also give the
+ * same SQL.
+ *
+ * SQLite allows at most 999 placeholders in a statement, so a query with more
+ * values than that is prepared with its values written into the SQL instead.
+ */
+final class PreparedQuery {
+
+	/**
+	 * The most values bound to placeholders. Queries with more values have
+	 * them written into their SQL.
+	 */
+	static final int MAX_PARAMETERS = 999;
+
+	private final StringBuilder sql = new StringBuilder();
+	private final List<Object> parameters = new ArrayList<Object>();
+
+	/**
+	 * Appends SQL without placeholders.
+	 *
+	 * @param text The SQL.
+	 *
+	 * @return This query.
+	 */
+	PreparedQuery append(String text) {
+		sql.append(text);
+		return this;
+	}
+
+	/**
+	 * Appends SQL with placeholders.
+	 *
+	 * @param text   The SQL.
+	 * @param values The values of the placeholders, in order.
+	 *
+	 * @return This query.
+	 */
+	PreparedQuery append(String text, List<?> values) {
+		sql.append(text);
+		parameters.addAll(values);
+		return this;
+	}
+
+	/**
+	 * Appends another query.
+	 *
+	 * @param query The query.
+	 *
+	 * @return This query.
+	 */
+	PreparedQuery append(PreparedQuery query) {
+		return append(query.getSQL(), query.parameters);
+	}
+
+	/**
+	 * Appends a placeholder for a value.
+	 *
+	 * @param value The value, a Long, Integer or String.
+	 *
+	 * @return This query.
+	 */
+	PreparedQuery appendParameter(Object value) {
+		return append("?", Collections.singletonList(value));
+	}
+
+	/**
+	 * Appends placeholders for a list of values, separated by commas. An
+	 * empty list is appended as NULL, which no value is IN.
+	 *
+	 * @param values The values, Longs, Integers or Strings.
+	 *
+	 * @return This query.
+	 */
+	PreparedQuery appendParameterList(Collection<?> values) {
+		if (values.isEmpty()) {
+			return append("NULL");
+		}
+		List<Object> padded = pad(values);
+		return append(placeholders(padded.size()), padded);
+	}
+
+	/**
+	 * Pads a list of values to a power of two by repeating its last value.
+	 *
+	 * @param values The values.
+	 *
+	 * @return The padded values.
+	 */
+	static List<Object> pad(Collection<?> values) {
+		List<Object> padded = new ArrayList<Object>(values);
+		if (!padded.isEmpty()) {
+			int size = Integer.highestOneBit(padded.size());
+			if (size < padded.size()) {
+				size <<= 1;
+			}
+			Object last = padded.get(padded.size() - 1);
+			while (padded.size() < size) {
+				padded.add(last);
+			}
+		}
+		return padded;
+	}
+
+	/**
+	 * Makes a list of placeholders separated by commas.
+	 *
+	 * @param count The number of placeholders.
+	 *
+	 * @return The placeholders.
+	 */
+	static String placeholders(int count) {
+		StringBuilder placeholders = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			placeholders.append(i == 0 ? "?" : ", ?");
+		}
+		return placeholders.toString();
+	}
+
+	/**
+	 * Indicates whether nothing has been appended to the query.
+	 *
+	 * @return True if the query is empty.
+	 */
+	boolean isEmpty() {
+		return sql.length() == 0;
+	}
+
+	/**
+	 * Gets the SQL of the query.
+	 *
+	 * @return The SQL.
+	 */
+	String getSQL() {
+		return sql.toString();
+	}
+
+	/**
+	 * Gets the values of the placeholders.
+	 *
+	 * @return The values, in order.
+	 */
+	List<Object> getParameters() {
+		return Collections.unmodifiableList(parameters);
+	}
+
+	/**
+	 * Indicates whether the query has too many values to bind them to
+	 * placeholders.
+	 *
+	 * @return True if the values are written into the SQL by prepare().
+	 */
+	boolean exceedsParameterLimit() {
+		return parameters.size() > MAX_PARAMETERS;
+	}
+
+	/**
+	 * Gets the SQL of the query with the values written in place of the
+	 * placeholders. Placeholders are the question marks outside of quoted
+	 * strings.
+	 *
+	 * @return The SQL.
+	 *
+	 * @throws SQLException If a value is not a Long, Integer or String.
+	 */
+	String getInlinedSQL() throws SQLException {
+		StringBuilder inlined = new StringBuilder(sql.length() + parameters.size() * 8);
+		boolean inQuotes = false;
+		int parameter = 0;
+		for (int i = 0; i < sql.length(); i++) {
+			char c = sql.charAt(i);
+			if (c == '\'') {
+				inQuotes = !inQuotes;
+			}
+			if (c == '?' && !inQuotes) {
+				Object value = parameters.get(parameter++);
+				if (value instanceof Long || value instanceof Integer) {
+					inlined.append(value);
+				} else if (value instanceof String) {
+					inlined.append('\'').append(((String) value).replace("'", "''")).append('\'');
+				} else {
+					throw unsupportedParameter(value);
+				}
+			} else {
+				inlined.append(c);
+			}
+		}
+		return inlined.toString();
+	}
+
+	/**
+	 * Prepares the query on a connection and binds the values to it, or, if
+	 * there are more than MAX_PARAMETERS values, prepares it with the values
+	 * written into the SQL. The caller must close the statement, which
+	 * returns it to the statement cache of the pool.
+	 *
+	 * @param connection The connection.
+	 *
+	 * @return The statement.
+	 *
+	 * @throws SQLException If the statement cannot be prepared, or a value is
+	 *                      not a Long, Integer or String.
+	 */
+	PreparedStatement prepare(CaseDbConnection connection) throws SQLException {
+		if (exceedsParameterLimit()) {
+			return connection.getPreparedStatement(getInlinedSQL());
+		}
+		PreparedStatement statement = connection.getPreparedStatement(getSQL());
+		try {
+			bind(statement);
+		} catch (SQLException ex) {
+			statement.close();
+			throw ex;
+		}
+		return statement;
+	}
+
+	/**
+	 * Binds the values of the query to the placeholders of a statement
+	 * prepared from its SQL.
+	 *
+	 * @param statement The statement.
+	 *
+	 * @throws SQLException If a value is not a Long, Integer or String.
+	 */
+	void bind(PreparedStatement statement) throws SQLException {
+		for (int i = 0; i < parameters.size(); i++) {
+			Object value = parameters.get(i);
+			if (value instanceof Long) {
+				statement.setLong(i + 1, (Long) value);
+			} else if (value instanceof Integer) {
+				statement.setInt(i + 1, (Integer) value);
+			} else if (value instanceof String) {
+				statement.setString(i + 1, (String) value);
+			} else {
+				throw unsupportedParameter(value);
+			}
+		}
+	}
+
+	private static SQLException unsupportedParameter(Object value) {
+		return new SQLException("Unsupported query parameter type: " + (null == value ? "null" : value.getClass().getName()));
+	}
+}
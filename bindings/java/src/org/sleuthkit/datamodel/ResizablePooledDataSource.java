@@ -0,0 +1,190 @@
+/*
+ * Sleuth Kit Data Model
+ *
+ * Copyright 2018 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.datamodel;
+
+import com.mchange.v2.c3p0.PooledDataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A c3p0 connection pool whose maximum size can be raised while it is in use.
+ *
+ * c3p0 can only change the size of an open pool by closing it, which fails
+ * the checkouts waiting on it and drops its idle connections and statement
+ * cache. Instead, a larger pool is opened next to the current one and takes
+ * the new checkouts. The old pool keeps serving the threads already waiting
+ * on it as its connections are returned, and is closed once it has no
+ * connections checked out and no threads waiting.
+ */
+final class ResizablePooledDataSource {
+
+	private static final Logger logger = Logger.getLogger(ResizablePooledDataSource.class.getName());
+
+	/**
+	 * Opens the pools.
+	 */
+	interface Factory {
+
+		/**
+		 * Opens a pool.
+		 *
+		 * @param maxPoolSize The maximum number of connections of the pool.
+		 *
+		 * @return The pool.
+		 *
+		 * @throws SQLException If the pool cannot be opened.
+		 */
+		PooledDataSource newPool(int maxPoolSize) throws SQLException;
+	}
+
+	private final Factory factory;
+	private volatile PooledDataSource current;
+	private volatile int maxPoolSize;
+	private final List<PooledDataSource> retired = new ArrayList<PooledDataSource>();
+
+	/**
+	 * Opens the pool.
+	 *
+	 * @param factory     Opens the pools.
+	 * @param maxPoolSize The maximum number of connections to start with.
+	 *
+	 * @throws SQLException If the pool cannot be opened.
+	 */
+	ResizablePooledDataSource(Factory factory, int maxPoolSize) throws SQLException {
+		this.factory = factory;
+		this.maxPoolSize = maxPoolSize;
+		this.current = factory.newPool(maxPoolSize);
+	}
+
+	/**
+	 * Checks out a connection from the current pool. A checkout that fails
+	 * because the pool was replaced and closed meanwhile is retried on the
+	 * pool that replaced it.
+	 *
+	 * @return The connection.
+	 *
+	 * @throws SQLException If there is a problem checking out a connection,
+	 *                      or the pool is closed.
+	 */
+	Connection getConnection() throws SQLException {
+		while (true) {
+			PooledDataSource dataSource = current;
+			if (dataSource == null) {
+				throw new SQLException("Connection pool is closed");
+			}
+			try {
+				return dataSource.getConnection();
+			} catch (SQLException ex) {
+				if (dataSource == current) {
+					throw ex;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the pool that takes the new checkouts.
+	 *
+	 * @return The pool, or null if it is closed.
+	 */
+	PooledDataSource getCurrent() {
+		return current;
+	}
+
+	/**
+	 * Gets the maximum number of connections of the current pool.
+	 *
+	 * @return The maximum number of connections.
+	 */
+	int getMaxPoolSize() {
+		return maxPoolSize;
+	}
+
+	/**
+	 * Replaces the current pool with one that has a new maximum size. The
+	 * old pool is closed by closeDrainedPools() once it is no longer in use.
+	 *
+	 * @param newMaxPoolSize The maximum number of connections.
+	 *
+	 * @throws SQLException If the new pool cannot be opened or the pool is
+	 *                      closed, in which case the current pool is kept.
+	 */
+	synchronized void resize(int newMaxPoolSize) throws SQLException {
+		if (current == null) {
+			throw new SQLException("Connection pool is closed");
+		}
+		PooledDataSource newPool = factory.newPool(newMaxPoolSize);
+		retired.add(current);
+		current = newPool;
+		maxPoolSize = newMaxPoolSize;
+		closeDrainedPools();
+	}
+
+	/**
+	 * Closes the replaced pools that have no connections checked out and no
+	 * threads waiting for connections.
+	 *
+	 * @return The number of replaced pools still open.
+	 */
+	synchronized int closeDrainedPools() {
+		Iterator<PooledDataSource> iterator = retired.iterator();
+		while (iterator.hasNext()) {
+			PooledDataSource pool = iterator.next();
+			try {
+				if (pool.getNumBusyConnectionsDefaultUser() == 0 && pool.getNumThreadsAwaitingCheckoutDefaultUser() == 0) {
+					iterator.remove();
+					pool.close();
+				}
+			} catch (SQLException ex) {
+				logger.log(Level.WARNING, "Error closing replaced connection pool", ex); //NON-NLS
+			}
+		}
+		return retired.size();
+	}
+
+	/**
+	 * Closes the current pool and the replaced pools.
+	 *
+	 * @throws SQLException If there is a problem closing a pool.
+	 */
+	synchronized void close() throws SQLException {
+		PooledDataSource dataSource = current;
+		current = null;
+		SQLException closeException = null;
+		retired.add(dataSource);
+		for (PooledDataSource pool : retired) {
+			try {
+				if (pool != null) {
+					pool.close();
+				}
+			} catch (SQLException ex) {
+				closeException = ex;
+			}
+		}
+		retired.clear();
+		if (closeException != null) {
+			throw closeException;
+		}
+	}
+}
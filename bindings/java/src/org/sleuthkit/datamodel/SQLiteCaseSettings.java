@@ -0,0 +1,238 @@
+/*
+ * Sleuth Kit Data Model
+ *
+ * Copyright 2018 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.datamodel;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tuning of the connections to a single-user (SQLite) case database. The
+ * settings are stored in the case database when a case is created or opened
+ * with them, and are used again whenever the case is opened.
+ *
+ * With write-ahead logging (WAL) enabled, readers no longer block the writer
+ * or each other, so the case does not serialize reads against writes. Once
+ * enabled, WAL stays enabled for the case database file.
+ */
+public final class SQLiteCaseSettings {
+
+	/**
+	 * Where SQLite keeps temporary tables and indexes.
+	 */
+	public enum TempStore {
+
+		/**
+		 * The compile-time default of the SQLite library.
+		 */
+		DEFAULT,
+		/**
+		 * Temporary files.
+		 */
+		FILE,
+		/**
+		 * Memory.
+		 */
+		MEMORY
+	}
+
+	/**
+	 * Settings that leave the SQLite defaults in place.
+	 */
+	public static final SQLiteCaseSettings DEFAULT = new SQLiteCaseSettings(false, 0, 0, TempStore.DEFAULT, 0);
+
+	private static final String SETTINGS_TABLE = "tsk_db_info_extended"; //NON-NLS
+	private static final String WAL_KEY = "SQLITE_WAL"; //NON-NLS
+	private static final String CACHE_SIZE_KEY = "SQLITE_CACHE_SIZE_KB"; //NON-NLS
+	private static final String MMAP_SIZE_KEY = "SQLITE_MMAP_SIZE"; //NON-NLS
+	private static final String TEMP_STORE_KEY = "SQLITE_TEMP_STORE"; //NON-NLS
+	private static final String CHECKPOINT_INTERVAL_KEY = "SQLITE_CHECKPOINT_INTERVAL"; //NON-NLS
+
+	private final boolean walEnabled;
+	private final int cacheSizeKiB;
+	private final long mmapSize;
+	private final TempStore tempStore;
+	private final int checkpointIntervalSeconds;
+
+	/**
+	 * Constructs the tuning of the connections to a case database.
+	 *
+	 * @param walEnabled                True to use write-ahead logging.
+	 * @param cacheSizeKiB              The size of the page cache of each
+	 *                                  connection in KiB, zero for the
+	 *                                  default.
+	 * @param mmapSize                  The number of bytes of the database
+	 *                                  file to memory map, zero to use reads.
+	 * @param tempStore                 Where to keep temporary tables.
+	 * @param checkpointIntervalSeconds The interval of the background
+	 *                                  checkpoints of the write-ahead log,
+	 *                                  zero to leave checkpoints to SQLite.
+	 *                                  Ignored without write-ahead logging.
+	 *
+	 * @throws IllegalArgumentException If the values are out of range.
+	 */
+	public SQLiteCaseSettings(boolean walEnabled, int cacheSizeKiB, long mmapSize, TempStore tempStore, int checkpointIntervalSeconds) {
+		if (cacheSizeKiB < 0 || mmapSize < 0 || checkpointIntervalSeconds < 0) {
+			throw new IllegalArgumentException("Cache size, mmap size and checkpoint interval cannot be negative");
+		}
+		if (tempStore == null) {
+			throw new IllegalArgumentException("Temp store cannot be null");
+		}
+		this.walEnabled = walEnabled;
+		this.cacheSizeKiB = cacheSizeKiB;
+		this.mmapSize = mmapSize;
+		this.tempStore = tempStore;
+		this.checkpointIntervalSeconds = checkpointIntervalSeconds;
+	}
+
+	/**
+	 * @return True if write-ahead logging is used.
+	 */
+	public boolean isWalEnabled() {
+		return walEnabled;
+	}
+
+	/**
+	 * @return The size of the page cache of each connection in KiB, zero for
+	 *         the default.
+	 */
+	public int getCacheSizeKiB() {
+		return cacheSizeKiB;
+	}
+
+	/**
+	 * @return The number of bytes of the database file to memory map.
+	 */
+	public long getMmapSize() {
+		return mmapSize;
+	}
+
+	/**
+	 * @return Where temporary tables are kept.
+	 */
+	public TempStore getTempStore() {
+		return tempStore;
+	}
+
+	/**
+	 * @return The interval of the background checkpoints in seconds, zero if
+	 *         there are none.
+	 */
+	public int getCheckpointIntervalSeconds() {
+		return checkpointIntervalSeconds;
+	}
+
+	/**
+	 * Reads the settings stored in a case database. The settings table is
+	 * part of the schema, so the schema version must have been checked.
+	 *
+	 * @param connection A connection to the case database.
+	 *
+	 * @return The stored settings, or DEFAULT if none were stored.
+	 *
+	 * @throws SQLException
+	 */
+	static SQLiteCaseSettings load(Connection connection) throws SQLException {
+		Map<String, String> values = new HashMap<String, String>();
+		Statement statement = connection.createStatement();
+		try {
+			ResultSet rs = statement.executeQuery("SELECT name, value FROM " + SETTINGS_TABLE + " WHERE name LIKE 'SQLITE\\_%' ESCAPE '\\'"); //NON-NLS
+			while (rs.next()) {
+				values.put(rs.getString("name"), rs.getString("value"));
+			}
+			rs.close();
+		} finally {
+			statement.close();
+		}
+		if (values.isEmpty()) {
+			return DEFAULT;
+		}
+		try {
+			return new SQLiteCaseSettings(Boolean.parseBoolean(values.get(WAL_KEY)),
+					parseInt(values.get(CACHE_SIZE_KEY)),
+					values.containsKey(MMAP_SIZE_KEY) ? Long.parseLong(values.get(MMAP_SIZE_KEY)) : 0,
+					values.containsKey(TEMP_STORE_KEY) ? TempStore.valueOf(values.get(TEMP_STORE_KEY)) : TempStore.DEFAULT,
+					parseInt(values.get(CHECKPOINT_INTERVAL_KEY)));
+		} catch (IllegalArgumentException ex) {
+			throw new SQLException("Invalid SQLite settings stored in case database", ex);
+		}
+	}
+
+	/**
+	 * Stores the settings in a case database.
+	 *
+	 * @param connection A connection to the case database.
+	 *
+	 * @throws SQLException
+	 */
+	void save(Connection connection) throws SQLException {
+		PreparedStatement insert = connection.prepareStatement("INSERT OR REPLACE INTO " + SETTINGS_TABLE + " (name, value) VALUES (?, ?)"); //NON-NLS
+		try {
+			addSetting(insert, WAL_KEY, Boolean.toString(walEnabled));
+			addSetting(insert, CACHE_SIZE_KEY, Integer.toString(cacheSizeKiB));
+			addSetting(insert, MMAP_SIZE_KEY, Long.toString(mmapSize));
+			addSetting(insert, TEMP_STORE_KEY, tempStore.name());
+			addSetting(insert, CHECKPOINT_INTERVAL_KEY, Integer.toString(checkpointIntervalSeconds));
+			insert.executeBatch();
+		} finally {
+			insert.close();
+		}
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof SQLiteCaseSettings)) {
+			return false;
+		}
+		SQLiteCaseSettings other = (SQLiteCaseSettings) obj;
+		return walEnabled == other.walEnabled
+				&& cacheSizeKiB == other.cacheSizeKiB
+				&& mmapSize == other.mmapSize
+				&& tempStore == other.tempStore
+				&& checkpointIntervalSeconds == other.checkpointIntervalSeconds;
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 7;
+		hash = 31 * hash + (walEnabled ? 1 : 0);
+		hash = 31 * hash + cacheSizeKiB;
+		hash = 31 * hash + (int) (mmapSize ^ (mmapSize >>> 32));
+		hash = 31 * hash + tempStore.hashCode();
+		hash = 31 * hash + checkpointIntervalSeconds;
+		return hash;
+	}
+
+	private static void addSetting(PreparedStatement insert, String name, String value) throws SQLException {
+		insert.setString(1, name);
+		insert.setString(2, value);
+		insert.addBatch();
+	}
+
+	private static int parseInt(String value) {
+		return value == null ? 0 : Integer.parseInt(value);
+	}
+}
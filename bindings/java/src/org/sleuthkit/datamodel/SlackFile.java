@@ -18,6 +18,7 @@
  */
 package org.sleuthkit.datamodel;
 
+import java.nio.ByteBuffer;
 import org.sleuthkit.datamodel.TskData.FileKnown;
 import org.sleuthkit.datamodel.TskData.TSK_FS_ATTR_TYPE_ENUM;
 import org.sleuthkit.datamodel.TskData.TSK_FS_META_TYPE_ENUM;
@@ -112,9 +113,37 @@ protected int readInt(byte[] buf, long offset, long len) throws TskCoreException
 			//special case for 0-size file
 			return 0;
 		}
-		loadFileHandle();
+		SleuthkitJNI.OpenFileHandle pinnedHandle = pinFileHandle();
+		try {
+			return SleuthkitJNI.readFileSlack(pinnedHandle.getFileHandle(), buf, offset, len);
+		} finally {
+			SleuthkitJNI.unpinFileHandle(pinnedHandle);
+		}
+	}
 
-		return SleuthkitJNI.readFileSlack(fileHandle, buf, offset, len);
+	/**
+	 * Reads bytes from the slack space straight into a direct buffer.
+	 *
+	 * @param buf    Direct buffer to read into.
+	 * @param offset Start position in the slack space.
+	 *
+	 * @return Number of bytes read.
+	 *
+	 * @throws TskCoreException if there is a problem reading the file.
+	 */
+	@Override
+	@SuppressWarnings("deprecation")
+	protected int readInt(ByteBuffer buf, long offset) throws TskCoreException {
+		if (offset == 0 && size == 0) {
+			//special case for 0-size file
+			return 0;
+		}
+		SleuthkitJNI.OpenFileHandle pinnedHandle = pinFileHandle();
+		try {
+			return SleuthkitJNI.readFileSlack(pinnedHandle.getFileHandle(), buf, offset);
+		} finally {
+			SleuthkitJNI.unpinFileHandle(pinnedHandle);
+		}
 	}
 
 	/**
@@ -21,7 +21,6 @@
 import com.mchange.v2.c3p0.ComboPooledDataSource;
 import com.mchange.v2.c3p0.DataSources;
 import com.mchange.v2.c3p0.PooledDataSource;
-import com.zaxxer.sparsebits.SparseBitSet;
 import java.beans.PropertyVetoException;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
@@ -31,6 +30,7 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.StringReader;
 import java.io.UnsupportedEncodingException;
 import java.net.InetAddress;
 import java.net.URLEncoder;
@@ -55,13 +55,22 @@
 import java.util.List;
 import java.util.Map;
 import java.util.MissingResourceException;
+import java.util.NoSuchElementException;
 import java.util.ResourceBundle;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
 import org.postgresql.util.PSQLState;
 import org.sleuthkit.datamodel.BlackboardArtifact.ARTIFACT_TYPE;
 import org.sleuthkit.datamodel.BlackboardAttribute.ATTRIBUTE_TYPE;
@@ -94,7 +103,7 @@ public class SleuthkitCase {
 	 * tsk/auto/tsk_db.h.
 	 */
 	private static final CaseDbSchemaVersionNumber CURRENT_DB_SCHEMA_VERSION
-			= new CaseDbSchemaVersionNumber(8, 1);
+			= new CaseDbSchemaVersionNumber(8, 2);
 
 	private static final long BASE_ARTIFACT_ID = Long.MIN_VALUE; // Artifact ids will start at the lowest negative value
 	private static final Logger logger = Logger.getLogger(SleuthkitCase.class.getName());
@@ -107,7 +116,59 @@ public class SleuthkitCase {
 	private static final String SQL_ERROR_LIMIT_GROUP = "54";
 	private static final String SQL_ERROR_INTERNAL_GROUP = "xx";
 	private static final int MIN_USER_DEFINED_TYPE_ID = 10000;
-	private final ConnectionPool connections;
+	private static final TypeRegistry.Keys<BlackboardArtifact.Type> ARTIFACT_TYPE_KEYS = new TypeRegistry.Keys<BlackboardArtifact.Type>() {
+		@Override
+		public int getTypeId(BlackboardArtifact.Type type) {
+			return type.getTypeID();
+		}
+
+		@Override
+		public String getTypeName(BlackboardArtifact.Type type) {
+			return type.getTypeName();
+		}
+	};
+	private static final TypeRegistry.Keys<BlackboardAttribute.Type> ATTRIBUTE_TYPE_KEYS = new TypeRegistry.Keys<BlackboardAttribute.Type>() {
+		@Override
+		public int getTypeId(BlackboardAttribute.Type type) {
+			return type.getTypeID();
+		}
+
+		@Override
+		public String getTypeName(BlackboardAttribute.Type type) {
+			return type.getTypeName();
+		}
+	};
+	/**
+	 * The default number of objects kept in each of the object id caches of a
+	 * single-user case.
+	 */
+	public static final int DEFAULT_OBJECT_CACHE_SIZE = 10000;
+	// The largest number of ids put in the IN clause of a bulk query.
+	private static final int MAX_IDS_PER_QUERY = 500;
+	private static final int CURSOR_FETCH_SIZE = 1000;
+	private static final String MATCHING_ARTIFACTS_QUERY = "SELECT blackboard_artifacts.artifact_id AS artifact_id, " //NON-NLS
+			+ "blackboard_artifacts.obj_id AS obj_id, blackboard_artifacts.artifact_obj_id AS artifact_obj_id, blackboard_artifacts.data_source_obj_id AS data_source_obj_id, blackboard_artifacts.artifact_type_id AS artifact_type_id, " //NON-NLS
+			+ "blackboard_artifacts.review_status_id AS review_status_id  " //NON-NLS
+			+ "FROM blackboard_artifacts "; //NON-NLS
+	private static final String MATCHING_ATTRIBUTES_QUERY = "SELECT blackboard_attributes.artifact_id AS artifact_id, " //NON-NLS
+			+ "blackboard_attributes.source AS source, blackboard_attributes.context AS context, " //NON-NLS
+			+ "blackboard_attributes.attribute_type_id AS attribute_type_id, " //NON-NLS
+			+ "blackboard_attributes.value_type AS value_type, blackboard_attributes.value_byte AS value_byte, " //NON-NLS
+			+ "blackboard_attributes.value_text AS value_text, blackboard_attributes.value_int32 AS value_int32, " //NON-NLS
+			+ "blackboard_attributes.value_int64 AS value_int64, blackboard_attributes.value_double AS value_double " //NON-NLS
+			+ "FROM blackboard_attributes "; //NON-NLS
+	private static final String UNREJECTED_ARTIFACTS_QUERY = "SELECT blackboard_artifacts.artifact_id AS artifact_id, " //NON-NLS
+			+ "blackboard_artifacts.obj_id AS obj_id, " //NON-NLS
+			+ "blackboard_artifacts.artifact_obj_id AS artifact_obj_id, " //NON-NLS
+			+ "blackboard_artifacts.data_source_obj_id AS data_source_obj_id, " //NON-NLS
+			+ "blackboard_artifact_types.artifact_type_id AS artifact_type_id, " //NON-NLS
+			+ "blackboard_artifact_types.type_name AS type_name, " //NON-NLS
+			+ "blackboard_artifact_types.display_name AS display_name, " //NON-NLS
+			+ "blackboard_artifacts.review_status_id AS review_status_id " //NON-NLS
+			+ "FROM blackboard_artifacts, blackboard_artifact_types " //NON-NLS
+			+ "WHERE blackboard_artifacts.artifact_type_id = blackboard_artifact_types.artifact_type_id " //NON-NLS
+			+ " AND blackboard_artifacts.review_status_id !=" + BlackboardArtifact.ReviewStatus.REJECTED.getID(); //NON-NLS
+	private ConnectionPool connections;
 	private final Map<Long, VirtualDirectory> rootIdsToCarvedFileDirs = new HashMap<Long, VirtualDirectory>();
 	private final Map<Long, FileSystem> fileSystemIdMap = new HashMap<Long, FileSystem>(); // Cache for file system files.
 	private final ArrayList<ErrorObserver> sleuthkitCaseErrorObservers = new ArrayList<ErrorObserver>();
@@ -117,21 +178,37 @@ public class SleuthkitCase {
 	private final String caseDirPath;
 	private SleuthkitJNI.CaseDbHandle caseHandle;
 	private String dbBackupPath;
-	private Map<Integer, BlackboardArtifact.Type> typeIdToArtifactTypeMap;
-	private Map<Integer, BlackboardAttribute.Type> typeIdToAttributeTypeMap;
-	private Map<String, BlackboardArtifact.Type> typeNameToArtifactTypeMap;
-	private Map<String, BlackboardAttribute.Type> typeNameToAttributeTypeMap;
-
-	// First parameter is used to specify the SparseBitSet to use, 
-	// as object IDs can be larger than the max size of a SparseBitSet
-	private final Map<Long, SparseBitSet> hasChildrenBitSetMap = new HashMap<Long, SparseBitSet>();
-
-	private long nextArtifactId; // Used to ensure artifact ids come from the desired range.
+	// The artifact and attribute types of the case. Replaced rather than
+	// changed when types are added, so lookups take no locks.
+	private volatile TypeRegistry<BlackboardArtifact.Type> artifactTypes = new TypeRegistry<BlackboardArtifact.Type>(ARTIFACT_TYPE_KEYS);
+	private volatile TypeRegistry<BlackboardAttribute.Type> attributeTypes = new TypeRegistry<BlackboardAttribute.Type>(ATTRIBUTE_TYPE_KEYS);
+	private final Object typeRegistryLock = new Object();
+
+	// The ids of the objects that have children. Read for every node of the
+	// tree, so lookups do not lock.
+	private final ObjectIdBitmap hasChildrenBitmap = new ObjectIdBitmap();
+	// The snapshot of the hasChildren map of a single-user case is kept in a
+	// file next to the case database. See HasChildrenSnapshot.
+	private static final String HAS_CHILDREN_SNAPSHOT_SUFFIX = ".parents"; //NON-NLS
+	// The size and modification time of the case database file, and whether
+	// it had a write-ahead log, before the case opened it. A snapshot is only
+	// used if the file is exactly as it was when the snapshot was saved.
+	private long dbFileLengthAtOpen = -1;
+	private long dbFileModifiedAtOpen = -1;
+	private boolean dbFileHadWalAtOpen = false;
+
+	private ArtifactIdAllocator artifactIdAllocator; // Used to ensure artifact ids come from the desired range.
 	// This read/write lock is used to implement a layer of locking on top of
 	// the locking protocol provided by the underlying SQLite database. The Java
 	// locking protocol improves performance for reasons that are not currently
 	// understood. Note that the lock is contructed to use a fairness policy.
 	private final ReentrantReadWriteLock rwLock = new ReentrantReadWriteLock(true);
+	// Connection tuning of a single-user case, null for a multi-user case.
+	// With write-ahead logging, readers do not take the read lock above. Only
+	// changed by the constructor, after init() and before any other thread
+	// can use the case.
+	private SQLiteCaseSettings sqliteSettings;
+	private ScheduledExecutorService checkpointExecutor = null;
 
 	private final Object communicationsMgrInstanceLock = new Object();
 	private CommunicationsManager communicationsMgrInstance = null;
@@ -140,6 +217,28 @@ public class SleuthkitCase {
 
 	private final Map<String, Set<Long>> deviceIdToDatasourceObjIdMap = new HashMap<String, Set<Long>>();
 
+	// Content objects and parent info looked up by object id. Disabled by
+	// default for multi-user cases, where other clients can change objects
+	// without invalidating this cache.
+	private final ObjectIdCache<Content> contentCache = new ObjectIdCache<Content>(DEFAULT_OBJECT_CACHE_SIZE);
+	private final ObjectIdCache<ObjectInfo> parentInfoCache = new ObjectIdCache<ObjectInfo>(DEFAULT_OBJECT_CACHE_SIZE);
+
+	// The data source of each object, loaded when the case is opened and
+	// filled in as objects are added or looked up.
+	private final DataSourceIndex dataSourceIndex = new DataSourceIndex();
+
+	// Sizing of the native block cache for images opened by this case, null
+	// to leave images with only the cache TSK always keeps.
+	private volatile ImageCacheSettings imageCacheSettings = null;
+
+	// Contention counters for SQLite cases. When writes are serialized, they
+	// queue for the write lock of rwLock.
+	private final AtomicLong busyRetries = new AtomicLong();
+	private final AtomicLong busyWaitNanos = new AtomicLong();
+	private final AtomicLong queuedWrites = new AtomicLong();
+	private final AtomicLong writeQueueWaitNanos = new AtomicLong();
+	private volatile boolean serializeWrites = false;
+
 	/**
 	 * Attempts to connect to the database with the passed in settings, throws
 	 * if the settings are not sufficient to connect to the database type
@@ -217,20 +316,43 @@ public static void tryConnect(CaseDbConnectionInfo info) throws TskCoreException
 	 * @param caseHandle A handle to a case database object in the native code
 	 *                   SleuthKit layer.
 	 * @param dbType     The type of database we're dealing with
+	 * @param settings     The connection tuning to store in the case database
+	 *                     and use, or null to use the stored tuning.
+	 * @param poolSettings The sizing of the connection pool.
 	 *
 	 * @throws Exception
 	 */
-	private SleuthkitCase(String dbPath, SleuthkitJNI.CaseDbHandle caseHandle, DbType dbType) throws Exception {
+	private SleuthkitCase(String dbPath, SleuthkitJNI.CaseDbHandle caseHandle, DbType dbType, SQLiteCaseSettings settings, ConnectionPoolSettings poolSettings) throws Exception {
 		Class.forName("org.sqlite.JDBC");
 		this.dbPath = dbPath;
 		this.dbType = dbType;
 		File dbFile = new File(dbPath);
 		this.caseDirPath = dbFile.getParentFile().getAbsolutePath();
 		this.databaseName = dbFile.getName();
-		this.connections = new SQLiteConnections(dbPath);
+		this.dbFileLengthAtOpen = dbFile.length();
+		this.dbFileModifiedAtOpen = dbFile.lastModified();
+		this.dbFileHadWalAtOpen = new File(dbPath + "-wal").length() > 0; //NON-NLS
+		/*
+		 * The stored tuning can only be read once init() has checked the
+		 * schema version, so the pool starts out with the given tuning, or the
+		 * default one, and is opened again if the stored tuning differs.
+		 */
+		this.sqliteSettings = (settings != null) ? settings : SQLiteCaseSettings.DEFAULT;
+		this.connections = new SQLiteConnections(dbPath, sqliteSettings, poolSettings);
 		this.caseHandle = caseHandle;
 		init();
+		SQLiteCaseSettings storedSettings = loadSQLiteSettings();
+		if (settings != null) {
+			if (!settings.equals(storedSettings)) {
+				saveSQLiteSettings(settings);
+			}
+		} else if (!storedSettings.equals(sqliteSettings)) {
+			connections.close();
+			sqliteSettings = storedSettings;
+			connections = new SQLiteConnections(dbPath, sqliteSettings, poolSettings);
+		}
 		logSQLiteJDBCDriverInfo();
+		startWalCheckpoints();
 	}
 
 	/**
@@ -246,26 +368,25 @@ private SleuthkitCase(String dbPath, SleuthkitJNI.CaseDbHandle caseHandle, DbTyp
 	 * @param caseHandle  A handle to a case database object in the native code
 	 * @param dbType      The type of database we're dealing with SleuthKit
 	 *                    layer.
-	 * @param caseDirPath The path to the root case directory.
+	 * @param caseDirPath  The path to the root case directory.
+	 * @param poolSettings The sizing of the connection pool.
 	 *
 	 * @throws Exception
 	 */
-	private SleuthkitCase(String host, int port, String dbName, String userName, String password, SleuthkitJNI.CaseDbHandle caseHandle, String caseDirPath, DbType dbType) throws Exception {
+	private SleuthkitCase(String host, int port, String dbName, String userName, String password, SleuthkitJNI.CaseDbHandle caseHandle, String caseDirPath, DbType dbType, ConnectionPoolSettings poolSettings) throws Exception {
 		this.dbPath = "";
 		this.databaseName = dbName;
 		this.dbType = dbType;
 		this.caseDirPath = caseDirPath;
-		this.connections = new PostgreSQLConnections(host, port, dbName, userName, password);
+		this.sqliteSettings = null;
+		this.connections = new PostgreSQLConnections(host, port, dbName, userName, password, poolSettings);
 		this.caseHandle = caseHandle;
+		this.contentCache.setMaxEntries(0);
+		this.parentInfoCache.setMaxEntries(0);
 		init();
 	}
 
 	private void init() throws Exception {
-		typeIdToArtifactTypeMap = new ConcurrentHashMap<Integer, BlackboardArtifact.Type>();
-		typeIdToAttributeTypeMap = new ConcurrentHashMap<Integer, BlackboardAttribute.Type>();
-		typeNameToArtifactTypeMap = new ConcurrentHashMap<String, BlackboardArtifact.Type>();
-		typeNameToAttributeTypeMap = new ConcurrentHashMap<String, BlackboardAttribute.Type>();
-
 		/*
 		 * The following methods need to be called before updateDatabaseSchema
 		 * due to the way that updateFromSchema2toSchema3 was implemented.
@@ -274,16 +395,185 @@ private void init() throws Exception {
 		initBlackboardAttributeTypes();
 		initNextArtifactId();
 		updateDatabaseSchema(null);
+		refreshBlackboardTypes();
 
 		CaseDbConnection connection = connections.getConnection();
 		initIngestModuleTypes(connection);
 		initIngestStatusTypes(connection);
 		initReviewStatuses(connection);
 		initEncodingTypes(connection);
-		populateHasChildrenMap(connection);
+		long snapshotMaxObjId = -1;
+		if (dbType == DbType.SQLITE) {
+			snapshotMaxObjId = loadHasChildrenSnapshot(connection);
+		}
+		populateHasChildrenMap(connection, snapshotMaxObjId + 1);
+		populateDataSourceIndex(connection, 0);
 		connection.close();
 	}
 
+	/**
+	 * Loads the data sources of the data sources, files and artifacts in the
+	 * case into the data source index. Other objects, such as volumes and
+	 * file systems, are added to the index the first time they are looked up.
+	 *
+	 * @param connection A case database connection.
+	 * @param firstObjId The smallest object id to load, zero for all objects.
+	 *
+	 * @throws TskCoreException
+	 */
+	private void populateDataSourceIndex(CaseDbConnection connection, long firstObjId) throws TskCoreException {
+		long timestamp = System.currentTimeMillis();
+		Statement statement = null;
+		ResultSet resultSet = null;
+		acquireSingleUserCaseReadLock();
+		try {
+			statement = connection.createStatement();
+			String[] queries = {
+				"SELECT obj_id, obj_id AS data_source_obj_id FROM tsk_objects WHERE par_obj_id IS NULL AND obj_id >= " + firstObjId, //NON-NLS
+				"SELECT obj_id, data_source_obj_id FROM tsk_files WHERE obj_id >= " + firstObjId, //NON-NLS
+				"SELECT artifact_obj_id AS obj_id, data_source_obj_id FROM blackboard_artifacts WHERE artifact_obj_id >= " + firstObjId //NON-NLS
+			};
+			for (String query : queries) {
+				resultSet = connection.executeQuery(statement, query);
+				while (resultSet.next()) {
+					dataSourceIndex.put(resultSet.getLong("obj_id"), resultSet.getLong("data_source_obj_id"));
+				}
+				resultSet.close();
+				resultSet = null;
+			}
+			long delay = System.currentTimeMillis() - timestamp;
+			logger.log(Level.INFO, "Time to initialize data source index: {0} ms, {1} runs", new Object[]{delay, dataSourceIndex.getRunCount()}); //NON-NLS
+		} catch (SQLException ex) {
+			throw new TskCoreException("Error populating data source index", ex);
+		} finally {
+			closeResultSet(resultSet);
+			closeStatement(statement);
+			releaseSingleUserCaseReadLock();
+		}
+	}
+
+	/**
+	 * Records the data source of an object in the data source index. Objects
+	 * added by an open transaction are held by the connection until the
+	 * transaction is committed, since a rolled back object id can be handed
+	 * out again.
+	 *
+	 * @param connection   The connection the object was added or found on.
+	 * @param objectId     The object id.
+	 * @param dataSourceId The object id of the data source.
+	 */
+	private void recordDataSourceObjectId(CaseDbConnection connection, long objectId, long dataSourceId) {
+		if (connection.isInTransaction()) {
+			connection.addPendingDataSourceObjectId(objectId, dataSourceId);
+		} else {
+			dataSourceIndex.put(objectId, dataSourceId);
+		}
+	}
+
+	/**
+	 * Reads the connection tuning stored in a single-user case database.
+	 *
+	 * @return The stored tuning, or SQLiteCaseSettings.DEFAULT if none is
+	 *         stored.
+	 *
+	 * @throws TskCoreException
+	 */
+	private SQLiteCaseSettings loadSQLiteSettings() throws TskCoreException {
+		CaseDbConnection connection = connections.getConnection();
+		acquireSingleUserCaseReadLock();
+		try {
+			return SQLiteCaseSettings.load(connection.getConnection());
+		} catch (SQLException ex) {
+			throw new TskCoreException("Error reading SQLite settings from case database", ex);
+		} finally {
+			connection.close();
+			releaseSingleUserCaseReadLock();
+		}
+	}
+
+	/**
+	 * Stores the connection tuning of a single-user case in the case
+	 * database, to be used the next time the case is opened.
+	 *
+	 * @param settings The tuning.
+	 *
+	 * @throws TskCoreException
+	 */
+	private void saveSQLiteSettings(SQLiteCaseSettings settings) throws TskCoreException {
+		CaseDbConnection connection = connections.getConnection();
+		acquireSingleUserCaseWriteLock();
+		try {
+			settings.save(connection.getConnection());
+		} catch (SQLException ex) {
+			throw new TskCoreException("Error saving SQLite settings to case database", ex);
+		} finally {
+			connection.close();
+			releaseSingleUserCaseWriteLock();
+		}
+	}
+
+	/**
+	 * Starts the background checkpoints of the write-ahead log of a
+	 * single-user case, if they are configured.
+	 */
+	private void startWalCheckpoints() {
+		if (!sqliteSettings.isWalEnabled() || sqliteSettings.getCheckpointIntervalSeconds() == 0) {
+			return;
+		}
+		checkpointExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "SleuthkitCase WAL checkpoint " + databaseName); //NON-NLS
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		int interval = sqliteSettings.getCheckpointIntervalSeconds();
+		checkpointExecutor.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				checkpointWal("PASSIVE"); //NON-NLS
+			}
+		}, interval, interval, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Copies the pages in the write-ahead log of a single-user case back into
+	 * the database file.
+	 *
+	 * @param mode The checkpoint mode, PASSIVE to not wait for readers and
+	 *             writers or TRUNCATE to also empty the log.
+	 */
+	private void checkpointWal(String mode) {
+		CaseDbConnection connection = null;
+		Statement statement = null;
+		ResultSet resultSet = null;
+		try {
+			connection = connections.getConnection();
+			statement = connection.createStatement();
+			resultSet = connection.executeQuery(statement, "PRAGMA wal_checkpoint(" + mode + ")"); //NON-NLS
+		} catch (TskCoreException ex) {
+			logger.log(Level.WARNING, "Error checkpointing write-ahead log of case database", ex); //NON-NLS
+		} catch (SQLException ex) {
+			logger.log(Level.WARNING, "Error checkpointing write-ahead log of case database", ex); //NON-NLS
+		} finally {
+			closeResultSet(resultSet);
+			closeStatement(statement);
+			if (connection != null) {
+				connection.close();
+			}
+		}
+	}
+
+	/**
+	 * Gets the connection tuning of a single-user case.
+	 *
+	 * @return The tuning, or null for a multi-user case.
+	 */
+	public SQLiteCaseSettings getSQLiteCaseSettings() {
+		return sqliteSettings;
+	}
+
 	/**
 	 * Use the internal map to determine whether the content object has children
 	 * (of any type).
@@ -293,16 +583,7 @@ private void init() throws Exception {
 	 * @return true if the content has children, false otherwise
 	 */
 	boolean getHasChildren(Content c) {
-		long objId = c.getId();
-		long mapIndex = objId / Integer.MAX_VALUE;
-		int mapValue = (int) (objId % Integer.MAX_VALUE);
-
-		synchronized (hasChildrenBitSetMap) {
-			if (hasChildrenBitSetMap.containsKey(mapIndex)) {
-				return hasChildrenBitSetMap.get(mapIndex).get(mapValue);
-			}
-			return false;
-		}
+		return hasChildrenBitmap.contains(c.getId());
 	}
 
 	/**
@@ -310,18 +591,9 @@ boolean getHasChildren(Content c) {
 	 *
 	 * @param objId
 	 */
-	private void setHasChildren(Long objId) {
-		long mapIndex = objId / Integer.MAX_VALUE;
-		int mapValue = (int) (objId % Integer.MAX_VALUE);
-
-		synchronized (hasChildrenBitSetMap) {
-			if (hasChildrenBitSetMap.containsKey(mapIndex)) {
-				hasChildrenBitSetMap.get(mapIndex).set(mapValue);
-			} else {
-				SparseBitSet bitSet = new SparseBitSet();
-				bitSet.set(mapValue);
-				hasChildrenBitSetMap.put(mapIndex, bitSet);
-			}
+	private void setHasChildren(long objId) {
+		if (!hasChildrenBitmap.contains(objId)) {
+			hasChildrenBitmap.add(objId);
 		}
 	}
 
@@ -354,6 +626,132 @@ public Blackboard getBlackboard() {
 		}
 	}
 
+	/**
+	 * Sets the sizing of the native block cache used for the images of this
+	 * case. The settings are applied when an image handle is opened; images
+	 * that are already open keep their cache until Image.setCacheSettings()
+	 * is called on them.
+	 *
+	 * @param settings The cache sizing, or null to only use the default TSK
+	 *                 image cache.
+	 */
+	public void setImageCacheSettings(ImageCacheSettings settings) {
+		imageCacheSettings = settings;
+	}
+
+	/**
+	 * Gets the sizing of the native block cache used for the images of this
+	 * case.
+	 *
+	 * @return The cache sizing, or null if none was set.
+	 */
+	public ImageCacheSettings getImageCacheSettings() {
+		return imageCacheSettings;
+	}
+
+	/**
+	 * Sets the number of objects kept in each of the caches used by
+	 * getContentById() and by parent lookups. The caches are enabled with
+	 * DEFAULT_OBJECT_CACHE_SIZE entries for single-user cases and disabled
+	 * for multi-user cases, where changes made by other clients would not be
+	 * seen.
+	 *
+	 * @param maxEntries The maximum number of entries, zero to disable the
+	 *                   caches.
+	 */
+	public void setObjectCacheSize(int maxEntries) {
+		contentCache.setMaxEntries(maxEntries);
+		parentInfoCache.setMaxEntries(maxEntries);
+	}
+
+	/**
+	 * Removes all objects from the object id caches.
+	 */
+	public void clearObjectCaches() {
+		contentCache.clear();
+		parentInfoCache.clear();
+	}
+
+	/**
+	 * Removes a content object from the cache used by getContentById(), after
+	 * its row in the case database was changed outside of this class.
+	 *
+	 * @param objId The object id of the content.
+	 */
+	void invalidateCachedContent(long objId) {
+		contentCache.invalidate(objId);
+	}
+
+	/**
+	 * Gets the counters of the cache used by getContentById().
+	 *
+	 * @return A snapshot of the counters.
+	 */
+	public ObjectCacheStats getContentCacheStats() {
+		return contentCache.getStats();
+	}
+
+	/**
+	 * Gets the counters of the cache used to look up the parents of content.
+	 *
+	 * @return A snapshot of the counters.
+	 */
+	public ObjectCacheStats getParentInfoCacheStats() {
+		return parentInfoCache.getStats();
+	}
+
+	/**
+	 * Sets whether the writes to a single-user case are funneled through a
+	 * single writer. When enabled, threads wait in turn for their updates and
+	 * transactions instead of retrying against a locked database file. Has no
+	 * effect on multi-user cases.
+	 *
+	 * The writers queue for the single-user case write lock, which a
+	 * transaction then holds until it is committed or rolled back. A
+	 * transaction must therefore be ended by the thread that began it.
+	 *
+	 * @param serialize True to serialize writes.
+	 */
+	public void setSerializeWrites(boolean serialize) {
+		serializeWrites = serialize;
+	}
+
+	/**
+	 * Indicates whether the writes to a single-user case are funneled through
+	 * a single writer.
+	 *
+	 * @return True if writes are serialized.
+	 */
+	public boolean getSerializeWrites() {
+		return serializeWrites;
+	}
+
+	/**
+	 * Gets the state and counters of the pool of connections to the case
+	 * database.
+	 *
+	 * @return A snapshot of the pool.
+	 *
+	 * @throws TskCoreException if the case is closed or the pool cannot be
+	 *                          queried.
+	 */
+	public ConnectionPoolStats getConnectionPoolStats() throws TskCoreException {
+		return connections.getStats();
+	}
+
+	/**
+	 * Gets the counters of the waits caused by contention for the case
+	 * database.
+	 *
+	 * @return A snapshot of the counters.
+	 */
+	public DatabaseContentionStats getDatabaseContentionStats() {
+		return new DatabaseContentionStats(busyRetries.get(),
+				TimeUnit.NANOSECONDS.toMillis(busyWaitNanos.get()),
+				queuedWrites.get(),
+				TimeUnit.NANOSECONDS.toMillis(writeQueueWaitNanos.get()));
+	}
+
 	/**
 	 * Make sure the predefined artifact types are in the artifact types table.
 	 *
@@ -367,6 +765,7 @@ private void initBlackboardArtifactTypes() throws SQLException, TskCoreException
 		acquireSingleUserCaseWriteLock();
 		try {
 			statement = connection.createStatement();
+			List<BlackboardArtifact.Type> types = new ArrayList<BlackboardArtifact.Type>();
 			for (ARTIFACT_TYPE type : ARTIFACT_TYPE.values()) {
 				try {
 					statement.execute("INSERT INTO blackboard_artifact_types (artifact_type_id, type_name, display_name) VALUES (" + type.getTypeID() + " , '" + type.getLabel() + "', '" + type.getDisplayName() + "')"); //NON-NLS
@@ -379,9 +778,9 @@ private void initBlackboardArtifactTypes() throws SQLException, TskCoreException
 					resultSet.close();
 					resultSet = null;
 				}
-				this.typeIdToArtifactTypeMap.put(type.getTypeID(), new BlackboardArtifact.Type(type));
-				this.typeNameToArtifactTypeMap.put(type.getLabel(), new BlackboardArtifact.Type(type));
+				types.add(new BlackboardArtifact.Type(type));
 			}
+			registerArtifactTypes(types);
 			if (dbType == DbType.POSTGRESQL) {
 				int newPrimaryKeyIndex = Collections.max(Arrays.asList(ARTIFACT_TYPE.values())).getTypeID() + 1;
 				statement.execute("ALTER SEQUENCE blackboard_artifact_types_artifact_type_id_seq RESTART WITH " + newPrimaryKeyIndex); //NON-NLS
@@ -408,6 +807,7 @@ private void initBlackboardAttributeTypes() throws SQLException, TskCoreExceptio
 		acquireSingleUserCaseWriteLock();
 		try {
 			statement = connection.createStatement();
+			List<BlackboardAttribute.Type> types = new ArrayList<BlackboardAttribute.Type>();
 			for (ATTRIBUTE_TYPE type : ATTRIBUTE_TYPE.values()) {
 				try {
 					statement.execute("INSERT INTO blackboard_attribute_types (attribute_type_id, type_name, display_name, value_type) VALUES (" + type.getTypeID() + ", '" + type.getLabel() + "', '" + type.getDisplayName() + "', '" + type.getValueType().getType() + "')"); //NON-NLS
@@ -420,9 +820,9 @@ private void initBlackboardAttributeTypes() throws SQLException, TskCoreExceptio
 					resultSet.close();
 					resultSet = null;
 				}
-				this.typeIdToAttributeTypeMap.put(type.getTypeID(), new BlackboardAttribute.Type(type));
-				this.typeNameToAttributeTypeMap.put(type.getLabel(), new BlackboardAttribute.Type(type));
+				types.add(new BlackboardAttribute.Type(type));
 			}
+			registerAttributeTypes(types);
 			if (this.dbType == DbType.POSTGRESQL) {
 				int newPrimaryKeyIndex = Collections.max(Arrays.asList(ATTRIBUTE_TYPE.values())).getTypeID() + 1;
 				statement.execute("ALTER SEQUENCE blackboard_attribute_types_attribute_type_id_seq RESTART WITH " + newPrimaryKeyIndex); //NON-NLS
@@ -436,10 +836,12 @@ private void initBlackboardAttributeTypes() throws SQLException, TskCoreExceptio
 	}
 
 	/**
-	 * Initialize the next artifact id. If there are entries in the
-	 * blackboard_artifacts table we will use max(artifact_id) + 1 otherwise we
-	 * will initialize the value to 0x8000000000000000 (the maximum negative
-	 * signed long).
+	 * Initialize the artifact id allocator. If there are entries in the
+	 * blackboard_artifacts table the ids will start after max(artifact_id),
+	 * otherwise they will start after 0x8000000000000000 (the maximum negative
+	 * signed long). The largest artifact id in the table is the high-water
+	 * mark the allocator resumes from after a crash; ids that were reserved
+	 * but never inserted are skipped.
 	 *
 	 * @throws SQLException
 	 * @throws TskCoreException
@@ -453,10 +855,11 @@ private void initNextArtifactId() throws SQLException, TskCoreException {
 			statement = connection.createStatement();
 			resultSet = connection.executeQuery(statement, "SELECT MAX(artifact_id) AS max_artifact_id FROM blackboard_artifacts"); //NON-NLS
 			resultSet.next();
-			this.nextArtifactId = resultSet.getLong("max_artifact_id") + 1;
-			if (this.nextArtifactId == 1) {
-				this.nextArtifactId = BASE_ARTIFACT_ID;
+			long maxArtifactId = resultSet.getLong("max_artifact_id");
+			if (resultSet.wasNull()) {
+				maxArtifactId = BASE_ARTIFACT_ID;
 			}
+			this.artifactIdAllocator = new ArtifactIdAllocator(maxArtifactId);
 		} finally {
 			closeResultSet(resultSet);
 			closeStatement(statement);
@@ -601,10 +1004,12 @@ private void initEncodingTypes(CaseDbConnection connection) throws SQLException,
 	 * Set up or update the hasChildren map using the tsk_objects table.
 	 *
 	 * @param connection
+	 * @param firstObjId The smallest object id to look at, zero or less for
+	 *                   the whole table.
 	 *
 	 * @throws TskCoreException
 	 */
-	private void populateHasChildrenMap(CaseDbConnection connection) throws TskCoreException {
+	private void populateHasChildrenMap(CaseDbConnection connection, long firstObjId) throws TskCoreException {
 		long timestamp = System.currentTimeMillis();
 
 		Statement statement = null;
@@ -612,12 +1017,14 @@ private void populateHasChildrenMap(CaseDbConnection connection) throws TskCoreE
 		acquireSingleUserCaseWriteLock();
 		try {
 			statement = connection.createStatement();
-			resultSet = statement.executeQuery("select distinct par_obj_id from tsk_objects"); //NON-NLS
+			if (firstObjId > 0) {
+				resultSet = statement.executeQuery("select distinct par_obj_id from tsk_objects where obj_id >= " + firstObjId + " and par_obj_id is not null"); //NON-NLS
+			} else {
+				resultSet = statement.executeQuery("select distinct par_obj_id from tsk_objects"); //NON-NLS
+			}
 
-			synchronized (hasChildrenBitSetMap) {
-				while (resultSet.next()) {
-					setHasChildren(resultSet.getLong("par_obj_id"));
-				}
+			while (resultSet.next()) {
+				setHasChildren(resultSet.getLong("par_obj_id"));
 			}
 			long delay = System.currentTimeMillis() - timestamp;
 			logger.log(Level.INFO, "Time to initialize parent node cache: {0} ms", delay); //NON-NLS
@@ -631,16 +1038,21 @@ private void populateHasChildrenMap(CaseDbConnection connection) throws TskCoreE
 	}
 
 	/**
-	 * Add the object IDs for a new data source to the has children map. At
-	 * present, we simply reload the entire table.
+	 * Add the object IDs for a new data source to the has children map and
+	 * the data source index. Only the objects from the data source on are
+	 * looked at, since all of the objects of a data source are added after
+	 * it.
+	 *
+	 * @param dataSourceObjId The object id of the new data source.
 	 *
 	 * @throws TskCoreException
 	 */
-	void addDataSourceToHasChildrenMap() throws TskCoreException {
+	void addDataSourceToHasChildrenMap(long dataSourceObjId) throws TskCoreException {
 
 		CaseDbConnection connection = connections.getConnection();
 		try {
-			populateHasChildrenMap(connection);
+			populateHasChildrenMap(connection, Math.max(dataSourceObjId, 1));
+			populateDataSourceIndex(connection, dataSourceObjId);
 		} finally {
 			if (connection != null) {
 				connection.close();
@@ -648,6 +1060,88 @@ void addDataSourceToHasChildrenMap() throws TskCoreException {
 		}
 	}
 
+	/**
+	 * Loads the snapshot of the hasChildren map that was saved when the case
+	 * was last closed. Objects are never removed from tsk_objects and are
+	 * numbered in increasing order, so the map is brought up to date by
+	 * looking at the objects added after the snapshot was saved.
+	 *
+	 * The snapshot is ignored if the case database file was changed after the
+	 * snapshot was saved, for instance by a client that does not keep
+	 * snapshots, or if it is truncated or corrupt.
+	 *
+	 * @param connection A case database connection.
+	 *
+	 * @return The largest object id covered by the snapshot, or -1 if there
+	 *         is no usable snapshot.
+	 */
+	private long loadHasChildrenSnapshot(CaseDbConnection connection) {
+		File snapshotFile = new File(dbPath + HAS_CHILDREN_SNAPSHOT_SUFFIX);
+		if (!snapshotFile.exists()) {
+			return -1;
+		}
+		try {
+			HasChildrenSnapshot snapshot = HasChildrenSnapshot.read(snapshotFile);
+			if (dbFileHadWalAtOpen || snapshot.getDbFileLength() != dbFileLengthAtOpen || snapshot.getDbFileModified() != dbFileModifiedAtOpen) {
+				logger.log(Level.INFO, "Ignoring parent node cache snapshot {0}, the case database changed after it was saved", snapshotFile); //NON-NLS
+				return -1;
+			}
+
+			// A snapshot that covers objects the case database does not have
+			// belongs to some other version of the database.
+			if (snapshot.getMaxObjId() > getMaxObjectId(connection)) {
+				logger.log(Level.WARNING, "Ignoring parent node cache snapshot {0} that is newer than the case database", snapshotFile); //NON-NLS
+				return -1;
+			}
+			snapshot.readInto(hasChildrenBitmap);
+			return snapshot.getMaxObjId();
+		} catch (IOException ex) {
+			logger.log(Level.WARNING, "Ignoring parent node cache snapshot " + snapshotFile, ex); //NON-NLS
+			hasChildrenBitmap.clear();
+			return -1;
+		}
+	}
+
+	/**
+	 * Saves a snapshot of the hasChildren map next to the case database. Must
+	 * be called after the last write to the case database file, since the size
+	 * and modification time of the file are recorded in the snapshot.
+	 *
+	 * @param maxObjId The largest object id in tsk_objects.
+	 */
+	private void saveHasChildrenSnapshot(long maxObjId) {
+		File snapshotFile = new File(dbPath + HAS_CHILDREN_SNAPSHOT_SUFFIX);
+		File dbFile = new File(dbPath);
+		try {
+			HasChildrenSnapshot.write(snapshotFile, hasChildrenBitmap, maxObjId, dbFile.length(), dbFile.lastModified());
+		} catch (IOException ex) {
+			logger.log(Level.WARNING, "Error writing parent node cache snapshot " + snapshotFile, ex); //NON-NLS
+		}
+	}
+
+	/**
+	 * Gets the largest object id in tsk_objects.
+	 *
+	 * @param connection A case database connection.
+	 *
+	 * @return The largest object id, or -1 if it could not be read.
+	 */
+	private long getMaxObjectId(CaseDbConnection connection) {
+		Statement statement = null;
+		ResultSet resultSet = null;
+		try {
+			statement = connection.createStatement();
+			resultSet = connection.executeQuery(statement, "SELECT MAX(obj_id) AS max_obj_id FROM tsk_objects"); //NON-NLS
+			return resultSet.next() ? resultSet.getLong("max_obj_id") : 0;
+		} catch (SQLException ex) {
+			logger.log(Level.WARNING, "Error getting the largest object id", ex); //NON-NLS
+			return -1;
+		} finally {
+			closeResultSet(resultSet);
+			closeStatement(statement);
+		}
+	}
+
 	/**
 	 * Modify the case database to bring it up-to-date with the current version
 	 * of the database schema.
@@ -725,6 +1219,7 @@ private void updateDatabaseSchema(String dbPath) throws Exception {
 				dbSchemaVersion = updateFromSchema7dot1toSchema7dot2(dbSchemaVersion, connection);
 				dbSchemaVersion = updateFromSchema7dot2toSchema8dot0(dbSchemaVersion, connection);
 				dbSchemaVersion = updateFromSchema8dot0toSchema8dot1(dbSchemaVersion, connection);
+				dbSchemaVersion = updateFromSchema8dot1toSchema8dot2(dbSchemaVersion, connection);
 				statement = connection.createStatement();
 				connection.executeUpdate(statement, "UPDATE tsk_db_info SET schema_ver = " + dbSchemaVersion.getMajor() + ", schema_minor_ver = " + dbSchemaVersion.getMinor()); //NON-NLS
 				statement.close();
@@ -1468,27 +1963,132 @@ private CaseDbSchemaVersionNumber updateFromSchema8dot0toSchema8dot1(CaseDbSchem
 	}
 
 	/**
-	 * Extract the extension from a file name.
+	 * Updates a schema version 8.1 database to a schema version 8.2 database.
+	 * Adds the artifact fingerprints table and fills it in for the existing
+	 * artifacts.
 	 *
-	 * @param fileName the file name to extract the extension from.
+	 * @param schemaVersion The current schema version of the database.
+	 * @param connection    A connection to the case database.
 	 *
-	 * @return The extension extracted from fileName. Will not be null.
+	 * @return The new database schema version.
+	 *
+	 * @throws SQLException     If there is an error completing a database
+	 *                          operation.
+	 * @throws TskCoreException If there is an error completing a database
+	 *                          operation via another SleuthkitCase method.
 	 */
-	static String extractExtension(final String fileName) {
-		String ext;
-		int i = fileName.lastIndexOf(".");
-		// > 0 because we assume it's not an extension if period is the first character
-		if ((i > 0) && ((i + 1) < fileName.length())) {
-			ext = fileName.substring(i + 1);
-		} else {
-			return "";
+	private CaseDbSchemaVersionNumber updateFromSchema8dot1toSchema8dot2(CaseDbSchemaVersionNumber schemaVersion, CaseDbConnection connection) throws SQLException, TskCoreException {
+		if (schemaVersion.getMajor() != 8) {
+			return schemaVersion;
 		}
-		// we added this at one point to deal with files that had crazy names based on URLs
-		// it's too hard though to clean those up and not mess up basic extensions though.
-		// We need to add '-' to the below if we use it again
-		//		String[] findNonAlphanumeric = ext.split("[^a-zA-Z0-9_]");
-		//		if (findNonAlphanumeric.length > 1) {
-		//			ext = findNonAlphanumeric[0];
+
+		if (schemaVersion.getMinor() != 1) {
+			return schemaVersion;
+		}
+		Statement statement = connection.createStatement();
+		Statement queryStatement = null;
+		ResultSet resultSet = null;
+		acquireSingleUserCaseWriteLock();
+		try {
+			if (this.dbType.equals(DbType.SQLITE)) {
+				statement.execute("CREATE TABLE blackboard_artifact_fingerprints (artifact_id INTEGER PRIMARY KEY, obj_id INTEGER NOT NULL, fingerprint INTEGER NOT NULL, " //NON-NLS
+						+ "FOREIGN KEY(artifact_id) REFERENCES blackboard_artifacts(artifact_id))"); //NON-NLS
+			} else {
+				statement.execute("CREATE TABLE blackboard_artifact_fingerprints (artifact_id BIGINT PRIMARY KEY, obj_id BIGINT NOT NULL, fingerprint BIGINT NOT NULL, " //NON-NLS
+						+ "FOREIGN KEY(artifact_id) REFERENCES blackboard_artifacts(artifact_id))"); //NON-NLS
+			}
+
+			// Read each artifact with its attributes, if any, and add up its fingerprint.
+			queryStatement = connection.createStatement();
+			queryStatement.setFetchSize(CURSOR_FETCH_SIZE);
+			resultSet = connection.executeQuery(queryStatement, "SELECT arts.artifact_id AS artifact_id, arts.obj_id AS obj_id, arts.artifact_type_id AS artifact_type_id, " //NON-NLS
+					+ "attrs.attribute_type_id AS attribute_type_id, attrs.value_type AS value_type, attrs.value_text AS value_text, attrs.value_byte AS value_byte, " //NON-NLS
+					+ "attrs.value_int32 AS value_int32, attrs.value_int64 AS value_int64, attrs.value_double AS value_double " //NON-NLS
+					+ "FROM blackboard_artifacts AS arts LEFT JOIN blackboard_attributes AS attrs ON arts.artifact_id = attrs.artifact_id " //NON-NLS
+					+ "ORDER BY arts.artifact_id"); //NON-NLS
+			// INSERT INTO blackboard_artifact_fingerprints (artifact_id, obj_id, fingerprint) VALUES (?, ?, ?)
+			PreparedStatement insertStatement = connection.getPreparedStatement(PREPARED_STATEMENT.INSERT_ARTIFACT_FINGERPRINT);
+			insertStatement.clearBatch();
+			int batchSize = 0;
+			boolean hasArtifact = false;
+			long artifactId = 0;
+			long objId = 0;
+			long fingerprint = 0;
+			while (resultSet.next()) {
+				long rowArtifactId = resultSet.getLong("artifact_id");
+				if (!hasArtifact || rowArtifactId != artifactId) {
+					if (hasArtifact) {
+						addArtifactFingerprintToBatch(insertStatement, artifactId, objId, fingerprint);
+						if (++batchSize == CURSOR_FETCH_SIZE) {
+							connection.executeBatch(insertStatement);
+							batchSize = 0;
+						}
+					}
+					hasArtifact = true;
+					artifactId = rowArtifactId;
+					objId = resultSet.getLong("obj_id");
+					fingerprint = ArtifactFingerprint.ofArtifactType(resultSet.getInt("artifact_type_id"));
+				}
+				int attributeTypeId = resultSet.getInt("attribute_type_id");
+				if (!resultSet.wasNull()) {
+					fingerprint += ArtifactFingerprint.ofAttribute(attributeTypeId,
+							BlackboardAttribute.TSK_BLACKBOARD_ATTRIBUTE_VALUE_TYPE.fromType(resultSet.getInt("value_type")),
+							resultSet.getInt("value_int32"), resultSet.getLong("value_int64"), resultSet.getDouble("value_double"),
+							resultSet.getString("value_text"), resultSet.getBytes("value_byte"));
+				}
+			}
+			if (hasArtifact) {
+				addArtifactFingerprintToBatch(insertStatement, artifactId, objId, fingerprint);
+				batchSize++;
+			}
+			if (batchSize > 0) {
+				connection.executeBatch(insertStatement);
+			}
+
+			statement.execute("CREATE INDEX artifact_fingerprint ON blackboard_artifact_fingerprints(fingerprint)"); //NON-NLS
+
+			// Name/value pairs, such as the connection tuning of SQLite cases.
+			// Cases tuned by earlier builds of this version may have it already.
+			statement.execute("CREATE TABLE IF NOT EXISTS tsk_db_info_extended (name TEXT PRIMARY KEY, value TEXT NOT NULL)"); //NON-NLS
+			return new CaseDbSchemaVersionNumber(8, 2);
+		} finally {
+			closeResultSet(resultSet);
+			closeStatement(queryStatement);
+			closeStatement(statement);
+			releaseSingleUserCaseWriteLock();
+		}
+	}
+
+	private static void addArtifactFingerprintToBatch(PreparedStatement statement, long artifactId, long objId, long fingerprint) throws SQLException {
+		statement.clearParameters();
+		statement.setLong(1, artifactId);
+		statement.setLong(2, objId);
+		statement.setLong(3, fingerprint);
+		statement.addBatch();
+	}
+
+	/**
+	 * Extract the extension from a file name.
+	 *
+	 * @param fileName the file name to extract the extension from.
+	 *
+	 * @return The extension extracted from fileName. Will not be null.
+	 */
+	static String extractExtension(final String fileName) {
+		String ext;
+		int i = fileName.lastIndexOf(".");
+		// > 0 because we assume it's not an extension if period is the first character
+		if ((i > 0) && ((i + 1) < fileName.length())) {
+			ext = fileName.substring(i + 1);
+		} else {
+			return "";
+		}
+		// we added this at one point to deal with files that had crazy names based on URLs
+		// it's too hard though to clean those up and not mess up basic extensions though.
+		// We need to add '-' to the below if we use it again
+		//		String[] findNonAlphanumeric = ext.split("[^a-zA-Z0-9_]");
+		//		if (findNonAlphanumeric.length > 1) {
+		//			ext = findNonAlphanumeric[0];
 		//		}
 		return ext.toLowerCase();
 	}
@@ -1573,9 +2173,19 @@ public String getDbDirPath() {
 	 * Acquires a write lock, but only if this is a single-user case. Always
 	 * call this method in a try block with a call to the lock release method in
 	 * an associated finally block.
+	 *
+	 * The read lock cannot be upgraded, so a thread that holds it, for
+	 * instance through an open CaseDbCursor, would wait for the write lock
+	 * forever. Such a write fails instead.
+	 *
+	 * @throws IllegalStateException If the thread holds the read lock but not
+	 *                               the write lock.
 	 */
 	public void acquireSingleUserCaseWriteLock() {
 		if (dbType == DbType.SQLITE) {
+			if (rwLock.getReadHoldCount() > 0 && !rwLock.isWriteLockedByCurrentThread()) {
+				throw new IllegalStateException("Cannot write to the case database while this thread holds the read lock, such as through an open CaseDbCursor"); //NON-NLS
+			}
 			rwLock.writeLock().lock();
 		}
 	}
@@ -1597,7 +2207,7 @@ public void releaseSingleUserCaseWriteLock() {
 	 * associated finally block.
 	 */
 	public void acquireSingleUserCaseReadLock() {
-		if (dbType == DbType.SQLITE) {
+		if (dbType == DbType.SQLITE && !sqliteSettings.isWalEnabled()) {
 			rwLock.readLock().lock();
 		}
 	}
@@ -1608,7 +2218,7 @@ public void acquireSingleUserCaseReadLock() {
 	 * lock was acquired.
 	 */
 	public void releaseSingleUserCaseReadLock() {
-		if (dbType == DbType.SQLITE) {
+		if (dbType == DbType.SQLITE && !sqliteSettings.isWalEnabled()) {
 			rwLock.readLock().unlock();
 		}
 	}
@@ -1623,9 +2233,41 @@ public void releaseSingleUserCaseReadLock() {
 	 * @throws org.sleuthkit.datamodel.TskCoreException
 	 */
 	public static SleuthkitCase openCase(String dbPath) throws TskCoreException {
+		return openCase(dbPath, null);
+	}
+
+	/**
+	 * Open an existing case database with new connection tuning. The tuning
+	 * is stored in the case database and used when the case is opened again.
+	 *
+	 * @param dbPath   Path to SQLite case database.
+	 * @param settings The connection tuning, or null to use the stored tuning.
+	 *
+	 * @return Case database object.
+	 *
+	 * @throws org.sleuthkit.datamodel.TskCoreException
+	 */
+	public static SleuthkitCase openCase(String dbPath, SQLiteCaseSettings settings) throws TskCoreException {
+		return openCase(dbPath, settings, ConnectionPoolSettings.DEFAULT);
+	}
+
+	/**
+	 * Open an existing case database with new connection tuning and a sized
+	 * connection pool.
+	 *
+	 * @param dbPath       Path to SQLite case database.
+	 * @param settings     The connection tuning, or null to use the stored
+	 *                     tuning.
+	 * @param poolSettings The sizing of the connection pool.
+	 *
+	 * @return Case database object.
+	 *
+	 * @throws org.sleuthkit.datamodel.TskCoreException
+	 */
+	public static SleuthkitCase openCase(String dbPath, SQLiteCaseSettings settings, ConnectionPoolSettings poolSettings) throws TskCoreException {
 		try {
 			final SleuthkitJNI.CaseDbHandle caseHandle = SleuthkitJNI.openCaseDb(dbPath);
-			return new SleuthkitCase(dbPath, caseHandle, DbType.SQLITE);
+			return new SleuthkitCase(dbPath, caseHandle, DbType.SQLITE, settings, poolSettings);
 		} catch (TskUnsupportedSchemaVersionException ex) {
 			//don't wrap in new TskCoreException
 			throw ex;
@@ -1660,7 +2302,7 @@ public static SleuthkitCase openCase(String databaseName, CaseDbConnectionInfo i
 			 * are able, but do not lose any information if unable.
 			 */
 			final SleuthkitJNI.CaseDbHandle caseHandle = SleuthkitJNI.openCaseDb(databaseName, info);
-			return new SleuthkitCase(info.getHost(), Integer.parseInt(info.getPort()), databaseName, info.getUserName(), info.getPassword(), caseHandle, caseDir, info.getDbType());
+			return new SleuthkitCase(info.getHost(), Integer.parseInt(info.getPort()), databaseName, info.getUserName(), info.getPassword(), caseHandle, caseDir, info.getDbType(), info.getConnectionPoolSettings());
 		} catch (PropertyVetoException exp) {
 			// In this case, the JDBC driver doesn't support PostgreSQL. Use the generic message here.
 			throw new TskCoreException(exp.getMessage(), exp);
@@ -1683,9 +2325,41 @@ public static SleuthkitCase openCase(String databaseName, CaseDbConnectionInfo i
 	 * @throws org.sleuthkit.datamodel.TskCoreException
 	 */
 	public static SleuthkitCase newCase(String dbPath) throws TskCoreException {
+		return newCase(dbPath, SQLiteCaseSettings.DEFAULT);
+	}
+
+	/**
+	 * Creates a new SQLite case database with connection tuning. The tuning
+	 * is stored in the case database and used whenever the case is opened.
+	 *
+	 * @param dbPath   Path to where SQlite case database should be created.
+	 * @param settings The connection tuning.
+	 *
+	 * @return A case database object.
+	 *
+	 * @throws org.sleuthkit.datamodel.TskCoreException
+	 */
+	public static SleuthkitCase newCase(String dbPath, SQLiteCaseSettings settings) throws TskCoreException {
+		return newCase(dbPath, settings, ConnectionPoolSettings.DEFAULT);
+	}
+
+	/**
+	 * Creates a new SQLite case database with connection tuning and a sized
+	 * connection pool.
+	 *
+	 * @param dbPath       Path to where SQlite case database should be
+	 *                     created.
+	 * @param settings     The connection tuning.
+	 * @param poolSettings The sizing of the connection pool.
+	 *
+	 * @return A case database object.
+	 *
+	 * @throws org.sleuthkit.datamodel.TskCoreException
+	 */
+	public static SleuthkitCase newCase(String dbPath, SQLiteCaseSettings settings, ConnectionPoolSettings poolSettings) throws TskCoreException {
 		try {
 			SleuthkitJNI.CaseDbHandle caseHandle = SleuthkitJNI.newCaseDb(dbPath);
-			return new SleuthkitCase(dbPath, caseHandle, DbType.SQLITE);
+			return new SleuthkitCase(dbPath, caseHandle, DbType.SQLITE, settings, poolSettings);
 		} catch (Exception ex) {
 			throw new TskCoreException("Failed to create case database at " + dbPath, ex);
 		}
@@ -1723,7 +2397,7 @@ public static SleuthkitCase newCase(String caseName, CaseDbConnectionInfo info,
 			 */
 			SleuthkitJNI.CaseDbHandle caseHandle = SleuthkitJNI.newCaseDb(databaseName, info);
 			return new SleuthkitCase(info.getHost(), Integer.parseInt(info.getPort()),
-					databaseName, info.getUserName(), info.getPassword(), caseHandle, caseDirPath, info.getDbType());
+					databaseName, info.getUserName(), info.getPassword(), caseHandle, caseDirPath, info.getDbType(), info.getConnectionPoolSettings());
 		} catch (PropertyVetoException exp) {
 			// In this case, the JDBC driver doesn't support PostgreSQL. Use the generic message here.
 			throw new TskCoreException(exp.getMessage(), exp);
@@ -2131,6 +2805,42 @@ public ArrayList<BlackboardArtifact> getBlackboardArtifacts(int artifactTypeID)
 		return getArtifactsHelper("blackboard_artifacts.artifact_type_id = " + artifactTypeID);
 	}
 
+	/**
+	 * Get all blackboard artifacts of a given type, optionally with their
+	 * attributes read in bulk. Does not included rejected artifacts.
+	 *
+	 * @param artifactTypeID    artifact type id (must exist in database)
+	 * @param includeAttributes true to also read the attributes of the
+	 *                          artifacts, see loadBlackboardAttributes()
+	 *
+	 * @return list of blackboard artifacts.
+	 *
+	 * @throws TskCoreException
+	 */
+	public ArrayList<BlackboardArtifact> getBlackboardArtifacts(int artifactTypeID, boolean includeAttributes) throws TskCoreException {
+		return withAttributes(getBlackboardArtifacts(artifactTypeID), includeAttributes);
+	}
+
+	/**
+	 * Gets all blackboard artifacts of a given type as a cursor that reads the
+	 * rows from the database in batches, so that very large result sets are
+	 * not held in memory. Does not included rejected artifacts. The cursor
+	 * holds a database connection and a read lock until it is closed, so it
+	 * should be used in a try-with-resources block. The thread that opened it
+	 * must not write to the case database until it is closed; see
+	 * CaseDbCursor.
+	 *
+	 * @param artifactTypeID artifact type id
+	 *
+	 * @return a cursor over the blackboard artifacts
+	 *
+	 * @throws TskCoreException exception thrown if a critical error occurs
+	 *                          within tsk core
+	 */
+	public CaseDbCursor<BlackboardArtifact> getBlackboardArtifactsCursor(int artifactTypeID) throws TskCoreException {
+		return getArtifactsCursorHelper("blackboard_artifacts.artifact_type_id = " + artifactTypeID);
+	}
+
 	/**
 	 * Get a count of blackboard artifacts for a given content. Does not include
 	 * rejected artifacts.
@@ -2687,24 +3397,11 @@ ArrayList<BlackboardArtifact> getArtifactsHelper(String whereClause) throws TskC
 		ResultSet rs = null;
 		try {
 			Statement statement = connection.createStatement();
-			String query = "SELECT blackboard_artifacts.artifact_id AS artifact_id, "
-					+ "blackboard_artifacts.obj_id AS obj_id, "
-					+ "blackboard_artifacts.artifact_obj_id AS artifact_obj_id, "
-					+ "blackboard_artifacts.data_source_obj_id AS data_source_obj_id, "
-					+ "blackboard_artifact_types.artifact_type_id AS artifact_type_id, "
-					+ "blackboard_artifact_types.type_name AS type_name, "
-					+ "blackboard_artifact_types.display_name AS display_name, "
-					+ "blackboard_artifacts.review_status_id AS review_status_id "
-					+ "FROM blackboard_artifacts, blackboard_artifact_types "
-					+ "WHERE blackboard_artifacts.artifact_type_id = blackboard_artifact_types.artifact_type_id "
-					+ " AND blackboard_artifacts.review_status_id !=" + BlackboardArtifact.ReviewStatus.REJECTED.getID()
-					+ " AND " + whereClause;
+			String query = UNREJECTED_ARTIFACTS_QUERY + " AND " + whereClause;
 			rs = connection.executeQuery(statement, query);
 			ArrayList<BlackboardArtifact> artifacts = new ArrayList<BlackboardArtifact>();
 			while (rs.next()) {
-				artifacts.add(new BlackboardArtifact(this, rs.getLong("artifact_id"), rs.getLong("obj_id"), rs.getLong("artifact_obj_id"), rs.getLong("data_source_obj_id"),
-						rs.getInt("artifact_type_id"), rs.getString("type_name"), rs.getString("display_name"),
-						BlackboardArtifact.ReviewStatus.withID(rs.getInt("review_status_id"))));
+				artifacts.add(resultSetRowToArtifact(rs));
 			}
 			return artifacts;
 		} catch (SQLException ex) {
@@ -2716,6 +3413,42 @@ ArrayList<BlackboardArtifact> getArtifactsHelper(String whereClause) throws TskC
 		}
 	}
 
+	/**
+	 * Gets unrejected blackboard artifacts that match a given WHERE clause as
+	 * a cursor. See getArtifactsHelper().
+	 *
+	 * @param whereClause The WHERE clause to append to the SELECT statement.
+	 *
+	 * @return A cursor over the artifacts.
+	 *
+	 * @throws TskCoreException If there is a problem querying the case
+	 *                          database.
+	 */
+	CaseDbCursor<BlackboardArtifact> getArtifactsCursorHelper(String whereClause) throws TskCoreException {
+		return new CaseDbCursor<BlackboardArtifact>(UNREJECTED_ARTIFACTS_QUERY + " AND " + whereClause, new RowMapper<BlackboardArtifact>() {
+			@Override
+			public BlackboardArtifact map(ResultSet rs, CaseDbConnection connection) throws SQLException {
+				return resultSetRowToArtifact(rs);
+			}
+		});
+	}
+
+	/**
+	 * Creates an artifact from the current row of a result set of a
+	 * UNREJECTED_ARTIFACTS_QUERY.
+	 *
+	 * @param rs The result set, positioned on a row.
+	 *
+	 * @return The artifact.
+	 *
+	 * @throws SQLException
+	 */
+	private BlackboardArtifact resultSetRowToArtifact(ResultSet rs) throws SQLException {
+		return new BlackboardArtifact(this, rs.getLong("artifact_id"), rs.getLong("obj_id"), rs.getLong("artifact_obj_id"), rs.getLong("data_source_obj_id"),
+				rs.getInt("artifact_type_id"), rs.getString("type_name"), rs.getString("display_name"),
+				BlackboardArtifact.ReviewStatus.withID(rs.getInt("review_status_id")));
+	}
+
 	/**
 	 * Helper method to get count of all artifacts matching the type id and
 	 * object id. Does not included rejected artifacts.
@@ -2785,6 +3518,25 @@ public ArrayList<BlackboardArtifact> getBlackboardArtifacts(int artifactTypeID,
 		return getArtifactsHelper("blackboard_artifacts.obj_id = " + obj_id + " AND blackboard_artifact_types.artifact_type_id = " + artifactTypeID + ";");
 	}
 
+	/**
+	 * Get all blackboard artifacts of a given type for the given object id,
+	 * optionally with their attributes read in bulk. Does not included
+	 * rejected artifacts.
+	 *
+	 * @param artifactTypeID    artifact type id (must exist in database)
+	 * @param obj_id            object id
+	 * @param includeAttributes true to also read the attributes of the
+	 *                          artifacts, see loadBlackboardAttributes()
+	 *
+	 * @return list of blackboard artifacts
+	 *
+	 * @throws TskCoreException exception thrown if a critical error occurs
+	 *                          within TSK core
+	 */
+	public ArrayList<BlackboardArtifact> getBlackboardArtifacts(int artifactTypeID, long obj_id, boolean includeAttributes) throws TskCoreException {
+		return withAttributes(getBlackboardArtifacts(artifactTypeID, obj_id), includeAttributes);
+	}
+
 	/**
 	 * Get all blackboard artifacts of a given type for the given object id.
 	 * Does not included rejected artifacts.
@@ -2801,6 +3553,25 @@ public ArrayList<BlackboardArtifact> getBlackboardArtifacts(ARTIFACT_TYPE artifa
 		return getBlackboardArtifacts(artifactType.getTypeID(), obj_id);
 	}
 
+	/**
+	 * Get all blackboard artifacts of a given type for the given object id,
+	 * optionally with their attributes read in bulk. Does not included
+	 * rejected artifacts.
+	 *
+	 * @param artifactType      artifact type enum
+	 * @param obj_id            object id
+	 * @param includeAttributes true to also read the attributes of the
+	 *                          artifacts, see loadBlackboardAttributes()
+	 *
+	 * @return list of blackboard artifacts
+	 *
+	 * @throws TskCoreException exception thrown if a critical error occurs
+	 *                          within TSK core
+	 */
+	public ArrayList<BlackboardArtifact> getBlackboardArtifacts(ARTIFACT_TYPE artifactType, long obj_id, boolean includeAttributes) throws TskCoreException {
+		return getBlackboardArtifacts(artifactType.getTypeID(), obj_id, includeAttributes);
+	}
+
 	/**
 	 * Get count of all blackboard artifacts of a given type for the given
 	 * object id. Does not include rejected artifacts.
@@ -2883,6 +3654,41 @@ public ArrayList<BlackboardArtifact> getBlackboardArtifacts(ARTIFACT_TYPE artifa
 		return getArtifactsHelper("blackboard_artifact_types.artifact_type_id = " + artifactType.getTypeID() + ";");
 	}
 
+	/**
+	 * Get all blackboard artifacts of a given type, optionally with their
+	 * attributes read in bulk. Does not included rejected artifacts.
+	 *
+	 * @param artifactType      artifact type enum
+	 * @param includeAttributes true to also read the attributes of the
+	 *                          artifacts, see loadBlackboardAttributes()
+	 *
+	 * @return list of blackboard artifacts
+	 *
+	 * @throws TskCoreException exception thrown if a critical error occurs
+	 *                          within TSK core
+	 */
+	public ArrayList<BlackboardArtifact> getBlackboardArtifacts(ARTIFACT_TYPE artifactType, boolean includeAttributes) throws TskCoreException {
+		return withAttributes(getBlackboardArtifacts(artifactType), includeAttributes);
+	}
+
+	/**
+	 * Reads the attributes of a list of artifacts in bulk if asked to.
+	 *
+	 * @param artifacts         The artifacts.
+	 * @param includeAttributes True to read the attributes.
+	 *
+	 * @return The artifacts.
+	 *
+	 * @throws TskCoreException If there is a problem querying the case
+	 *                          database.
+	 */
+	private ArrayList<BlackboardArtifact> withAttributes(ArrayList<BlackboardArtifact> artifacts, boolean includeAttributes) throws TskCoreException {
+		if (includeAttributes) {
+			loadBlackboardAttributes(artifacts);
+		}
+		return artifacts;
+	}
+
 	/**
 	 * Get all blackboard artifacts of a given type with an attribute of a given
 	 * type and String value. Does not included rejected artifacts.
@@ -2988,8 +3794,12 @@ public void addBlackboardAttribute(BlackboardAttribute attr, int artifactTypeId)
 		CaseDbConnection connection = connections.getConnection();
 		acquireSingleUserCaseWriteLock();
 		try {
+			connection.beginTransaction();
 			addBlackBoardAttribute(attr, artifactTypeId, connection);
+			addToArtifactFingerprints(Collections.singletonList(attr), connection);
+			connection.commitTransaction();
 		} catch (SQLException ex) {
+			connection.rollbackTransaction();
 			throw new TskCoreException("Error adding blackboard attribute " + attr.toString(), ex);
 		} finally {
 			connection.close();
@@ -3014,6 +3824,7 @@ public void addBlackboardAttributes(Collection<BlackboardAttribute> attributes,
 			for (final BlackboardAttribute attr : attributes) {
 				addBlackBoardAttribute(attr, artifactTypeId, connection);
 			}
+			addToArtifactFingerprints(attributes, connection);
 			connection.commitTransaction();
 		} catch (SQLException ex) {
 			connection.rollbackTransaction();
@@ -3025,6 +3836,62 @@ public void addBlackboardAttributes(Collection<BlackboardAttribute> attributes,
 	}
 
 	private void addBlackBoardAttribute(BlackboardAttribute attr, int artifactTypeId, CaseDbConnection connection) throws SQLException, TskCoreException {
+		connection.executeUpdate(prepareAttributeInsert(attr, artifactTypeId, connection));
+	}
+
+	/**
+	 * Adds the hashes of attributes that were added to existing artifacts to
+	 * the fingerprints of the artifacts, with one update of each fingerprint
+	 * in the transaction of the caller. Artifacts without a fingerprint, which
+	 * can only have been made by an older version of this library, are left
+	 * without one.
+	 *
+	 * @param attributes The attributes.
+	 * @param connection The connection the transaction is on.
+	 *
+	 * @throws SQLException
+	 */
+	private void addToArtifactFingerprints(Collection<BlackboardAttribute> attributes, CaseDbConnection connection) throws SQLException {
+		Map<Long, Long> hashSums = new LinkedHashMap<Long, Long>();
+		for (BlackboardAttribute attr : attributes) {
+			Long sum = hashSums.get(attr.getArtifactID());
+			hashSums.put(attr.getArtifactID(), (sum == null ? 0 : sum) + ArtifactFingerprint.ofAttribute(attr));
+		}
+		PreparedStatement statement = connection.getPreparedStatement(PREPARED_STATEMENT.ADD_TO_ARTIFACT_FINGERPRINT);
+		for (Map.Entry<Long, Long> entry : hashSums.entrySet()) {
+			/*
+			 * The fingerprints are sums that wrap around, as Java long
+			 * addition does. SQL addition does not, so the sums that would
+			 * overflow are done with the excess over the long range taken
+			 * off first.
+			 */
+			long hash = entry.getValue();
+			statement.clearParameters();
+			statement.setLong(1, hash > 0 ? Long.MAX_VALUE - hash : Long.MAX_VALUE);
+			statement.setLong(2, hash + Long.MIN_VALUE);
+			statement.setLong(3, hash < 0 ? Long.MIN_VALUE - hash : Long.MIN_VALUE);
+			statement.setLong(4, hash - Long.MIN_VALUE);
+			statement.setLong(5, hash);
+			statement.setLong(6, entry.getKey());
+			connection.executeUpdate(statement);
+		}
+	}
+
+	/**
+	 * Gets the insert statement for the value type of an attribute and sets
+	 * its parameters.
+	 *
+	 * @param attr           The attribute.
+	 * @param artifactTypeId The type of artifact associated with the
+	 *                       attribute.
+	 * @param connection     The connection to prepare the statement on.
+	 *
+	 * @return The statement, ready to be executed or added to a batch.
+	 *
+	 * @throws SQLException
+	 * @throws TskCoreException If the value type is not recognized.
+	 */
+	private PreparedStatement prepareAttributeInsert(BlackboardAttribute attr, int artifactTypeId, CaseDbConnection connection) throws SQLException, TskCoreException {
 		PreparedStatement statement;
 		switch (attr.getAttributeType().getValueType()) {
 			case STRING:
@@ -3066,7 +3933,7 @@ private void addBlackBoardAttribute(BlackboardAttribute attr, int artifactTypeId
 		statement.setString(4, "");
 		statement.setInt(5, attr.getAttributeType().getTypeID());
 		statement.setLong(6, attr.getAttributeType().getValueType().getType());
-		connection.executeUpdate(statement);
+		return statement;
 	}
 
 	/**
@@ -3187,6 +4054,71 @@ String addSourceToArtifactAttribute(BlackboardAttribute attr, String source) thr
 		}
 	}
 
+	/**
+	 * Reloads the artifact and attribute types of the case from the case
+	 * database. Types added by this case object are registered as they are
+	 * added, but in a multi-user case other clients can add types, which are
+	 * otherwise only found on the first lookup that misses.
+	 *
+	 * @throws TskCoreException If there is a problem querying the case
+	 *                          database.
+	 */
+	public void refreshBlackboardTypes() throws TskCoreException {
+		CaseDbConnection connection = connections.getConnection();
+		acquireSingleUserCaseReadLock();
+		Statement s = null;
+		ResultSet rs = null;
+		try {
+			s = connection.createStatement();
+			List<BlackboardArtifact.Type> loadedArtifactTypes = new ArrayList<BlackboardArtifact.Type>();
+			rs = connection.executeQuery(s, "SELECT artifact_type_id, type_name, display_name FROM blackboard_artifact_types"); //NON-NLS
+			while (rs.next()) {
+				loadedArtifactTypes.add(new BlackboardArtifact.Type(rs.getInt("artifact_type_id"),
+						rs.getString("type_name"), rs.getString("display_name")));
+			}
+			rs.close();
+			List<BlackboardAttribute.Type> loadedAttributeTypes = new ArrayList<BlackboardAttribute.Type>();
+			rs = connection.executeQuery(s, "SELECT attribute_type_id, type_name, display_name, value_type FROM blackboard_attribute_types"); //NON-NLS
+			while (rs.next()) {
+				loadedAttributeTypes.add(new BlackboardAttribute.Type(rs.getInt("attribute_type_id"), rs.getString("type_name"),
+						rs.getString("display_name"), TSK_BLACKBOARD_ATTRIBUTE_VALUE_TYPE.fromType(rs.getLong("value_type"))));
+			}
+			synchronized (typeRegistryLock) {
+				artifactTypes = artifactTypes.cleared().with(loadedArtifactTypes);
+				attributeTypes = attributeTypes.cleared().with(loadedAttributeTypes);
+			}
+		} catch (SQLException ex) {
+			throw new TskCoreException("Error loading artifact and attribute types", ex);
+		} finally {
+			closeResultSet(rs);
+			closeStatement(s);
+			connection.close();
+			releaseSingleUserCaseReadLock();
+		}
+	}
+
+	/**
+	 * Adds artifact types to the types of the case.
+	 *
+	 * @param types The artifact types.
+	 */
+	private void registerArtifactTypes(Collection<BlackboardArtifact.Type> types) {
+		synchronized (typeRegistryLock) {
+			artifactTypes = artifactTypes.with(types);
+		}
+	}
+
+	/**
+	 * Adds attribute types to the types of the case.
+	 *
+	 * @param types The attribute types.
+	 */
+	private void registerAttributeTypes(Collection<BlackboardAttribute.Type> types) {
+		synchronized (typeRegistryLock) {
+			attributeTypes = attributeTypes.with(types);
+		}
+	}
+
 	/**
 	 * Add an attribute type with the given name
 	 *
@@ -3224,9 +4156,8 @@ public BlackboardAttribute.Type addArtifactAttributeType(String attrTypeString,
 				}
 				connection.executeUpdate(s, "INSERT INTO blackboard_attribute_types (attribute_type_id, type_name, display_name, value_type) VALUES ('" + maxID + "', '" + attrTypeString + "', '" + displayName + "', '" + valueType.getType() + "')"); //NON-NLS
 				BlackboardAttribute.Type type = new BlackboardAttribute.Type(maxID, attrTypeString, displayName, valueType);
-				this.typeIdToAttributeTypeMap.put(type.getTypeID(), type);
-				this.typeNameToAttributeTypeMap.put(type.getTypeName(), type);
 				connection.commitTransaction();
+				registerAttributeTypes(Collections.singletonList(type));
 				return type;
 			} else {
 				throw new TskDataException("The attribute type that was added was already within the system.");
@@ -3254,8 +4185,9 @@ public BlackboardAttribute.Type addArtifactAttributeType(String attrTypeString,
 	 *
 	 */
 	public BlackboardAttribute.Type getAttributeType(String attrTypeName) throws TskCoreException {
-		if (this.typeNameToAttributeTypeMap.containsKey(attrTypeName)) {
-			return this.typeNameToAttributeTypeMap.get(attrTypeName);
+		BlackboardAttribute.Type registeredType = attributeTypes.get(attrTypeName);
+		if (registeredType != null) {
+			return registeredType;
 		}
 		CaseDbConnection connection = connections.getConnection();
 		acquireSingleUserCaseReadLock();
@@ -3268,8 +4200,7 @@ public BlackboardAttribute.Type getAttributeType(String attrTypeName) throws Tsk
 			if (rs.next()) {
 				type = new BlackboardAttribute.Type(rs.getInt("attribute_type_id"), rs.getString("type_name"),
 						rs.getString("display_name"), TSK_BLACKBOARD_ATTRIBUTE_VALUE_TYPE.fromType(rs.getLong("value_type")));
-				this.typeIdToAttributeTypeMap.put(type.getTypeID(), type);
-				this.typeNameToAttributeTypeMap.put(attrTypeName, type);
+				registerAttributeTypes(Collections.singletonList(type));
 			}
 			return type;
 		} catch (SQLException ex) {
@@ -3293,8 +4224,9 @@ public BlackboardAttribute.Type getAttributeType(String attrTypeName) throws Tsk
 	 *
 	 */
 	private BlackboardAttribute.Type getAttributeType(int typeID) throws TskCoreException {
-		if (this.typeIdToAttributeTypeMap.containsKey(typeID)) {
-			return this.typeIdToAttributeTypeMap.get(typeID);
+		BlackboardAttribute.Type registeredType = attributeTypes.get(typeID);
+		if (registeredType != null) {
+			return registeredType;
 		}
 		CaseDbConnection connection = connections.getConnection();
 		acquireSingleUserCaseReadLock();
@@ -3307,8 +4239,7 @@ private BlackboardAttribute.Type getAttributeType(int typeID) throws TskCoreExce
 			if (rs.next()) {
 				type = new BlackboardAttribute.Type(rs.getInt("attribute_type_id"), rs.getString("type_name"),
 						rs.getString("display_name"), TSK_BLACKBOARD_ATTRIBUTE_VALUE_TYPE.fromType(rs.getLong("value_type")));
-				this.typeIdToAttributeTypeMap.put(typeID, type);
-				this.typeNameToAttributeTypeMap.put(type.getTypeName(), type);
+				registerAttributeTypes(Collections.singletonList(type));
 			}
 			return type;
 		} catch (SQLException ex) {
@@ -3332,8 +4263,9 @@ private BlackboardAttribute.Type getAttributeType(int typeID) throws TskCoreExce
 	 *
 	 */
 	public BlackboardArtifact.Type getArtifactType(String artTypeName) throws TskCoreException {
-		if (this.typeNameToArtifactTypeMap.containsKey(artTypeName)) {
-			return this.typeNameToArtifactTypeMap.get(artTypeName);
+		BlackboardArtifact.Type registeredType = artifactTypes.get(artTypeName);
+		if (registeredType != null) {
+			return registeredType;
 		}
 		CaseDbConnection connection = connections.getConnection();
 		acquireSingleUserCaseReadLock();
@@ -3346,8 +4278,7 @@ public BlackboardArtifact.Type getArtifactType(String artTypeName) throws TskCor
 			if (rs.next()) {
 				type = new BlackboardArtifact.Type(rs.getInt("artifact_type_id"),
 						rs.getString("type_name"), rs.getString("display_name"));
-				this.typeIdToArtifactTypeMap.put(type.getTypeID(), type);
-				this.typeNameToArtifactTypeMap.put(artTypeName, type);
+				registerArtifactTypes(Collections.singletonList(type));
 			}
 			return type;
 		} catch (SQLException ex) {
@@ -3371,8 +4302,9 @@ public BlackboardArtifact.Type getArtifactType(String artTypeName) throws TskCor
 	 *
 	 */
 	BlackboardArtifact.Type getArtifactType(int artTypeId) throws TskCoreException {
-		if (this.typeIdToArtifactTypeMap.containsKey(artTypeId)) {
-			return typeIdToArtifactTypeMap.get(artTypeId);
+		BlackboardArtifact.Type registeredType = artifactTypes.get(artTypeId);
+		if (registeredType != null) {
+			return registeredType;
 		}
 		CaseDbConnection connection = connections.getConnection();
 		acquireSingleUserCaseReadLock();
@@ -3385,8 +4317,7 @@ BlackboardArtifact.Type getArtifactType(int artTypeId) throws TskCoreException {
 			if (rs.next()) {
 				type = new BlackboardArtifact.Type(rs.getInt("artifact_type_id"),
 						rs.getString("type_name"), rs.getString("display_name"));
-				this.typeIdToArtifactTypeMap.put(artTypeId, type);
-				this.typeNameToArtifactTypeMap.put(type.getTypeName(), type);
+				registerArtifactTypes(Collections.singletonList(type));
 			}
 			return type;
 		} catch (SQLException ex) {
@@ -3434,9 +4365,8 @@ public BlackboardArtifact.Type addBlackboardArtifactType(String artifactTypeName
 				}
 				connection.executeUpdate(s, "INSERT INTO blackboard_artifact_types (artifact_type_id, type_name, display_name) VALUES ('" + maxID + "', '" + artifactTypeName + "', '" + displayName + "')"); //NON-NLS
 				BlackboardArtifact.Type type = new BlackboardArtifact.Type(maxID, artifactTypeName, displayName);
-				this.typeIdToArtifactTypeMap.put(type.getTypeID(), type);
-				this.typeNameToArtifactTypeMap.put(type.getTypeName(), type);
 				connection.commitTransaction();
+				registerArtifactTypes(Collections.singletonList(type));
 				return type;
 			} else {
 				throw new TskDataException("The attribute type that was added was already within the system.");
@@ -3455,30 +4385,29 @@ public BlackboardArtifact.Type addBlackboardArtifactType(String artifactTypeName
 	public ArrayList<BlackboardAttribute> getBlackboardAttributes(final BlackboardArtifact artifact) throws TskCoreException {
 		CaseDbConnection connection = connections.getConnection();
 		acquireSingleUserCaseReadLock();
+		PreparedStatement statement = null;
 		ResultSet rs = null;
 		try {
-			Statement statement = connection.createStatement();
-			rs = connection.executeQuery(statement, "SELECT attrs.artifact_id AS artifact_id, "
+			statement = connection.getPreparedStatement("SELECT attrs.artifact_id AS artifact_id, "
 					+ "attrs.source AS source, attrs.context AS context, attrs.attribute_type_id AS attribute_type_id, "
 					+ "attrs.value_type AS value_type, attrs.value_byte AS value_byte, "
 					+ "attrs.value_text AS value_text, attrs.value_int32 AS value_int32, "
 					+ "attrs.value_int64 AS value_int64, attrs.value_double AS value_double, "
 					+ "types.type_name AS type_name, types.display_name AS display_name "
-					+ "FROM blackboard_attributes AS attrs, blackboard_attribute_types AS types WHERE attrs.artifact_id = " + artifact.getArtifactID()
-					+ " AND attrs.attribute_type_id = types.attribute_type_id");
+					+ "FROM blackboard_attributes AS attrs, blackboard_attribute_types AS types WHERE attrs.artifact_id = ?"
+					+ " AND attrs.attribute_type_id = types.attribute_type_id"); //NON-NLS
+			statement.setLong(1, artifact.getArtifactID());
+			rs = connection.executeQuery(statement);
 			ArrayList<BlackboardAttribute> attributes = new ArrayList<BlackboardAttribute>();
 			while (rs.next()) {
 				int attributeTypeId = rs.getInt("attribute_type_id");
 				String attributeTypeName = rs.getString("type_name");
-				BlackboardAttribute.Type attributeType;
-				if (this.typeIdToAttributeTypeMap.containsKey(attributeTypeId)) {
-					attributeType = this.typeIdToAttributeTypeMap.get(attributeTypeId);
-				} else {
+				BlackboardAttribute.Type attributeType = attributeTypes.get(attributeTypeId);
+				if (attributeType == null) {
 					attributeType = new BlackboardAttribute.Type(attributeTypeId, attributeTypeName,
 							rs.getString("display_name"),
 							BlackboardAttribute.TSK_BLACKBOARD_ATTRIBUTE_VALUE_TYPE.fromType(rs.getInt("value_type")));
-					this.typeIdToAttributeTypeMap.put(attributeTypeId, attributeType);
-					this.typeNameToAttributeTypeMap.put(attributeTypeName, attributeType);
+					registerAttributeTypes(Collections.singletonList(attributeType));
 				}
 
 				final BlackboardAttribute attr = new BlackboardAttribute(
@@ -3499,11 +4428,129 @@ public ArrayList<BlackboardAttribute> getBlackboardAttributes(final BlackboardAr
 			throw new TskCoreException("Error getting attributes for artifact, artifact id = " + artifact.getArtifactID(), ex);
 		} finally {
 			closeResultSet(rs);
+			closeStatement(statement);
 			connection.close();
 			releaseSingleUserCaseReadLock();
 		}
 	}
 
+	/**
+	 * Reads the attributes of a collection of artifacts with one query per
+	 * batch of artifacts, rather than one query per artifact, and caches them
+	 * in the artifacts so that their getAttributes() methods do not query the
+	 * case database. Artifacts whose attributes are already cached are
+	 * skipped.
+	 *
+	 * @param artifacts The artifacts.
+	 *
+	 * @throws TskCoreException If there is a problem querying the case
+	 *                          database.
+	 */
+	public void loadBlackboardAttributes(Collection<BlackboardArtifact> artifacts) throws TskCoreException {
+		loadBlackboardAttributes(artifacts, false);
+	}
+
+	/**
+	 * Reads the attributes of a collection of artifacts in bulk, see
+	 * loadBlackboardAttributes(Collection). In compact form, the attributes
+	 * of all of the artifacts are kept in one store of primitive columns and
+	 * BlackboardAttribute objects are only created when getAttributes() is
+	 * called, which takes much less memory for large pages of artifacts.
+	 *
+	 * @param artifacts The artifacts.
+	 * @param compact   True to keep the attributes in compact form.
+	 *
+	 * @throws TskCoreException If there is a problem querying the case
+	 *                          database.
+	 */
+	public void loadBlackboardAttributes(Collection<BlackboardArtifact> artifacts, boolean compact) throws TskCoreException {
+		Map<Long, List<BlackboardArtifact>> artifactsById = new LinkedHashMap<Long, List<BlackboardArtifact>>();
+		for (BlackboardArtifact artifact : artifacts) {
+			if (artifact.isAttributesCacheLoaded()) {
+				continue;
+			}
+			List<BlackboardArtifact> sameId = artifactsById.get(artifact.getArtifactID());
+			if (sameId == null) {
+				sameId = new ArrayList<BlackboardArtifact>(1);
+				artifactsById.put(artifact.getArtifactID(), sameId);
+			}
+			sameId.add(artifact);
+		}
+		if (artifactsById.isEmpty()) {
+			return;
+		}
+		List<Long> ids = new ArrayList<Long>(artifactsById.keySet());
+		Map<Long, List<BlackboardAttribute>> attributesById = new HashMap<Long, List<BlackboardAttribute>>();
+		CompactAttributes compactAttributes = new CompactAttributes(this);
+		CaseDbConnection connection = connections.getConnection();
+		acquireSingleUserCaseReadLock();
+		Statement statement = null;
+		ResultSet rs = null;
+		try {
+			statement = connection.createStatement();
+			for (int start = 0; start < ids.size(); start += MAX_IDS_PER_QUERY) {
+				String idList = joinIds(ids.subList(start, Math.min(ids.size(), start + MAX_IDS_PER_QUERY)));
+				// Ordered so that the attributes of an artifact are adjacent
+				// in the compact store.
+				rs = connection.executeQuery(statement, MATCHING_ATTRIBUTES_QUERY + "WHERE artifact_id IN (" + idList + ") ORDER BY artifact_id"); //NON-NLS
+				while (rs.next()) {
+					if (compact) {
+						compactAttributes.add(rs.getLong("artifact_id"),
+								getAttributeType(rs.getInt("attribute_type_id")),
+								rs.getString("source"),
+								rs.getString("context"),
+								rs.getInt("value_int32"),
+								rs.getLong("value_int64"),
+								rs.getDouble("value_double"),
+								rs.getString("value_text"),
+								rs.getBytes("value_byte"));
+						continue;
+					}
+					BlackboardAttribute attribute = resultSetRowToAttribute(rs);
+					List<BlackboardAttribute> attributes = attributesById.get(attribute.getArtifactID());
+					if (attributes == null) {
+						attributes = new ArrayList<BlackboardAttribute>();
+						attributesById.put(attribute.getArtifactID(), attributes);
+					}
+					attributes.add(attribute);
+				}
+				rs.close();
+				rs = null;
+			}
+		} catch (SQLException ex) {
+			throw new TskCoreException("Error getting attributes for " + ids.size() + " artifacts", ex);
+		} finally {
+			closeResultSet(rs);
+			closeStatement(statement);
+			connection.close();
+			releaseSingleUserCaseReadLock();
+		}
+		if (compact) {
+			compactAttributes.trimToSize();
+			int start = 0;
+			while (start < compactAttributes.size()) {
+				long artifactId = compactAttributes.getArtifactId(start);
+				int end = start + 1;
+				while (end < compactAttributes.size() && compactAttributes.getArtifactId(end) == artifactId) {
+					end++;
+				}
+				for (BlackboardArtifact artifact : artifactsById.remove(artifactId)) {
+					artifact.setCompactAttributes(compactAttributes, start, end);
+				}
+				start = end;
+			}
+		}
+		for (Map.Entry<Long, List<BlackboardArtifact>> entry : artifactsById.entrySet()) {
+			List<BlackboardAttribute> attributes = attributesById.get(entry.getKey());
+			if (attributes == null) {
+				attributes = Collections.<BlackboardAttribute>emptyList();
+			}
+			for (BlackboardArtifact artifact : entry.getValue()) {
+				artifact.setAttributesCache(attributes);
+			}
+		}
+	}
+
 	/**
 	 * Get all attributes that match a where clause. The clause should begin
 	 * with "WHERE" or "JOIN". To use this method you must know the database
@@ -3523,30 +4570,10 @@ public ArrayList<BlackboardAttribute> getMatchingAttributes(String whereClause)
 		ResultSet rs = null;
 		try {
 			s = connection.createStatement();
-			rs = connection.executeQuery(s, "SELECT blackboard_attributes.artifact_id AS artifact_id, "
-					+ "blackboard_attributes.source AS source, blackboard_attributes.context AS context, "
-					+ "blackboard_attributes.attribute_type_id AS attribute_type_id, "
-					+ "blackboard_attributes.value_type AS value_type, blackboard_attributes.value_byte AS value_byte, "
-					+ "blackboard_attributes.value_text AS value_text, blackboard_attributes.value_int32 AS value_int32, "
-					+ "blackboard_attributes.value_int64 AS value_int64, blackboard_attributes.value_double AS value_double "
-					+ "FROM blackboard_attributes " + whereClause); //NON-NLS
+			rs = connection.executeQuery(s, MATCHING_ATTRIBUTES_QUERY + whereClause); //NON-NLS
 			ArrayList<BlackboardAttribute> matches = new ArrayList<BlackboardAttribute>();
 			while (rs.next()) {
-				BlackboardAttribute.Type type;
-				// attribute type is cached, so this does not necessarily call to the db
-				type = this.getAttributeType(rs.getInt("attribute_type_id"));
-				BlackboardAttribute attr = new BlackboardAttribute(
-						rs.getLong("artifact_id"),
-						type,
-						rs.getString("source"),
-						rs.getString("context"),
-						rs.getInt("value_int32"),
-						rs.getLong("value_int64"),
-						rs.getDouble("value_double"),
-						rs.getString("value_text"),
-						rs.getBytes("value_byte"), this
-				);
-				matches.add(attr);
+				matches.add(resultSetRowToAttribute(rs));
 			}
 			return matches;
 		} catch (SQLException ex) {
@@ -3559,6 +4586,58 @@ public ArrayList<BlackboardAttribute> getMatchingAttributes(String whereClause)
 		}
 	}
 
+	/**
+	 * Gets all attributes that match a where clause as a cursor that reads
+	 * the rows from the database in batches, so that very large result sets
+	 * are not held in memory. The clause should begin with "WHERE" or "JOIN".
+	 * The cursor holds a database connection and a read lock until it is
+	 * closed, so it should be used in a try-with-resources block. The thread
+	 * that opened it must not write to the case database until it is closed;
+	 * see CaseDbCursor.
+	 *
+	 * @param whereClause a sqlite where clause
+	 *
+	 * @return a cursor over the matching attributes
+	 *
+	 * @throws TskCoreException exception thrown if a critical error occurs
+	 *                          within tsk core \ref query_database_page
+	 */
+	public CaseDbCursor<BlackboardAttribute> getMatchingAttributesCursor(String whereClause) throws TskCoreException {
+		return new CaseDbCursor<BlackboardAttribute>(MATCHING_ATTRIBUTES_QUERY + whereClause, new RowMapper<BlackboardAttribute>() {
+			@Override
+			public BlackboardAttribute map(ResultSet rs, CaseDbConnection connection) throws SQLException, TskCoreException {
+				return resultSetRowToAttribute(rs);
+			}
+		});
+	}
+
+	/**
+	 * Creates an attribute from the current row of a result set of a
+	 * MATCHING_ATTRIBUTES_QUERY.
+	 *
+	 * @param rs The result set, positioned on a row.
+	 *
+	 * @return The attribute.
+	 *
+	 * @throws SQLException
+	 * @throws TskCoreException If the attribute type cannot be looked up.
+	 */
+	private BlackboardAttribute resultSetRowToAttribute(ResultSet rs) throws SQLException, TskCoreException {
+		// attribute type is cached, so this does not necessarily call to the db
+		BlackboardAttribute.Type type = this.getAttributeType(rs.getInt("attribute_type_id"));
+		return new BlackboardAttribute(
+				rs.getLong("artifact_id"),
+				type,
+				rs.getString("source"),
+				rs.getString("context"),
+				rs.getInt("value_int32"),
+				rs.getLong("value_int64"),
+				rs.getDouble("value_double"),
+				rs.getString("value_text"),
+				rs.getBytes("value_byte"), this
+		);
+	}
+
 	/**
 	 * Get all artifacts that match a where clause. The clause should begin with
 	 * "WHERE" or "JOIN". To use this method you must know the database tables
@@ -3577,19 +4656,10 @@ public ArrayList<BlackboardArtifact> getMatchingArtifacts(String whereClause) th
 		Statement s = null;
 		try {
 			s = connection.createStatement();
-			rs = connection.executeQuery(s, "SELECT blackboard_artifacts.artifact_id AS artifact_id, "
-					+ "blackboard_artifacts.obj_id AS obj_id, blackboard_artifacts.artifact_obj_id AS artifact_obj_id, blackboard_artifacts.data_source_obj_id AS data_source_obj_id, blackboard_artifacts.artifact_type_id AS artifact_type_id, "
-					+ "blackboard_artifacts.review_status_id AS review_status_id  "
-					+ "FROM blackboard_artifacts " + whereClause); //NON-NLS
+			rs = connection.executeQuery(s, MATCHING_ARTIFACTS_QUERY + whereClause); //NON-NLS
 			ArrayList<BlackboardArtifact> matches = new ArrayList<BlackboardArtifact>();
 			while (rs.next()) {
-				BlackboardArtifact.Type type;
-				// artifact type is cached, so this does not necessarily call to the db
-				type = this.getArtifactType(rs.getInt("artifact_type_id"));
-				BlackboardArtifact artifact = new BlackboardArtifact(this, rs.getLong("artifact_id"), rs.getLong("obj_id"), rs.getLong("artifact_obj_id"), rs.getLong("data_source_obj_id"),
-						type.getTypeID(), type.getTypeName(), type.getDisplayName(),
-						BlackboardArtifact.ReviewStatus.withID(rs.getInt("review_status_id")));
-				matches.add(artifact);
+				matches.add(resultSetRowToMatchingArtifact(rs));
 			}
 			return matches;
 		} catch (SQLException ex) {
@@ -3602,6 +4672,50 @@ public ArrayList<BlackboardArtifact> getMatchingArtifacts(String whereClause) th
 		}
 	}
 
+	/**
+	 * Gets all artifacts that match a where clause as a cursor that reads the
+	 * rows from the database in batches, so that very large result sets are
+	 * not held in memory. The clause should begin with "WHERE" or "JOIN". The
+	 * cursor holds a database connection and a read lock until it is closed,
+	 * so it should be used in a try-with-resources block. The thread that
+	 * opened it must not write to the case database until it is closed; see
+	 * CaseDbCursor.
+	 *
+	 * @param whereClause a sqlite where clause
+	 *
+	 * @return a cursor over the matching artifacts
+	 *
+	 * @throws TskCoreException exception thrown if a critical error occurs
+	 *                          within tsk core \ref query_database_page
+	 */
+	public CaseDbCursor<BlackboardArtifact> getMatchingArtifactsCursor(String whereClause) throws TskCoreException {
+		return new CaseDbCursor<BlackboardArtifact>(MATCHING_ARTIFACTS_QUERY + whereClause, new RowMapper<BlackboardArtifact>() {
+			@Override
+			public BlackboardArtifact map(ResultSet rs, CaseDbConnection connection) throws SQLException, TskCoreException {
+				return resultSetRowToMatchingArtifact(rs);
+			}
+		});
+	}
+
+	/**
+	 * Creates an artifact from the current row of a result set of a
+	 * MATCHING_ARTIFACTS_QUERY.
+	 *
+	 * @param rs The result set, positioned on a row.
+	 *
+	 * @return The artifact.
+	 *
+	 * @throws SQLException
+	 * @throws TskCoreException If the artifact type cannot be looked up.
+	 */
+	private BlackboardArtifact resultSetRowToMatchingArtifact(ResultSet rs) throws SQLException, TskCoreException {
+		// artifact type is cached, so this does not necessarily call to the db
+		BlackboardArtifact.Type type = this.getArtifactType(rs.getInt("artifact_type_id"));
+		return new BlackboardArtifact(this, rs.getLong("artifact_id"), rs.getLong("obj_id"), rs.getLong("artifact_obj_id"), rs.getLong("data_source_obj_id"),
+				type.getTypeID(), type.getTypeName(), type.getDisplayName(),
+				BlackboardArtifact.ReviewStatus.withID(rs.getInt("review_status_id")));
+	}
+
 	/**
 	 * Add a new blackboard artifact with the given type. If that artifact type
 	 * does not exist an error will be thrown. The artifact type name can be
@@ -3640,6 +4754,7 @@ private BlackboardArtifact newBlackboardArtifact(int artifact_type_id, long obj_
 		acquireSingleUserCaseWriteLock();
 		ResultSet resultSet = null;
 		try {
+			connection.beginTransaction();
 			long artifact_obj_id = addObject(obj_id, TskData.ObjectType.ARTIFACT.getObjectType(), connection);
 			long data_source_obj_id = getDataSourceObjectId(connection, obj_id);
 
@@ -3655,8 +4770,7 @@ private BlackboardArtifact newBlackboardArtifact(int artifact_type_id, long obj_
 			} else {
 				statement = connection.getPreparedStatement(PREPARED_STATEMENT.INSERT_ARTIFACT, Statement.RETURN_GENERATED_KEYS);
 				statement.clearParameters();
-				this.nextArtifactId++;
-				statement.setLong(1, this.nextArtifactId);
+				statement.setLong(1, artifactIdAllocator.next());
 				statement.setLong(2, obj_id);
 				statement.setLong(3, artifact_obj_id);
 				statement.setLong(4, data_source_obj_id);
@@ -3666,9 +4780,20 @@ private BlackboardArtifact newBlackboardArtifact(int artifact_type_id, long obj_
 			connection.executeUpdate(statement);
 			resultSet = statement.getGeneratedKeys();
 			resultSet.next();
-			return new BlackboardArtifact(this, resultSet.getLong(1), //last_insert_rowid()
+			long artifactId = resultSet.getLong(1); //last_insert_rowid()
+
+			// INSERT INTO blackboard_artifact_fingerprints (artifact_id, obj_id, fingerprint) VALUES (?, ?, ?)
+			statement = connection.getPreparedStatement(PREPARED_STATEMENT.INSERT_ARTIFACT_FINGERPRINT);
+			statement.clearParameters();
+			statement.setLong(1, artifactId);
+			statement.setLong(2, obj_id);
+			statement.setLong(3, ArtifactFingerprint.ofArtifactType(artifact_type_id));
+			connection.executeUpdate(statement);
+			connection.commitTransaction();
+			return new BlackboardArtifact(this, artifactId,
 					obj_id, artifact_obj_id, data_source_obj_id, artifact_type_id, artifactTypeName, artifactDisplayName, BlackboardArtifact.ReviewStatus.UNDECIDED, true);
 		} catch (SQLException ex) {
+			connection.rollbackTransaction();
 			throw new TskCoreException("Error creating a blackboard artifact", ex);
 		} finally {
 			closeResultSet(resultSet);
@@ -3677,6 +4802,363 @@ private BlackboardArtifact newBlackboardArtifact(int artifact_type_id, long obj_
 		}
 	}
 
+	/**
+	 * Creates a set of artifacts and their attributes in one transaction. The
+	 * object and artifact ids are allocated up front so that the rows of all
+	 * three tables can be written with JDBC batches, or with COPY on
+	 * PostgreSQL.
+	 *
+	 * @param newArtifacts The artifacts to create.
+	 *
+	 * @return The created artifacts, in the same order as the requests.
+	 *
+	 * @throws TskCoreException If there is a problem creating the artifacts.
+	 */
+	List<BlackboardArtifact> newBlackboardArtifacts(List<Blackboard.NewArtifact> newArtifacts) throws TskCoreException {
+		if (newArtifacts.isEmpty()) {
+			return new ArrayList<BlackboardArtifact>();
+		}
+		List<BlackboardArtifact> artifacts;
+		CaseDbConnection connection = connections.getConnection();
+		acquireSingleUserCaseWriteLock();
+		try {
+			connection.beginTransaction();
+			artifacts = newBlackboardArtifacts(newArtifacts, connection);
+			connection.commitTransaction();
+		} catch (SQLException ex) {
+			connection.rollbackTransaction();
+			throw new TskCoreException("Error creating blackboard artifacts", ex);
+		} catch (TskCoreException ex) {
+			connection.rollbackTransaction();
+			throw ex;
+		} finally {
+			connection.close();
+			releaseSingleUserCaseWriteLock();
+		}
+		newBlackboardArtifactsCommitted(newArtifacts, artifacts);
+		return artifacts;
+	}
+
+	/**
+	 * Writes the rows of a set of artifacts and their attributes within a
+	 * transaction of the caller. Once the transaction is committed, the
+	 * caller must call newBlackboardArtifactsCommitted().
+	 *
+	 * @param newArtifacts The artifacts to create.
+	 * @param connection   The connection the transaction is on. Must be used
+	 *                     under the single-user write lock.
+	 *
+	 * @return The created artifacts, in the same order as the requests.
+	 *
+	 * @throws SQLException
+	 * @throws TskCoreException If there is a problem creating the artifacts.
+	 */
+	List<BlackboardArtifact> newBlackboardArtifacts(List<Blackboard.NewArtifact> newArtifacts, CaseDbConnection connection) throws SQLException, TskCoreException {
+		List<BlackboardArtifact> artifacts = new ArrayList<BlackboardArtifact>(newArtifacts.size());
+		if (newArtifacts.isEmpty()) {
+			return artifacts;
+		}
+		int count = newArtifacts.size();
+		long[] artifactObjIds = allocateArtifactObjectIds(newArtifacts, connection);
+		long[] artifactIds = allocateArtifactIds(count, connection);
+		Map<Long, Long> dataSourceObjIds = new HashMap<Long, Long>();
+		for (int i = 0; i < count; i++) {
+			Blackboard.NewArtifact newArtifact = newArtifacts.get(i);
+			Long dataSourceObjId = dataSourceObjIds.get(newArtifact.getSourceObjId());
+			if (dataSourceObjId == null) {
+				dataSourceObjId = getDataSourceObjectId(connection, newArtifact.getSourceObjId());
+				dataSourceObjIds.put(newArtifact.getSourceObjId(), dataSourceObjId);
+			}
+			BlackboardArtifact.Type type = newArtifact.getArtifactType();
+			artifacts.add(new BlackboardArtifact(this, artifactIds[i], newArtifact.getSourceObjId(), artifactObjIds[i], dataSourceObjId,
+					type.getTypeID(), type.getTypeName(), type.getDisplayName(), BlackboardArtifact.ReviewStatus.UNDECIDED, true));
+			recordDataSourceObjectId(connection, artifactObjIds[i], dataSourceObjId);
+			for (BlackboardAttribute attr : newArtifact.getAttributes()) {
+				attr.setArtifactId(artifactIds[i]);
+				attr.setCaseDatabase(this);
+			}
+		}
+
+		if (connection.supportsCopy()) {
+			copyNewArtifacts(newArtifacts, artifacts, connection);
+		} else {
+			batchInsertNewArtifacts(newArtifacts, artifacts, connection);
+		}
+		return artifacts;
+	}
+
+	/**
+	 * Updates the in-memory state of the case for artifacts created by
+	 * newBlackboardArtifacts(List, CaseDbConnection) once their transaction
+	 * is committed.
+	 *
+	 * @param newArtifacts The artifact requests.
+	 * @param artifacts    The created artifacts.
+	 */
+	void newBlackboardArtifactsCommitted(List<Blackboard.NewArtifact> newArtifacts, List<BlackboardArtifact> artifacts) {
+		for (int i = 0; i < artifacts.size(); i++) {
+			setHasChildren(artifacts.get(i).getObjectID());
+			artifacts.get(i).addAttributesToCache(newArtifacts.get(i).getAttributes());
+		}
+	}
+
+	/**
+	 * Gets the object ids of artifacts that are about to be inserted. On
+	 * PostgreSQL the ids are reserved from the sequence and the tsk_objects
+	 * rows are written with the other rows. On SQLite the tsk_objects rows
+	 * are inserted here and SQLite assigns the ids, since ids computed from
+	 * the current maximum could also be taken by another connection, such as
+	 * the one of the native code. Must be called within a transaction under
+	 * the single-user write lock.
+	 *
+	 * @param newArtifacts The artifact requests.
+	 * @param connection   The connection the transaction is on.
+	 *
+	 * @return The ids, in the same order as the requests.
+	 *
+	 * @throws SQLException
+	 */
+	private long[] allocateArtifactObjectIds(List<Blackboard.NewArtifact> newArtifacts, CaseDbConnection connection) throws SQLException {
+		if (dbType == DbType.POSTGRESQL) {
+			return allocateSequenceValues("tsk_objects_obj_id_seq", newArtifacts.size(), connection);
+		}
+		// INSERT INTO tsk_objects (par_obj_id, type) VALUES (?, ?)
+		PreparedStatement statement = connection.getPreparedStatement(PREPARED_STATEMENT.INSERT_OBJECT, Statement.RETURN_GENERATED_KEYS);
+		long[] ids = new long[newArtifacts.size()];
+		for (int i = 0; i < ids.length; i++) {
+			statement.clearParameters();
+			statement.setLong(1, newArtifacts.get(i).getSourceObjId());
+			statement.setInt(2, TskData.ObjectType.ARTIFACT.getObjectType());
+			connection.executeUpdate(statement);
+			ResultSet resultSet = statement.getGeneratedKeys();
+			try {
+				if (!resultSet.next()) {
+					throw new SQLException("Error inserting object with parent " + newArtifacts.get(i).getSourceObjId() + " into tsk_objects");
+				}
+				ids[i] = resultSet.getLong(1); //last_insert_rowid()
+			} finally {
+				closeResultSet(resultSet);
+			}
+		}
+		return ids;
+	}
+
+	/**
+	 * Reserves a range of artifact ids for artifacts that are about to be
+	 * inserted. For a single-user case the ids are consecutive.
+	 *
+	 * @param count      The number of ids.
+	 * @param connection The connection to use.
+	 *
+	 * @return The ids.
+	 *
+	 * @throws SQLException
+	 */
+	private long[] allocateArtifactIds(int count, CaseDbConnection connection) throws SQLException {
+		if (dbType == DbType.POSTGRESQL) {
+			return allocateSequenceValues("blackboard_artifacts_artifact_id_seq", count, connection);
+		}
+		return artifactIdAllocator.next(count);
+	}
+
+	/**
+	 * Gets the next values of a PostgreSQL sequence.
+	 *
+	 * @param sequence   The name of the sequence.
+	 * @param count      The number of values.
+	 * @param connection The connection to use.
+	 *
+	 * @return The values.
+	 *
+	 * @throws SQLException
+	 */
+	private long[] allocateSequenceValues(String sequence, int count, CaseDbConnection connection) throws SQLException {
+		Statement statement = null;
+		ResultSet resultSet = null;
+		try {
+			statement = connection.createStatement();
+			resultSet = connection.executeQuery(statement, "SELECT nextval('" + sequence + "') FROM generate_series(1, " + count + ")"); //NON-NLS
+			long[] ids = new long[count];
+			for (int i = 0; i < count; i++) {
+				if (!resultSet.next()) {
+					throw new SQLException("Error allocating values from " + sequence);
+				}
+				ids[i] = resultSet.getLong(1);
+			}
+			return ids;
+		} finally {
+			closeResultSet(resultSet);
+			closeStatement(statement);
+		}
+	}
+
+	/**
+	 * Writes the rows of new artifacts with JDBC batches.
+	 *
+	 * @param newArtifacts The artifact requests.
+	 * @param artifacts    The artifacts, with their ids allocated.
+	 * @param connection   The connection the transaction is on.
+	 *
+	 * @throws SQLException
+	 * @throws TskCoreException
+	 */
+	private void batchInsertNewArtifacts(List<Blackboard.NewArtifact> newArtifacts, List<BlackboardArtifact> artifacts, CaseDbConnection connection) throws SQLException, TskCoreException {
+		// The SQLite tsk_objects rows were inserted when their ids were assigned.
+		PreparedStatement objectStatement = null;
+		if (dbType == DbType.POSTGRESQL) {
+			// INSERT INTO tsk_objects (obj_id, par_obj_id, type) VALUES (?, ?, ?)
+			objectStatement = connection.getPreparedStatement(PREPARED_STATEMENT.INSERT_OBJECT_WITH_ID);
+			objectStatement.clearBatch();
+		}
+		PreparedStatement artifactStatement = connection.getPreparedStatement(PREPARED_STATEMENT.INSERT_ARTIFACT);
+		artifactStatement.clearBatch();
+		PreparedStatement fingerprintStatement = connection.getPreparedStatement(PREPARED_STATEMENT.INSERT_ARTIFACT_FINGERPRINT);
+		fingerprintStatement.clearBatch();
+		Set<PreparedStatement> attributeStatements = new HashSet<PreparedStatement>();
+		for (int i = 0; i < artifacts.size(); i++) {
+			BlackboardArtifact artifact = artifacts.get(i);
+			if (objectStatement != null) {
+				objectStatement.clearParameters();
+				objectStatement.setLong(1, artifact.getId());
+				objectStatement.setLong(2, artifact.getObjectID());
+				objectStatement.setInt(3, TskData.ObjectType.ARTIFACT.getObjectType());
+				objectStatement.addBatch();
+			}
+
+			artifactStatement.clearParameters();
+			artifactStatement.setLong(1, artifact.getArtifactID());
+			artifactStatement.setLong(2, artifact.getObjectID());
+			artifactStatement.setLong(3, artifact.getId());
+			artifactStatement.setLong(4, artifact.getDataSourceObjectID());
+			artifactStatement.setInt(5, artifact.getArtifactTypeID());
+			artifactStatement.addBatch();
+
+			addArtifactFingerprintToBatch(fingerprintStatement, artifact.getArtifactID(), artifact.getObjectID(),
+					ArtifactFingerprint.of(artifact.getArtifactTypeID(), newArtifacts.get(i).getAttributes()));
+
+			for (BlackboardAttribute attr : newArtifacts.get(i).getAttributes()) {
+				PreparedStatement attributeStatement = prepareAttributeInsert(attr, artifact.getArtifactTypeID(), connection);
+				if (attributeStatements.add(attributeStatement)) {
+					attributeStatement.clearBatch();
+				}
+				attributeStatement.addBatch();
+			}
+		}
+		if (objectStatement != null) {
+			connection.executeBatch(objectStatement);
+		}
+		connection.executeBatch(artifactStatement);
+		connection.executeBatch(fingerprintStatement);
+		for (PreparedStatement attributeStatement : attributeStatements) {
+			connection.executeBatch(attributeStatement);
+		}
+	}
+
+	/**
+	 * Writes the rows of new artifacts with PostgreSQL COPY.
+	 *
+	 * @param newArtifacts The artifact requests.
+	 * @param artifacts    The artifacts, with their ids allocated.
+	 * @param connection   The connection the transaction is on.
+	 *
+	 * @throws SQLException
+	 * @throws TskCoreException
+	 */
+	private void copyNewArtifacts(List<Blackboard.NewArtifact> newArtifacts, List<BlackboardArtifact> artifacts, CaseDbConnection connection) throws SQLException, TskCoreException {
+		StringBuilder objects = new StringBuilder();
+		StringBuilder artifactRows = new StringBuilder();
+		StringBuilder fingerprints = new StringBuilder();
+		StringBuilder attributes = new StringBuilder();
+		for (int i = 0; i < artifacts.size(); i++) {
+			BlackboardArtifact artifact = artifacts.get(i);
+			appendCopyRow(objects, artifact.getId(), artifact.getObjectID(), TskData.ObjectType.ARTIFACT.getObjectType());
+			appendCopyRow(artifactRows, artifact.getArtifactID(), artifact.getObjectID(), artifact.getId(), artifact.getDataSourceObjectID(),
+					artifact.getArtifactTypeID(), BlackboardArtifact.ReviewStatus.UNDECIDED.getID());
+			appendCopyRow(fingerprints, artifact.getArtifactID(), artifact.getObjectID(),
+					ArtifactFingerprint.of(artifact.getArtifactTypeID(), newArtifacts.get(i).getAttributes()));
+			for (BlackboardAttribute attr : newArtifacts.get(i).getAttributes()) {
+				Object text = null, bytes = null, int32 = null, int64 = null, dbl = null;
+				switch (attr.getAttributeType().getValueType()) {
+					case STRING:
+						text = attr.getValueString();
+						break;
+					case BYTE:
+						bytes = attr.getValueBytes();
+						break;
+					case INTEGER:
+						int32 = attr.getValueInt();
+						break;
+					case LONG:
+					case DATETIME:
+						int64 = attr.getValueLong();
+						break;
+					case DOUBLE:
+						dbl = attr.getValueDouble();
+						break;
+					default:
+						throw new TskCoreException("Unrecognized artifact attribute value type");
+				}
+				appendCopyRow(attributes, artifact.getArtifactID(), artifact.getArtifactTypeID(), attr.getSourcesCSV(), "",
+						attr.getAttributeType().getTypeID(), attr.getAttributeType().getValueType().getType(), text, bytes, int32, int64, dbl);
+			}
+		}
+		connection.copyIn("COPY tsk_objects (obj_id, par_obj_id, type) FROM STDIN", objects.toString()); //NON-NLS
+		connection.copyIn("COPY blackboard_artifacts (artifact_id, obj_id, artifact_obj_id, data_source_obj_id, artifact_type_id, review_status_id) FROM STDIN", artifactRows.toString()); //NON-NLS
+		connection.copyIn("COPY blackboard_artifact_fingerprints (artifact_id, obj_id, fingerprint) FROM STDIN", fingerprints.toString()); //NON-NLS
+		if (attributes.length() > 0) {
+			connection.copyIn("COPY blackboard_attributes (artifact_id, artifact_type_id, source, context, attribute_type_id, value_type, " //NON-NLS
+					+ "value_text, value_byte, value_int32, value_int64, value_double) FROM STDIN", attributes.toString()); //NON-NLS
+		}
+	}
+
+	/**
+	 * Appends a row in the PostgreSQL COPY text format to a buffer.
+	 *
+	 * @param buffer The buffer.
+	 * @param values The column values, null for NULL.
+	 */
+	private static void appendCopyRow(StringBuilder buffer, Object... values) {
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0) {
+				buffer.append('\t');
+			}
+			Object value = values[i];
+			if (value == null) {
+				buffer.append("\\N");
+			} else if (value instanceof byte[]) {
+				// bytea hex format, with the leading backslash escaped for COPY
+				buffer.append("\\\\x");
+				for (byte b : (byte[]) value) {
+					buffer.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+				}
+			} else if (value instanceof String) {
+				String text = (String) value;
+				for (int j = 0; j < text.length(); j++) {
+					char c = text.charAt(j);
+					switch (c) {
+						case '\\':
+							buffer.append("\\\\");
+							break;
+						case '\t':
+							buffer.append("\\t");
+							break;
+						case '\n':
+							buffer.append("\\n");
+							break;
+						case '\r':
+							buffer.append("\\r");
+							break;
+						default:
+							buffer.append(c);
+					}
+				}
+			} else {
+				buffer.append(value);
+			}
+		}
+		buffer.append('\n');
+	}
+
 	/**
 	 * Checks if the content object has children. Note: this is generally more
 	 * efficient then preloading all children and checking if the set is empty,
@@ -3980,31 +5462,7 @@ Collection<ObjectInfo> getChildrenInfo(Content c) throws TskCoreException {
 	 *                          within tsk core
 	 */
 	ObjectInfo getParentInfo(Content c) throws TskCoreException {
-		// TODO: This should not throw an exception if Content has no parent,
-		// return null instead.
-		CaseDbConnection connection = connections.getConnection();
-		acquireSingleUserCaseReadLock();
-		Statement s = null;
-		ResultSet rs = null;
-		try {
-			s = connection.createStatement();
-			rs = connection.executeQuery(s, "SELECT parent.obj_id AS obj_id, parent.type AS type " //NON-NLS
-					+ "FROM tsk_objects AS parent INNER JOIN tsk_objects AS child " //NON-NLS
-					+ "ON child.par_obj_id = parent.obj_id " //NON-NLS
-					+ "WHERE child.obj_id = " + c.getId()); //NON-NLS
-			if (rs.next()) {
-				return new ObjectInfo(rs.getLong("obj_id"), ObjectType.valueOf(rs.getShort("type")));
-			} else {
-				throw new TskCoreException("Given content (id: " + c.getId() + ") has no parent");
-			}
-		} catch (SQLException ex) {
-			throw new TskCoreException("Error getting Parent Info for Content", ex);
-		} finally {
-			closeResultSet(rs);
-			closeStatement(s);
-			connection.close();
-			releaseSingleUserCaseReadLock();
-		}
+		return getParentInfo(c.getId());
 	}
 
 	/**
@@ -4020,18 +5478,26 @@ ObjectInfo getParentInfo(Content c) throws TskCoreException {
 	ObjectInfo getParentInfo(long contentId) throws TskCoreException {
 		// TODO: This should not throw an exception if Content has no parent,
 		// return null instead.
+		ObjectInfo cachedInfo = parentInfoCache.get(contentId);
+		if (cachedInfo != null) {
+			return cachedInfo;
+		}
+		long cacheGeneration = parentInfoCache.getGeneration();
 		CaseDbConnection connection = connections.getConnection();
 		acquireSingleUserCaseReadLock();
-		Statement s = null;
+		PreparedStatement statement = null;
 		ResultSet rs = null;
 		try {
-			s = connection.createStatement();
-			rs = connection.executeQuery(s, "SELECT parent.obj_id AS obj_id, parent.type AS type " //NON-NLS
+			statement = connection.getPreparedStatement("SELECT parent.obj_id AS obj_id, parent.type AS type " //NON-NLS
 					+ "FROM tsk_objects AS parent INNER JOIN tsk_objects AS child " //NON-NLS
 					+ "ON child.par_obj_id = parent.obj_id " //NON-NLS
-					+ "WHERE child.obj_id = " + contentId); //NON-NLS
+					+ "WHERE child.obj_id = ?"); //NON-NLS
+			statement.setLong(1, contentId);
+			rs = connection.executeQuery(statement);
 			if (rs.next()) {
-				return new ObjectInfo(rs.getLong("obj_id"), ObjectType.valueOf(rs.getShort("type")));
+				ObjectInfo parentInfo = new ObjectInfo(rs.getLong("obj_id"), ObjectType.valueOf(rs.getShort("type")));
+				parentInfoCache.put(contentId, parentInfo, cacheGeneration);
+				return parentInfo;
 			} else {
 				throw new TskCoreException("Given content (id: " + contentId + ") has no parent.");
 			}
@@ -4039,7 +5505,7 @@ ObjectInfo getParentInfo(long contentId) throws TskCoreException {
 			throw new TskCoreException("Error getting Parent Info for Content: " + contentId, ex);
 		} finally {
 			closeResultSet(rs);
-			closeStatement(s);
+			closeStatement(statement);
 			connection.close();
 			releaseSingleUserCaseReadLock();
 		}
@@ -4084,13 +5550,19 @@ Directory getParentDirectory(FsContent fsc) throws TskCoreException {
 	 *                          core
 	 */
 	public Content getContentById(long id) throws TskCoreException {
+		Content cachedContent = contentCache.get(id);
+		if (cachedContent != null) {
+			return cachedContent;
+		}
+		long cacheGeneration = contentCache.getGeneration();
 		CaseDbConnection connection = connections.getConnection();
 		acquireSingleUserCaseReadLock();
-		Statement s = null;
+		PreparedStatement statement = null;
 		ResultSet rs = null;
 		try {
-			s = connection.createStatement();
-			rs = connection.executeQuery(s, "SELECT * FROM tsk_objects WHERE obj_id = " + id + " LIMIT  1"); //NON-NLS
+			statement = connection.getPreparedStatement("SELECT par_obj_id, type FROM tsk_objects WHERE obj_id = ?"); //NON-NLS
+			statement.setLong(1, id);
+			rs = connection.executeQuery(statement);
 			if (!rs.next()) {
 				return null;
 			}
@@ -4123,15 +5595,191 @@ public Content getContentById(long id) throws TskCoreException {
 				default:
 					throw new TskCoreException("Could not obtain Content object with ID: " + id);
 			}
+			contentCache.put(id, content, cacheGeneration);
 			return content;
 		} catch (SQLException ex) {
 			throw new TskCoreException("Error getting Content by ID.", ex);
 		} finally {
 			closeResultSet(rs);
-			closeStatement(s);
+			closeStatement(statement);
+			connection.close();
+			releaseSingleUserCaseReadLock();
+		}
+	}
+
+	/**
+	 * Gets the unique paths of a collection of content objects. The ancestors
+	 * of all of the objects are found with one recursive query per batch of
+	 * objects and loaded together, and the parent of each object and
+	 * ancestor is set, so that computing the paths needs no further queries
+	 * for the common content types. The ancestors of file system files are
+	 * not loaded, since their paths come from their file system, which is
+	 * cached, and their parent path.
+	 *
+	 * @param contents The content objects.
+	 *
+	 * @return A map of object ids to unique paths.
+	 *
+	 * @throws TskCoreException if there is an error querying the case database.
+	 */
+	public Map<Long, String> getUniquePaths(Collection<? extends Content> contents) throws TskCoreException {
+		Map<Long, Content> loaded = new HashMap<Long, Content>();
+		for (Content content : contents) {
+			loaded.put(content.getId(), content);
+		}
+		linkAncestors(loaded);
+		Map<Long, String> paths = new HashMap<Long, String>();
+		for (Content content : contents) {
+			paths.put(content.getId(), content.getUniquePath());
+		}
+		return paths;
+	}
+
+	/**
+	 * Gets the unique paths of a collection of objects. See
+	 * getUniquePaths(Collection).
+	 *
+	 * @param objectIds The object ids.
+	 *
+	 * @return A map of object ids to unique paths. Ids of objects that do not
+	 *         exist are left out.
+	 *
+	 * @throws TskCoreException if there is an error querying the case database.
+	 */
+	public Map<Long, String> getUniquePathsById(Collection<Long> objectIds) throws TskCoreException {
+		Map<Long, Content> loaded = new HashMap<Long, Content>();
+		linkAncestors(loaded, objectIds);
+		Map<Long, String> paths = new HashMap<Long, String>();
+		for (Long objectId : objectIds) {
+			Content content = loaded.get(objectId);
+			if (content != null) {
+				paths.put(objectId, content.getUniquePath());
+			}
+		}
+		return paths;
+	}
+
+	/**
+	 * Loads the ancestors of a set of content objects and sets the parent of
+	 * each object and ancestor.
+	 *
+	 * @param loaded The content objects. The ancestors are added to it.
+	 *
+	 * @throws TskCoreException
+	 */
+	private void linkAncestors(Map<Long, Content> loaded) throws TskCoreException {
+		linkAncestors(loaded, new ArrayList<Long>(loaded.keySet()));
+	}
+
+	/**
+	 * Loads a set of objects and their ancestors, up to the first file system
+	 * file on the way to the root, and sets the parent of each of them.
+	 *
+	 * @param loaded    The content objects that are already loaded. The
+	 *                  objects and their ancestors are added to it.
+	 * @param objectIds The objects to load along with their ancestors.
+	 *
+	 * @throws TskCoreException
+	 */
+	private void linkAncestors(Map<Long, Content> loaded, Collection<Long> objectIds) throws TskCoreException {
+		Map<Long, Long> parentIds = new HashMap<Long, Long>();
+		long cacheGeneration = contentCache.getGeneration();
+		CaseDbConnection connection = connections.getConnection();
+		acquireSingleUserCaseReadLock();
+		Statement statement = null;
+		ResultSet resultSet = null;
+		try {
+			statement = connection.createStatement();
+			List<Long> ids = new ArrayList<Long>(objectIds);
+			for (int start = 0; start < ids.size(); start += MAX_IDS_PER_QUERY) {
+				String idList = joinIds(ids.subList(start, Math.min(ids.size(), start + MAX_IDS_PER_QUERY)));
+				// File system files build their paths from their file system
+				// and parent_path, so the walk up stops at them.
+				resultSet = connection.executeQuery(statement, "WITH RECURSIVE ancestors(obj_id, par_obj_id) AS (" //NON-NLS
+						+ "SELECT obj_id, par_obj_id FROM tsk_objects WHERE obj_id IN (" + idList + ") " //NON-NLS
+						+ "UNION SELECT tsk_objects.obj_id, tsk_objects.par_obj_id FROM ancestors " //NON-NLS
+						+ "JOIN tsk_objects ON tsk_objects.obj_id = ancestors.par_obj_id " //NON-NLS
+						+ "LEFT JOIN tsk_files ON tsk_files.obj_id = ancestors.obj_id " //NON-NLS
+						+ "WHERE tsk_files.fs_obj_id IS NULL) " //NON-NLS
+						+ "SELECT obj_id, par_obj_id FROM ancestors"); //NON-NLS
+				while (resultSet.next()) {
+					long parentId = resultSet.getLong("par_obj_id");
+					parentIds.put(resultSet.getLong("obj_id"), resultSet.wasNull() ? null : parentId);
+				}
+				resultSet.close();
+				resultSet = null;
+			}
+
+			// Files, the bulk of the objects, are loaded together. The few
+			// other objects come from the content cache or one at a time.
+			List<Long> missing = new ArrayList<Long>();
+			for (Long objectId : parentIds.keySet()) {
+				if (!loaded.containsKey(objectId)) {
+					Content cached = contentCache.get(objectId);
+					if (cached != null) {
+						loaded.put(objectId, cached);
+					} else {
+						missing.add(objectId);
+					}
+				}
+			}
+			for (int start = 0; start < missing.size(); start += MAX_IDS_PER_QUERY) {
+				String idList = joinIds(missing.subList(start, Math.min(missing.size(), start + MAX_IDS_PER_QUERY)));
+				resultSet = connection.executeQuery(statement, "SELECT * FROM tsk_files WHERE obj_id IN (" + idList + ")"); //NON-NLS
+				for (AbstractFile file : resultSetToAbstractFiles(resultSet, connection)) {
+					loaded.put(file.getId(), file);
+					contentCache.put(file.getId(), file, cacheGeneration);
+				}
+				resultSet.close();
+				resultSet = null;
+			}
+		} catch (SQLException ex) {
+			throw new TskCoreException("Error getting the ancestors of content", ex);
+		} finally {
+			closeResultSet(resultSet);
+			closeStatement(statement);
 			connection.close();
 			releaseSingleUserCaseReadLock();
 		}
+
+		for (Long objectId : parentIds.keySet()) {
+			if (!loaded.containsKey(objectId)) {
+				Content content = getContentById(objectId);
+				if (content != null) {
+					loaded.put(objectId, content);
+				}
+			}
+		}
+		for (Map.Entry<Long, Long> entry : parentIds.entrySet()) {
+			Content content = loaded.get(entry.getKey());
+			Content parent = entry.getValue() != null ? loaded.get(entry.getValue()) : null;
+			if (parent == null) {
+				continue;
+			}
+			if (content instanceof AbstractContent) {
+				((AbstractContent) content).setParent(parent);
+			} else if (content instanceof BlackboardArtifact) {
+				((BlackboardArtifact) content).setParent(parent);
+			}
+		}
+	}
+
+	/**
+	 * Joins object ids into a list for an SQL IN clause.
+	 *
+	 * @param ids The ids.
+	 *
+	 * @return The comma-separated ids.
+	 */
+	private static String joinIds(Collection<Long> ids) {
+		StringBuilder idList = new StringBuilder();
+		for (Long id : ids) {
+			if (idList.length() > 0) {
+				idList.append(',');
+			}
+			idList.append(id);
+		}
+		return idList.toString();
 	}
 
 	/**
@@ -4320,28 +5968,105 @@ DerivedFile.DerivedMethod getDerivedMethod(long id) throws TskCoreException {
 	 * @throws TskCoreException thrown if critical error occurred within tsk
 	 *                          core and file could not be queried
 	 */
-	public AbstractFile getAbstractFileById(long id) throws TskCoreException {
+	public AbstractFile getAbstractFileById(long id) throws TskCoreException {
+		CaseDbConnection connection = connections.getConnection();
+		acquireSingleUserCaseReadLock();
+		ResultSet rs = null;
+		try {
+			PreparedStatement statement = connection.getPreparedStatement(PREPARED_STATEMENT.SELECT_FILE_BY_ID);
+			statement.clearParameters();
+			statement.setLong(1, id);
+			rs = connection.executeQuery(statement);
+			List<AbstractFile> files = resultSetToAbstractFiles(rs, connection);
+			if (files.size() > 0) {
+				return files.get(0);
+			} else {
+				return null;
+			}
+		} catch (SQLException ex) {
+			throw new TskCoreException("Error getting file by id, id = " + id, ex);
+		} finally {
+			closeResultSet(rs);
+			connection.close();
+			releaseSingleUserCaseReadLock();
+		}
+	}
+
+	/**
+	 * Gets the artifacts of a content that have a given fingerprint, with
+	 * their attributes loaded. See ArtifactFingerprint.
+	 *
+	 * @param objId       The object id of the content.
+	 * @param fingerprint The fingerprint.
+	 *
+	 * @return The artifacts, which may still differ in their attributes from
+	 *         the ones the fingerprint was computed from.
+	 *
+	 * @throws TskCoreException If there is a problem querying the case
+	 *                          database.
+	 */
+	List<BlackboardArtifact> getBlackboardArtifactsByFingerprint(long objId, long fingerprint) throws TskCoreException {
+		CaseDbConnection connection = connections.getConnection();
+		acquireSingleUserCaseReadLock();
+		ResultSet rs = null;
+		List<BlackboardArtifact> artifacts = new ArrayList<BlackboardArtifact>();
+		try {
+			PreparedStatement statement = connection.getPreparedStatement(PREPARED_STATEMENT.SELECT_ARTIFACTS_BY_FINGERPRINT);
+			statement.clearParameters();
+			statement.setLong(1, fingerprint);
+			statement.setLong(2, objId);
+			rs = connection.executeQuery(statement);
+			while (rs.next()) {
+				artifacts.add(resultSetRowToMatchingArtifact(rs));
+			}
+		} catch (SQLException ex) {
+			throw new TskCoreException("Error getting artifacts by fingerprint, obj_id = " + objId, ex);
+		} finally {
+			closeResultSet(rs);
+			connection.close();
+			releaseSingleUserCaseReadLock();
+		}
+		loadBlackboardAttributes(artifacts);
+		return artifacts;
+	}
+
+	/**
+	 * Gets the artifacts of a given type of a content that have no
+	 * fingerprint, with their attributes loaded. Only an older version of
+	 * this library, writing to a case that has been updated, can make such
+	 * artifacts; the schema update gives the existing ones fingerprints.
+	 *
+	 * @param objId          The object id of the content.
+	 * @param artifactTypeId The artifact type id.
+	 *
+	 * @return The artifacts, usually none.
+	 *
+	 * @throws TskCoreException If there is a problem querying the case
+	 *                          database.
+	 */
+	List<BlackboardArtifact> getBlackboardArtifactsWithoutFingerprint(long objId, int artifactTypeId) throws TskCoreException {
 		CaseDbConnection connection = connections.getConnection();
 		acquireSingleUserCaseReadLock();
 		ResultSet rs = null;
+		List<BlackboardArtifact> artifacts = new ArrayList<BlackboardArtifact>();
 		try {
-			PreparedStatement statement = connection.getPreparedStatement(PREPARED_STATEMENT.SELECT_FILE_BY_ID);
+			PreparedStatement statement = connection.getPreparedStatement(PREPARED_STATEMENT.SELECT_ARTIFACTS_WITHOUT_FINGERPRINT);
 			statement.clearParameters();
-			statement.setLong(1, id);
+			statement.setLong(1, objId);
+			statement.setInt(2, artifactTypeId);
 			rs = connection.executeQuery(statement);
-			List<AbstractFile> files = resultSetToAbstractFiles(rs, connection);
-			if (files.size() > 0) {
-				return files.get(0);
-			} else {
-				return null;
+			while (rs.next()) {
+				artifacts.add(resultSetRowToMatchingArtifact(rs));
 			}
 		} catch (SQLException ex) {
-			throw new TskCoreException("Error getting file by id, id = " + id, ex);
+			throw new TskCoreException("Error getting artifacts without fingerprint, obj_id = " + objId, ex);
 		} finally {
 			closeResultSet(rs);
 			connection.close();
 			releaseSingleUserCaseReadLock();
 		}
+		loadBlackboardAttributes(artifacts);
+		return artifacts;
 	}
 
 	/**
@@ -4608,10 +6333,23 @@ private long addObject(long parentId, int objectType, CaseDbConnection connectio
 			resultSet = statement.getGeneratedKeys();
 
 			if (resultSet.next()) {
+				long objectId = resultSet.getLong(1); //last_insert_rowid()
 				if (parentId != 0) {
-					setHasChildren(parentId);
+					// A rolled back object must not leave its parent marked,
+					// since the map is saved in the snapshot.
+					if (connection.isInTransaction()) {
+						connection.addPendingParentObjectId(parentId);
+					} else {
+						setHasChildren(parentId);
+					}
+					long dataSourceObjId = getIndexedDataSourceObjectId(connection, parentId);
+					if (dataSourceObjId != DataSourceIndex.UNKNOWN) {
+						recordDataSourceObjectId(connection, objectId, dataSourceObjId);
+					}
+				} else {
+					recordDataSourceObjectId(connection, objectId, objectId);
 				}
-				return resultSet.getLong(1); //last_insert_rowid()
+				return objectId;
 			} else {
 				throw new SQLException("Error inserting object with parent " + parentId + " into tsk_objects");
 			}
@@ -5524,6 +7262,7 @@ public DerivedFile updateDerivedFile(DerivedFile derivedFile, String localPath,
 			updateFilePath(connection, derivedFile.getId(), localPath, encodingType);
 
 			connection.commitTransaction();
+			contentCache.invalidate(derivedFile.getId());
 
 			long dataSourceObjId = getDataSourceObjectId(connection, parentId);
 			final String extension = extractExtension(derivedFile.getName());
@@ -5688,25 +7427,39 @@ public LocalFile addLocalFile(String fileName, String localPath,
 	 * @throws TskCoreException if there is an error querying the case database.
 	 */
 	private long getDataSourceObjectId(CaseDbConnection connection, long objectId) throws TskCoreException {
+		long indexedId = getIndexedDataSourceObjectId(connection, objectId);
+		if (indexedId != DataSourceIndex.UNKNOWN) {
+			return indexedId;
+		}
 		acquireSingleUserCaseReadLock();
-		Statement statement = null;
+		PreparedStatement statement = null;
 		ResultSet resultSet = null;
 		try {
-			statement = connection.createStatement();
+			statement = connection.getPreparedStatement("SELECT par_obj_id FROM tsk_objects WHERE obj_id = ?"); //NON-NLS
+			List<Long> path = new ArrayList<Long>();
 			long dataSourceObjId;
 			long ancestorId = objectId;
 			do {
 				dataSourceObjId = ancestorId;
-				String query = String.format("SELECT par_obj_id FROM tsk_objects WHERE obj_id = %s;", ancestorId);
-				resultSet = statement.executeQuery(query);
+				indexedId = getIndexedDataSourceObjectId(connection, ancestorId);
+				if (indexedId != DataSourceIndex.UNKNOWN) {
+					dataSourceObjId = indexedId;
+					break;
+				}
+				path.add(ancestorId);
+				statement.setLong(1, ancestorId);
+				resultSet = connection.executeQuery(statement);
 				if (resultSet.next()) {
 					ancestorId = resultSet.getLong("par_obj_id");
 				} else {
-					throw new TskCoreException(String.format("tsk_objects table is corrupt, SQL query returned no result: %s", query));
+					throw new TskCoreException(String.format("tsk_objects table is corrupt, no row for obj_id %d", ancestorId));
 				}
 				resultSet.close();
 				resultSet = null;
 			} while (0 != ancestorId); // Not NULL
+			for (long pathId : path) {
+				recordDataSourceObjectId(connection, pathId, dataSourceObjId);
+			}
 			return dataSourceObjId;
 		} catch (SQLException ex) {
 			throw new TskCoreException(String.format("Error finding root data source for object (obj_id = %d)", objectId), ex);
@@ -5717,6 +7470,23 @@ private long getDataSourceObjectId(CaseDbConnection connection, long objectId) t
 		}
 	}
 
+	/**
+	 * Looks up the data source of an object in the objects added by the open
+	 * transaction of a connection and in the data source index.
+	 *
+	 * @param connection A case database connection.
+	 * @param objectId   An object id.
+	 *
+	 * @return A data source object id, or DataSourceIndex.UNKNOWN.
+	 */
+	private long getIndexedDataSourceObjectId(CaseDbConnection connection, long objectId) {
+		long dataSourceObjId = connection.getPendingDataSourceObjectId(objectId);
+		if (dataSourceObjId == DataSourceIndex.UNKNOWN) {
+			dataSourceObjId = dataSourceIndex.get(objectId);
+		}
+		return dataSourceObjId;
+	}
+
 	/**
 	 * Add a path (such as a local path) for a content object to tsk_file_paths
 	 *
@@ -5843,6 +7613,32 @@ public List<AbstractFile> findAllFilesWhere(String sqlWhereClause) throws TskCor
 		}
 	}
 
+	/**
+	 * Find all (abstract) files matching the specific Where clause as a cursor
+	 * that reads the rows from the database in batches and creates the files
+	 * as they are read, so that very large result sets are not held in
+	 * memory. The cursor holds a database connection and a read lock until it
+	 * is closed, so it should be used in a try-with-resources block. The
+	 * thread that opened it must not write to the case database until it is
+	 * closed; see CaseDbCursor.
+	 *
+	 * @param sqlWhereClause a SQL where clause appropriate for the desired
+	 *                       files (do not begin the WHERE clause with the word
+	 *                       WHERE!)
+	 *
+	 * @return a cursor over the files that satisfy the given WHERE clause
+	 *
+	 * @throws TskCoreException \ref query_database_page
+	 */
+	public CaseDbCursor<AbstractFile> findAllFilesWhereCursor(String sqlWhereClause) throws TskCoreException {
+		return new CaseDbCursor<AbstractFile>("SELECT * FROM tsk_files WHERE " + sqlWhereClause, new RowMapper<AbstractFile>() { //NON-NLS
+			@Override
+			public AbstractFile map(ResultSet rs, CaseDbConnection connection) throws SQLException {
+				return resultSetRowToAbstractFile(rs, connection);
+			}
+		});
+	}
+
 	/**
 	 * Find and return list of all (abstract) ids of files matching the specific
 	 * Where clause
@@ -6737,52 +8533,9 @@ private List<AbstractFile> resultSetToAbstractFiles(ResultSet rs, CaseDbConnecti
 		ArrayList<AbstractFile> results = new ArrayList<AbstractFile>();
 		try {
 			while (rs.next()) {
-				final short type = rs.getShort("type"); //NON-NLS
-				if (type == TSK_DB_FILES_TYPE_ENUM.FS.getFileType()
-						&& (rs.getShort("meta_type") != TSK_FS_META_TYPE_ENUM.TSK_FS_META_TYPE_VIRT_DIR.getValue())) {
-					FsContent result;
-					if (rs.getShort("meta_type") == TSK_FS_META_TYPE_ENUM.TSK_FS_META_TYPE_DIR.getValue()) { //NON-NLS
-						result = directory(rs, null);
-					} else {
-						result = file(rs, null);
-					}
+				AbstractFile result = resultSetRowToAbstractFile(rs, connection);
+				if (result != null) {
 					results.add(result);
-				} else if (type == TSK_DB_FILES_TYPE_ENUM.VIRTUAL_DIR.getFileType()
-						|| (rs.getShort("meta_type") == TSK_FS_META_TYPE_ENUM.TSK_FS_META_TYPE_VIRT_DIR.getValue())) { //NON-NLS
-					final VirtualDirectory virtDir = virtualDirectory(rs);
-					results.add(virtDir);
-				} else if (type == TSK_DB_FILES_TYPE_ENUM.LOCAL_DIR.getFileType()) {
-					final LocalDirectory localDir = localDirectory(rs);
-					results.add(localDir);
-				} else if (type == TSK_DB_FILES_TYPE_ENUM.UNALLOC_BLOCKS.getFileType()
-						|| type == TSK_DB_FILES_TYPE_ENUM.UNUSED_BLOCKS.getFileType()
-						|| type == TSK_DB_FILES_TYPE_ENUM.CARVED.getFileType()) {
-					TSK_DB_FILES_TYPE_ENUM atype = TSK_DB_FILES_TYPE_ENUM.valueOf(type);
-					String parentPath = rs.getString("parent_path"); //NON-NLS
-					if (parentPath == null) {
-						parentPath = "/"; //NON-NLS
-					}
-					LayoutFile lf = new LayoutFile(this,
-							rs.getLong("obj_id"), //NON-NLS
-							rs.getLong("data_source_obj_id"),
-							rs.getString("name"), //NON-NLS
-							atype,
-							TSK_FS_NAME_TYPE_ENUM.valueOf(rs.getShort("dir_type")), TSK_FS_META_TYPE_ENUM.valueOf(rs.getShort("meta_type")), //NON-NLS
-							TSK_FS_NAME_FLAG_ENUM.valueOf(rs.getShort("dir_flags")), rs.getShort("meta_flags"), //NON-NLS
-							rs.getLong("size"), //NON-NLS
-							rs.getString("md5"), FileKnown.valueOf(rs.getByte("known")), parentPath, rs.getString("mime_type")); //NON-NLS
-					results.add(lf);
-				} else if (type == TSK_DB_FILES_TYPE_ENUM.DERIVED.getFileType()) {
-					final DerivedFile df;
-					df = derivedFile(rs, connection, AbstractContent.UNKNOWN_ID);
-					results.add(df);
-				} else if (type == TSK_DB_FILES_TYPE_ENUM.LOCAL.getFileType()) {
-					final LocalFile lf;
-					lf = localFile(rs, connection, AbstractContent.UNKNOWN_ID);
-					results.add(lf);
-				} else if (type == TSK_DB_FILES_TYPE_ENUM.SLACK.getFileType()) {
-					final SlackFile sf = slackFile(rs, null);
-					results.add(sf);
 				}
 			} //end for each resultSet
 		} catch (SQLException e) {
@@ -6792,6 +8545,68 @@ private List<AbstractFile> resultSetToAbstractFiles(ResultSet rs, CaseDbConnecti
 		return results;
 	}
 
+	/**
+	 * Creates an AbstractFile of the right subclass from the current row of a
+	 * result set of a query on tsk_files.
+	 *
+	 * @param rs         The result set, positioned on a row.
+	 * @param connection The connection the result set is from.
+	 *
+	 * @return The file, or null if the row is of an unknown file type.
+	 *
+	 * @throws SQLException
+	 */
+	private AbstractFile resultSetRowToAbstractFile(ResultSet rs, CaseDbConnection connection) throws SQLException {
+		final short type = rs.getShort("type"); //NON-NLS
+		if (type == TSK_DB_FILES_TYPE_ENUM.FS.getFileType()
+				&& (rs.getShort("meta_type") != TSK_FS_META_TYPE_ENUM.TSK_FS_META_TYPE_VIRT_DIR.getValue())) {
+			FsContent result;
+			if (rs.getShort("meta_type") == TSK_FS_META_TYPE_ENUM.TSK_FS_META_TYPE_DIR.getValue()) { //NON-NLS
+				result = directory(rs, null);
+			} else {
+				result = file(rs, null);
+			}
+			return result;
+		} else if (type == TSK_DB_FILES_TYPE_ENUM.VIRTUAL_DIR.getFileType()
+				|| (rs.getShort("meta_type") == TSK_FS_META_TYPE_ENUM.TSK_FS_META_TYPE_VIRT_DIR.getValue())) { //NON-NLS
+			final VirtualDirectory virtDir = virtualDirectory(rs);
+			return virtDir;
+		} else if (type == TSK_DB_FILES_TYPE_ENUM.LOCAL_DIR.getFileType()) {
+			final LocalDirectory localDir = localDirectory(rs);
+			return localDir;
+		} else if (type == TSK_DB_FILES_TYPE_ENUM.UNALLOC_BLOCKS.getFileType()
+				|| type == TSK_DB_FILES_TYPE_ENUM.UNUSED_BLOCKS.getFileType()
+				|| type == TSK_DB_FILES_TYPE_ENUM.CARVED.getFileType()) {
+			TSK_DB_FILES_TYPE_ENUM atype = TSK_DB_FILES_TYPE_ENUM.valueOf(type);
+			String parentPath = rs.getString("parent_path"); //NON-NLS
+			if (parentPath == null) {
+				parentPath = "/"; //NON-NLS
+			}
+			LayoutFile lf = new LayoutFile(this,
+					rs.getLong("obj_id"), //NON-NLS
+					rs.getLong("data_source_obj_id"),
+					rs.getString("name"), //NON-NLS
+					atype,
+					TSK_FS_NAME_TYPE_ENUM.valueOf(rs.getShort("dir_type")), TSK_FS_META_TYPE_ENUM.valueOf(rs.getShort("meta_type")), //NON-NLS
+					TSK_FS_NAME_FLAG_ENUM.valueOf(rs.getShort("dir_flags")), rs.getShort("meta_flags"), //NON-NLS
+					rs.getLong("size"), //NON-NLS
+					rs.getString("md5"), FileKnown.valueOf(rs.getByte("known")), parentPath, rs.getString("mime_type")); //NON-NLS
+			return lf;
+		} else if (type == TSK_DB_FILES_TYPE_ENUM.DERIVED.getFileType()) {
+			final DerivedFile df;
+			df = derivedFile(rs, connection, AbstractContent.UNKNOWN_ID);
+			return df;
+		} else if (type == TSK_DB_FILES_TYPE_ENUM.LOCAL.getFileType()) {
+			final LocalFile lf;
+			lf = localFile(rs, connection, AbstractContent.UNKNOWN_ID);
+			return lf;
+		} else if (type == TSK_DB_FILES_TYPE_ENUM.SLACK.getFileType()) {
+			final SlackFile sf = slackFile(rs, null);
+			return sf;
+		}
+		return null;
+	}
+
 	// This following methods generate AbstractFile objects from a ResultSet
 	/**
 	 * Create a File object from the result set containing query results on
@@ -7215,12 +9030,39 @@ protected void finalize() throws Throwable {
 	public synchronized void close() {
 		acquireSingleUserCaseWriteLock();
 
+		if (checkpointExecutor != null) {
+			checkpointExecutor.shutdownNow();
+			checkpointExecutor = null;
+		}
+		long snapshotMaxObjId = -1;
+		if (dbType == DbType.SQLITE) {
+			try {
+				CaseDbConnection connection = connections.getConnection();
+				try {
+					snapshotMaxObjId = getMaxObjectId(connection);
+				} finally {
+					connection.close();
+				}
+			} catch (TskCoreException ex) {
+				logger.log(Level.WARNING, "Error saving parent node cache snapshot", ex); //NON-NLS
+			}
+		}
+		if (sqliteSettings != null && sqliteSettings.isWalEnabled()) {
+			checkpointWal("TRUNCATE"); //NON-NLS
+		}
+
 		try {
 			connections.close();
 		} catch (TskCoreException ex) {
 			logger.log(Level.SEVERE, "Error closing database connection pool.", ex); //NON-NLS
 		}
 
+		// The snapshot records the state of the database file, so it is
+		// saved once the connections have made their last changes to it.
+		if (snapshotMaxObjId >= 0) {
+			saveHasChildrenSnapshot(snapshotMaxObjId);
+		}
+
 		fileSystemIdMap.clear();
 
 		try {
@@ -7262,6 +9104,7 @@ public boolean setKnown(AbstractFile file, FileKnown fileKnown) throws TskCoreEx
 					+ "SET known='" + fileKnown.getFileKnownValue() + "' " //NON-NLS
 					+ "WHERE obj_id=" + id); //NON-NLS
 			file.setKnown(fileKnown);
+			contentCache.invalidate(id);
 		} catch (SQLException ex) {
 			throw new TskCoreException("Error setting Known status.", ex);
 		} finally {
@@ -7290,6 +9133,7 @@ public void setFileMIMEType(AbstractFile file, String mimeType) throws TskCoreEx
 			statement = connection.createStatement();
 			connection.executeUpdate(statement, String.format("UPDATE tsk_files SET mime_type = '%s' WHERE obj_id = %d", mimeType, file.getId()));
 			file.setMIMEType(mimeType);
+			contentCache.invalidate(file.getId());
 		} catch (SQLException ex) {
 			throw new TskCoreException(String.format("Error setting MIME type for file (obj_id = %s)", file.getId()), ex);
 		} finally {
@@ -7323,6 +9167,7 @@ void setMd5Hash(AbstractFile file, String md5Hash) throws TskCoreException {
 			statement.setLong(2, id);
 			connection.executeUpdate(statement);
 			file.setMd5Hash(md5Hash.toLowerCase());
+			contentCache.invalidate(id);
 		} catch (SQLException ex) {
 			throw new TskCoreException("Error setting MD5 hash", ex);
 		} finally {
@@ -7353,6 +9198,7 @@ public void setReviewStatus(BlackboardArtifact artifact, BlackboardArtifact.Revi
 			connection.executeUpdate(statement, "UPDATE blackboard_artifacts "
 					+ " SET review_status_id=" + newStatus.getID()
 					+ " WHERE blackboard_artifacts.artifact_id = " + artifact.getArtifactID());
+			contentCache.invalidate(artifact.getId());
 		} catch (SQLException ex) {
 			throw new TskCoreException("Error setting review status", ex);
 		} finally {
@@ -8439,6 +10285,7 @@ public void updateImagePath(String newPath, long objectId) throws TskCoreExcepti
 			statement.setString(1, newPath);
 			statement.setLong(2, objectId);
 			connection.executeUpdate(statement);
+			contentCache.invalidate(objectId);
 		} catch (SQLException ex) {
 			throw new TskCoreException("Error updating image path in database for object " + objectId, ex);
 		} finally {
@@ -8642,6 +10489,8 @@ public void deleteReport(Report report) throws TskCoreException {
 			PreparedStatement statement = connection.getPreparedStatement(PREPARED_STATEMENT.DELETE_REPORT);
 			statement.setLong(1, report.getId());
 			connection.executeUpdate(statement);
+			contentCache.invalidate(report.getId());
+			parentInfoCache.invalidate(report.getId());
 		} catch (SQLException ex) {
 			throw new TskCoreException("Error querying reports table", ex);
 		} finally {
@@ -8950,6 +10799,18 @@ private enum PREPARED_STATEMENT {
 		SELECT_FILE_BY_ID("SELECT * FROM tsk_files WHERE obj_id = ? LIMIT 1"), //NON-NLS
 		SELECT_ARTIFACT_BY_ARTIFACT_OBJ_ID("SELECT * FROM blackboard_artifacts WHERE artifact_obj_id = ? LIMIT 1"),
 		SELECT_ARTIFACT_BY_ARTIFACT_ID("SELECT * FROM blackboard_artifacts WHERE artifact_id = ? LIMIT 1"),
+		SELECT_ARTIFACTS_BY_FINGERPRINT("SELECT blackboard_artifacts.* FROM blackboard_artifact_fingerprints INNER JOIN blackboard_artifacts " //NON-NLS
+				+ "ON blackboard_artifact_fingerprints.artifact_id = blackboard_artifacts.artifact_id " //NON-NLS
+				+ "WHERE blackboard_artifact_fingerprints.fingerprint = ? AND blackboard_artifact_fingerprints.obj_id = ?"), //NON-NLS
+		SELECT_ARTIFACTS_WITHOUT_FINGERPRINT("SELECT blackboard_artifacts.* FROM blackboard_artifacts LEFT JOIN blackboard_artifact_fingerprints " //NON-NLS
+				+ "ON blackboard_artifacts.artifact_id = blackboard_artifact_fingerprints.artifact_id " //NON-NLS
+				+ "WHERE blackboard_artifacts.obj_id = ? AND blackboard_artifacts.artifact_type_id = ? " //NON-NLS
+				+ "AND blackboard_artifact_fingerprints.artifact_id IS NULL"), //NON-NLS
+		INSERT_ARTIFACT_FINGERPRINT("INSERT INTO blackboard_artifact_fingerprints (artifact_id, obj_id, fingerprint) VALUES (?, ?, ?)"), //NON-NLS
+		ADD_TO_ARTIFACT_FINGERPRINT("UPDATE blackboard_artifact_fingerprints SET fingerprint = CASE " //NON-NLS
+				+ "WHEN fingerprint > ? THEN fingerprint - 9223372036854775807 - 1 + ? " //NON-NLS
+				+ "WHEN fingerprint < ? THEN fingerprint + 9223372036854775807 + 1 + ? " //NON-NLS
+				+ "ELSE fingerprint + ? END WHERE artifact_id = ?"), //NON-NLS
 		INSERT_ARTIFACT("INSERT INTO blackboard_artifacts (artifact_id, obj_id, artifact_obj_id, data_source_obj_id, artifact_type_id, review_status_id) " //NON-NLS
 				+ "VALUES (?, ?, ?, ?, ?," + BlackboardArtifact.ReviewStatus.UNDECIDED.getID() + ")"), //NON-NLS
 		POSTGRESQL_INSERT_ARTIFACT("INSERT INTO blackboard_artifacts (artifact_id, obj_id, artifact_obj_id, data_source_obj_id, artifact_type_id, review_status_id) " //NON-NLS
@@ -8976,6 +10837,7 @@ private enum PREPARED_STATEMENT {
 		SELECT_FILE_DERIVATION_METHOD("SELECT tool_name, tool_version, other FROM tsk_files_derived_method WHERE derived_id = ?"), //NON-NLS
 		SELECT_MAX_OBJECT_ID("SELECT MAX(obj_id) AS max_obj_id FROM tsk_objects"), //NON-NLS
 		INSERT_OBJECT("INSERT INTO tsk_objects (par_obj_id, type) VALUES (?, ?)"), //NON-NLS
+		INSERT_OBJECT_WITH_ID("INSERT INTO tsk_objects (obj_id, par_obj_id, type) VALUES (?, ?, ?)"), //NON-NLS
 		INSERT_FILE("INSERT INTO tsk_files (obj_id, fs_obj_id, name, type, has_path, dir_type, meta_type, dir_flags, meta_flags, size, ctime, crtime, atime, mtime, parent_path, data_source_obj_id,extension) " //NON-NLS
 				+ "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?,?)"), //NON-NLS
 		UPDATE_DERIVED_FILE("UPDATE tsk_files SET type = ?, dir_type = ?, meta_type = ?, dir_flags = ?,  meta_flags = ?, size= ?, ctime= ?, crtime= ?, atime= ?, mtime= ?, mime_type = ?  "
@@ -9069,10 +10931,23 @@ String getSQL() {
 	 */
 	abstract private class ConnectionPool {
 
-		private PooledDataSource pooledDataSource;
-
-		public ConnectionPool() {
+		// Sustained contention is this many consecutive samples, one second
+		// apart, with threads waiting for a connection.
+		private static final int AUTOSCALE_CONTENDED_SAMPLES = 5;
+
+		private ResizablePooledDataSource pooledDataSource;
+		private final ConnectionPoolSettings poolSettings;
+		private final AtomicLong checkouts = new AtomicLong();
+		private final AtomicLong checkoutNanos = new AtomicLong();
+		private final AtomicLong maxCheckoutNanos = new AtomicLong();
+		private final AtomicLongArray checkoutHistogram = new AtomicLongArray(ConnectionPoolStats.CHECKOUT_LATENCY_BUCKETS_MICROS.length + 1);
+		private final AtomicLong poolGrowths = new AtomicLong();
+		private ScheduledExecutorService autoscaleExecutor = null;
+		private int contendedSamples = 0;
+
+		public ConnectionPool(ConnectionPoolSettings poolSettings) {
 			pooledDataSource = null;
+			this.poolSettings = poolSettings;
 		}
 
 		CaseDbConnection getConnection() throws TskCoreException {
@@ -9080,13 +10955,119 @@ CaseDbConnection getConnection() throws TskCoreException {
 				throw new TskCoreException("Error getting case database connection - case is closed");
 			}
 			try {
-				return getPooledConnection();
+				long start = System.nanoTime();
+				CaseDbConnection connection = getPooledConnection();
+				recordCheckout(System.nanoTime() - start);
+				return connection;
 			} catch (SQLException exp) {
 				throw new TskCoreException(exp.getMessage());
 			}
 		}
 
+		private void recordCheckout(long nanos) {
+			checkouts.incrementAndGet();
+			checkoutNanos.addAndGet(nanos);
+			long max = maxCheckoutNanos.get();
+			while (nanos > max && !maxCheckoutNanos.compareAndSet(max, nanos)) {
+				max = maxCheckoutNanos.get();
+			}
+			long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+			int bucket = 0;
+			while (bucket < ConnectionPoolStats.CHECKOUT_LATENCY_BUCKETS_MICROS.length
+					&& micros >= ConnectionPoolStats.CHECKOUT_LATENCY_BUCKETS_MICROS[bucket]) {
+				bucket++;
+			}
+			checkoutHistogram.incrementAndGet(bucket);
+		}
+
+		ConnectionPoolStats getStats() throws TskCoreException {
+			ResizablePooledDataSource resizableDataSource = pooledDataSource;
+			PooledDataSource dataSource = (resizableDataSource != null) ? resizableDataSource.getCurrent() : null;
+			if (dataSource == null) {
+				throw new TskCoreException("Error getting connection pool statistics - case is closed");
+			}
+			long[] histogram = new long[checkoutHistogram.length()];
+			for (int i = 0; i < histogram.length; i++) {
+				histogram[i] = checkoutHistogram.get(i);
+			}
+			try {
+				return new ConnectionPoolStats(dataSource.getNumConnectionsDefaultUser(),
+						dataSource.getNumBusyConnectionsDefaultUser(),
+						dataSource.getNumIdleConnectionsDefaultUser(),
+						dataSource.getNumThreadsAwaitingCheckoutDefaultUser(),
+						resizableDataSource.getMaxPoolSize(),
+						dataSource.getNumFailedCheckoutsDefaultUser(),
+						checkouts.get(),
+						TimeUnit.NANOSECONDS.toMicros(checkoutNanos.get()),
+						TimeUnit.NANOSECONDS.toMicros(maxCheckoutNanos.get()),
+						histogram,
+						dataSource.getStatementCacheNumStatementsDefaultUser(),
+						dataSource.getStatementCacheNumCheckedOutDefaultUser(),
+						dataSource.getStatementCacheNumConnectionsWithCachedStatementsDefaultUser(),
+						poolGrowths.get());
+			} catch (SQLException ex) {
+				throw new TskCoreException("Error getting connection pool statistics", ex);
+			}
+		}
+
+		/**
+		 * Starts sampling the pool for threads waiting for connections, if
+		 * the pool may grow.
+		 */
+		void startAutoscaling() {
+			if (!poolSettings.isAutoscaleEnabled()) {
+				return;
+			}
+			autoscaleExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "SleuthkitCase connection pool autoscaling " + databaseName); //NON-NLS
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			autoscaleExecutor.scheduleWithFixedDelay(new Runnable() {
+				@Override
+				public void run() {
+					sampleContention();
+				}
+			}, 1, 1, TimeUnit.SECONDS);
+		}
+
+		private void sampleContention() {
+			ResizablePooledDataSource resizableDataSource = pooledDataSource;
+			if (resizableDataSource == null) {
+				return;
+			}
+			resizableDataSource.closeDrainedPools();
+			PooledDataSource dataSource = resizableDataSource.getCurrent();
+			if (dataSource == null) {
+				return;
+			}
+			try {
+				if (dataSource.getNumThreadsAwaitingCheckoutDefaultUser() == 0) {
+					contendedSamples = 0;
+					return;
+				}
+				int maxPoolSize = resizableDataSource.getMaxPoolSize();
+				if (++contendedSamples < AUTOSCALE_CONTENDED_SAMPLES || maxPoolSize >= poolSettings.getAutoscaleMaxPoolSize()) {
+					return;
+				}
+				contendedSamples = 0;
+				int newSize = Math.min(maxPoolSize + poolSettings.getAcquireIncrement(), poolSettings.getAutoscaleMaxPoolSize());
+				resizableDataSource.resize(newSize);
+				poolGrowths.incrementAndGet();
+				logger.log(Level.INFO, "Grew case database connection pool to {0} connections", newSize); //NON-NLS
+			} catch (SQLException ex) {
+				logger.log(Level.WARNING, "Error sampling case database connection pool", ex); //NON-NLS
+			}
+		}
+
 		void close() throws TskCoreException {
+			if (autoscaleExecutor != null) {
+				autoscaleExecutor.shutdownNow();
+				autoscaleExecutor = null;
+			}
 			if (pooledDataSource != null) {
 				try {
 					pooledDataSource.close();
@@ -9100,12 +11081,22 @@ void close() throws TskCoreException {
 
 		abstract CaseDbConnection getPooledConnection() throws SQLException;
 
-		public PooledDataSource getPooledDataSource() {
+		public ResizablePooledDataSource getPooledDataSource() {
 			return pooledDataSource;
 		}
 
-		public void setPooledDataSource(PooledDataSource pooledDataSource) {
-			this.pooledDataSource = pooledDataSource;
+		/**
+		 * Opens the pool. Growing the pool opens a larger one with the
+		 * factory and drains the old one, since c3p0 fails the checkouts
+		 * waiting on a pool whose size is changed while it is open.
+		 *
+		 * @param factory Opens a pool with a given maximum size.
+		 *
+		 * @throws SQLException If the pool cannot be opened.
+		 */
+		void openPool(ResizablePooledDataSource.Factory factory) throws SQLException {
+			this.pooledDataSource = new ResizablePooledDataSource(factory, poolSettings.getMaxPoolSize());
+			startAutoscaling();
 		}
 	}
 
@@ -9117,21 +11108,38 @@ private final class SQLiteConnections extends ConnectionPool {
 
 		private final Map<String, String> configurationOverrides = new HashMap<String, String>();
 
-		SQLiteConnections(String dbPath) throws SQLException {
-			configurationOverrides.put("acquireIncrement", "2");
-			configurationOverrides.put("initialPoolSize", "5");
-			configurationOverrides.put("maxPoolSize", "20");
-			configurationOverrides.put("minPoolSize", "5");
-			configurationOverrides.put("maxStatements", "100");
-			configurationOverrides.put("maxStatementsPerConnection", "20");
+		SQLiteConnections(String dbPath, SQLiteCaseSettings settings, ConnectionPoolSettings poolSettings) throws SQLException {
+			super(poolSettings);
+			configurationOverrides.put("acquireIncrement", Integer.toString(poolSettings.getAcquireIncrement()));
+			configurationOverrides.put("initialPoolSize", Integer.toString(poolSettings.getMinPoolSize()));
+			configurationOverrides.put("maxPoolSize", Integer.toString(poolSettings.getMaxPoolSize()));
+			configurationOverrides.put("minPoolSize", Integer.toString(poolSettings.getMinPoolSize()));
+			configurationOverrides.put("maxStatements", Integer.toString(poolSettings.getMaxStatements()));
+			configurationOverrides.put("maxStatementsPerConnection", Integer.toString(poolSettings.getMaxStatementsPerConnection()));
 
 			SQLiteConfig config = new SQLiteConfig();
 			config.setSynchronous(SQLiteConfig.SynchronousMode.OFF); // Reduce I/O operations, we have no OS crash recovery anyway.
 			config.setReadUncommited(true);
 			config.enforceForeignKeys(true); // Enforce foreign key constraints.
-			SQLiteDataSource unpooled = new SQLiteDataSource(config);
+			if (settings.isWalEnabled()) {
+				config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+			}
+			if (settings.getCacheSizeKiB() > 0) {
+				config.setCacheSize(-settings.getCacheSizeKiB()); // A negative size is in KiB rather than pages.
+			}
+			if (settings.getTempStore() != SQLiteCaseSettings.TempStore.DEFAULT) {
+				config.setTempStore(SQLiteConfig.TempStore.valueOf(settings.getTempStore().name()));
+			}
+			final SQLiteDataSource unpooled = new TunedSQLiteDataSource(config, settings.getMmapSize());
 			unpooled.setUrl("jdbc:sqlite:" + dbPath);
-			setPooledDataSource((PooledDataSource) DataSources.pooledDataSource(unpooled, configurationOverrides));
+			openPool(new ResizablePooledDataSource.Factory() {
+				@Override
+				public PooledDataSource newPool(int maxPoolSize) throws SQLException {
+					Map<String, String> overrides = new HashMap<String, String>(configurationOverrides);
+					overrides.put("maxPoolSize", Integer.toString(maxPoolSize));
+					return (PooledDataSource) DataSources.pooledDataSource(unpooled, overrides);
+				}
+			});
 		}
 
 		@Override
@@ -9140,26 +11148,66 @@ public CaseDbConnection getPooledConnection() throws SQLException {
 		}
 	}
 
+	/**
+	 * An SQLite data source that applies the connection settings that
+	 * SQLiteConfig does not support to each new connection.
+	 */
+	private static final class TunedSQLiteDataSource extends SQLiteDataSource {
+
+		private final long mmapSize;
+
+		TunedSQLiteDataSource(SQLiteConfig config, long mmapSize) {
+			super(config);
+			this.mmapSize = mmapSize;
+		}
+
+		@Override
+		public Connection getConnection(String username, String password) throws SQLException {
+			Connection connection = super.getConnection(username, password);
+			if (mmapSize > 0) {
+				Statement statement = connection.createStatement();
+				try {
+					statement.execute("PRAGMA mmap_size = " + mmapSize); //NON-NLS
+				} finally {
+					statement.close();
+				}
+			}
+			return connection;
+		}
+	}
+
 	/**
 	 * Handles the initial setup of PostgreSQL database connections, as well as
 	 * overriding getPooledConnection()
 	 */
 	private final class PostgreSQLConnections extends ConnectionPool {
 
-		PostgreSQLConnections(String host, int port, String dbName, String userName, String password) throws PropertyVetoException, UnsupportedEncodingException {
-			ComboPooledDataSource comboPooledDataSource = new ComboPooledDataSource();
-			comboPooledDataSource.setDriverClass("org.postgresql.Driver"); //loads the jdbc driver
-			comboPooledDataSource.setJdbcUrl("jdbc:postgresql://" + host + ":" + port + "/"
-					+ URLEncoder.encode(dbName, StandardCharsets.UTF_8.toString()));
-			comboPooledDataSource.setUser(userName);
-			comboPooledDataSource.setPassword(password);
-			comboPooledDataSource.setAcquireIncrement(2);
-			comboPooledDataSource.setInitialPoolSize(5);
-			comboPooledDataSource.setMaxPoolSize(20);
-			comboPooledDataSource.setMinPoolSize(5);
-			comboPooledDataSource.setMaxStatements(100);
-			comboPooledDataSource.setMaxStatementsPerConnection(20);
-			setPooledDataSource(comboPooledDataSource);
+		PostgreSQLConnections(String host, int port, String dbName, final String userName, final String password, final ConnectionPoolSettings poolSettings) throws PropertyVetoException, UnsupportedEncodingException, SQLException {
+			super(poolSettings);
+			new ComboPooledDataSource().setDriverClass("org.postgresql.Driver"); //loads the jdbc driver
+			final String jdbcUrl = "jdbc:postgresql://" + host + ":" + port + "/"
+					+ URLEncoder.encode(dbName, StandardCharsets.UTF_8.toString());
+			openPool(new ResizablePooledDataSource.Factory() {
+				@Override
+				public PooledDataSource newPool(int maxPoolSize) throws SQLException {
+					ComboPooledDataSource comboPooledDataSource = new ComboPooledDataSource();
+					try {
+						comboPooledDataSource.setDriverClass("org.postgresql.Driver"); //NON-NLS
+					} catch (PropertyVetoException ex) {
+						throw new SQLException(ex.getMessage(), ex);
+					}
+					comboPooledDataSource.setJdbcUrl(jdbcUrl);
+					comboPooledDataSource.setUser(userName);
+					comboPooledDataSource.setPassword(password);
+					comboPooledDataSource.setAcquireIncrement(poolSettings.getAcquireIncrement());
+					comboPooledDataSource.setInitialPoolSize(poolSettings.getMinPoolSize());
+					comboPooledDataSource.setMaxPoolSize(maxPoolSize);
+					comboPooledDataSource.setMinPoolSize(poolSettings.getMinPoolSize());
+					comboPooledDataSource.setMaxStatements(poolSettings.getMaxStatements());
+					comboPooledDataSource.setMaxStatementsPerConnection(poolSettings.getMaxStatementsPerConnection());
+					return comboPooledDataSource;
+				}
+			});
 		}
 
 		@Override
@@ -9312,6 +11360,20 @@ public void execute() throws SQLException {
 			}
 		}
 
+		private class ExecutePreparedStatementBatch implements DbCommand {
+
+			private final PreparedStatement preparedStatement;
+
+			ExecutePreparedStatementBatch(PreparedStatement preparedStatement) {
+				this.preparedStatement = preparedStatement;
+			}
+
+			@Override
+			public void execute() throws SQLException {
+				preparedStatement.executeBatch();
+			}
+		}
+
 		private class PrepareStatement implements DbCommand {
 
 			private final Connection connection;
@@ -9360,6 +11422,13 @@ public void execute() throws SQLException {
 
 		private final Connection connection;
 		private final Map<PREPARED_STATEMENT, PreparedStatement> preparedStatements;
+		private boolean inTransaction = false;
+		// The data sources of the objects added or found by the open
+		// transaction, moved to the data source index on commit.
+		private final Map<Long, Long> pendingDataSourceIds = new HashMap<Long, Long>();
+		// The parents of the objects added by the open transaction, added to
+		// the hasChildren map on commit.
+		private final Set<Long> pendingParentIds = new HashSet<Long>();
 
 		CaseDbConnection(Connection connection) {
 			this.connection = connection;
@@ -9370,6 +11439,37 @@ boolean isOpen() {
 			return this.connection != null;
 		}
 
+		boolean isInTransaction() {
+			return inTransaction;
+		}
+
+		void addPendingDataSourceObjectId(long objectId, long dataSourceId) {
+			pendingDataSourceIds.put(objectId, dataSourceId);
+		}
+
+		void addPendingParentObjectId(long parentId) {
+			pendingParentIds.add(parentId);
+		}
+
+		long getPendingDataSourceObjectId(long objectId) {
+			Long dataSourceId = pendingDataSourceIds.get(objectId);
+			return dataSourceId != null ? dataSourceId : DataSourceIndex.UNKNOWN;
+		}
+
+		private void endTransaction(boolean committed) {
+			inTransaction = false;
+			if (committed) {
+				for (Map.Entry<Long, Long> entry : pendingDataSourceIds.entrySet()) {
+					dataSourceIndex.put(entry.getKey(), entry.getValue());
+				}
+				for (Long parentId : pendingParentIds) {
+					setHasChildren(parentId);
+				}
+			}
+			pendingDataSourceIds.clear();
+			pendingParentIds.clear();
+		}
+
 		PreparedStatement getPreparedStatement(PREPARED_STATEMENT statementKey) throws SQLException {
 			return getPreparedStatement(statementKey, Statement.NO_GENERATED_KEYS);
 		}
@@ -9386,6 +11486,24 @@ PreparedStatement getPreparedStatement(PREPARED_STATEMENT statementKey, int gene
 			return statement;
 		}
 
+		/**
+		 * Prepares a parameterized SQL statement that is built at run time
+		 * rather than listed in PREPARED_STATEMENT. The pool caches prepared
+		 * statements by their SQL text for each physical connection, so the
+		 * text should not embed values that change from call to call. The
+		 * caller must close the statement, which returns it to the cache of
+		 * the pool.
+		 *
+		 * @param sqlStatement The SQL statement.
+		 *
+		 * @return The prepared statement.
+		 *
+		 * @throws SQLException
+		 */
+		PreparedStatement getPreparedStatement(String sqlStatement) throws SQLException {
+			return prepareStatement(sqlStatement, Statement.NO_GENERATED_KEYS);
+		}
+
 		PreparedStatement prepareStatement(String sqlStatement, int generateKeys) throws SQLException {
 			PrepareStatement prepareStatement = new PrepareStatement(this.getConnection(), sqlStatement);
 			executeCommand(prepareStatement);
@@ -9401,11 +11519,13 @@ Statement createStatement() throws SQLException {
 		void beginTransaction() throws SQLException {
 			SetAutoCommit setAutoCommit = new SetAutoCommit(connection, false);
 			executeCommand(setAutoCommit);
+			inTransaction = true;
 		}
 
 		void commitTransaction() throws SQLException {
 			Commit commit = new Commit(connection);
 			executeCommand(commit);
+			endTransaction(true);
 			// You must turn auto commit back on when done with the transaction.
 			SetAutoCommit setAutoCommit = new SetAutoCommit(connection, true);
 			executeCommand(setAutoCommit);
@@ -9417,6 +11537,7 @@ void commitTransaction() throws SQLException {
 		 * motivated the rollback is the exception to report to the client.
 		 */
 		void rollbackTransaction() {
+			endTransaction(false);
 			try {
 				connection.rollback();
 			} catch (SQLException e) {
@@ -9437,6 +11558,7 @@ void rollbackTransaction() {
 		 * @throws SQLException
 		 */
 		void rollbackTransactionWithThrow() throws SQLException {
+			endTransaction(false);
 			try {
 				connection.rollback();
 			} finally {
@@ -9479,10 +11601,37 @@ void executeUpdate(PreparedStatement statement) throws SQLException {
 			executeCommand(executePreparedStatementUpdate);
 		}
 
+		void executeBatch(PreparedStatement statement) throws SQLException {
+			ExecutePreparedStatementBatch executePreparedStatementBatch = new ExecutePreparedStatementBatch(statement);
+			executeCommand(executePreparedStatementBatch);
+		}
+
+		/**
+		 * Indicates whether rows can be bulk loaded with copyIn().
+		 *
+		 * @return True if copyIn() is supported.
+		 */
+		boolean supportsCopy() {
+			return false;
+		}
+
+		/**
+		 * Bulk loads rows with a COPY ... FROM STDIN command.
+		 *
+		 * @param copyCommand The COPY command.
+		 * @param rows        The rows, in the COPY text format.
+		 *
+		 * @throws SQLException
+		 */
+		void copyIn(String copyCommand, String rows) throws SQLException {
+			throw new SQLException("COPY is not supported by this database");
+		}
+
 		/**
 		 * Close the connection to the database.
 		 */
 		void close() {
+			endTransaction(false);
 			try {
 				connection.close();
 			} catch (SQLException ex) {
@@ -9490,45 +11639,178 @@ void close() {
 			}
 		}
 
-		Connection getConnection() {
-			return this.connection;
+		Connection getConnection() {
+			return this.connection;
+		}
+	}
+
+	/**
+	 * A connection to an SQLite case database.
+	 */
+	private final class SQLiteConnection extends CaseDbConnection {
+
+		private static final int DATABASE_LOCKED_ERROR = 0; // This should be 6 according to documentation, but it has been observed to be 0.
+		private static final int SQLITE_BUSY_ERROR = 5;
+		private static final long MIN_BUSY_BACKOFF_NANOS = 50000; // 50 microseconds
+		private static final long MAX_BUSY_BACKOFF_NANOS = 250000000; // 250 milliseconds
+
+		// True while this connection holds the single-user case write lock
+		// for its open transaction or update because writes are serialized.
+		private boolean holdsWriteLock = false;
+
+		SQLiteConnection(Connection conn) {
+			super(conn);
+		}
+
+		@Override
+		void executeCommand(DbCommand command) throws SQLException {
+			long backoffNanos = MIN_BUSY_BACKOFF_NANOS;
+			while (true) {
+				try {
+					command.execute(); // Perform the operation
+					break;
+				} catch (SQLException ex) {
+					if (ex.getErrorCode() == SQLITE_BUSY_ERROR || ex.getErrorCode() == DATABASE_LOCKED_ERROR) {
+						// We do not notify of error here, as this is not an
+						// error condition. It is likely a temporary busy or
+						// locked issue and we will retry after a jittered,
+						// exponentially growing wait.
+						long sleepNanos = backoffNanos / 2 + ThreadLocalRandom.current().nextLong(backoffNanos / 2 + 1);
+						backoffNanos = Math.min(backoffNanos * 2, MAX_BUSY_BACKOFF_NANOS);
+						busyRetries.incrementAndGet();
+						long start = System.nanoTime();
+						try {
+							TimeUnit.NANOSECONDS.sleep(sleepNanos);
+						} catch (InterruptedException exp) {
+							Logger.getLogger(SleuthkitCase.class.getName()).log(Level.WARNING, "Unexpectedly unable to wait for database.", exp);
+						}
+						busyWaitNanos.addAndGet(System.nanoTime() - start);
+					} else {
+						throw ex;
+					}
+				}
+			}
+		}
+
+		/**
+		 * Takes the single-user case write lock if writes are serialized and
+		 * this connection does not already hold it. Serialized writers use
+		 * the same lock as the rest of the write paths, so there is a single
+		 * lock order and a thread that already holds the lock does not wait.
+		 * The fair lock admits waiting writers in arrival order.
+		 *
+		 * A thread holding the read lock cannot take the write lock, so its
+		 * writes are not serialized and rely on the busy retries instead.
+		 *
+		 * @return True if the lock was taken by this call.
+		 */
+		private boolean enterWriteQueue() {
+			if (!serializeWrites || holdsWriteLock || rwLock.getReadHoldCount() > 0) {
+				return false;
+			}
+			long start = System.nanoTime();
+			rwLock.writeLock().lock();
+			writeQueueWaitNanos.addAndGet(System.nanoTime() - start);
+			queuedWrites.incrementAndGet();
+			holdsWriteLock = true;
+			return true;
+		}
+
+		private void leaveWriteQueue() {
+			if (holdsWriteLock) {
+				holdsWriteLock = false;
+				if (rwLock.isWriteLockedByCurrentThread()) {
+					rwLock.writeLock().unlock();
+				} else {
+					Logger.getLogger(SleuthkitCase.class.getName()).log(Level.SEVERE, "Serialized transaction ended by a thread other than the one that began it, the write lock is still held"); //NON-NLS
+				}
+			}
+		}
+
+		@Override
+		void beginTransaction() throws SQLException {
+			boolean entered = enterWriteQueue();
+			try {
+				super.beginTransaction();
+			} catch (SQLException ex) {
+				if (entered) {
+					leaveWriteQueue();
+				}
+				throw ex;
+			}
+		}
+
+		@Override
+		void commitTransaction() throws SQLException {
+			try {
+				super.commitTransaction();
+			} finally {
+				leaveWriteQueue();
+			}
+		}
+
+		@Override
+		void rollbackTransaction() {
+			try {
+				super.rollbackTransaction();
+			} finally {
+				leaveWriteQueue();
+			}
+		}
+
+		@Override
+		void rollbackTransactionWithThrow() throws SQLException {
+			try {
+				super.rollbackTransactionWithThrow();
+			} finally {
+				leaveWriteQueue();
+			}
+		}
+
+		@Override
+		void executeUpdate(Statement statement, String update, int generateKeys) throws SQLException {
+			boolean entered = enterWriteQueue();
+			try {
+				super.executeUpdate(statement, update, generateKeys);
+			} finally {
+				if (entered && !isInTransaction()) {
+					leaveWriteQueue();
+				}
+			}
 		}
-	}
-
-	/**
-	 * A connection to an SQLite case database.
-	 */
-	private final class SQLiteConnection extends CaseDbConnection {
-
-		private static final int DATABASE_LOCKED_ERROR = 0; // This should be 6 according to documentation, but it has been observed to be 0.
-		private static final int SQLITE_BUSY_ERROR = 5;
 
-		SQLiteConnection(Connection conn) {
-			super(conn);
+		@Override
+		void executeUpdate(PreparedStatement statement) throws SQLException {
+			boolean entered = enterWriteQueue();
+			try {
+				super.executeUpdate(statement);
+			} finally {
+				if (entered && !isInTransaction()) {
+					leaveWriteQueue();
+				}
+			}
 		}
 
 		@Override
-		void executeCommand(DbCommand command) throws SQLException {
-			while (true) {
-				try {
-					command.execute(); // Perform the operation
-					break;
-				} catch (SQLException ex) {
-					if (ex.getErrorCode() == SQLITE_BUSY_ERROR || ex.getErrorCode() == DATABASE_LOCKED_ERROR) {
-						try {
-							// We do not notify of error here, as this is not an
-							// error condition. It is likely a temporary busy or
-							// locked issue and we will retry.
-							Thread.sleep(SLEEP_LENGTH_IN_MILLISECONDS);
-						} catch (InterruptedException exp) {
-							Logger.getLogger(SleuthkitCase.class.getName()).log(Level.WARNING, "Unexpectedly unable to wait for database.", exp);
-						}
-					} else {
-						throw ex;
-					}
+		void executeBatch(PreparedStatement statement) throws SQLException {
+			boolean entered = enterWriteQueue();
+			try {
+				super.executeBatch(statement);
+			} finally {
+				if (entered && !isInTransaction()) {
+					leaveWriteQueue();
 				}
 			}
 		}
+
+		@Override
+		void close() {
+			try {
+				super.close();
+			} finally {
+				leaveWriteQueue();
+			}
+		}
 	}
 
 	/**
@@ -9541,10 +11823,56 @@ private final class PostgreSQLConnection extends CaseDbConnection {
 		private final String UNKNOWN_STATE = PSQLState.UNKNOWN_STATE.getState();
 		private static final int MAX_RETRIES = 3;
 
+		private CopyManager copyManager;
+		private boolean copyUnavailable = false;
+
 		PostgreSQLConnection(Connection conn) {
 			super(conn);
 		}
 
+		@Override
+		boolean supportsCopy() {
+			return getCopyManager() != null;
+		}
+
+		@Override
+		void copyIn(final String copyCommand, final String rows) throws SQLException {
+			final CopyManager manager = getCopyManager();
+			if (manager == null) {
+				super.copyIn(copyCommand, rows);
+				return;
+			}
+			executeCommand(new DbCommand() {
+				@Override
+				public void execute() throws SQLException {
+					try {
+						manager.copyIn(copyCommand, new StringReader(rows));
+					} catch (IOException ex) {
+						throw new SQLException("Error writing rows for " + copyCommand, ex);
+					}
+				}
+			});
+		}
+
+		/**
+		 * Gets the COPY API of the driver connection behind the pooled
+		 * connection.
+		 *
+		 * @return The copy manager, or null if the driver connection cannot be
+		 *         reached.
+		 */
+		private CopyManager getCopyManager() {
+			if (copyManager == null && !copyUnavailable) {
+				try {
+					copyManager = getConnection().unwrap(PGConnection.class).getCopyAPI();
+				} catch (SQLException ex) {
+					copyUnavailable = true;
+					logger.log(Level.WARNING, "PostgreSQL COPY is not available, falling back to batch inserts", ex);
+				}
+			}
+			return copyManager;
+		}
+
 		@Override
 		void executeUpdate(Statement statement, String update, int generateKeys) throws SQLException {
 			CaseDbConnection.ExecuteStatementUpdateGenerateKeys executeStatementUpdateGenerateKeys = new CaseDbConnection.ExecuteStatementUpdateGenerateKeys(statement, update, generateKeys);
@@ -9653,6 +11981,410 @@ void close() {
 		}
 	}
 
+	/**
+	 * A snapshot of the counters of one of the object caches of a case.
+	 */
+	public static final class ObjectCacheStats {
+
+		private final int size;
+		private final int maxSize;
+		private final long hits;
+		private final long misses;
+		private final long evictions;
+		private final long invalidations;
+
+		ObjectCacheStats(int size, int maxSize, long hits, long misses, long evictions, long invalidations) {
+			this.size = size;
+			this.maxSize = maxSize;
+			this.hits = hits;
+			this.misses = misses;
+			this.evictions = evictions;
+			this.invalidations = invalidations;
+		}
+
+		/**
+		 * @return The number of objects in the cache.
+		 */
+		public int getSize() {
+			return size;
+		}
+
+		/**
+		 * @return The maximum number of objects in the cache, zero or less if
+		 *         the cache is disabled.
+		 */
+		public int getMaxSize() {
+			return maxSize;
+		}
+
+		/**
+		 * @return The number of lookups served from the cache.
+		 */
+		public long getHits() {
+			return hits;
+		}
+
+		/**
+		 * @return The number of lookups that went to the case database.
+		 */
+		public long getMisses() {
+			return misses;
+		}
+
+		/**
+		 * @return The number of objects removed to stay within the size.
+		 */
+		public long getEvictions() {
+			return evictions;
+		}
+
+		/**
+		 * @return The number of objects removed because they changed.
+		 */
+		public long getInvalidations() {
+			return invalidations;
+		}
+
+		/**
+		 * @return The fraction of lookups served from the cache, or zero if
+		 *         there were none.
+		 */
+		public double getHitRate() {
+			long lookups = hits + misses;
+			return lookups == 0 ? 0 : (double) hits / lookups;
+		}
+	}
+
+	/**
+	 * A snapshot of the state and counters of the pool of connections to a
+	 * case database.
+	 */
+	public static final class ConnectionPoolStats {
+
+		/**
+		 * The upper bounds, in microseconds, of the buckets of the checkout
+		 * latency histogram. The last bucket of the histogram holds the
+		 * checkouts that took longer than the last bound.
+		 */
+		public static final long[] CHECKOUT_LATENCY_BUCKETS_MICROS = {100, 1000, 10000, 100000, 1000000};
+
+		private final int numConnections;
+		private final int numBusyConnections;
+		private final int numIdleConnections;
+		private final int numThreadsAwaitingCheckout;
+		private final int maxPoolSize;
+		private final long numFailedCheckouts;
+		private final long numCheckouts;
+		private final long totalCheckoutMicros;
+		private final long maxCheckoutMicros;
+		private final long[] checkoutLatencyHistogram;
+		private final int numCachedStatements;
+		private final int numCheckedOutStatements;
+		private final int numConnectionsWithCachedStatements;
+		private final long numPoolGrowths;
+
+		ConnectionPoolStats(int numConnections, int numBusyConnections, int numIdleConnections, int numThreadsAwaitingCheckout, int maxPoolSize,
+				long numFailedCheckouts, long numCheckouts, long totalCheckoutMicros, long maxCheckoutMicros, long[] checkoutLatencyHistogram,
+				int numCachedStatements, int numCheckedOutStatements, int numConnectionsWithCachedStatements, long numPoolGrowths) {
+			this.numConnections = numConnections;
+			this.numBusyConnections = numBusyConnections;
+			this.numIdleConnections = numIdleConnections;
+			this.numThreadsAwaitingCheckout = numThreadsAwaitingCheckout;
+			this.maxPoolSize = maxPoolSize;
+			this.numFailedCheckouts = numFailedCheckouts;
+			this.numCheckouts = numCheckouts;
+			this.totalCheckoutMicros = totalCheckoutMicros;
+			this.maxCheckoutMicros = maxCheckoutMicros;
+			this.checkoutLatencyHistogram = checkoutLatencyHistogram;
+			this.numCachedStatements = numCachedStatements;
+			this.numCheckedOutStatements = numCheckedOutStatements;
+			this.numConnectionsWithCachedStatements = numConnectionsWithCachedStatements;
+			this.numPoolGrowths = numPoolGrowths;
+		}
+
+		/**
+		 * @return The number of open connections.
+		 */
+		public int getNumConnections() {
+			return numConnections;
+		}
+
+		/**
+		 * @return The number of connections checked out.
+		 */
+		public int getNumBusyConnections() {
+			return numBusyConnections;
+		}
+
+		/**
+		 * @return The number of connections waiting in the pool.
+		 */
+		public int getNumIdleConnections() {
+			return numIdleConnections;
+		}
+
+		/**
+		 * @return The number of threads waiting for a connection.
+		 */
+		public int getNumThreadsAwaitingCheckout() {
+			return numThreadsAwaitingCheckout;
+		}
+
+		/**
+		 * @return The current maximum number of connections.
+		 */
+		public int getMaxPoolSize() {
+			return maxPoolSize;
+		}
+
+		/**
+		 * @return The number of checkouts that failed.
+		 */
+		public long getNumFailedCheckouts() {
+			return numFailedCheckouts;
+		}
+
+		/**
+		 * @return The number of connections checked out so far.
+		 */
+		public long getNumCheckouts() {
+			return numCheckouts;
+		}
+
+		/**
+		 * @return The average time a checkout took, in microseconds.
+		 */
+		public long getAverageCheckoutMicros() {
+			return numCheckouts == 0 ? 0 : totalCheckoutMicros / numCheckouts;
+		}
+
+		/**
+		 * @return The longest time a checkout took, in microseconds.
+		 */
+		public long getMaxCheckoutMicros() {
+			return maxCheckoutMicros;
+		}
+
+		/**
+		 * @return The number of checkouts in each bucket of
+		 *         CHECKOUT_LATENCY_BUCKETS_MICROS, plus one for the slower
+		 *         checkouts.
+		 */
+		public long[] getCheckoutLatencyHistogram() {
+			return checkoutLatencyHistogram.clone();
+		}
+
+		/**
+		 * @return The number of prepared statements in the statement cache of
+		 *         the pool.
+		 */
+		public int getNumCachedStatements() {
+			return numCachedStatements;
+		}
+
+		/**
+		 * @return The number of cached prepared statements in use.
+		 */
+		public int getNumCheckedOutStatements() {
+			return numCheckedOutStatements;
+		}
+
+		/**
+		 * @return The number of connections with statements in the statement
+		 *         cache of the pool.
+		 */
+		public int getNumConnectionsWithCachedStatements() {
+			return numConnectionsWithCachedStatements;
+		}
+
+		/**
+		 * @return The number of times the pool grew because threads kept
+		 *         waiting for connections.
+		 */
+		public long getNumPoolGrowths() {
+			return numPoolGrowths;
+		}
+	}
+
+	/**
+	 * A snapshot of the counters of the waits caused by contention for the
+	 * case database.
+	 */
+	public static final class DatabaseContentionStats {
+
+		private final long busyRetries;
+		private final long busyWaitMillis;
+		private final long queuedWrites;
+		private final long writeQueueWaitMillis;
+
+		DatabaseContentionStats(long busyRetries, long busyWaitMillis, long queuedWrites, long writeQueueWaitMillis) {
+			this.busyRetries = busyRetries;
+			this.busyWaitMillis = busyWaitMillis;
+			this.queuedWrites = queuedWrites;
+			this.writeQueueWaitMillis = writeQueueWaitMillis;
+		}
+
+		/**
+		 * @return The number of times an operation was retried because the
+		 *         database was busy or locked.
+		 */
+		public long getBusyRetries() {
+			return busyRetries;
+		}
+
+		/**
+		 * @return The total time spent backing off before those retries, in
+		 *         milliseconds.
+		 */
+		public long getBusyWaitTimeMillis() {
+			return busyWaitMillis;
+		}
+
+		/**
+		 * @return The number of writes that went through the write queue.
+		 */
+		public long getQueuedWrites() {
+			return queuedWrites;
+		}
+
+		/**
+		 * @return The total time spent waiting in the write queue, in
+		 *         milliseconds.
+		 */
+		public long getWriteQueueWaitTimeMillis() {
+			return writeQueueWaitMillis;
+		}
+	}
+
+	/**
+	 * Maps the current row of a result set to an object. Used by CaseDbCursor.
+	 */
+	private interface RowMapper<T> {
+
+		/**
+		 * @return The object for the row, or null to skip the row.
+		 */
+		T map(ResultSet rs, CaseDbConnection connection) throws SQLException, TskCoreException;
+	}
+
+	/**
+	 * A cursor over the results of a query that reads rows from the database
+	 * in batches and maps each row to an object only when it is reached, so
+	 * that the memory used does not grow with the size of the result set. On
+	 * PostgreSQL the rows are read through a server-side cursor. A CaseDbCursor
+	 * holds a database connection and the case read lock until it is closed,
+	 * so it should be used in a try-with-resources block.
+	 *
+	 * On a single-user case without write-ahead logging, the read lock keeps
+	 * the thread that opened the cursor from taking the write lock. A write
+	 * from that thread while the cursor is open, such as adding an attribute
+	 * to each artifact as it is read, throws an IllegalStateException rather
+	 * than waiting forever. Collect the changes and make them after closing
+	 * the cursor.
+	 *
+	 * @param <T> The type of object the rows are mapped to.
+	 */
+	public final class CaseDbCursor<T> implements AutoCloseable {
+
+		private final RowMapper<T> rowMapper;
+		private final CaseDbConnection connection;
+		private Statement statement;
+		private ResultSet resultSet;
+		private boolean inTransaction;
+		private T nextRow;
+		private boolean exhausted;
+		private boolean closed;
+
+		private CaseDbCursor(String query, RowMapper<T> rowMapper) throws TskCoreException {
+			this.rowMapper = rowMapper;
+			connection = connections.getConnection();
+			SleuthkitCase.this.acquireSingleUserCaseReadLock();
+			try {
+				if (dbType == DbType.POSTGRESQL) {
+					// The PostgreSQL driver only uses a server-side cursor
+					// when auto-commit is off.
+					connection.beginTransaction();
+					inTransaction = true;
+				}
+				statement = connection.createStatement();
+				statement.setFetchSize(CURSOR_FETCH_SIZE);
+				resultSet = connection.executeQuery(statement, query);
+			} catch (SQLException ex) {
+				release();
+				throw new TskCoreException("Error executing query: " + query, ex);
+			}
+		}
+
+		/**
+		 * Indicates whether there are more results.
+		 *
+		 * @return True if next() will return a result.
+		 *
+		 * @throws TskCoreException If there is an error reading the next row.
+		 */
+		public boolean hasNext() throws TskCoreException {
+			if (nextRow != null) {
+				return true;
+			}
+			if (exhausted || closed) {
+				return false;
+			}
+			try {
+				while (resultSet.next()) {
+					nextRow = rowMapper.map(resultSet, connection);
+					if (nextRow != null) {
+						return true;
+					}
+				}
+				exhausted = true;
+				return false;
+			} catch (SQLException ex) {
+				throw new TskCoreException("Error reading query results", ex);
+			}
+		}
+
+		/**
+		 * Gets the next result.
+		 *
+		 * @return The next result.
+		 *
+		 * @throws TskCoreException       If there is an error reading the
+		 *                                next row.
+		 * @throws NoSuchElementException If there are no more results.
+		 */
+		public T next() throws TskCoreException {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			T row = nextRow;
+			nextRow = null;
+			return row;
+		}
+
+		/**
+		 * Releases the result set, the connection and the read lock.
+		 */
+		@Override
+		public void close() {
+			if (!closed) {
+				release();
+			}
+		}
+
+		private void release() {
+			closed = true;
+			closeResultSet(resultSet);
+			closeStatement(statement);
+			if (inTransaction) {
+				// Nothing was written, this only ends the transaction that
+				// kept the cursor open
+				connection.rollbackTransaction();
+			}
+			connection.close();
+			SleuthkitCase.this.releaseSingleUserCaseReadLock();
+		}
+	}
+
 	/**
 	 * The CaseDbQuery supports the use case where developers have a need for
 	 * data that is not exposed through the SleuthkitCase API. A CaseDbQuery
@@ -9919,6 +12651,10 @@ public List<FsContent> findFilesWhere(String sqlWhereClause) throws TskCoreExcep
 	 */
 	@Deprecated
 	public int getArtifactTypeID(String artifactTypeName) throws TskCoreException {
+		BlackboardArtifact.Type registeredType = artifactTypes.get(artifactTypeName);
+		if (registeredType != null) {
+			return registeredType.getTypeID();
+		}
 		CaseDbConnection connection = connections.getConnection();
 		acquireSingleUserCaseReadLock();
 		Statement s = null;
@@ -10011,6 +12747,10 @@ public int addAttrType(String attrTypeString, String displayName) throws TskCore
 	 */
 	@Deprecated
 	public int getAttrTypeID(String attrTypeName) throws TskCoreException {
+		BlackboardAttribute.Type registeredType = attributeTypes.get(attrTypeName);
+		if (registeredType != null) {
+			return registeredType.getTypeID();
+		}
 		CaseDbConnection connection = connections.getConnection();
 		acquireSingleUserCaseReadLock();
 		Statement s = null;
@@ -10047,6 +12787,10 @@ public int getAttrTypeID(String attrTypeName) throws TskCoreException {
 	 */
 	@Deprecated
 	public String getAttrTypeString(int attrTypeID) throws TskCoreException {
+		BlackboardAttribute.Type registeredType = attributeTypes.get(attrTypeID);
+		if (registeredType != null) {
+			return registeredType.getTypeName();
+		}
 		CaseDbConnection connection = connections.getConnection();
 		acquireSingleUserCaseReadLock();
 		Statement s = null;
@@ -10083,6 +12827,10 @@ public String getAttrTypeString(int attrTypeID) throws TskCoreException {
 	 */
 	@Deprecated
 	public String getAttrTypeDisplayName(int attrTypeID) throws TskCoreException {
+		BlackboardAttribute.Type registeredType = attributeTypes.get(attrTypeID);
+		if (registeredType != null) {
+			return registeredType.getDisplayName();
+		}
 		CaseDbConnection connection = connections.getConnection();
 		acquireSingleUserCaseReadLock();
 		Statement s = null;
@@ -21,19 +21,25 @@
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.TimeZone;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.sleuthkit.datamodel.TskData.TSK_FS_ATTR_TYPE_ENUM;
 
@@ -48,13 +54,21 @@
 public class SleuthkitJNI {
 
 	/**
-	 * Lock to protect against the TSK data structures being closed while
-	 * another thread is in the C++ code. Do not use this lock after obtaining
-	 * HandleCache.cacheLock. Additionally, the only code that should acquire
-	 * the write lock is CaseDbHandle.free().
+	 * Lock to protect the set of open images against being closed while
+	 * another image is being opened. Reads and other calls into the C++ code
+	 * are protected by the lock of the image they operate on instead (see
+	 * HandleCache.handleToImageLock), so that work on independent images does
+	 * not contend on a single lock. Do not use this lock after obtaining an
+	 * image lock or HandleCache.cacheLock. Additionally, the only code that
+	 * should acquire the write lock is CaseDbHandle.free().
 	 */
 	private static final ReadWriteLock tskLock = new ReentrantReadWriteLock();
 
+	/**
+	 * The default maximum number of open TSK file handles.
+	 */
+	public static final int DEFAULT_MAX_OPEN_FILE_HANDLES = 10000;
+
 	/*
 	 * Loads the SleuthKit libraries.
 	 */
@@ -73,12 +87,17 @@ private SleuthkitJNI() {
 	 * Cache of all handles allocated in the JNI layer. Used for: (a) quick
 	 * lookup of frequently used handles (e.g. file system and image) (b)
 	 * ensuring all handles passed in by clients of SleuthkitJNI are valid. (c)
-	 * consistent cleanup of handles on closure.
+	 * consistent cleanup of handles on closure. (d) keeping the number of open
+	 * file handles bounded by closing the least recently used idle ones.
+	 *
+	 * Lookups do not lock. The cacheLock monitor only serializes opening image
+	 * and file system handles, so that each is opened once.
 	 */
 	private static class HandleCache {
 
 		/*
-		 * A monitor used to guard access to cached Sleuthkit JNI handles.
+		 * A monitor used to guard opening cached Sleuthkit JNI image and file
+		 * system handles.
 		 */
 		private static final Object cacheLock = new Object();
 
@@ -86,69 +105,269 @@ private static class HandleCache {
 		 * A SleuthKit image handle cache implemented as a mappng of
 		 * concatenated image file paths to image handles.
 		 */
-		private static final Map<String, Long> imageHandleCache = new HashMap<String, Long>();
+		private static final Map<String, Long> imageHandleCache = new ConcurrentHashMap<String, Long>();
 
 		/*
 		 * A SleuthKit file system handles cache implemented as a mapping of
-		 * image handles to image offset and file system handle pairs.
+		 * image handles to image offset and file system handle pairs. The
+		 * inner maps are guarded by cacheLock.
 		 */
-		private static final Map<Long, Map<Long, Long>> fsHandleCache = new HashMap<Long, Map<Long, Long>>();
+		private static final Map<Long, Map<Long, Long>> fsHandleCache = new ConcurrentHashMap<Long, Map<Long, Long>>();
 
 		/*
-		 * The collection of open file handles. We will only allow requests
-		 * through to the C code if the file handle exists in this collection.
+		 * The collection of open file handles, keyed by the file handle given
+		 * out to clients. We will only allow requests through to the C code if
+		 * the file handle exists in this collection. File handles are ids
+		 * rather than TSK_JNI_FILEHANDLE pointers so that a handle that was
+		 * evicted can never be confused with a newer handle that the C code
+		 * allocated at the same address.
 		 */
-		private static final Set<Long> fileHandleCache = new HashSet<Long>();
+		private static final Map<Long, OpenFileHandle> fileHandleCache = new ConcurrentHashMap<Long, OpenFileHandle>();
 
-		private static final Map<Long, List<Long>> fileSystemToFileHandles = new HashMap<Long, List<Long>>();
+		/*
+		 * A mapping of every open image, volume system, volume and file system
+		 * handle to the lock of the image it was opened within. A thread holds
+		 * the read lock of an image while it is in the C++ code using that
+		 * image or anything opened within it; the write lock is only taken by
+		 * CaseDbHandle.free() to close the handles. A handle that is not in the
+		 * map has been closed. File handles carry the lock of their image in
+		 * their OpenFileHandle.
+		 */
+		private static final Map<Long, ReadWriteLock> handleToImageLock = new ConcurrentHashMap<Long, ReadWriteLock>();
+
+		private static final AtomicLong nextFileHandle = new AtomicLong(1);
+
+		/*
+		 * The number of file handles above which the least recently used idle
+		 * file handles are closed. Zero or less means no limit.
+		 */
+		private static volatile int maxOpenFileHandles = DEFAULT_MAX_OPEN_FILE_HANDLES;
+
+		/*
+		 * Only one thread scans for file handles to evict at a time, the
+		 * others carry on without waiting.
+		 */
+		private static final Lock evictionLock = new ReentrantLock();
+
+		private static final AtomicInteger openFileHandles = new AtomicInteger();
+		private static final AtomicLong fileHandleOpens = new AtomicLong();
+		private static final AtomicLong fileHandleEvictions = new AtomicLong();
+		private static final AtomicLong fileHandleReopens = new AtomicLong();
 
 		private static final String INVALID_FILE_HANDLE = "Invalid file handle."; //NON-NLS
 
 		/**
 		 * Add a new file handle to the cache.
 		 *
-		 * @param fileHandle The new file handle.
-		 * @param fsHandle   The file system handle in which the file lives.
+		 * @param nativeHandle The TSK_JNI_FILEHANDLE pointer.
+		 * @param fsHandle     The file system handle in which the file lives.
+		 *
+		 * @return The file handle to give out to clients.
 		 */
-		private static void addFileHandle(long fileHandle, long fsHandle) {
-			synchronized (cacheLock) {
-				// Add to collection of open file handles.
-				fileHandleCache.add(fileHandle);
+		private static long addFileHandle(long nativeHandle, long fsHandle) {
+			long fileHandle = nextFileHandle.getAndIncrement();
+			fileHandleCache.put(fileHandle, new OpenFileHandle(fileHandle, nativeHandle, handleToImageLock.get(fsHandle)));
+			openFileHandles.incrementAndGet();
+			fileHandleOpens.incrementAndGet();
+			return fileHandle;
+		}
 
-				// Add to map of file system to file handles.
-				if (fileSystemToFileHandles.containsKey(fsHandle)) {
-					fileSystemToFileHandles.get(fsHandle).add(fileHandle);
-				} else {
-					fileSystemToFileHandles.put(fsHandle, new ArrayList<Long>(Arrays.asList(fileHandle)));
+		/**
+		 * Associates a newly opened handle with the lock of the image that its
+		 * parent handle was opened within. The caller must hold the read lock
+		 * of that image.
+		 *
+		 * @param handle       The new handle.
+		 * @param parentHandle The handle the new handle was opened from.
+		 */
+		private static void addHandleToImageLock(long handle, long parentHandle) {
+			handleToImageLock.put(handle, handleToImageLock.get(parentHandle));
+		}
+
+		/**
+		 * Gets an open file handle for use by the C code. On success the read
+		 * lock of the image of the file is held and the handle cannot be
+		 * closed until it is given back with releaseFileHandle().
+		 *
+		 * @param fileHandle The file handle.
+		 *
+		 * @return The open file handle, or null if the handle is not open.
+		 */
+		private static OpenFileHandle acquireFileHandle(long fileHandle) {
+			OpenFileHandle openFile = fileHandleCache.get(fileHandle);
+			if (openFile == null) {
+				return null;
+			}
+			openFile.imageLock.readLock().lock();
+			if (!openFile.retain()) {
+				// The handle was closed while waiting for the lock.
+				openFile.imageLock.readLock().unlock();
+				return null;
+			}
+			openFile.lastAccessed = System.nanoTime();
+			return openFile;
+		}
+
+		/**
+		 * Gives back a file handle obtained with acquireFileHandle(), closing
+		 * it if it was removed from the cache while it was in use.
+		 *
+		 * @param openFile The open file handle.
+		 */
+		private static void releaseFileHandle(OpenFileHandle openFile) {
+			try {
+				openFile.release();
+			} finally {
+				openFile.imageLock.readLock().unlock();
+			}
+		}
+
+		/**
+		 * Removes a file handle from the cache. The TSK file is closed now, or
+		 * when the last thread using it gives it back.
+		 *
+		 * @param fileHandle The file handle.
+		 * @param openFile   The open file handle that fileHandle maps to.
+		 *
+		 * @return True if this call removed the handle.
+		 */
+		private static boolean removeFileHandle(long fileHandle, OpenFileHandle openFile) {
+			openFile.imageLock.readLock().lock();
+			try {
+				if (fileHandleCache.remove(fileHandle, openFile)) {
+					// Drop the reference held by the cache.
+					openFile.release();
+					return true;
 				}
+				return false;
+			} finally {
+				openFile.imageLock.readLock().unlock();
 			}
 		}
 
-		private static void removeFileHandle(long fileHandle) {
-			synchronized (cacheLock) {
-				// Remove from collection of open file handles.
-				fileHandleCache.remove(fileHandle);
+		/**
+		 * Closes a file handle and removes it from the cache, unless a thread
+		 * is using or has pinned it. Checking and closing are one atomic step,
+		 * so a handle cannot be pinned after it was found idle and then
+		 * closed under the thread that pinned it.
+		 *
+		 * @param fileHandle The file handle.
+		 * @param openFile   The open file handle that fileHandle maps to.
+		 *
+		 * @return True if this call closed the handle.
+		 */
+		private static boolean evictFileHandle(long fileHandle, OpenFileHandle openFile) {
+			openFile.imageLock.readLock().lock();
+			try {
+				if (!openFile.closeIfIdle()) {
+					return false;
+				}
+				fileHandleCache.remove(fileHandle, openFile);
+				return true;
+			} finally {
+				openFile.imageLock.readLock().unlock();
+			}
+		}
+
+		/**
+		 * Adds a reference to an open file handle so that it is not evicted
+		 * until the reference is given back with unpinFileHandle().
+		 *
+		 * @param fileHandle The file handle.
+		 *
+		 * @return The open file handle, or null if the handle is not open.
+		 */
+		private static OpenFileHandle pinFileHandle(long fileHandle) {
+			OpenFileHandle openFile = fileHandleCache.get(fileHandle);
+			if (openFile == null || !openFile.retain()) {
+				return null;
+			}
+			openFile.lastAccessed = System.nanoTime();
+			return openFile;
+		}
+
+		/**
+		 * Gives back a reference added by pinFileHandle(), closing the handle
+		 * if it was removed from the cache while it was pinned.
+		 *
+		 * @param openFile The open file handle.
+		 */
+		private static void unpinFileHandle(OpenFileHandle openFile) {
+			openFile.imageLock.readLock().lock();
+			try {
+				openFile.release();
+			} finally {
+				openFile.imageLock.readLock().unlock();
 			}
 		}
 
 		private static boolean isValidFileHandle(long fileHandle) {
-			synchronized (cacheLock) {
-				return fileHandleCache.contains(fileHandle);
+			OpenFileHandle openFile = fileHandleCache.get(fileHandle);
+			if (openFile == null) {
+				return false;
+			}
+			openFile.lastAccessed = System.nanoTime();
+			return true;
+		}
+
+		/**
+		 * Closes the least recently used file handles that are not in use if
+		 * there are more open file handles than allowed. Do not call this
+		 * while holding an image lock.
+		 */
+		private static void evictFileHandlesIfNeeded() {
+			final int max = maxOpenFileHandles;
+			if (max <= 0 || openFileHandles.get() <= max || !evictionLock.tryLock()) {
+				return;
+			}
+			try {
+				/*
+				 * Evict down to 90% of the limit so that the scan is not
+				 * repeated for every file that is opened.
+				 */
+				List<Map.Entry<Long, OpenFileHandle>> candidates = new ArrayList<Map.Entry<Long, OpenFileHandle>>(fileHandleCache.entrySet());
+				int toEvict = openFileHandles.get() - (max - max / 10);
+				if (toEvict <= 0) {
+					return;
+				}
+				Collections.sort(candidates, new Comparator<Map.Entry<Long, OpenFileHandle>>() {
+					@Override
+					public int compare(Map.Entry<Long, OpenFileHandle> a, Map.Entry<Long, OpenFileHandle> b) {
+						return Long.compare(a.getValue().lastAccessed, b.getValue().lastAccessed);
+					}
+				});
+				for (Map.Entry<Long, OpenFileHandle> candidate : candidates) {
+					if (toEvict <= 0) {
+						break;
+					}
+					if (evictFileHandle(candidate.getKey(), candidate.getValue())) {
+						fileHandleEvictions.incrementAndGet();
+						toEvict--;
+					}
+				}
+			} finally {
+				evictionLock.unlock();
 			}
 		}
 
+		/**
+		 * Closes all handles. Must be called with the write lock of every open
+		 * image held, so no thread is using any of the handles.
+		 */
 		private static void closeHandlesAndClearCache() throws TskCoreException {
 			synchronized (cacheLock) {
+				/*
+				 * Close all open file handles first.
+				 */
+				for (OpenFileHandle openFile : fileHandleCache.values()) {
+					openFile.closeNow();
+				}
+
 				/*
 				 * Close any cached file system handles.
 				 */
 				for (Map<Long, Long> imageToFsMap : fsHandleCache.values()) {
 					for (Long fsHandle : imageToFsMap.values()) {
-						// First close all open file handles for the file system.
-						for (Long fileHandle : fileSystemToFileHandles.get(fsHandle)) {
-							closeFile(fileHandle);
-						}
-						// Then close the file system handle.
 						closeFsNat(fsHandle);
 					}
 				}
@@ -163,12 +382,230 @@ private static void closeHandlesAndClearCache() throws TskCoreException {
 				fsHandleCache.clear();
 				imageHandleCache.clear();
 				fileHandleCache.clear();
-				fileSystemToFileHandles.clear();
+				handleToImageLock.clear();
 			}
 
 		}
 	}
 
+	/**
+	 * A TSK file handle in the handle cache. The handle is reference counted:
+	 * the cache holds one reference while the handle is in the cache and each
+	 * thread using the handle in the C code, or pinning it while reading a
+	 * file, holds another. The TSK file is closed when the count drops to
+	 * zero.
+	 */
+	static final class OpenFileHandle {
+
+		private final long fileHandle;
+		private final long nativeHandle;
+		private final ReadWriteLock imageLock;
+		private final AtomicInteger refCount = new AtomicInteger(1);
+		private volatile long lastAccessed = System.nanoTime();
+
+		private OpenFileHandle(long fileHandle, long nativeHandle, ReadWriteLock imageLock) {
+			this.fileHandle = fileHandle;
+			this.nativeHandle = nativeHandle;
+			this.imageLock = imageLock;
+		}
+
+		/**
+		 * Adds a reference unless the handle is already closed.
+		 *
+		 * @return True if a reference was added.
+		 */
+		private boolean retain() {
+			while (true) {
+				int count = refCount.get();
+				if (count <= 0) {
+					return false;
+				}
+				if (refCount.compareAndSet(count, count + 1)) {
+					return true;
+				}
+			}
+		}
+
+		/**
+		 * Drops a reference, closing the TSK file if it was the last one. The
+		 * read lock of the image of the file must be held.
+		 */
+		private void release() {
+			if (refCount.decrementAndGet() == 0) {
+				closeFileNat(nativeHandle);
+				HandleCache.openFileHandles.decrementAndGet();
+			}
+		}
+
+		/**
+		 * Closes the TSK file if the cache holds the only reference. The read
+		 * lock of the image of the file must be held.
+		 *
+		 * @return True if the file was closed.
+		 */
+		private boolean closeIfIdle() {
+			if (!refCount.compareAndSet(1, 0)) {
+				return false;
+			}
+			closeFileNat(nativeHandle);
+			HandleCache.openFileHandles.decrementAndGet();
+			return true;
+		}
+
+		/**
+		 * @return The file handle given out to clients for this handle.
+		 */
+		long getFileHandle() {
+			return fileHandle;
+		}
+
+		/**
+		 * Closes the TSK file regardless of references. Only used when all
+		 * handles are closed, while the write lock of the image is held.
+		 */
+		private void closeNow() {
+			if (refCount.getAndSet(0) > 0) {
+				closeFileNat(nativeHandle);
+				HandleCache.openFileHandles.decrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * A snapshot of the counters of the file handle cache.
+	 */
+	public static final class FileHandleCacheStats {
+
+		private final int openFileHandles;
+		private final int maxOpenFileHandles;
+		private final long opens;
+		private final long evictions;
+		private final long reopens;
+
+		private FileHandleCacheStats(int openFileHandles, int maxOpenFileHandles, long opens, long evictions, long reopens) {
+			this.openFileHandles = openFileHandles;
+			this.maxOpenFileHandles = maxOpenFileHandles;
+			this.opens = opens;
+			this.evictions = evictions;
+			this.reopens = reopens;
+		}
+
+		/**
+		 * @return The number of TSK file handles that are currently open.
+		 */
+		public int getOpenFileHandles() {
+			return openFileHandles;
+		}
+
+		/**
+		 * @return The number of open file handles above which idle handles are
+		 *         evicted, zero or less if there is no limit.
+		 */
+		public int getMaxOpenFileHandles() {
+			return maxOpenFileHandles;
+		}
+
+		/**
+		 * @return The number of file handles opened since the library was
+		 *         loaded, including reopens.
+		 */
+		public long getOpens() {
+			return opens;
+		}
+
+		/**
+		 * @return The number of file handles closed to stay under the limit.
+		 */
+		public long getEvictions() {
+			return evictions;
+		}
+
+		/**
+		 * @return The number of file handles opened again after having been
+		 *         evicted.
+		 */
+		public long getReopens() {
+			return reopens;
+		}
+	}
+
+	/**
+	 * A snapshot of the configuration and counters of the native block cache
+	 * of an image. The counters only cover reads that missed the small cache
+	 * TSK keeps for every image.
+	 */
+	public static final class ImageCacheStats {
+
+		private final ImageCacheSettings settings;
+		private final long hits;
+		private final long misses;
+		private final long readAheadBlocks;
+		private final long imageReads;
+		private final long bypassedReads;
+
+		private ImageCacheStats(long[] stats) {
+			this.settings = stats[1] > 0 ? new ImageCacheSettings((int) stats[0], (int) stats[1], (int) stats[2]) : ImageCacheSettings.DISABLED;
+			this.hits = stats[3];
+			this.misses = stats[4];
+			this.readAheadBlocks = stats[5];
+			this.imageReads = stats[6];
+			this.bypassedReads = stats[7];
+		}
+
+		/**
+		 * @return The current sizing of the cache.
+		 */
+		public ImageCacheSettings getSettings() {
+			return settings;
+		}
+
+		/**
+		 * @return The number of block lookups served from the cache.
+		 */
+		public long getHits() {
+			return hits;
+		}
+
+		/**
+		 * @return The number of block lookups that had to read the image.
+		 */
+		public long getMisses() {
+			return misses;
+		}
+
+		/**
+		 * @return The number of blocks loaded by read-ahead.
+		 */
+		public long getReadAheadBlocks() {
+			return readAheadBlocks;
+		}
+
+		/**
+		 * @return The number of reads of the underlying image made to fill
+		 *         the cache.
+		 */
+		public long getImageReads() {
+			return imageReads;
+		}
+
+		/**
+		 * @return The number of reads too large for the cache that went
+		 *         straight to the underlying image.
+		 */
+		public long getBypassedReads() {
+			return bypassedReads;
+		}
+
+		/**
+		 * @return The fraction of block lookups served from the cache, or zero
+		 *         if there were none.
+		 */
+		public double getHitRate() {
+			long lookups = hits + misses;
+			return lookups == 0 ? 0 : (double) hits / lookups;
+		}
+	}
+
 	/**
 	 * Encapsulates a handle to a SleuthKit case database with support for
 	 * adding images to the database.
@@ -198,10 +635,23 @@ private CaseDbHandle(long caseDbPointer) {
 		 */
 		void free() throws TskCoreException {
 			tskLock.writeLock().lock();
+			List<Lock> imageWriteLocks = new ArrayList<Lock>();
 			try {
+				/*
+				 * Wait for the threads that are in the C++ code to leave each
+				 * of the open images. The global write lock is held, so no
+				 * other thread can be waiting on more than one image lock.
+				 */
+				for (ReadWriteLock imageLock : new HashSet<ReadWriteLock>(HandleCache.handleToImageLock.values())) {
+					imageLock.writeLock().lock();
+					imageWriteLocks.add(imageLock.writeLock());
+				}
 				HandleCache.closeHandlesAndClearCache();
 				SleuthkitJNI.closeCaseDbNat(caseDbPointer);
 			} finally {
+				for (Lock imageWriteLock : imageWriteLocks) {
+					imageWriteLock.unlock();
+				}
 				tskLock.writeLock().unlock();
 			}
 		}
@@ -234,7 +684,7 @@ long addImageInfo(long deviceObjId, List<String> imageFilePaths, String timeZone
 				long tskAutoDbPointer = initializeAddImgNat(caseDbPointer, timezoneLongToShort(timeZone), false, false, false);
 				runOpenAndAddImgNat(tskAutoDbPointer, UUID.randomUUID().toString(), imageFilePaths.toArray(new String[0]), imageFilePaths.size(), timeZone);
 				long id = commitAddImgNat(tskAutoDbPointer);
-				skCase.addDataSourceToHasChildrenMap();
+				skCase.addDataSourceToHasChildrenMap(id);
 				return id;
 			} catch (TskDataException ex) {
 				throw new TskCoreException("Error adding image to case database", ex);
@@ -272,6 +722,7 @@ public class AddImageProcess {
 			private final boolean skipFatFsOrphans;
 			private final String imageWriterPath;
 			private volatile long tskAutoDbPointer;
+			private volatile long imageHandle;
 			private boolean isCanceled;
 			private final SleuthkitCase skCase;
 
@@ -317,27 +768,26 @@ private AddImageProcess(String timeZone, boolean addUnallocSpace, boolean skipFa
 			 *                          the process)
 			 */
 			public void run(String deviceId, String[] imageFilePaths, int sectorSize) throws TskCoreException, TskDataException {
-				getTSKReadLock();
+				Lock readLock = null;
 				try {
-					long imageHandle = 0;
-
 					synchronized (this) {
 						if (0 != tskAutoDbPointer) {
 							throw new TskCoreException("Add image process already started");
 						}
 						if (!isCanceled) { //with isCanceled being guarded by this it will have the same value everywhere in this synchronized block
 							imageHandle = openImage(imageFilePaths, sectorSize, false);
+							readLock = getTSKReadLock(imageHandle);
 							tskAutoDbPointer = initAddImgNat(caseDbPointer, timezoneLongToShort(timeZone), addUnallocSpace, skipFatFsOrphans);
 						}
 						if (0 == tskAutoDbPointer) {
 							throw new TskCoreException("initAddImgNat returned a NULL TskAutoDb pointer");
 						}
 					}
-					if (imageHandle != 0) {
+					if (readLock != null) {
 						runAddImgNat(tskAutoDbPointer, deviceId, imageHandle, timeZone, imageWriterPath);
 					}
 				} finally {
-					releaseTSKReadLock();
+					releaseTSKReadLock(readLock);
 				}
 			}
 
@@ -351,14 +801,14 @@ public void run(String deviceId, String[] imageFilePaths, int sectorSize) throws
 			 *                          SleuthKit.
 			 */
 			public synchronized void stop() throws TskCoreException {
-				getTSKReadLock();
-				try {
-					isCanceled = true;
-					if (tskAutoDbPointer != 0) {
+				isCanceled = true;
+				if (tskAutoDbPointer != 0) {
+					Lock readLock = getTSKReadLock(imageHandle);
+					try {
 						stopAddImgNat(tskAutoDbPointer);
+					} finally {
+						releaseTSKReadLock(readLock);
 					}
-				} finally {
-					releaseTSKReadLock();
 				}
 			}
 
@@ -370,17 +820,16 @@ public synchronized void stop() throws TskCoreException {
 			 *                          SleuthKit.
 			 */
 			public synchronized void revert() throws TskCoreException {
-				getTSKReadLock();
+				if (tskAutoDbPointer == 0) {
+					throw new TskCoreException("AddImgProcess::revert: AutoDB pointer is NULL");
+				}
+				Lock readLock = getTSKReadLock(imageHandle);
 				try {
-					if (tskAutoDbPointer == 0) {
-						throw new TskCoreException("AddImgProcess::revert: AutoDB pointer is NULL");
-					}
-
 					revertAddImgNat(tskAutoDbPointer);
 					// the native code deleted the object
 					tskAutoDbPointer = 0;
 				} finally {
-					releaseTSKReadLock();
+					releaseTSKReadLock(readLock);
 				}
 			}
 
@@ -394,21 +843,20 @@ public synchronized void revert() throws TskCoreException {
 			 *                          SleuthKit.
 			 */
 			public synchronized long commit() throws TskCoreException {
-				getTSKReadLock();
+				if (tskAutoDbPointer == 0) {
+					throw new TskCoreException("AddImgProcess::commit: AutoDB pointer is NULL");
+				}
+				Lock readLock = getTSKReadLock(imageHandle);
 				try {
-					if (tskAutoDbPointer == 0) {
-						throw new TskCoreException("AddImgProcess::commit: AutoDB pointer is NULL");
-					}
-
 					long id = commitAddImgNat(tskAutoDbPointer);
 
-					skCase.addDataSourceToHasChildrenMap();
+					skCase.addDataSourceToHasChildrenMap(id);
 
 					// the native code deleted the object
 					tskAutoDbPointer = 0;
 					return id;
 				} finally {
-					releaseTSKReadLock();
+					releaseTSKReadLock(readLock);
 				}
 			}
 
@@ -620,6 +1068,7 @@ private static long openImage(String[] imageFiles, int sSize, boolean useCache)
 					imageHandle = openImgNat(imageFiles, imageFiles.length, sSize);
 					HandleCache.fsHandleCache.put(imageHandle, new HashMap<Long, Long>());
 					HandleCache.imageHandleCache.put(imageKey, imageHandle);
+					HandleCache.handleToImageLock.put(imageHandle, new ReentrantReadWriteLock());
 				}
 			}
 			return imageHandle;
@@ -641,14 +1090,16 @@ private static long openImage(String[] imageFiles, int sSize, boolean useCache)
 	 *                          TSK
 	 */
 	public static long openVs(long imgHandle, long vsOffset) throws TskCoreException {
-		getTSKReadLock();
+		Lock readLock = getTSKReadLock(imgHandle);
 		try {
 			if(! imgHandleIsValid(imgHandle)) {
 				throw new TskCoreException("Image handle " + imgHandle + " is closed");
 			}
-			return openVsNat(imgHandle, vsOffset);
+			long vsHandle = openVsNat(imgHandle, vsOffset);
+			HandleCache.addHandleToImageLock(vsHandle, imgHandle);
+			return vsHandle;
 		} finally {
-			releaseTSKReadLock();
+			releaseTSKReadLock(readLock);
 		}
 	}
 
@@ -665,12 +1116,14 @@ public static long openVs(long imgHandle, long vsOffset) throws TskCoreException
 	 *                          TSK
 	 */
 	public static long openVsPart(long vsHandle, long volId) throws TskCoreException {
-		getTSKReadLock();
+		Lock readLock = getTSKReadLock(vsHandle);
 		try {
 			//returned long is ptr to vs Handle object in tsk
-			return openVolNat(vsHandle, volId);
+			long volHandle = openVolNat(vsHandle, volId);
+			HandleCache.addHandleToImageLock(volHandle, vsHandle);
+			return volHandle;
 		} finally {
-			releaseTSKReadLock();
+			releaseTSKReadLock(readLock);
 		}
 	}
 
@@ -687,7 +1140,7 @@ public static long openVsPart(long vsHandle, long volId) throws TskCoreException
 	 *                          TSK
 	 */
 	public static long openFs(long imgHandle, long fsOffset) throws TskCoreException {
-		getTSKReadLock();
+		Lock readLock = getTSKReadLock(imgHandle);
 		try {
 			long fsHandle;
 			synchronized (HandleCache.cacheLock) {
@@ -702,11 +1155,12 @@ public static long openFs(long imgHandle, long fsOffset) throws TskCoreException
 					fsHandle = openFsNat(imgHandle, fsOffset);
 					//cache it
 					imgOffSetToFsHandle.put(fsOffset, fsHandle);
+					HandleCache.addHandleToImageLock(fsHandle, imgHandle);
 				}
 			}
 			return fsHandle;
 		} finally {
-			releaseTSKReadLock();
+			releaseTSKReadLock(readLock);
 		}
 	}
 
@@ -735,13 +1189,139 @@ public static long openFile(long fsHandle, long fileId, TSK_FS_ATTR_TYPE_ENUM at
 		 * need to convert negative attribute id to uint16 which is what TSK is
 		 * using to store attribute id.
 		 */
-		getTSKReadLock();
+		long fileHandle;
+		Lock readLock = getTSKReadLock(fsHandle);
 		try {
-			long fileHandle = openFileNat(fsHandle, fileId, attrType.getValue(), convertSignedToUnsigned(attrId));
-			HandleCache.addFileHandle(fileHandle, fsHandle);
-			return fileHandle;
+			long nativeHandle = openFileNat(fsHandle, fileId, attrType.getValue(), convertSignedToUnsigned(attrId));
+			fileHandle = HandleCache.addFileHandle(nativeHandle, fsHandle);
 		} finally {
-			releaseTSKReadLock();
+			releaseTSKReadLock(readLock);
+		}
+		HandleCache.evictFileHandlesIfNeeded();
+		return fileHandle;
+	}
+
+	/**
+	 * Opens a file handle again after the handle the file had was evicted
+	 * from the handle cache.
+	 *
+	 * @param fsHandle fsHandle pointer in the sleuthkit
+	 * @param fileId   id of the file
+	 * @param attrType file attribute type to open
+	 * @param attrId   file attribute id to open
+	 *
+	 * @return the new file handle
+	 *
+	 * @throws TskCoreException exception thrown if critical error occurs within
+	 *                          TSK
+	 */
+	static long reopenFile(long fsHandle, long fileId, TSK_FS_ATTR_TYPE_ENUM attrType, int attrId) throws TskCoreException {
+		long fileHandle = openFile(fsHandle, fileId, attrType, attrId);
+		HandleCache.fileHandleReopens.incrementAndGet();
+		return fileHandle;
+	}
+
+	/**
+	 * Checks whether a file handle is still open. File handles that have not
+	 * been used recently can be closed by the handle cache to keep the number
+	 * of open handles under the limit set with setMaxOpenFileHandles().
+	 *
+	 * @param fileHandle the file handle
+	 *
+	 * @return true if the handle can be used to read the file
+	 */
+	static boolean isFileHandleOpen(long fileHandle) {
+		return HandleCache.isValidFileHandle(fileHandle);
+	}
+
+	/**
+	 * Pins a file handle so that the handle cache does not close it while a
+	 * file is being read. Reads through the handle still work as usual. The
+	 * handle stays open until it is given back with unpinFileHandle(), even
+	 * if it is closed with closeFile() in the meantime.
+	 *
+	 * @param fileHandle the file handle
+	 *
+	 * @return the pinned handle, or null if the handle is not open
+	 */
+	static OpenFileHandle pinFileHandle(long fileHandle) {
+		return HandleCache.pinFileHandle(fileHandle);
+	}
+
+	/**
+	 * Gives back a file handle pinned with pinFileHandle().
+	 *
+	 * @param pinnedHandle the pinned handle
+	 */
+	static void unpinFileHandle(OpenFileHandle pinnedHandle) {
+		HandleCache.unpinFileHandle(pinnedHandle);
+	}
+
+	/**
+	 * Sets the number of open TSK file handles above which the least recently
+	 * used handles that are not being read are closed. Files whose handles
+	 * were closed reopen them on their next read.
+	 *
+	 * @param maxOpenFileHandles the limit, zero or less for no limit
+	 */
+	public static void setMaxOpenFileHandles(int maxOpenFileHandles) {
+		HandleCache.maxOpenFileHandles = maxOpenFileHandles;
+		HandleCache.evictFileHandlesIfNeeded();
+	}
+
+	/**
+	 * Gets the counters of the file handle cache.
+	 *
+	 * @return a snapshot of the counters
+	 */
+	public static FileHandleCacheStats getFileHandleCacheStats() {
+		return new FileHandleCacheStats(HandleCache.openFileHandles.get(), HandleCache.maxOpenFileHandles,
+				HandleCache.fileHandleOpens.get(), HandleCache.fileHandleEvictions.get(), HandleCache.fileHandleReopens.get());
+	}
+
+	/**
+	 * Configures the native block cache of an image, replacing any cache the
+	 * image already has. Image handles are shared between all users of the
+	 * same image files, so the last configuration wins.
+	 *
+	 * @param imgHandle handle to a previously opened image
+	 * @param settings  the sizing of the cache, ImageCacheSettings.DISABLED to
+	 *                  remove it
+	 *
+	 * @throws TskCoreException if the image is closed or the settings do not
+	 *                          fit the image
+	 */
+	public static void setImageCacheSettings(long imgHandle, ImageCacheSettings settings) throws TskCoreException {
+		Lock readLock = getTSKReadLock(imgHandle);
+		try {
+			if (!imgHandleIsValid(imgHandle)) {
+				throw new TskCoreException("Image handle " + imgHandle + " is closed");
+			}
+			setImgCacheNat(imgHandle, settings.getBlockSize(), settings.getCacheEntries(), settings.getReadAheadBlocks());
+		} finally {
+			releaseTSKReadLock(readLock);
+		}
+	}
+
+	/**
+	 * Gets the configuration and counters of the native block cache of an
+	 * image.
+	 *
+	 * @param imgHandle handle to a previously opened image
+	 *
+	 * @return a snapshot of the cache counters
+	 *
+	 * @throws TskCoreException if the image is closed
+	 */
+	public static ImageCacheStats getImageCacheStats(long imgHandle) throws TskCoreException {
+		Lock readLock = getTSKReadLock(imgHandle);
+		try {
+			if (!imgHandleIsValid(imgHandle)) {
+				throw new TskCoreException("Image handle " + imgHandle + " is closed");
+			}
+			return new ImageCacheStats(getImgCacheStatsNat(imgHandle));
+		} finally {
+			releaseTSKReadLock(readLock);
 		}
 	}
 
@@ -787,7 +1367,7 @@ private static boolean imgHandleIsValid(long imgHandle) {
 	 *                          TSK
 	 */
 	public static int readImg(long imgHandle, byte[] readBuffer, long offset, long len) throws TskCoreException {
-		getTSKReadLock();
+		Lock readLock = getTSKReadLock(imgHandle);
 		try {
 			if(! imgHandleIsValid(imgHandle)) {
 				throw new TskCoreException("Image handle " + imgHandle + " is closed");
@@ -795,7 +1375,7 @@ public static int readImg(long imgHandle, byte[] readBuffer, long offset, long l
 			//returned byte[] is the data buffer
 			return readImgNat(imgHandle, readBuffer, offset, len);
 		} finally {
-			releaseTSKReadLock();
+			releaseTSKReadLock(readLock);
 		}
 	}
 
@@ -814,11 +1394,11 @@ public static int readImg(long imgHandle, byte[] readBuffer, long offset, long l
 	 *                          TSK
 	 */
 	public static int readVs(long vsHandle, byte[] readBuffer, long offset, long len) throws TskCoreException {
-		getTSKReadLock();
+		Lock readLock = getTSKReadLock(vsHandle);
 		try {
 			return readVsNat(vsHandle, readBuffer, offset, len);
 		} finally {
-			releaseTSKReadLock();
+			releaseTSKReadLock(readLock);
 		}
 	}
 
@@ -837,12 +1417,12 @@ public static int readVs(long vsHandle, byte[] readBuffer, long offset, long len
 	 *                          TSK
 	 */
 	public static int readVsPart(long volHandle, byte[] readBuffer, long offset, long len) throws TskCoreException {
-		getTSKReadLock();
+		Lock readLock = getTSKReadLock(volHandle);
 		try {
 			//returned byte[] is the data buffer
 			return readVolNat(volHandle, readBuffer, offset, len);
 		} finally {
-			releaseTSKReadLock();
+			releaseTSKReadLock(readLock);
 		}
 	}
 
@@ -861,12 +1441,12 @@ public static int readVsPart(long volHandle, byte[] readBuffer, long offset, lon
 	 *                          TSK
 	 */
 	public static int readFs(long fsHandle, byte[] readBuffer, long offset, long len) throws TskCoreException {
-		getTSKReadLock();
+		Lock readLock = getTSKReadLock(fsHandle);
 		try {
 			//returned byte[] is the data buffer
 			return readFsNat(fsHandle, readBuffer, offset, len);
 		} finally {
-			releaseTSKReadLock();
+			releaseTSKReadLock(readLock);
 		}
 	}
 
@@ -904,15 +1484,15 @@ int getValue() {
 	 *                          TSK
 	 */
 	public static int readFile(long fileHandle, byte[] readBuffer, long offset, long len) throws TskCoreException {
-		getTSKReadLock();
+		OpenFileHandle openFile = HandleCache.acquireFileHandle(fileHandle);
+		if (openFile == null) {
+			throw new TskCoreException(HandleCache.INVALID_FILE_HANDLE);
+		}
 		try {
-			if (!HandleCache.isValidFileHandle(fileHandle)) {
-				throw new TskCoreException(HandleCache.INVALID_FILE_HANDLE);
-			}
 
-			return readFileNat(fileHandle, readBuffer, offset, TSK_FS_FILE_READ_OFFSET_TYPE_ENUM.START_OF_FILE.getValue(), len);
+			return readFileNat(openFile.nativeHandle, readBuffer, offset, TSK_FS_FILE_READ_OFFSET_TYPE_ENUM.START_OF_FILE.getValue(), len);
 		} finally {
-			releaseTSKReadLock();
+			HandleCache.releaseFileHandle(openFile);
 		}
 	}
 
@@ -931,18 +1511,281 @@ public static int readFile(long fileHandle, byte[] readBuffer, long offset, long
 	 *                          TSK
 	 */
 	public static int readFileSlack(long fileHandle, byte[] readBuffer, long offset, long len) throws TskCoreException {
-		getTSKReadLock();
+		OpenFileHandle openFile = HandleCache.acquireFileHandle(fileHandle);
+		if (openFile == null) {
+			throw new TskCoreException(HandleCache.INVALID_FILE_HANDLE);
+		}
+		try {
+
+			return readFileNat(openFile.nativeHandle, readBuffer, offset, TSK_FS_FILE_READ_OFFSET_TYPE_ENUM.START_OF_SLACK.getValue(), len);
+		} finally {
+			HandleCache.releaseFileHandle(openFile);
+		}
+	}
+
+	/**
+	 * reads data from an image directly into a direct buffer, without copying it
+	 * through an intermediate native or Java array. Data is written starting
+	 * at the position of the buffer and up to its limit, and the position is
+	 * advanced by the number of bytes read.
+	 *
+	 * @param imgHandle  handle to a previously opened image
+	 * @param readBuffer direct buffer to read to
+	 * @param offset     byte offset in the image to start at
+	 *
+	 * @return the number of bytes read, or -1 if the end of the stream has been
+	 *         reached
+	 *
+	 * @throws TskCoreException exception thrown if critical error occurs within
+	 *                          TSK or the buffer is not a direct buffer
+	 */
+	public static int readImg(long imgHandle, ByteBuffer readBuffer, long offset) throws TskCoreException {
+		Lock readLock = getTSKReadLock(imgHandle);
 		try {
-			if (!HandleCache.isValidFileHandle(fileHandle)) {
-				throw new TskCoreException(HandleCache.INVALID_FILE_HANDLE);
+			if(! imgHandleIsValid(imgHandle)) {
+				throw new TskCoreException("Image handle " + imgHandle + " is closed");
 			}
 
-			return readFileNat(fileHandle, readBuffer, offset, TSK_FS_FILE_READ_OFFSET_TYPE_ENUM.START_OF_SLACK.getValue(), len);
+			checkDirectBuffer(readBuffer);
+			final int position = readBuffer.position();
+			return advanceBufferPosition(readBuffer, readImgDirectNat(imgHandle, readBuffer, position, offset, readBuffer.remaining()));
 		} finally {
-			releaseTSKReadLock();
+			releaseTSKReadLock(readLock);
+		}
+	}
+
+	/**
+	 * reads a list of ranges of an image back to back into a buffer in a
+	 * single native call. Reading stops at the first range that is cut short
+	 * by the end of the image.
+	 *
+	 * @param imgHandle    handle to a previously opened image
+	 * @param readBuffer   buffer to read to
+	 * @param bufferOffset offset in the buffer to start writing at
+	 * @param imgOffsets   byte offsets of the ranges in the image
+	 * @param lengths      lengths of the ranges in bytes
+	 *
+	 * @return the number of bytes read
+	 *
+	 * @throws TskCoreException exception thrown if critical error occurs within
+	 *                          TSK or the ranges do not fit in the buffer
+	 */
+	public static int readImgRanges(long imgHandle, byte[] readBuffer, int bufferOffset, long[] imgOffsets, long[] lengths) throws TskCoreException {
+		Lock readLock = getTSKReadLock(imgHandle);
+		try {
+			if(! imgHandleIsValid(imgHandle)) {
+				throw new TskCoreException("Image handle " + imgHandle + " is closed");
+			}
+			return readImgRangesNat(imgHandle, readBuffer, bufferOffset, imgOffsets, lengths);
+		} finally {
+			releaseTSKReadLock(readLock);
+		}
+	}
+
+	/**
+	 * reads a list of ranges of an image back to back into a direct buffer in
+	 * a single native call, starting at the position of the buffer. See
+	 * readImgRanges(long, byte[], int, long[], long[]).
+	 *
+	 * @param imgHandle  handle to a previously opened image
+	 * @param readBuffer direct buffer to read to
+	 * @param imgOffsets byte offsets of the ranges in the image
+	 * @param lengths    lengths of the ranges in bytes
+	 *
+	 * @return the number of bytes read
+	 *
+	 * @throws TskCoreException exception thrown if critical error occurs within
+	 *                          TSK, the buffer is not a direct buffer or the
+	 *                          ranges do not fit in the remaining space
+	 */
+	public static int readImgRanges(long imgHandle, ByteBuffer readBuffer, long[] imgOffsets, long[] lengths) throws TskCoreException {
+		checkDirectBuffer(readBuffer);
+		long totalLength = 0;
+		for (long length : lengths) {
+			totalLength += length;
+		}
+		if (totalLength > readBuffer.remaining()) {
+			throw new TskCoreException("Read length exceeds the remaining space in the buffer");
+		}
+
+		Lock readLock = getTSKReadLock(imgHandle);
+		try {
+			if(! imgHandleIsValid(imgHandle)) {
+				throw new TskCoreException("Image handle " + imgHandle + " is closed");
+			}
+			final int position = readBuffer.position();
+			return advanceBufferPosition(readBuffer, readImgRangesDirectNat(imgHandle, readBuffer, position, imgOffsets, lengths));
+		} finally {
+			releaseTSKReadLock(readLock);
 		}
 	}
 
+	/**
+	 * reads data from a volume system into a direct buffer. See
+	 * readImg(long, ByteBuffer, long).
+	 *
+	 * @param vsHandle   pointer to a volume system structure in the sleuthkit
+	 * @param readBuffer direct buffer to read to
+	 * @param offset     sector offset in the image to start at
+	 *
+	 * @return the number of bytes read, or -1 if the end of the stream has been
+	 *         reached
+	 *
+	 * @throws TskCoreException exception thrown if critical error occurs within
+	 *                          TSK or the buffer is not a direct buffer
+	 */
+	public static int readVs(long vsHandle, ByteBuffer readBuffer, long offset) throws TskCoreException {
+		Lock readLock = getTSKReadLock(vsHandle);
+		try {
+			checkDirectBuffer(readBuffer);
+			final int position = readBuffer.position();
+			return advanceBufferPosition(readBuffer, readVsDirectNat(vsHandle, readBuffer, position, offset, readBuffer.remaining()));
+		} finally {
+			releaseTSKReadLock(readLock);
+		}
+	}
+
+	/**
+	 * reads data from a volume into a direct buffer. See
+	 * readImg(long, ByteBuffer, long).
+	 *
+	 * @param volHandle  pointer to a volume structure in the sleuthkit
+	 * @param readBuffer direct buffer to read to
+	 * @param offset     byte offset in the volume to start at
+	 *
+	 * @return the number of bytes read, or -1 if the end of the stream has been
+	 *         reached
+	 *
+	 * @throws TskCoreException exception thrown if critical error occurs within
+	 *                          TSK or the buffer is not a direct buffer
+	 */
+	public static int readVsPart(long volHandle, ByteBuffer readBuffer, long offset) throws TskCoreException {
+		Lock readLock = getTSKReadLock(volHandle);
+		try {
+			checkDirectBuffer(readBuffer);
+			final int position = readBuffer.position();
+			return advanceBufferPosition(readBuffer, readVolDirectNat(volHandle, readBuffer, position, offset, readBuffer.remaining()));
+		} finally {
+			releaseTSKReadLock(readLock);
+		}
+	}
+
+	/**
+	 * reads data from a file system into a direct buffer. See
+	 * readImg(long, ByteBuffer, long).
+	 *
+	 * @param fsHandle   pointer to a file system structure in the sleuthkit
+	 * @param readBuffer direct buffer to read to
+	 * @param offset     byte offset in the file system to start at
+	 *
+	 * @return the number of bytes read, or -1 if the end of the stream has been
+	 *         reached
+	 *
+	 * @throws TskCoreException exception thrown if critical error occurs within
+	 *                          TSK or the buffer is not a direct buffer
+	 */
+	public static int readFs(long fsHandle, ByteBuffer readBuffer, long offset) throws TskCoreException {
+		Lock readLock = getTSKReadLock(fsHandle);
+		try {
+			checkDirectBuffer(readBuffer);
+			final int position = readBuffer.position();
+			return advanceBufferPosition(readBuffer, readFsDirectNat(fsHandle, readBuffer, position, offset, readBuffer.remaining()));
+		} finally {
+			releaseTSKReadLock(readLock);
+		}
+	}
+
+	/**
+	 * reads data from a file into a direct buffer. See
+	 * readImg(long, ByteBuffer, long).
+	 *
+	 * @param fileHandle pointer to a file structure in the sleuthkit
+	 * @param readBuffer direct buffer to read to
+	 * @param offset     byte offset in the file to start at
+	 *
+	 * @return the number of bytes read, or -1 if the end of the stream has been
+	 *         reached
+	 *
+	 * @throws TskCoreException exception thrown if critical error occurs within
+	 *                          TSK or the buffer is not a direct buffer
+	 */
+	public static int readFile(long fileHandle, ByteBuffer readBuffer, long offset) throws TskCoreException {
+		OpenFileHandle openFile = HandleCache.acquireFileHandle(fileHandle);
+		if (openFile == null) {
+			throw new TskCoreException(HandleCache.INVALID_FILE_HANDLE);
+		}
+		try {
+
+			checkDirectBuffer(readBuffer);
+			final int position = readBuffer.position();
+			return advanceBufferPosition(readBuffer, readFileDirectNat(openFile.nativeHandle, readBuffer, position, offset, TSK_FS_FILE_READ_OFFSET_TYPE_ENUM.START_OF_FILE.getValue(), readBuffer.remaining()));
+		} finally {
+			HandleCache.releaseFileHandle(openFile);
+		}
+	}
+
+	/**
+	 * reads data from the slack space of a file into a direct buffer. See
+	 * readImg(long, ByteBuffer, long).
+	 *
+	 * @param fileHandle pointer to a file structure in the sleuthkit
+	 * @param readBuffer direct buffer to read to
+	 * @param offset     byte offset in the slack to start at
+	 *
+	 * @return the number of bytes read, or -1 if the end of the stream has been
+	 *         reached
+	 *
+	 * @throws TskCoreException exception thrown if critical error occurs within
+	 *                          TSK or the buffer is not a direct buffer
+	 */
+	public static int readFileSlack(long fileHandle, ByteBuffer readBuffer, long offset) throws TskCoreException {
+		OpenFileHandle openFile = HandleCache.acquireFileHandle(fileHandle);
+		if (openFile == null) {
+			throw new TskCoreException(HandleCache.INVALID_FILE_HANDLE);
+		}
+		try {
+
+			checkDirectBuffer(readBuffer);
+			final int position = readBuffer.position();
+			return advanceBufferPosition(readBuffer, readFileDirectNat(openFile.nativeHandle, readBuffer, position, offset, TSK_FS_FILE_READ_OFFSET_TYPE_ENUM.START_OF_SLACK.getValue(), readBuffer.remaining()));
+		} finally {
+			HandleCache.releaseFileHandle(openFile);
+		}
+	}
+
+	/**
+	 * Verifies that a buffer passed to one of the ByteBuffer read methods can
+	 * be written to directly by the native code.
+	 *
+	 * @param readBuffer the buffer to check
+	 *
+	 * @throws TskCoreException if the buffer is not direct or is read only
+	 */
+	private static void checkDirectBuffer(ByteBuffer readBuffer) throws TskCoreException {
+		if (!readBuffer.isDirect()) {
+			throw new TskCoreException("Read buffer is not a direct buffer");
+		}
+		if (readBuffer.isReadOnly()) {
+			throw new TskCoreException("Read buffer is read only");
+		}
+	}
+
+	/**
+	 * Advances the position of a buffer past the bytes that the native code
+	 * wrote into it.
+	 *
+	 * @param readBuffer the buffer that was read into
+	 * @param bytesRead  the number of bytes read, or -1
+	 *
+	 * @return bytesRead
+	 */
+	private static int advanceBufferPosition(ByteBuffer readBuffer, int bytesRead) {
+		if (bytesRead > 0) {
+			readBuffer.position(readBuffer.position() + bytesRead);
+		}
+		return bytesRead;
+	}
+
 	/**
 	 * Get human readable (some what) details about a file. This is the same as
 	 * the 'istat' TSK tool
@@ -954,16 +1797,16 @@ public static int readFileSlack(long fileHandle, byte[] readBuffer, long offset,
 	 * @throws TskCoreException if errors occurred
 	 */
 	public static List<String> getFileMetaDataText(long fileHandle) throws TskCoreException {
-		getTSKReadLock();
+		OpenFileHandle openFile = HandleCache.acquireFileHandle(fileHandle);
+		if (openFile == null) {
+			throw new TskCoreException(HandleCache.INVALID_FILE_HANDLE);
+		}
 		try {
-			if (!HandleCache.isValidFileHandle(fileHandle)) {
-				throw new TskCoreException(HandleCache.INVALID_FILE_HANDLE);
-			}
 
 			try {
 				java.io.File tmp = java.io.File.createTempFile("tsk", ".txt");
 
-				saveFileMetaDataTextNat(fileHandle, tmp.getAbsolutePath());
+				saveFileMetaDataTextNat(openFile.nativeHandle, tmp.getAbsolutePath());
 
 				FileReader fr = new FileReader(tmp.getAbsolutePath());
 				BufferedReader textReader = new BufferedReader(fr);
@@ -984,7 +1827,7 @@ public static List<String> getFileMetaDataText(long fileHandle) throws TskCoreEx
 				throw new TskCoreException("Error reading istat output: " + ex.getLocalizedMessage());
 			}
 		} finally {
-			releaseTSKReadLock();
+			HandleCache.releaseFileHandle(openFile);
 		}
 	}
 
@@ -994,17 +1837,12 @@ public static List<String> getFileMetaDataText(long fileHandle) throws TskCoreEx
 	 * @param fileHandle pointer to file structure in sleuthkit
 	 */
 	public static void closeFile(long fileHandle) {
-		getTSKReadLock();
-		try {
-			if (!HandleCache.isValidFileHandle(fileHandle)) {
-				// File handle is not open so this is a no-op.
-				return;
-			}
-			closeFileNat(fileHandle);
-			HandleCache.removeFileHandle(fileHandle);
-		} finally {
-			releaseTSKReadLock();
+		OpenFileHandle openFile = HandleCache.fileHandleCache.get(fileHandle);
+		if (openFile == null) {
+			// File handle is not open so this is a no-op.
+			return;
 		}
+		HandleCache.removeFileHandle(fileHandle, openFile);
 	}
 
 	/**
@@ -1241,14 +2079,14 @@ private static String timezoneLongToShort(String timezoneLongForm) {
 	 *                          TSK
 	 */
 	public static int finishImageWriter(long imgHandle) throws TskCoreException {
-		getTSKReadLock();
+		Lock readLock = getTSKReadLock(imgHandle);
 		try {
 			if(! imgHandleIsValid(imgHandle)) {
 				throw new TskCoreException("Image handle " + imgHandle + " is closed");
 			}
 			return finishImageWriterNat(imgHandle);
 		} finally {
-			releaseTSKReadLock();
+			releaseTSKReadLock(readLock);
 		}
 	}
 
@@ -1260,7 +2098,10 @@ public static int finishImageWriter(long imgHandle) throws TskCoreException {
 	 * @return Percentage of blocks completed (0-100)
 	 */
 	public static int getFinishImageProgress(long imgHandle) {
-		getTSKReadLock();
+		Lock readLock = tryGetTSKReadLock(imgHandle);
+		if (readLock == null) {
+			return 0;
+		}
 		try {
 			if (imgHandleIsValid(imgHandle)) {
 				return getFinishImageProgressNat(imgHandle);
@@ -1268,7 +2109,7 @@ public static int getFinishImageProgress(long imgHandle) {
 				return 0;
 			}
 		} finally {
-			releaseTSKReadLock();
+			releaseTSKReadLock(readLock);
 		}
 	}
 
@@ -1278,13 +2119,17 @@ public static int getFinishImageProgress(long imgHandle) {
 	 * @param imgHandle
 	 */
 	public static void cancelFinishImage(long imgHandle) {
-		getTSKReadLock();
+		Lock readLock = tryGetTSKReadLock(imgHandle);
+		if (readLock == null) {
+			// Handle is not open so this is a no-op.
+			return;
+		}
 		try {
 			if (imgHandleIsValid(imgHandle)) {
 				cancelFinishImageNat(imgHandle);
 			}
 		} finally {
-			releaseTSKReadLock();
+			releaseTSKReadLock(readLock);
 		}
 	}
 
@@ -1308,7 +2153,8 @@ public static boolean isImageSupported(String imagePath) {
 	}
 
 	/**
-	 * Get a read lock for the C++ layer. Do not get this lock after obtaining
+	 * Get the global read lock that keeps the set of open images from being
+	 * closed. Do not get this lock after obtaining an image lock or
 	 * HandleCache.cacheLock.
 	 */
 	private static void getTSKReadLock() {
@@ -1316,12 +2162,67 @@ private static void getTSKReadLock() {
 	}
 
 	/**
-	 * Release the read lock
+	 * Release the global read lock
 	 */
 	private static void releaseTSKReadLock() {
 		tskLock.readLock().unlock();
 	}
 
+	/**
+	 * Get the read lock of the image that a handle was opened within, which
+	 * keeps the handle from being closed while the C++ code is using it. Do
+	 * not get this lock after obtaining HandleCache.cacheLock.
+	 *
+	 * @param handle An image, volume system, volume, file system or file
+	 *               handle.
+	 *
+	 * @return The acquired read lock.
+	 *
+	 * @throws TskCoreException if the handle is not open.
+	 */
+	private static Lock getTSKReadLock(long handle) throws TskCoreException {
+		Lock readLock = tryGetTSKReadLock(handle);
+		if (readLock == null) {
+			throw new TskCoreException("Handle " + handle + " is closed");
+		}
+		return readLock;
+	}
+
+	/**
+	 * Get the read lock of the image that a handle was opened within, if the
+	 * handle is open.
+	 *
+	 * @param handle An image, volume system, volume, file system or file
+	 *               handle.
+	 *
+	 * @return The acquired read lock, or null if the handle is not open.
+	 */
+	private static Lock tryGetTSKReadLock(long handle) {
+		ReadWriteLock imageLock = HandleCache.handleToImageLock.get(handle);
+		if (imageLock == null) {
+			return null;
+		}
+		Lock readLock = imageLock.readLock();
+		readLock.lock();
+		if (HandleCache.handleToImageLock.get(handle) != imageLock) {
+			// The handle was closed while waiting for the lock.
+			readLock.unlock();
+			return null;
+		}
+		return readLock;
+	}
+
+	/**
+	 * Release an image read lock
+	 *
+	 * @param readLock The lock, may be null.
+	 */
+	private static void releaseTSKReadLock(Lock readLock) {
+		if (readLock != null) {
+			readLock.unlock();
+		}
+	}
+
 	//free pointers
 	/**
 	 * frees the imgHandle pointer currently does not close the image -
@@ -1439,8 +2340,26 @@ public static void closeFs(long fsHandle) {
 
 	private static native int readFileNat(long fileHandle, byte[] readBuffer, long offset, int offset_type, long len) throws TskCoreException;
 
+	private static native int readImgDirectNat(long imgHandle, ByteBuffer readBuffer, int bufferOffset, long offset, long len) throws TskCoreException;
+
+	private static native int readImgRangesNat(long imgHandle, byte[] readBuffer, int bufferOffset, long[] imgOffsets, long[] lengths) throws TskCoreException;
+
+	private static native int readImgRangesDirectNat(long imgHandle, ByteBuffer readBuffer, int bufferOffset, long[] imgOffsets, long[] lengths) throws TskCoreException;
+
+	private static native int readVsDirectNat(long vsHandle, ByteBuffer readBuffer, int bufferOffset, long offset, long len) throws TskCoreException;
+
+	private static native int readVolDirectNat(long volHandle, ByteBuffer readBuffer, int bufferOffset, long offset, long len) throws TskCoreException;
+
+	private static native int readFsDirectNat(long fsHandle, ByteBuffer readBuffer, int bufferOffset, long offset, long len) throws TskCoreException;
+
+	private static native int readFileDirectNat(long fileHandle, ByteBuffer readBuffer, int bufferOffset, long offset, int offset_type, long len) throws TskCoreException;
+
 	private static native int saveFileMetaDataTextNat(long fileHandle, String fileName) throws TskCoreException;
 
+	private static native void setImgCacheNat(long imgHandle, int blockSize, int numBlocks, int readAheadBlocks) throws TskCoreException;
+
+	private static native long[] getImgCacheStatsNat(long imgHandle) throws TskCoreException;
+
 	private static native void closeImgNat(long imgHandle);
 
 	private static native void closeVsNat(long vsHandle);
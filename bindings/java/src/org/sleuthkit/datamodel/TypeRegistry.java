@@ -0,0 +1,161 @@
+/*
+ * Sleuth Kit Data Model
+ *
+ * Copyright 2018 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.datamodel;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of the artifact or attribute types of a case, looked
+ * up by id or by name. The standard types have small ids and are found by
+ * indexing an array; custom types are found through a map. A registry is
+ * never changed; adding a type makes a new registry, which the case swaps in
+ * for the old one, so lookups take no locks.
+ *
+ * @param <T> The type of the types, BlackboardArtifact.Type or
+ *            BlackboardAttribute.Type.
+ */
+final class TypeRegistry<T> {
+
+	// Ids below this are kept in the array. Custom types start at 10000.
+	private static final int MAX_INDEXED_ID = 10000;
+
+	/**
+	 * Gets the id and name of a type.
+	 *
+	 * @param <T> The type of the types.
+	 */
+	interface Keys<T> {
+
+		int getTypeId(T type);
+
+		String getTypeName(T type);
+	}
+
+	private final Keys<T> keys;
+	private final Object[] typesByIndexedId;
+	private final Map<Integer, T> typesByOtherId;
+	private final Map<String, T> typesByName;
+
+	/**
+	 * Constructs an empty registry.
+	 *
+	 * @param keys Gets the ids and names of the types.
+	 */
+	TypeRegistry(Keys<T> keys) {
+		this(keys, new Object[0], Collections.<Integer, T>emptyMap(), Collections.<String, T>emptyMap());
+	}
+
+	private TypeRegistry(Keys<T> keys, Object[] typesByIndexedId, Map<Integer, T> typesByOtherId, Map<String, T> typesByName) {
+		this.keys = keys;
+		this.typesByIndexedId = typesByIndexedId;
+		this.typesByOtherId = typesByOtherId;
+		this.typesByName = typesByName;
+	}
+
+	/**
+	 * Looks up a type by id.
+	 *
+	 * @param typeId The type id.
+	 *
+	 * @return The type, or null if it is not in the registry.
+	 */
+	@SuppressWarnings("unchecked")
+	T get(int typeId) {
+		if (typeId >= 0 && typeId < MAX_INDEXED_ID) {
+			return typeId < typesByIndexedId.length ? (T) typesByIndexedId[typeId] : null;
+		}
+		return typesByOtherId.get(typeId);
+	}
+
+	/**
+	 * Looks up a type by name.
+	 *
+	 * @param typeName The type name.
+	 *
+	 * @return The type, or null if it is not in the registry.
+	 */
+	T get(String typeName) {
+		return typeName == null ? null : typesByName.get(typeName);
+	}
+
+	/**
+	 * Gets the types in the registry.
+	 *
+	 * @return An unmodifiable collection of the types.
+	 */
+	Collection<T> getTypes() {
+		return Collections.unmodifiableCollection(typesByName.values());
+	}
+
+	/**
+	 * Makes a registry with the types of this one and some more. A type with
+	 * the same id or name as one in this registry replaces it.
+	 *
+	 * @param types The types to add.
+	 *
+	 * @return The new registry.
+	 */
+	TypeRegistry<T> with(Collection<T> types) {
+		int maxIndexedId = typesByIndexedId.length - 1;
+		for (T type : types) {
+			int id = keys.getTypeId(type);
+			if (id >= 0 && id < MAX_INDEXED_ID) {
+				maxIndexedId = Math.max(maxIndexedId, id);
+			}
+		}
+		Object[] indexed = Arrays.copyOf(typesByIndexedId, maxIndexedId + 1);
+		Map<Integer, T> byOtherId = new HashMap<Integer, T>(typesByOtherId);
+		Map<String, T> byName = new HashMap<String, T>(typesByName);
+		for (T type : types) {
+			int id = keys.getTypeId(type);
+			if (id >= 0 && id < MAX_INDEXED_ID) {
+				indexed[id] = type;
+			} else {
+				byOtherId.put(id, type);
+			}
+			byName.put(keys.getTypeName(type), type);
+		}
+		return new TypeRegistry<T>(keys, indexed, Collections.unmodifiableMap(byOtherId), Collections.unmodifiableMap(byName));
+	}
+
+	/**
+	 * Makes a registry with the types of this one and one more.
+	 *
+	 * @param type The type to add.
+	 *
+	 * @return The new registry.
+	 */
+	TypeRegistry<T> with(T type) {
+		return with(Collections.singletonList(type));
+	}
+
+	/**
+	 * Makes an empty registry that gets the ids and names of types the same
+	 * way as this one.
+	 *
+	 * @return The new registry.
+	 */
+	TypeRegistry<T> cleared() {
+		return new TypeRegistry<T>(keys);
+	}
+}
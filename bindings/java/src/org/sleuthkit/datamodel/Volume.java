@@ -18,6 +18,7 @@
  */
 package org.sleuthkit.datamodel;
 
+import java.nio.ByteBuffer;
 import java.util.ResourceBundle;
 import java.util.ArrayList;
 import java.util.List;
@@ -62,19 +63,36 @@ protected Volume(SleuthkitCase db, long obj_id, long addr, long startSector, lon
 
 	@Override
 	public int read(byte[] buf, long offset, long len) throws TskCoreException {
-		synchronized (this) {
-			Content myParent = getParent();
-			if (!(myParent instanceof VolumeSystem)) {
-				throw new TskCoreException(bundle.getString("Volume.read.exception.msg1.text"));
-			}
-			VolumeSystem parentVs = (VolumeSystem) myParent;
-			// read from the volume
-			if (volumeHandle == 0) {
-				volumeHandle = SleuthkitJNI.openVsPart(parentVs.getVolumeSystemHandle(), addr);
-			}
+		return SleuthkitJNI.readVsPart(getVolumeHandle(), buf, offset, len);
+	}
+
+	@Override
+	public int read(ByteBuffer buf, long offset) throws TskCoreException {
+		if (!buf.isDirect()) {
+			return super.read(buf, offset);
+		}
+		return SleuthkitJNI.readVsPart(getVolumeHandle(), buf, offset);
+	}
 
+	/**
+	 * Gets the handle to the sleuthkit volume, opening it if needed.
+	 *
+	 * @return the volume handle
+	 *
+	 * @throws TskCoreException if the parent is not a volume system or the
+	 *                          volume could not be opened
+	 */
+	private synchronized long getVolumeHandle() throws TskCoreException {
+		Content myParent = getParent();
+		if (!(myParent instanceof VolumeSystem)) {
+			throw new TskCoreException(bundle.getString("Volume.read.exception.msg1.text"));
+		}
+		VolumeSystem parentVs = (VolumeSystem) myParent;
+		// read from the volume
+		if (volumeHandle == 0) {
+			volumeHandle = SleuthkitJNI.openVsPart(parentVs.getVolumeSystemHandle(), addr);
 		}
-		return SleuthkitJNI.readVsPart(volumeHandle, buf, offset, len);
+		return volumeHandle;
 	}
 
 	@Override
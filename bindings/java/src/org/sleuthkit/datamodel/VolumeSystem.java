@@ -18,6 +18,7 @@
  */
 package org.sleuthkit.datamodel;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import org.sleuthkit.datamodel.TskData.TSK_VS_TYPE_ENUM;
@@ -57,6 +58,14 @@ public int read(byte[] readBuffer, long offset, long len) throws TskCoreExceptio
 		return SleuthkitJNI.readVs(volumeSystemHandle, readBuffer, offset, len);
 	}
 
+	@Override
+	public int read(ByteBuffer readBuffer, long offset) throws TskCoreException {
+		if (!readBuffer.isDirect()) {
+			return super.read(readBuffer, offset);
+		}
+		return SleuthkitJNI.readVs(getVolumeSystemHandle(), readBuffer, offset);
+	}
+
 	@Override
 	public long getSize() {
 		return 0;
@@ -0,0 +1,53 @@
+/*
+ * Sleuth Kit Data Model
+ *
+ * Copyright 2018 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	 http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.datamodel;
+
+import java.util.Arrays;
+import java.util.Collections;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import org.sleuthkit.datamodel.BlackboardAttribute.TSK_BLACKBOARD_ATTRIBUTE_VALUE_TYPE;
+
+public class ArtifactFingerprintTest {
+
+	private static final BlackboardAttribute.Type TEXT_TYPE = new BlackboardAttribute.Type(1000, "TEST_TEXT", "Text", TSK_BLACKBOARD_ATTRIBUTE_VALUE_TYPE.STRING);
+	private static final BlackboardAttribute.Type LONG_TYPE = new BlackboardAttribute.Type(1001, "TEST_LONG", "Long", TSK_BLACKBOARD_ATTRIBUTE_VALUE_TYPE.LONG);
+
+	/**
+	 * Test of of, of class ArtifactFingerprint. The fingerprint must not
+	 * depend on the order of the attributes or their sources, and must match
+	 * the fingerprint built up from the rows of the attributes.
+	 */
+	@Test
+	public void testOf() {
+		System.out.println("of");
+		BlackboardAttribute text = new BlackboardAttribute(TEXT_TYPE, "module", "value");
+		BlackboardAttribute number = new BlackboardAttribute(LONG_TYPE, "other module", 42L);
+		long fingerprint = ArtifactFingerprint.of(1, Arrays.asList(text, number));
+		assertEquals(fingerprint, ArtifactFingerprint.of(1, Arrays.asList(number, new BlackboardAttribute(TEXT_TYPE, "another module", "value"))));
+		assertEquals(fingerprint, ArtifactFingerprint.ofArtifactType(1)
+				+ ArtifactFingerprint.ofAttribute(1000, TSK_BLACKBOARD_ATTRIBUTE_VALUE_TYPE.STRING, 0, 0, 0, "value", null)
+				+ ArtifactFingerprint.ofAttribute(1001, TSK_BLACKBOARD_ATTRIBUTE_VALUE_TYPE.LONG, 0, 42L, 0, null, null));
+		assertTrue(fingerprint != ArtifactFingerprint.of(2, Arrays.asList(text, number)));
+		assertTrue(fingerprint != ArtifactFingerprint.of(1, Collections.singletonList(text)));
+		assertEquals(ArtifactFingerprint.ofAttribute(1000, TSK_BLACKBOARD_ATTRIBUTE_VALUE_TYPE.STRING, 0, 0, 0, "", null),
+				ArtifactFingerprint.ofAttribute(1000, TSK_BLACKBOARD_ATTRIBUTE_VALUE_TYPE.STRING, 0, 0, 0, null, null));
+	}
+}
@@ -0,0 +1,77 @@
+/*
+ * Sleuth Kit Data Model
+ *
+ * Copyright 2018 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	 http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.datamodel;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class ArtifactIdAllocatorTest {
+
+	@Test
+	public void testIdsStartAfterHighWaterMark() {
+		ArtifactIdAllocator allocator = new ArtifactIdAllocator(Long.MIN_VALUE);
+		assertEquals(Long.MIN_VALUE + 1, allocator.next());
+		assertEquals(Long.MIN_VALUE + 2, allocator.next());
+		long[] ids = allocator.next(3);
+		assertEquals(3, ids.length);
+		assertEquals(Long.MIN_VALUE + 1 + ArtifactIdAllocator.BLOCK_SIZE, ids[0]);
+		assertEquals(ids[0] + 2, ids[2]);
+		assertEquals(Long.MIN_VALUE + 3, allocator.next());
+	}
+
+	@Test
+	public void testIdsAreUniqueAcrossThreads() throws InterruptedException {
+		final ArtifactIdAllocator allocator = new ArtifactIdAllocator(100);
+		final int threadCount = 8;
+		final int idsPerThread = 1000;
+		final long[][] results = new long[threadCount][];
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int t = 0; t < threadCount; t++) {
+			final int index = t;
+			Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					long[] ids = new long[idsPerThread];
+					for (int i = 0; i < idsPerThread; i++) {
+						ids[i] = i % 10 == 0 ? allocator.next(1)[0] : allocator.next();
+					}
+					results[index] = ids;
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		Set<Long> seen = new HashSet<Long>();
+		for (long[] ids : results) {
+			for (long id : ids) {
+				assertTrue(id > 100);
+				assertTrue(seen.add(id));
+			}
+		}
+		assertEquals(threadCount * idsPerThread, seen.size());
+	}
+}
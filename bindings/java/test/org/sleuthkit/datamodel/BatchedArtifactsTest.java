@@ -0,0 +1,134 @@
+/*
+ * Sleuth Kit Data Model
+ *
+ * Copyright 2018 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	 http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.datamodel;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.AfterClass;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests batched artifact creation on a single-user case while another
+ * connection to the case database, like the one of the native code, adds
+ * objects.
+ */
+public class BatchedArtifactsTest {
+
+	private static final String TEST_DB = "BatchedArtifactsTest.db";
+	private static final int BATCHES = 50;
+	private static final int BATCH_SIZE = 20;
+
+	private static File dbFile;
+	private static SleuthkitCase caseDB;
+	private static LocalFilesDataSource dataSource;
+
+	@BeforeClass
+	public static void setUpClass() throws TskCoreException {
+		dbFile = new File(System.getProperty("java.io.tmpdir"), TEST_DB);
+		dbFile.delete();
+		caseDB = SleuthkitCase.newCase(dbFile.getPath());
+
+		SleuthkitCase.CaseDbTransaction trans = caseDB.beginTransaction();
+		dataSource = caseDB.addLocalFilesDataSource("batched-artifacts-device", "rootdir", "", trans);
+		trans.commit();
+	}
+
+	@AfterClass
+	public static void tearDownClass() {
+		if (caseDB != null) {
+			caseDB.close();
+		}
+	}
+
+	@Test(timeout = 120000)
+	public void testBatchesGetDistinctObjectIdsWhileObjectsAreAddedElsewhere() throws Exception {
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		final List<BlackboardArtifact> created = Collections.synchronizedList(new ArrayList<BlackboardArtifact>());
+
+		Thread batches = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					BlackboardArtifact.Type type = new BlackboardArtifact.Type(BlackboardArtifact.ARTIFACT_TYPE.TSK_INTERESTING_FILE_HIT);
+					for (int i = 0; i < BATCHES; i++) {
+						List<Blackboard.NewArtifact> newArtifacts = new ArrayList<Blackboard.NewArtifact>();
+						for (int j = 0; j < BATCH_SIZE; j++) {
+							newArtifacts.add(new Blackboard.NewArtifact(dataSource, type, Collections.singletonList(
+									new BlackboardAttribute(BlackboardAttribute.ATTRIBUTE_TYPE.TSK_SET_NAME, "test", "set " + i + "-" + j))));
+						}
+						created.addAll(caseDB.getBlackboard().newBlackboardArtifacts(newArtifacts));
+					}
+				} catch (Throwable ex) {
+					failure.compareAndSet(null, ex);
+				}
+			}
+		});
+
+		Thread objects = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					Connection connection = DriverManager.getConnection("jdbc:sqlite:" + dbFile.getPath()); //NON-NLS
+					try {
+						Statement statement = connection.createStatement();
+						statement.execute("PRAGMA busy_timeout = 60000"); //NON-NLS
+						statement.close();
+						PreparedStatement insert = connection.prepareStatement("INSERT INTO tsk_objects (par_obj_id, type) VALUES (?, ?)"); //NON-NLS
+						for (int i = 0; i < BATCHES * BATCH_SIZE; i++) {
+							insert.setLong(1, dataSource.getId());
+							insert.setInt(2, TskData.ObjectType.ABSTRACTFILE.getObjectType());
+							insert.executeUpdate();
+						}
+						insert.close();
+					} finally {
+						connection.close();
+					}
+				} catch (Throwable ex) {
+					failure.compareAndSet(null, ex);
+				}
+			}
+		});
+
+		batches.start();
+		objects.start();
+		batches.join();
+		objects.join();
+
+		assertNull(failure.get());
+		assertEquals(BATCHES * BATCH_SIZE, created.size());
+		Set<Long> objectIds = new HashSet<Long>();
+		for (BlackboardArtifact artifact : created) {
+			objectIds.add(artifact.getId());
+			assertEquals(dataSource.getId(), caseDB.getBlackboardArtifact(artifact.getArtifactID()).getObjectID());
+		}
+		assertEquals(created.size(), objectIds.size());
+	}
+}
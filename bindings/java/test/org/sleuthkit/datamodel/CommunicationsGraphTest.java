@@ -0,0 +1,155 @@
+/*
+ * Sleuth Kit Data Model
+ *
+ * Copyright 2018 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	 http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.datamodel;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class CommunicationsGraphTest {
+
+	private static final int EMAIL_TYPE = 1;
+	private static final int PHONE_TYPE = 2;
+	private static final int MESSAGE = 0;
+	private static final int CALL = 1;
+
+	/**
+	 * Accounts 1, 2 and 3 are email accounts and 4 is a phone account. Data
+	 * sources 100 and 101 are on device A and 200 on device B.
+	 */
+	private static CommunicationsGraph newGraph() {
+		CommunicationsGraph graph = new CommunicationsGraph();
+		graph.addAccount(1, EMAIL_TYPE, "one@example.com");
+		graph.addAccount(2, EMAIL_TYPE, "two@example.com");
+		graph.addAccount(3, EMAIL_TYPE, "three@example.com");
+		graph.addAccount(4, PHONE_TYPE, "5551234");
+		graph.addDataSource(100, "A");
+		graph.addDataSource(101, "A");
+		graph.addDataSource(200, "B");
+		graph.addRelationship(1, 2, 1000, 500, MESSAGE, 100);
+		graph.addRelationship(1, 2, 1001, 0, MESSAGE, 101);
+		graph.addRelationship(2, 1, 1002, 900, MESSAGE, 100);
+		graph.addRelationship(1, 3, 1003, 700, MESSAGE, 200);
+		graph.addRelationship(3, 4, 1004, 800, CALL, 200);
+		graph.buildIndex();
+		return graph;
+	}
+
+	private static Set<String> toStrings(List<CommunicationsGraph.AccountDevice> accountDevices) {
+		Set<String> strings = new HashSet<String>();
+		for (CommunicationsGraph.AccountDevice accountDevice : accountDevices) {
+			assertTrue(strings.add(accountDevice.getAccountId() + "@" + accountDevice.getDeviceId()));
+		}
+		return strings;
+	}
+
+	private static BitSet bits(int... values) {
+		BitSet bits = new BitSet();
+		for (int value : values) {
+			bits.set(value);
+		}
+		return bits;
+	}
+
+	@Test
+	public void testAccountDevices() {
+		CommunicationsGraph graph = newGraph();
+		assertEquals(new HashSet<String>(Arrays.asList("1@A", "2@A", "1@B", "3@B", "4@B")),
+				toStrings(graph.getAccountDevices(null, null)));
+		assertEquals(new HashSet<String>(Arrays.asList("3@B", "4@B")),
+				toStrings(graph.getAccountDevices(CommunicationsGraph.relationshipTypeFilter(bits(CALL)), null)));
+		assertEquals(new HashSet<String>(Arrays.asList("4@B")),
+				toStrings(graph.getAccountDevices(null, bits(PHONE_TYPE))));
+	}
+
+	@Test
+	public void testDateRangeLetsThroughRelationshipsWithoutDate() {
+		CommunicationsGraph graph = newGraph();
+		// Only the relationship without a date is on data source 101.
+		assertEquals(new HashSet<String>(Arrays.asList("1@A", "2@A")),
+				toStrings(graph.getAccountDevices(CommunicationsGraph.dateRangeFilter(1, 100), null)));
+		assertEquals(new HashSet<String>(Arrays.asList("1@A", "2@A", "1@B", "3@B")),
+				toStrings(graph.getAccountDevices(CommunicationsGraph.dateRangeFilter(0, 800), null)));
+	}
+
+	@Test
+	public void testRelatedAccountDevices() {
+		CommunicationsGraph graph = newGraph();
+		assertEquals(new HashSet<String>(Arrays.asList("2@A")),
+				toStrings(graph.getRelatedAccountDevices(1, graph.getDataSources(Collections.singleton("A")), null, null)));
+		assertEquals(new HashSet<String>(Arrays.asList("1@B", "4@B")),
+				toStrings(graph.getRelatedAccountDevices(3, graph.getDataSources(Collections.singleton("B")), null, null)));
+		assertEquals(new HashSet<String>(Arrays.asList("1@B")),
+				toStrings(graph.getRelatedAccountDevices(3, graph.getDataSources(Collections.singleton("B")), null, bits(EMAIL_TYPE))));
+		assertTrue(graph.getRelatedAccountDevices(99, bits(0, 1, 2), null, null).isEmpty());
+	}
+
+	@Test
+	public void testRelationshipCounts() {
+		CommunicationsGraph graph = newGraph();
+		List<CommunicationsGraph.RelationshipCount> counts = graph.getRelationshipCounts(Arrays.asList(1L, 2L, 3L),
+				Arrays.asList("A"), null);
+		assertEquals(2, counts.size());
+		for (CommunicationsGraph.RelationshipCount count : counts) {
+			if (count.getAccount1().getAccountId() == 1) {
+				assertEquals(2, count.getAccount2().getAccountId());
+				assertEquals(2, count.getCount());
+			} else {
+				assertEquals(2, count.getAccount1().getAccountId());
+				assertEquals(1, count.getAccount2().getAccountId());
+				assertEquals(1, count.getCount());
+			}
+			assertEquals("A", count.getAccount1().getDeviceId());
+		}
+		counts = graph.getRelationshipCounts(Arrays.asList(1L, 2L, 3L), Arrays.asList("A", "B"),
+				CommunicationsGraph.dataSourceFilter(graph.getDataSources(Collections.singleton("B"))));
+		assertEquals(1, counts.size());
+		assertEquals(3, counts.get(0).getAccount2().getAccountId());
+	}
+
+	@Test
+	public void testRelationshipsAddedAfterIndexIsBuilt() {
+		CommunicationsGraph graph = newGraph();
+		graph.addAccount(5, PHONE_TYPE, "5559876");
+		assertTrue(graph.addRelationship(4, 5, 2000, 0, CALL, 200));
+		assertFalse(graph.addRelationship(4, 6, 2001, 0, CALL, 200));
+		assertFalse(graph.addRelationship(4, 5, 2002, 0, CALL, 300));
+		assertEquals(new HashSet<String>(Arrays.asList("3@B", "5@B")),
+				toStrings(graph.getRelatedAccountDevices(4, graph.getDataSources(Collections.singleton("B")), null, null)));
+
+		// Enough relationships to rebuild the index, and some more.
+		for (int i = 0; i < 10000; i++) {
+			graph.addRelationship(4, 5, 3000 + i, 0, CALL, 200);
+		}
+		assertEquals(10006, graph.getRelationshipCount());
+		List<CommunicationsGraph.RelationshipCount> counts = graph.getRelationshipCounts(Arrays.asList(4L, 5L),
+				Arrays.asList("B"), null);
+		assertEquals(1, counts.size());
+		assertEquals(10001, counts.get(0).getCount());
+		assertEquals(new HashSet<String>(Arrays.asList("1@A", "2@A", "1@B", "3@B", "4@B", "5@B")),
+				toStrings(graph.getAccountDevices(null, null)));
+	}
+}
@@ -0,0 +1,67 @@
+/*
+ * Sleuth Kit Data Model
+ *
+ * Copyright 2018 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	 http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.datamodel;
+
+import java.util.List;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import org.junit.Test;
+import org.sleuthkit.datamodel.BlackboardAttribute.TSK_BLACKBOARD_ATTRIBUTE_VALUE_TYPE;
+
+public class CompactAttributesTest {
+
+	private static final BlackboardAttribute.Type TEXT_TYPE = new BlackboardAttribute.Type(1000, "TEST_TEXT", "Text", TSK_BLACKBOARD_ATTRIBUTE_VALUE_TYPE.STRING);
+	private static final BlackboardAttribute.Type INT_TYPE = new BlackboardAttribute.Type(1001, "TEST_INT", "Int", TSK_BLACKBOARD_ATTRIBUTE_VALUE_TYPE.INTEGER);
+	private static final BlackboardAttribute.Type DATETIME_TYPE = new BlackboardAttribute.Type(1002, "TEST_DATETIME", "DateTime", TSK_BLACKBOARD_ATTRIBUTE_VALUE_TYPE.DATETIME);
+	private static final BlackboardAttribute.Type DOUBLE_TYPE = new BlackboardAttribute.Type(1003, "TEST_DOUBLE", "Double", TSK_BLACKBOARD_ATTRIBUTE_VALUE_TYPE.DOUBLE);
+	private static final BlackboardAttribute.Type BYTE_TYPE = new BlackboardAttribute.Type(1004, "TEST_BYTE", "Byte", TSK_BLACKBOARD_ATTRIBUTE_VALUE_TYPE.BYTE);
+
+	/**
+	 * Test of add and get, of class CompactAttributes, with every value type
+	 * and enough attributes to grow the columns.
+	 */
+	@Test
+	public void testAddAndGet() {
+		System.out.println("addAndGet");
+		CompactAttributes instance = new CompactAttributes(null);
+		for (int i = 0; i < 100; i++) {
+			instance.add(i, TEXT_TYPE, "module", "context", 0, 0, 0, "text" + i, null);
+			instance.add(i, INT_TYPE, "module", "", i, 0, 0, null, null);
+			instance.add(i, DATETIME_TYPE, "module", "", 0, 1000000000L + i, 0, null, null);
+			instance.add(i, DOUBLE_TYPE, "module", "", 0, 0, i / 2.0, null, null);
+			instance.add(i, BYTE_TYPE, "module", "", 0, 0, 0, null, new byte[]{(byte) i});
+		}
+		instance.trimToSize();
+		assertEquals(500, instance.size());
+		for (int i = 0; i < 100; i++) {
+			List<BlackboardAttribute> attributes = instance.get(i * 5, i * 5 + 5);
+			assertEquals("text" + i, attributes.get(0).getValueString());
+			assertEquals("context", attributes.get(0).getContext());
+			assertEquals(i, attributes.get(1).getValueInt());
+			assertEquals(1000000000L + i, attributes.get(2).getValueLong());
+			assertEquals(i / 2.0, attributes.get(3).getValueDouble(), 0);
+			assertArrayEquals(new byte[]{(byte) i}, attributes.get(4).getValueBytes());
+			for (BlackboardAttribute attribute : attributes) {
+				assertEquals(i, attribute.getArtifactID());
+			}
+			assertSame(DATETIME_TYPE, attributes.get(2).getAttributeType());
+		}
+	}
+}
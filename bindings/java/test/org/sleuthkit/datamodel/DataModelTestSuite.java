@@ -41,7 +41,7 @@
  * default ant target sets properties for the various folders.
  */
 @RunWith(Suite.class)
-@Suite.SuiteClasses({CommunicationsManagerTest.class, CaseDbSchemaVersionNumberTest.class,org.sleuthkit.datamodel.TopDownTraversal.class, org.sleuthkit.datamodel.SequentialTraversal.class, org.sleuthkit.datamodel.CrossCompare.class, org.sleuthkit.datamodel.BottomUpTest.class, org.sleuthkit.datamodel.CPPtoJavaCompare.class, org.sleuthkit.datamodel.HashDbTest.class})
+@Suite.SuiteClasses({CommunicationsManagerTest.class, CaseDbSchemaVersionNumberTest.class, ObjectIdBitmapTest.class, ObjectIdCacheTest.class, HasChildrenSnapshotTest.class, CompactAttributesTest.class, TypeRegistryTest.class, ArtifactIdAllocatorTest.class, ArtifactFingerprintTest.class, BatchedArtifactsTest.class, CommunicationsGraphTest.class, PreparedQueryTest.class, ResizablePooledDataSourceTest.class, SerializedWritesTest.class, org.sleuthkit.datamodel.TopDownTraversal.class, org.sleuthkit.datamodel.SequentialTraversal.class, org.sleuthkit.datamodel.CrossCompare.class, org.sleuthkit.datamodel.BottomUpTest.class, org.sleuthkit.datamodel.CPPtoJavaCompare.class, org.sleuthkit.datamodel.HashDbTest.class})
 public class DataModelTestSuite {
 
 	static final String TEST_IMAGE_DIR_NAME = "test" + java.io.File.separator + "Input";
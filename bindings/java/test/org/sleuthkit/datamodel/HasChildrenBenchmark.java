@@ -0,0 +1,168 @@
+/*
+ * Sleuth Kit Data Model
+ *
+ * Copyright 2018 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	 http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.datamodel;
+
+import com.zaxxer.sparsebits.SparseBitSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compares the lookups of the hasChildren map, ObjectIdBitmap, with the
+ * HashMap of SparseBitSets under a lock that it replaced, on a synthetic case
+ * in which one object in ten has children. Each thread looks up random
+ * object ids; a round ends when all of the threads are done.
+ *
+ * This is not part of DataModelTestSuite. After "ant compile-test", run it
+ * from bindings/java with the libraries on the class path:
+ *
+ * java -Xmx4g -cp "build:lib/*" org.sleuthkit.datamodel.HasChildrenBenchmark
+ * [objects] [threads] [lookups per thread] [rounds]
+ *
+ * The defaults are 50000000 objects, 8 threads, 5000000 lookups per thread
+ * and 5 measured rounds, after 2 warm-up rounds.
+ */
+public class HasChildrenBenchmark {
+
+	private static final int OBJECTS_PER_PARENT = 10;
+	private static final int WARMUP_ROUNDS = 2;
+
+	/**
+	 * The operations of the hasChildren map.
+	 */
+	private interface HasChildrenMap {
+
+		void add(long objectId);
+
+		boolean contains(long objectId);
+	}
+
+	/**
+	 * The map as it was before ObjectIdBitmap: a SparseBitSet for each range
+	 * of Integer.MAX_VALUE ids, locked on every call.
+	 */
+	private static final class LockedSparseBitSetMap implements HasChildrenMap {
+
+		private final Map<Long, SparseBitSet> bitSets = new HashMap<Long, SparseBitSet>();
+
+		@Override
+		public void add(long objectId) {
+			long mapIndex = objectId / Integer.MAX_VALUE;
+			int mapValue = (int) (objectId % Integer.MAX_VALUE);
+			synchronized (bitSets) {
+				SparseBitSet bitSet = bitSets.get(mapIndex);
+				if (bitSet == null) {
+					bitSet = new SparseBitSet();
+					bitSets.put(mapIndex, bitSet);
+				}
+				bitSet.set(mapValue);
+			}
+		}
+
+		@Override
+		public boolean contains(long objectId) {
+			long mapIndex = objectId / Integer.MAX_VALUE;
+			int mapValue = (int) (objectId % Integer.MAX_VALUE);
+			synchronized (bitSets) {
+				SparseBitSet bitSet = bitSets.get(mapIndex);
+				return bitSet != null && bitSet.get(mapValue);
+			}
+		}
+	}
+
+	private static final class BitmapMap implements HasChildrenMap {
+
+		private final ObjectIdBitmap bitmap = new ObjectIdBitmap();
+
+		@Override
+		public void add(long objectId) {
+			bitmap.add(objectId);
+		}
+
+		@Override
+		public boolean contains(long objectId) {
+			return bitmap.contains(objectId);
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		long objects = args.length > 0 ? Long.parseLong(args[0]) : 50000000L;
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+		int lookups = args.length > 2 ? Integer.parseInt(args[2]) : 5000000;
+		int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+		System.out.println(String.format("%d objects, %d threads, %d lookups per thread, %d available processors", //NON-NLS
+				objects, threads, lookups, Runtime.getRuntime().availableProcessors()));
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			run("HashMap<Long, SparseBitSet>, locked", new LockedSparseBitSetMap(), objects, threads, lookups, rounds, executor); //NON-NLS
+			run("ObjectIdBitmap", new BitmapMap(), objects, threads, lookups, rounds, executor); //NON-NLS
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private static void run(String name, final HasChildrenMap map, final long objects, int threads, final int lookups, int rounds, ExecutorService executor) throws Exception {
+		long start = System.nanoTime();
+		for (long objectId = 0; objectId < objects; objectId += OBJECTS_PER_PARENT) {
+			map.add(objectId);
+		}
+		long populateMillis = (System.nanoTime() - start) / 1000000;
+
+		long bestMillis = Long.MAX_VALUE;
+		long totalMillis = 0;
+		long found = 0;
+		for (int round = 0; round < WARMUP_ROUNDS + rounds; round++) {
+			List<Callable<Long>> tasks = new ArrayList<Callable<Long>>();
+			for (int thread = 0; thread < threads; thread++) {
+				final long seed = round * 1000L + thread;
+				tasks.add(new Callable<Long>() {
+					@Override
+					public Long call() {
+						Random random = new Random(seed);
+						long hits = 0;
+						for (int i = 0; i < lookups; i++) {
+							if (map.contains((long) (random.nextDouble() * objects))) {
+								hits++;
+							}
+						}
+						return hits;
+					}
+				});
+			}
+			start = System.nanoTime();
+			for (Future<Long> result : executor.invokeAll(tasks)) {
+				found += result.get();
+			}
+			long millis = (System.nanoTime() - start) / 1000000;
+			if (round >= WARMUP_ROUNDS) {
+				bestMillis = Math.min(bestMillis, millis);
+				totalMillis += millis;
+			}
+		}
+		System.out.println(String.format("%s: populated in %d ms, lookups %d ms per round on average, %d ms best (%d hits)", //NON-NLS
+				name, populateMillis, totalMillis / rounds, bestMillis, found));
+	}
+}
@@ -0,0 +1,127 @@
+/*
+ * Sleuth Kit Data Model
+ *
+ * Copyright 2018 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	 http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.datamodel;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HasChildrenSnapshotTest {
+
+	private File snapshotFile;
+
+	@Before
+	public void setUp() throws IOException {
+		snapshotFile = File.createTempFile("HasChildrenSnapshotTest", ".parents"); //NON-NLS
+	}
+
+	@After
+	public void tearDown() {
+		snapshotFile.delete();
+	}
+
+	@Test
+	public void testWriteAndRead() throws IOException {
+		ObjectIdBitmap hasChildren = new ObjectIdBitmap();
+		for (long id = 1; id < 100000; id += 7) {
+			hasChildren.add(id);
+		}
+		hasChildren.add(1L << 40);
+		HasChildrenSnapshot.write(snapshotFile, hasChildren, 123456, 4096, 1500000000000L);
+		assertFalse(new File(snapshotFile.getPath() + ".tmp").exists());
+
+		HasChildrenSnapshot snapshot = HasChildrenSnapshot.read(snapshotFile);
+		assertEquals(123456, snapshot.getMaxObjId());
+		assertEquals(4096, snapshot.getDbFileLength());
+		assertEquals(1500000000000L, snapshot.getDbFileModified());
+		ObjectIdBitmap copy = new ObjectIdBitmap();
+		snapshot.readInto(copy);
+		assertEquals(hasChildren.getCardinality(), copy.getCardinality());
+		for (long id = 0; id < 100000; id++) {
+			assertEquals(hasChildren.contains(id), copy.contains(id));
+		}
+		assertTrue(copy.contains(1L << 40));
+	}
+
+	@Test
+	public void testTruncatedSnapshotIsRejected() throws IOException {
+		writeSnapshot();
+		RandomAccessFile file = new RandomAccessFile(snapshotFile, "rw"); //NON-NLS
+		try {
+			file.setLength(file.length() - 1);
+		} finally {
+			file.close();
+		}
+		assertRejected();
+	}
+
+	@Test
+	public void testHugeMapSizeIsRejectedBeforeAllocating() throws IOException {
+		writeSnapshot();
+		RandomAccessFile file = new RandomAccessFile(snapshotFile, "rw"); //NON-NLS
+		try {
+			// The map size follows the magic, version and three longs.
+			file.seek(4 + 4 + 8 + 8 + 8);
+			file.writeInt(Integer.MAX_VALUE);
+			file.seek(4 + 4 + 8 + 8 + 8);
+			assertEquals(Integer.MAX_VALUE, file.readInt());
+		} finally {
+			file.close();
+		}
+		assertRejected();
+	}
+
+	@Test
+	public void testCorruptMapIsRejected() throws IOException {
+		writeSnapshot();
+		RandomAccessFile file = new RandomAccessFile(snapshotFile, "rw"); //NON-NLS
+		try {
+			file.seek(file.length() - 1);
+			int last = file.read();
+			file.seek(file.length() - 1);
+			file.write(last ^ 0xFF);
+		} finally {
+			file.close();
+		}
+		assertRejected();
+	}
+
+	private void writeSnapshot() throws IOException {
+		ObjectIdBitmap hasChildren = new ObjectIdBitmap();
+		hasChildren.add(1);
+		hasChildren.add(5);
+		HasChildrenSnapshot.write(snapshotFile, hasChildren, 10, 4096, 0);
+	}
+
+	private void assertRejected() {
+		try {
+			HasChildrenSnapshot.read(snapshotFile);
+			fail("Snapshot should have been rejected");
+		} catch (IOException ex) {
+			// Expected.
+		}
+	}
+}
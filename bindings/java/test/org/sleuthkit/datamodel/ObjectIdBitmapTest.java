@@ -0,0 +1,92 @@
+/*
+ * Sleuth Kit Data Model
+ *
+ * Copyright 2018 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	 http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.datamodel;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.TreeSet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class ObjectIdBitmapTest {
+
+	/**
+	 * Test of add and contains, of class ObjectIdBitmap, against a reference
+	 * set, with chunks that stay sparse and chunks that become dense.
+	 */
+	@Test
+	public void testAddAndContains() {
+		System.out.println("addAndContains");
+		ObjectIdBitmap instance = new ObjectIdBitmap();
+		TreeSet<Long> expected = new TreeSet<Long>();
+		Random random = new Random(42);
+		for (int i = 0; i < 20000; i++) {
+			long id = random.nextInt(1 << 16); // Dense first chunk.
+			instance.add(id);
+			expected.add(id);
+		}
+		for (int i = 0; i < 1000; i++) {
+			long id = (5L << 32) + random.nextInt(1 << 20); // Sparse chunks above 2^32.
+			instance.add(id);
+			expected.add(id);
+		}
+		assertEquals(expected.size(), instance.getCardinality());
+		for (long id = 0; id < (1 << 16); id++) {
+			assertEquals(expected.contains(id), instance.contains(id));
+		}
+		for (Long id : expected) {
+			assertTrue(instance.contains(id));
+		}
+		assertFalse(instance.contains(-1));
+		assertFalse(instance.contains(Long.MAX_VALUE));
+	}
+
+	/**
+	 * Test of write and read, of class ObjectIdBitmap.
+	 */
+	@Test
+	public void testWriteAndRead() throws IOException {
+		System.out.println("writeAndRead");
+		ObjectIdBitmap instance = new ObjectIdBitmap();
+		Random random = new Random(7);
+		for (int i = 0; i < 10000; i++) {
+			instance.add(random.nextInt(200000));
+		}
+		instance.add(0);
+		instance.add(1L << 40);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream output = new DataOutputStream(bytes);
+		instance.write(output);
+		output.close();
+
+		ObjectIdBitmap copy = new ObjectIdBitmap();
+		copy.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		assertEquals(instance.getCardinality(), copy.getCardinality());
+		for (long id = 0; id < 200000; id++) {
+			assertEquals(instance.contains(id), copy.contains(id));
+		}
+		assertTrue(copy.contains(1L << 40));
+	}
+}
@@ -0,0 +1,61 @@
+/*
+ * Sleuth Kit Data Model
+ *
+ * Copyright 2018 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	 http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.datamodel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import org.junit.Test;
+
+public class ObjectIdCacheTest {
+
+	@Test
+	public void testPutAfterInvalidationIsDropped() {
+		ObjectIdCache<String> cache = new ObjectIdCache<String>(10);
+		long generation = cache.getGeneration();
+		// Another thread changes object 1 while this one reads it.
+		cache.invalidate(1);
+		cache.put(1, "stale", generation);
+		assertNull(cache.get(1));
+
+		generation = cache.getGeneration();
+		cache.put(1, "current", generation);
+		assertEquals("current", cache.get(1));
+	}
+
+	@Test
+	public void testPutAfterClearIsDropped() {
+		ObjectIdCache<String> cache = new ObjectIdCache<String>(10);
+		long generation = cache.getGeneration();
+		cache.clear();
+		cache.put(1, "stale", generation);
+		assertNull(cache.get(1));
+	}
+
+	@Test
+	public void testLeastRecentlyUsedIsEvicted() {
+		ObjectIdCache<String> cache = new ObjectIdCache<String>(2);
+		cache.put(1, "one", cache.getGeneration());
+		cache.put(2, "two", cache.getGeneration());
+		cache.get(1);
+		cache.put(3, "three", cache.getGeneration());
+		assertEquals("one", cache.get(1));
+		assertNull(cache.get(2));
+		assertEquals(1, cache.getStats().getEvictions());
+	}
+}
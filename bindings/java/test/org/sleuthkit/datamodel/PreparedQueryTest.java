@@ -0,0 +1,132 @@
+/*
+ * Sleuth Kit Data Model
+ *
+ * Copyright 2018 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	 http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.datamodel;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class PreparedQueryTest {
+
+	@Test
+	public void testListsArePaddedToPowerOfTwo() {
+		assertEquals(Collections.emptyList(), PreparedQuery.pad(Collections.emptyList()));
+		assertEquals(Arrays.<Object>asList(7L), PreparedQuery.pad(Arrays.asList(7L)));
+		assertEquals(Arrays.<Object>asList(1L, 2L, 3L, 3L), PreparedQuery.pad(Arrays.asList(1L, 2L, 3L)));
+		assertEquals(8, PreparedQuery.pad(Arrays.asList(1, 2, 3, 4, 5)).size());
+		assertEquals("?, ?, ?", PreparedQuery.placeholders(3));
+	}
+
+	@Test
+	public void testQueriesWithSimilarListsShareSQL() {
+		PreparedQuery query1 = new PreparedQuery().append("SELECT * FROM accounts WHERE account_id IN (")
+				.appendParameterList(Arrays.asList(1L, 2L, 3L)).append(") AND account_type_id = ").appendParameter(4);
+		PreparedQuery query2 = new PreparedQuery().append("SELECT * FROM accounts WHERE account_id IN (")
+				.appendParameterList(Arrays.asList(5L, 6L, 7L, 8L)).append(") AND account_type_id = ").appendParameter(9);
+		assertEquals("SELECT * FROM accounts WHERE account_id IN (?, ?, ?, ?) AND account_type_id = ?", query1.getSQL());
+		assertEquals(query1.getSQL(), query2.getSQL());
+		assertEquals(Arrays.<Object>asList(1L, 2L, 3L, 3L, 4), query1.getParameters());
+		assertEquals("NULL", new PreparedQuery().appendParameterList(Collections.emptyList()).getSQL());
+	}
+
+	@Test
+	public void testDateRangesShareTemplate() {
+		CommunicationsFilter.DateRangeFilter both = new CommunicationsFilter.DateRangeFilter(1000, 2000);
+		CommunicationsFilter.DateRangeFilter startOnly = new CommunicationsFilter.DateRangeFilter(1000, 0);
+		CommunicationsFilter.DateRangeFilter none = new CommunicationsFilter.DateRangeFilter(0, 0);
+
+		List<Object> parameters = both.getSQLParameters(null);
+		assertEquals(Arrays.<Object>asList(1000L, 2000L + 86400), parameters);
+		assertEquals(Arrays.<Object>asList(1000L, Long.MAX_VALUE), startOnly.getSQLParameters(null));
+		assertTrue(none.getSQLParameters(null).isEmpty());
+		assertEquals(both.getSQLTemplate(2), startOnly.getSQLTemplate(2));
+	}
+
+	/**
+	 * A selection with more values than SQLite allows placeholders must have
+	 * them written into the SQL, and must still select the same rows.
+	 */
+	@Test
+	public void testLargeSelectionsAreInlined() throws SQLException {
+		List<Long> ids = new ArrayList<Long>();
+		for (long id = 0; id < 1500; id++) {
+			ids.add(id * 2);
+		}
+		PreparedQuery large = new PreparedQuery().append("SELECT count(*) AS count FROM accounts WHERE account_id IN (")
+				.appendParameterList(ids).append(") AND account_unique_identifier <> ").appendParameter("it's ?");
+		PreparedQuery small = new PreparedQuery().append("SELECT count(*) AS count FROM accounts WHERE account_id IN (")
+				.appendParameterList(ids.subList(0, 10)).append(")");
+		assertTrue(large.exceedsParameterLimit());
+		assertFalse(small.exceedsParameterLimit());
+		assertFalse(large.getInlinedSQL().contains("?, ?"));
+		assertTrue(large.getInlinedSQL().endsWith("<> 'it''s ?'"));
+
+		Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+		try {
+			Statement statement = connection.createStatement();
+			statement.execute("CREATE TABLE accounts (account_id INTEGER PRIMARY KEY, account_unique_identifier TEXT)");
+			statement.close();
+			PreparedStatement insert = connection.prepareStatement("INSERT INTO accounts VALUES (?, ?)");
+			for (long id = 0; id < 4000; id++) {
+				insert.setLong(1, id);
+				insert.setString(2, id == 0 ? "it's ?" : "account" + id);
+				insert.addBatch();
+			}
+			insert.executeBatch();
+			insert.close();
+
+			assertEquals(1499, count(connection.prepareStatement(large.getInlinedSQL())));
+			PreparedStatement bound = connection.prepareStatement(small.getSQL());
+			small.bind(bound);
+			assertEquals(10, count(bound));
+		} finally {
+			connection.close();
+		}
+	}
+
+	private static long count(PreparedStatement statement) throws SQLException {
+		try {
+			ResultSet resultSet = statement.executeQuery();
+			resultSet.next();
+			return resultSet.getLong("count");
+		} finally {
+			statement.close();
+		}
+	}
+
+	@Test
+	public void testRelationshipTypeTemplate() {
+		CommunicationsFilter.RelationshipTypeFilter filter = new CommunicationsFilter.RelationshipTypeFilter(
+				Arrays.asList(Relationship.Type.MESSAGE, Relationship.Type.CALL_LOG, Relationship.Type.CONTACT));
+		List<Object> parameters = PreparedQuery.pad(filter.getSQLParameters(null));
+		assertEquals(4, parameters.size());
+		assertEquals(" relationships.relationship_type IN ( ?, ?, ?, ? )", filter.getSQLTemplate(parameters.size()));
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ * Sleuth Kit Data Model
+ *
+ * Copyright 2018 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	 http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.datamodel;
+
+import com.mchange.v2.c3p0.DataSources;
+import com.mchange.v2.c3p0.PooledDataSource;
+import java.io.File;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import org.sqlite.SQLiteDataSource;
+
+public class ResizablePooledDataSourceTest {
+
+	@Test
+	public void testResizeWhileCheckoutsAreWaiting() throws Exception {
+		File dbFile = File.createTempFile("resizable-pool", ".db"); //NON-NLS
+		dbFile.deleteOnExit();
+		final SQLiteDataSource unpooled = new SQLiteDataSource();
+		unpooled.setUrl("jdbc:sqlite:" + dbFile.getAbsolutePath()); //NON-NLS
+		final List<PooledDataSource> pools = new ArrayList<PooledDataSource>();
+		final ResizablePooledDataSource dataSource = new ResizablePooledDataSource(new ResizablePooledDataSource.Factory() {
+			@Override
+			public PooledDataSource newPool(int maxPoolSize) throws SQLException {
+				Map<String, String> overrides = new HashMap<String, String>();
+				overrides.put("initialPoolSize", "1"); //NON-NLS
+				overrides.put("minPoolSize", "1"); //NON-NLS
+				overrides.put("maxPoolSize", Integer.toString(maxPoolSize)); //NON-NLS
+				overrides.put("checkoutTimeout", "30000"); //NON-NLS
+				PooledDataSource pool = (PooledDataSource) DataSources.pooledDataSource(unpooled, overrides);
+				pools.add(pool);
+				return pool;
+			}
+		}, 2);
+		try {
+			List<Connection> held = new ArrayList<Connection>();
+			held.add(dataSource.getConnection());
+			held.add(dataSource.getConnection());
+
+			final int waiters = 3;
+			final AtomicInteger failures = new AtomicInteger();
+			final CountDownLatch done = new CountDownLatch(waiters);
+			for (int i = 0; i < waiters; i++) {
+				new Thread(new Runnable() {
+					@Override
+					public void run() {
+						try {
+							dataSource.getConnection().close();
+						} catch (SQLException ex) {
+							failures.incrementAndGet();
+						} finally {
+							done.countDown();
+						}
+					}
+				}).start();
+			}
+			PooledDataSource oldPool = pools.get(0);
+			long deadline = System.currentTimeMillis() + 10000;
+			while (oldPool.getNumThreadsAwaitingCheckoutDefaultUser() < waiters && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			assertEquals(waiters, oldPool.getNumThreadsAwaitingCheckoutDefaultUser());
+
+			dataSource.resize(5);
+			assertEquals(5, dataSource.getMaxPoolSize());
+			assertEquals(1, dataSource.closeDrainedPools());
+
+			// New checkouts go to the larger pool without waiting.
+			for (int i = 0; i < 5; i++) {
+				held.add(dataSource.getConnection());
+			}
+			assertEquals(5, dataSource.getCurrent().getNumBusyConnectionsDefaultUser());
+
+			// The waiting checkouts are served by the old pool, not failed.
+			held.get(0).close();
+			held.get(1).close();
+			assertTrue(done.await(30, TimeUnit.SECONDS));
+			assertEquals(0, failures.get());
+
+			deadline = System.currentTimeMillis() + 10000;
+			while (dataSource.closeDrainedPools() > 0 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			assertEquals(0, dataSource.closeDrainedPools());
+			for (Connection connection : held.subList(2, held.size())) {
+				connection.close();
+			}
+			dataSource.getConnection().close();
+		} finally {
+			dataSource.close();
+			dbFile.delete();
+		}
+	}
+
+	@Test(expected = SQLException.class)
+	public void testClosedPoolRefusesCheckouts() throws SQLException {
+		final SQLiteDataSource unpooled = new SQLiteDataSource();
+		unpooled.setUrl("jdbc:sqlite::memory:"); //NON-NLS
+		ResizablePooledDataSource dataSource = new ResizablePooledDataSource(new ResizablePooledDataSource.Factory() {
+			@Override
+			public PooledDataSource newPool(int maxPoolSize) throws SQLException {
+				Map<String, String> overrides = new HashMap<String, String>();
+				overrides.put("maxPoolSize", Integer.toString(maxPoolSize)); //NON-NLS
+				return (PooledDataSource) DataSources.pooledDataSource(unpooled, overrides);
+			}
+		}, 1);
+		dataSource.close();
+		dataSource.getConnection();
+	}
+}
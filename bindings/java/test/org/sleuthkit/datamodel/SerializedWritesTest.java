@@ -0,0 +1,110 @@
+/*
+ * Sleuth Kit Data Model
+ *
+ * Copyright 2018 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	 http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.datamodel;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.AfterClass;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests writes to a single-user case with setSerializeWrites(true) from
+ * threads that take the locks along different paths.
+ */
+public class SerializedWritesTest {
+
+	private static final String TEST_DB = "SerializedWritesTest.db";
+	private static final int ITERATIONS = 200;
+
+	private static SleuthkitCase caseDB;
+	private static LocalFilesDataSource dataSource;
+
+	@BeforeClass
+	public static void setUpClass() throws TskCoreException {
+		File dbFile = new File(System.getProperty("java.io.tmpdir"), TEST_DB);
+		dbFile.delete();
+		caseDB = SleuthkitCase.newCase(dbFile.getPath());
+		caseDB.setSerializeWrites(true);
+
+		SleuthkitCase.CaseDbTransaction trans = caseDB.beginTransaction();
+		dataSource = caseDB.addLocalFilesDataSource("serialized-writes-device", "rootdir", "", trans);
+		trans.commit();
+	}
+
+	@AfterClass
+	public static void tearDownClass() {
+		if (caseDB != null) {
+			caseDB.close();
+		}
+	}
+
+	/**
+	 * One thread begins transactions and then takes the single-user case write
+	 * lock inside them, the other takes the write lock and then writes outside
+	 * of a transaction. Both must finish.
+	 */
+	@Test(timeout = 60000)
+	public void testTransactionsAndLockedUpdatesDoNotDeadlock() throws Exception {
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+		Thread transactions = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					for (int i = 0; i < ITERATIONS; i++) {
+						SleuthkitCase.CaseDbTransaction trans = caseDB.beginTransaction();
+						try {
+							caseDB.addVirtualDirectory(dataSource.getId(), "dir" + i, trans);
+							trans.commit();
+						} catch (TskCoreException ex) {
+							trans.rollback();
+							throw ex;
+						}
+					}
+				} catch (Throwable ex) {
+					failure.compareAndSet(null, ex);
+				}
+			}
+		});
+
+		Thread updates = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					for (int i = 0; i < ITERATIONS; i++) {
+						caseDB.setFileMIMEType(dataSource, "application/x-test-" + i);
+					}
+				} catch (Throwable ex) {
+					failure.compareAndSet(null, ex);
+				}
+			}
+		});
+
+		transactions.start();
+		updates.start();
+		transactions.join();
+		updates.join();
+
+		assertNull(failure.get());
+		assertEquals(ITERATIONS, caseDB.getAbstractFileChildren(dataSource, TskData.TSK_DB_FILES_TYPE_ENUM.VIRTUAL_DIR).size());
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * Sleuth Kit Data Model
+ *
+ * Copyright 2018 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	 http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.datamodel;
+
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import org.junit.Test;
+
+public class TypeRegistryTest {
+
+	private static final TypeRegistry.Keys<BlackboardArtifact.Type> KEYS = new TypeRegistry.Keys<BlackboardArtifact.Type>() {
+		@Override
+		public int getTypeId(BlackboardArtifact.Type type) {
+			return type.getTypeID();
+		}
+
+		@Override
+		public String getTypeName(BlackboardArtifact.Type type) {
+			return type.getTypeName();
+		}
+	};
+
+	/**
+	 * Test of with and get, of class TypeRegistry, with standard and custom
+	 * type ids, checking that registries are not changed by adding types.
+	 */
+	@Test
+	public void testWithAndGet() {
+		System.out.println("withAndGet");
+		TypeRegistry<BlackboardArtifact.Type> empty = new TypeRegistry<BlackboardArtifact.Type>(KEYS);
+		List<BlackboardArtifact.Type> standardTypes = new ArrayList<BlackboardArtifact.Type>();
+		for (BlackboardArtifact.ARTIFACT_TYPE type : BlackboardArtifact.ARTIFACT_TYPE.values()) {
+			standardTypes.add(new BlackboardArtifact.Type(type));
+		}
+		TypeRegistry<BlackboardArtifact.Type> standard = empty.with(standardTypes);
+		BlackboardArtifact.Type customType = new BlackboardArtifact.Type(10000, "TSK_TEST_CUSTOM", "Custom");
+		TypeRegistry<BlackboardArtifact.Type> withCustom = standard.with(customType);
+
+		for (BlackboardArtifact.Type type : standardTypes) {
+			assertSame(type, withCustom.get(type.getTypeID()));
+			assertSame(type, withCustom.get(type.getTypeName()));
+		}
+		assertSame(customType, withCustom.get(10000));
+		assertSame(customType, withCustom.get("TSK_TEST_CUSTOM"));
+		assertEquals(standardTypes.size() + 1, withCustom.getTypes().size());
+
+		assertNull(standard.get(10000));
+		assertNull(standard.get("TSK_TEST_CUSTOM"));
+		assertNull(empty.get(BlackboardArtifact.ARTIFACT_TYPE.TSK_KEYWORD_HIT.getTypeID()));
+		assertNull(withCustom.get(-1));
+		assertNull(withCustom.get(null));
+		assertEquals(0, withCustom.cleared().getTypes().size());
+	}
+}
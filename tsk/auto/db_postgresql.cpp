@@ -495,6 +495,10 @@ int TskDbPostgreSQL::initialize() {
         return 1;
     }
 
+    if (attempt_exec("CREATE TABLE tsk_db_info_extended (name TEXT PRIMARY KEY, value TEXT NOT NULL);","Error creating tsk_db_info_extended table: %s\n")) {
+        return 1;
+    }
+
     // ELTODO: change INTEGER (4 bytes) fields to SMALLINT (2 bytes) to use less memory for enum fields
 
     if (attempt_exec("CREATE TABLE tsk_objects (obj_id BIGSERIAL PRIMARY KEY, par_obj_id BIGINT, type INTEGER NOT NULL);","Error creating tsk_objects table: %s\n")
@@ -578,6 +582,11 @@ int TskDbPostgreSQL::initialize() {
 		"FOREIGN KEY(artifact_id) REFERENCES blackboard_artifacts(artifact_id), FOREIGN KEY(artifact_type_id) REFERENCES blackboard_artifact_types(artifact_type_id), FOREIGN KEY(attribute_type_id) REFERENCES blackboard_attribute_types(attribute_type_id))",
 		"Error creating blackboard_attribute table: %s\n")
 	||
+	attempt_exec
+	("CREATE TABLE blackboard_artifact_fingerprints (artifact_id BIGINT PRIMARY KEY, obj_id BIGINT NOT NULL, fingerprint BIGINT NOT NULL, "
+		"FOREIGN KEY(artifact_id) REFERENCES blackboard_artifacts(artifact_id))",
+		"Error creating blackboard_artifact_fingerprints table: %s\n")
+	||
 	/* In PostgreSQL "desc" indicates "descending order" so I had to rename "desc TEXT" to "descr TEXT". Should I also make this change for SQLite?*/
 	attempt_exec
 	("CREATE TABLE tsk_vs_parts (obj_id BIGSERIAL PRIMARY KEY, addr BIGINT NOT NULL, start BIGINT NOT NULL, length BIGINT NOT NULL, descr TEXT, flags INTEGER NOT NULL, FOREIGN KEY(obj_id) REFERENCES tsk_objects(obj_id));",
@@ -654,6 +663,8 @@ int TskDbPostgreSQL::createIndexes() {
 			"Error creating artifact_objID index on blackboard_artifacts: %s\n") ||
 		attempt_exec("CREATE INDEX attrsArtifactID ON blackboard_attributes(artifact_id);",
 			"Error creating artifact_id index on blackboard_attributes: %s\n") ||
+		attempt_exec("CREATE INDEX artifact_fingerprint ON blackboard_artifact_fingerprints(fingerprint);",
+			"Error creating artifact_fingerprint index on blackboard_artifact_fingerprints: %s\n") ||
 		//file type indexes
 		attempt_exec("CREATE INDEX mime_type ON tsk_files(dir_type,mime_type,type);", //mime type
 			"Error creating mime_type index on tsk_files: %s\n") ||
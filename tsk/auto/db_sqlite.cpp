@@ -247,6 +247,12 @@ int
         return 1;
     }
 
+    if (attempt_exec
+        ("CREATE TABLE tsk_db_info_extended (name TEXT PRIMARY KEY, value TEXT NOT NULL);",
+        "Error creating tsk_db_info_extended table: %s\n")) {
+            return 1;
+    }
+
     if (attempt_exec
         ("CREATE TABLE tsk_objects (obj_id INTEGER PRIMARY KEY, par_obj_id INTEGER, type INTEGER NOT NULL);",
         "Error creating tsk_objects table: %s\n")
@@ -335,6 +341,11 @@ int
 		"Error creating blackboard_attribute table: %s\n")
 	||
 	attempt_exec
+	("CREATE TABLE blackboard_artifact_fingerprints (artifact_id INTEGER PRIMARY KEY, obj_id INTEGER NOT NULL, fingerprint INTEGER NOT NULL, "
+		"FOREIGN KEY(artifact_id) REFERENCES blackboard_artifacts(artifact_id))",
+		"Error creating blackboard_artifact_fingerprints table: %s\n")
+	||
+	attempt_exec
 	("CREATE TABLE blackboard_artifact_types (artifact_type_id INTEGER PRIMARY KEY, type_name TEXT NOT NULL, display_name TEXT)",
 		"Error creating blackboard_artifact_types table: %s\n")
 	||
@@ -414,6 +425,8 @@ int TskDbSqlite::createIndexes() {
 			"Error creating artifact_objID index on blackboard_artifacts: %s\n") ||
 		attempt_exec("CREATE INDEX attrsArtifactID ON blackboard_attributes(artifact_id);",
 			"Error creating artifact_id index on blackboard_attributes: %s\n") ||
+		attempt_exec("CREATE INDEX artifact_fingerprint ON blackboard_artifact_fingerprints(fingerprint);",
+			"Error creating artifact_fingerprint index on blackboard_artifact_fingerprints: %s\n") ||
 		//file type indexes
 		attempt_exec("CREATE INDEX mime_type ON tsk_files(dir_type,mime_type,type);", //mime type
 			"Error creating mime_type index on tsk_files: %s\n") ||